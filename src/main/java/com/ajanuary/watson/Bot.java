@@ -2,8 +2,10 @@ package com.ajanuary.watson;
 
 import com.ajanuary.watson.alarms.AlarmsModule;
 import com.ajanuary.watson.api.ApiModule;
+import com.ajanuary.watson.calendar.CalendarModule;
 import com.ajanuary.watson.config.Config;
 import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.follows.FollowsModule;
 import com.ajanuary.watson.membership.MembersApiClient;
 import com.ajanuary.watson.membership.MembershipChecker;
 import com.ajanuary.watson.membership.MembershipModule;
@@ -12,8 +14,12 @@ import com.ajanuary.watson.notification.EventDispatcher;
 import com.ajanuary.watson.notification.ReadyEvent;
 import com.ajanuary.watson.portalapi.PortalApiClient;
 import com.ajanuary.watson.programme.ProgrammeModule;
+import com.ajanuary.watson.programme.ProgrammeSnapshot;
+import com.ajanuary.watson.scheduling.Timers;
+import com.ajanuary.watson.search.SearchModule;
 import java.net.http.HttpClient;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.entities.Activity;
 import net.dv8tion.jda.api.entities.Member;
@@ -28,9 +34,13 @@ public class Bot {
 
   public Bot(Config config) throws InterruptedException {
     DatabaseManager databaseManager;
+    AtomicReference<ProgrammeSnapshot> programmeSnapshot;
     try {
       databaseManager = new DatabaseManager(config.databasePath());
       databaseManager.init();
+      try (var conn = databaseManager.getConnection()) {
+        programmeSnapshot = new AtomicReference<>(ProgrammeSnapshot.load(conn));
+      }
     } catch (SQLException e) {
       throw new RuntimeException(e);
     }
@@ -62,15 +72,40 @@ public class Bot {
     }
 
     var eventDispatcher = new EventDispatcher();
+    var timers = new Timers();
+    Runtime.getRuntime().addShutdownHook(new Thread(timers::close, "timers-shutdown"));
     config
         .alarms()
         .ifPresent(
             alarmsConfig ->
-                new AlarmsModule(jda, alarmsConfig, config, databaseManager, eventDispatcher));
+                new AlarmsModule(
+                    jda,
+                    alarmsConfig,
+                    config,
+                    databaseManager,
+                    eventDispatcher,
+                    programmeSnapshot,
+                    timers));
     config
         .api()
         .ifPresent(
             apiConfig -> new ApiModule(jda, apiConfig, config, databaseManager, eventDispatcher));
+    config
+        .calendar()
+        .ifPresent(
+            calendarConfig ->
+                new CalendarModule(jda, calendarConfig, config, databaseManager, eventDispatcher));
+    config
+        .follows()
+        .ifPresent(
+            followsConfig ->
+                new FollowsModule(
+                    jda,
+                    followsConfig,
+                    config.programme().get(),
+                    config,
+                    databaseManager,
+                    eventDispatcher));
     config
         .membership()
         .ifPresent(
@@ -85,7 +120,7 @@ public class Bot {
         .newsletter()
         .ifPresent(
             newsletterConfig ->
-                new NewsletterModule(jda, newsletterConfig, config, databaseManager));
+                new NewsletterModule(jda, newsletterConfig, config, databaseManager, timers));
     config
         .programme()
         .ifPresent(
@@ -96,7 +131,14 @@ public class Bot {
                     config,
                     databaseManager,
                     portalApiClient,
-                    eventDispatcher));
+                    eventDispatcher,
+                    programmeSnapshot,
+                    timers));
+    config
+        .search()
+        .ifPresent(
+            searchConfig ->
+                new SearchModule(jda, searchConfig, config, databaseManager, eventDispatcher));
 
     eventDispatcher.dispatch(new ReadyEvent());
   }
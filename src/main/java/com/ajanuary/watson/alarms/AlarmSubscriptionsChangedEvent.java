@@ -0,0 +1,5 @@
+package com.ajanuary.watson.alarms;
+
+import com.ajanuary.watson.notification.Event;
+
+public record AlarmSubscriptionsChangedEvent(String userId) implements Event {}
@@ -9,7 +9,10 @@ public record AlarmsConfig(
     String alarmsChannel,
     TemporalAmount timeBeforeToNotify,
     TemporalAmount maxTimeAfterToNotify,
-    TemporalAmount minTimeBetweenDMs) {
+    TemporalAmount minTimeBetweenDMs,
+    TemporalAmount dmCoalesceWindow,
+    int maxDMBurst,
+    int maxConcurrentDMs) {
 
   public void validateDiscordConfig(JDAUtils jdaUtils) {
     jdaUtils.getMessageChannel(alarmsChannel());
@@ -2,6 +2,7 @@ package com.ajanuary.watson.alarms;
 
 import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
 import java.time.Duration;
+import java.util.Optional;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
 
 public class AlarmsConfigYamlParser {
@@ -31,8 +32,35 @@ public class AlarmsConfigYamlParser {
             .string()
             .required()
             .map(AlarmsConfigYamlParser::parseDuration);
+    var dmCoalesceWindow =
+        configParser
+            .get("dmCoalesceWindow")
+            .string()
+            .defaultingTo("1m")
+            .map(AlarmsConfigYamlParser::parseDuration);
+    var maxDMBurst =
+        configParser
+            .get("maxDMBurst")
+            .integer()
+            .defaultingTo(10)
+            .validate(value -> value < 1 ? Optional.of("must be at least 1") : Optional.empty())
+            .value();
+    var maxConcurrentDMs =
+        configParser
+            .get("maxConcurrentDMs")
+            .integer()
+            .defaultingTo(4)
+            .validate(value -> value < 1 ? Optional.of("must be at least 1") : Optional.empty())
+            .value();
     return new AlarmsConfig(
-        alarmEmoji, alarmsChannel, timeBeforeToNotify, maxTimeAfterToNotify, minTimeBetweenDMs);
+        alarmEmoji,
+        alarmsChannel,
+        timeBeforeToNotify,
+        maxTimeAfterToNotify,
+        minTimeBetweenDMs,
+        dmCoalesceWindow,
+        maxDMBurst,
+        maxConcurrentDMs);
   }
 
   private static Duration parseDuration(String value) {
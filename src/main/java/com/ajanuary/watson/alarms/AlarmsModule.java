@@ -5,87 +5,257 @@ import com.ajanuary.watson.db.DatabaseManager;
 import com.ajanuary.watson.notification.EventDispatcher;
 import com.ajanuary.watson.privatethreads.PrivateThreadManager;
 import com.ajanuary.watson.programme.DiscordThread;
-import com.ajanuary.watson.programme.ItemChangedEvent;
+import com.ajanuary.watson.programme.ItemChange;
+import com.ajanuary.watson.programme.ItemsChangedEvent;
+import com.ajanuary.watson.programme.ProgrammeSnapshot;
+import com.ajanuary.watson.scheduling.Scheduler;
+import com.ajanuary.watson.scheduling.Timers;
+import com.ajanuary.watson.scheduling.TokenBucket;
 import com.ajanuary.watson.utils.JDAUtils;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel.AutoArchiveDuration;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.message.react.GenericMessageReactionEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
+import net.dv8tion.jda.api.exceptions.RateLimitedException;
+import net.dv8tion.jda.api.hooks.EventListener;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class AlarmsModule {
+public class AlarmsModule implements EventListener {
 
-  private final Logger logger = LoggerFactory.getLogger(Scheduler.class);
+  // How many due reminders are claimed at a time, so a backlog is read a page at a time.
+  private static final int DM_CLAIM_BATCH_SIZE = 500;
+  // How long claimed reminders are left before they're claimed again, in case the bot stopped
+  // before sending them.
+  private static final Duration DM_CLAIM_TIMEOUT = Duration.ofMinutes(5);
+
+  private final Logger logger = LoggerFactory.getLogger(AlarmsModule.class);
 
   private final JDA jda;
   private final JDAUtils jdaUtils;
   private final AlarmsConfig alarmsConfig;
   private final Config config;
   private final DatabaseManager databaseManager;
-  private final Scheduler<WithId<ScheduledDM>> dmScheduler;
+  private final EventDispatcher eventDispatcher;
+  private final AtomicReference<ProgrammeSnapshot> programmeSnapshot;
+  private final Clock clock;
+  // The items whose alarms have been scheduled. Written through to the database, so it survives a
+  // restart.
+  private final Set<String> processedItemIds = ConcurrentHashMap.newKeySet();
+  private final TokenBucket dmRateLimit;
+  private final Scheduler<ReminderMessage> dmScheduler;
   private final PrivateThreadManager privateThreadManager;
+  // The reminders that were overdue when the bot started, until they've all been sent.
+  private volatile Optional<CatchUp> catchingUp = Optional.empty();
 
   public AlarmsModule(
       JDA jda,
       AlarmsConfig alarmsConfig,
       Config config,
       DatabaseManager databaseManager,
-      EventDispatcher eventDispatcher) {
+      EventDispatcher eventDispatcher,
+      AtomicReference<ProgrammeSnapshot> programmeSnapshot,
+      Timers timers) {
     this.jda = jda;
     this.jdaUtils = new JDAUtils(jda, config);
     this.alarmsConfig = alarmsConfig;
     this.config = config;
     this.databaseManager = databaseManager;
+    this.eventDispatcher = eventDispatcher;
+    this.programmeSnapshot = programmeSnapshot;
+    this.clock = timers.clock();
+    try (var conn = databaseManager.getConnection()) {
+      catchUp(conn);
+      processedItemIds.addAll(conn.getAlarmsProcessedItemIds());
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
 
     var itemScheduler =
         new Scheduler<>(
             "alarm item",
+            timers,
             Duration.ZERO,
             this::getNextItemTime,
             this::getItemsBefore,
             this::handleItem);
-    eventDispatcher.register(ItemChangedEvent.class, e -> itemScheduler.notifyOfDbChange());
+    eventDispatcher.register(
+        ItemsChangedEvent.class,
+        e -> {
+          // Alarms are scheduled from an item's start time, so only new or moved items matter.
+          if (e.changes().stream().anyMatch(AlarmsModule::affectsAlarms)) {
+            itemScheduler.notifyOfDbChange();
+          }
+        });
+    this.privateThreadManager = new PrivateThreadManager(jda, "alarms");
+    this.dmRateLimit = dmRateLimit(alarmsConfig, clock);
+    // Each user's reminders go to their own private thread, so only one is sent to a user at a time
+    // to keep within the per-channel limit, and users are sent to concurrently.
     this.dmScheduler =
         new Scheduler<>(
             "dm",
-            alarmsConfig.minTimeBetweenDMs(),
+            timers,
+            dmRateLimit,
+            alarmsConfig.maxConcurrentDMs(),
+            ReminderMessage::userId,
             this::getNextScheduledDMTime,
-            this::getScheduledDMsBefore,
-            this::sendDM);
+            this::getDueDMs,
+            this::sendDMs);
 
-    this.privateThreadManager = new PrivateThreadManager(jda, "alarms");
+    jda.addEventListener(this);
+    // Started after listening for reactions, so none are missed between the two.
+    timers.submit(this::reconcileSubscriptions);
+    new ReminderThreadProvisioner(
+            databaseManager,
+            privateThreadManager,
+            programmeSnapshot,
+            this::createReminderThread,
+            alarmsConfig.timeBeforeToNotify(),
+            timers)
+        .start();
   }
 
-  private Optional<ZonedDateTime> getNextItemTime() throws SQLException {
-    try (var conn = databaseManager.getConnection()) {
-      return conn.getNextItemTime().map(t -> t.minus(alarmsConfig.timeBeforeToNotify()));
+  /**
+   * Sorts out the reminders that became due while the bot wasn't running, before any are sent.
+   * Those too late to be worth sending are dropped in bulk, rather than one at a time as they come
+   * up. The rest are left to be sent as usual, the most overdue first, at the usual rate.
+   */
+  private void catchUp(DatabaseManager.DatabaseConnection conn) throws SQLException {
+    var now = ZonedDateTime.now(clock);
+    var numExpiredItems =
+        conn.markAlarmsProcessedForItemsStartingBefore(
+                now.minus(alarmsConfig.maxTimeAfterToNotify()))
+            .size();
+    var numExpiredDMs =
+        conn.purgeScheduledDMsBefore(
+            now.minus(alarmsConfig.timeBeforeToNotify())
+                .minus(alarmsConfig.maxTimeAfterToNotify()));
+    // Nothing else sends reminders, so anything claimed was claimed before the bot last stopped.
+    var numReclaimed = conn.releaseAllScheduledDMs();
+    var overdue = conn.getOverdueDMs(now);
+    logger.info(
+        "Catching up on reminders. Dropped the alarms for {} items and {} reminders that were too"
+            + " late to send. {} reminders are overdue, the earliest due at {}, including {} that"
+            + " were being sent when the bot stopped",
+        numExpiredItems,
+        numExpiredDMs,
+        overdue.count(),
+        overdue.earliest().map(Object::toString).orElse("-"),
+        numReclaimed);
+    if (overdue.count() > 0) {
+      catchingUp = Optional.of(new CatchUp(now, overdue.count()));
     }
   }
 
-  private List<DiscordThread> getItemsBefore(ZonedDateTime time) throws SQLException {
+  static TokenBucket dmRateLimit(AlarmsConfig alarmsConfig, Clock clock) {
+    var interval = Duration.from(alarmsConfig.minTimeBetweenDMs());
+    if (interval.isZero()) {
+      return TokenBucket.spacedBy(clock, interval);
+    }
+    return new TokenBucket(clock, 1_000_000_000.0 / interval.toNanos(), alarmsConfig.maxDMBurst());
+  }
+
+  static boolean affectsAlarms(ItemChange change) {
+    return change.after().isPresent()
+        && change
+            .before()
+            .map(before -> before.startEpochSecond() != change.after().get().startEpochSecond())
+            .orElse(true);
+  }
+
+  /**
+   * Keeps alarm_subscriptions up to date as users react to programme posts, so who wants reminding
+   * about what is known without fetching the reactions from Discord.
+   */
+  @Override
+  public void onEvent(@NotNull GenericEvent event) {
+    if (!(event instanceof GenericMessageReactionEvent reactionEvent)
+        || !reactionEvent.isFromGuild()
+        || !reactionEvent.getGuild().getId().equals(config.guildId())
+        || !reactionEvent.getEmoji().equals(alarmsConfig.alarmEmoji())
+        || reactionEvent.getUserId().equals(jda.getSelfUser().getId())
+        || (reactionEvent.getUser() != null && reactionEvent.getUser().isBot())) {
+      return;
+    }
+
+    var userId = reactionEvent.getUserId();
     try (var conn = databaseManager.getConnection()) {
-      return conn.getItemsBefore(time.plus(alarmsConfig.timeBeforeToNotify()));
+      var programmeItemId = conn.getProgrammeItemIdForMessage(reactionEvent.getMessageId());
+      if (programmeItemId.isEmpty()) {
+        return;
+      }
+      if (reactionEvent instanceof MessageReactionAddEvent) {
+        conn.addAlarmSubscriptions(programmeItemId.get(), List.of(userId));
+      } else if (reactionEvent instanceof MessageReactionRemoveEvent) {
+        conn.removeAlarmSubscription(programmeItemId.get(), userId);
+      } else {
+        return;
+      }
+    } catch (SQLException e) {
+      logger.error("Error recording alarm reaction from user {}", userId, e);
+      return;
     }
+    eventDispatcher.dispatch(new AlarmSubscriptionsChangedEvent(userId));
+  }
+
+  private Optional<ZonedDateTime> getNextItemTime() {
+    return programmeSnapshot.get().all().stream()
+        .filter(t -> !processedItemIds.contains(t.item().id()))
+        .findFirst()
+        .map(
+            t ->
+                Instant.ofEpochSecond(t.item().startEpochSecond())
+                    .atZone(config.timezone())
+                    .minus(alarmsConfig.timeBeforeToNotify()));
+  }
+
+  private List<DiscordThread> getItemsBefore(ZonedDateTime time) {
+    var maxStart = time.plus(alarmsConfig.timeBeforeToNotify()).toEpochSecond();
+    return programmeSnapshot.get().startingAtOrBefore(maxStart).stream()
+        .filter(t -> !processedItemIds.contains(t.item().id()))
+        .toList();
   }
 
   private void handleItem(DiscordThread discordThread) {
+    processedItemIds.add(discordThread.item().id());
+    List<String> subscribers;
     try (var conn = databaseManager.getConnection()) {
       conn.markThreadAsProcessed(discordThread.item().id());
+      subscribers = conn.getAlarmSubscribers(discordThread.item().id());
     } catch (SQLException e) {
       logger.error("Error marking thread as processed", e);
       return;
     }
 
-    if (discordThread.discordThreadId().isEmpty() || discordThread.discordMessageId().isEmpty()) {
+    if (subscribers.isEmpty()
+        || discordThread.discordThreadId().isEmpty()
+        || discordThread.discordMessageId().isEmpty()) {
       return;
     }
 
@@ -95,13 +265,6 @@ public class AlarmsModule {
         .retrieveMessageById(discordThread.discordMessageId().get())
         .queue(
             message -> {
-              var reaction = message.getReaction(alarmsConfig.alarmEmoji());
-              if (reaction == null) {
-                logger.warn(
-                    "Couldn't get the reaction on the message. This is usually because the time was set too soon.");
-                return;
-              }
-
               Optional<String> tags;
               if (!threadChannel.getAppliedTags().isEmpty()) {
                 tags =
@@ -113,124 +276,291 @@ public class AlarmsModule {
                 tags = Optional.empty();
               }
 
-              reaction
-                  .retrieveUsers()
-                  .queue(
-                      users -> {
-                        try (var conn = databaseManager.getConnection()) {
-                          for (var user : users) {
-                            if (user.isBot()) {
-                              continue;
-                            }
-
-                            var scheduledDM =
-                                new ScheduledDM(
-                                    discordThread.discordThreadId().get(),
-                                    discordThread.discordMessageId().get(),
-                                    user.getId(),
-                                    discordThread
-                                        .item()
-                                        .startTime()
-                                        .minus(alarmsConfig.timeBeforeToNotify()),
-                                    threadChannel.getName(),
-                                    threadChannel.getJumpUrl(),
-                                    message.getContentRaw(),
-                                    tags);
-                            conn.addScheduledDM(scheduledDM);
-                          }
-                        } catch (SQLException e) {
-                          logger.error("Error adding DM for item {}", discordThread.item().id(), e);
-                        }
-
-                        dmScheduler.notifyOfDbChange();
-                      },
-                      error ->
-                          logger.error(
-                              "Error getting users who reacted to the message {}",
-                              discordThread.discordMessageId(),
-                              error));
+              var messageTime =
+                  discordThread
+                      .item()
+                      .startTime(config.timezone())
+                      .minus(alarmsConfig.timeBeforeToNotify());
+              var scheduledDMs =
+                  subscribers.stream()
+                      .map(
+                          userId ->
+                              new ScheduledDM(
+                                  discordThread.discordThreadId().get(),
+                                  discordThread.discordMessageId().get(),
+                                  userId,
+                                  messageTime,
+                                  threadChannel.getName(),
+                                  threadChannel.getJumpUrl(),
+                                  message.getContentRaw(),
+                                  tags))
+                      .toList();
+              try (var conn = databaseManager.getConnection()) {
+                conn.addScheduledDMs(scheduledDMs);
+              } catch (SQLException e) {
+                logger.error("Error adding DM for item {}", discordThread.item().id(), e);
+              }
+
+              dmScheduler.notifyOfDbChange();
             },
             error ->
                 logger.error(
                     "Error getting message for thread {}", discordThread.discordThreadId(), error));
   }
 
+  /**
+   * Records reactions that were added while the bot wasn't running to see them, for the items
+   * whose alarms haven't gone off yet.
+   *
+   * <p>Subscriptions are only ever added here. A subscription that has no reaction may have been
+   * carried over from a post that was recreated, so it can't be told apart from a reaction that was
+   * removed while the bot was down.
+   */
+  private void reconcileSubscriptions() {
+    var start = System.currentTimeMillis();
+    var numChecked = 0;
+    var changedUserIds = new LinkedHashSet<String>();
+    for (var discordThread : programmeSnapshot.get().all()) {
+      var itemId = discordThread.item().id();
+      if (processedItemIds.contains(itemId)
+          || discordThread.discordThreadId().isEmpty()
+          || discordThread.discordMessageId().isEmpty()) {
+        continue;
+      }
+      var threadChannel = jda.getThreadChannelById(discordThread.discordThreadId().get());
+      if (threadChannel == null) {
+        continue;
+      }
+      try {
+        var message =
+            threadChannel.retrieveMessageById(discordThread.discordMessageId().get()).complete();
+        numChecked++;
+        var reaction = message.getReaction(alarmsConfig.alarmEmoji());
+        if (reaction == null || reaction.getCount() <= (reaction.isSelf() ? 1 : 0)) {
+          continue;
+        }
+        var reactors =
+            reaction.retrieveUsers().stream()
+                .filter(user -> !user.isBot())
+                .map(User::getId)
+                .toList();
+        try (var conn = databaseManager.getConnection()) {
+          var missing = missingSubscribers(reactors, conn.getAlarmSubscribers(itemId));
+          if (!missing.isEmpty()) {
+            conn.addAlarmSubscriptions(itemId, missing);
+            changedUserIds.addAll(missing);
+          }
+        }
+      } catch (SQLException | RuntimeException e) {
+        logger.error("Error reconciling alarm subscriptions for item {}", itemId, e);
+      }
+    }
+    for (var userId : changedUserIds) {
+      eventDispatcher.dispatch(new AlarmSubscriptionsChangedEvent(userId));
+    }
+    logger.info(
+        "Reconciled alarm subscriptions for {} items in {}ms. {} users had missing subscriptions",
+        numChecked,
+        System.currentTimeMillis() - start,
+        changedUserIds.size());
+  }
+
+  static List<String> missingSubscribers(Collection<String> reactors, Collection<String> existing) {
+    var existingSet = Set.copyOf(existing);
+    return reactors.stream().filter(userId -> !existingSet.contains(userId)).distinct().toList();
+  }
+
   private Optional<ZonedDateTime> getNextScheduledDMTime() throws SQLException, IOException {
     try (var conn = databaseManager.getConnection()) {
-      return conn.getNextScheduledDMTime();
+      var next = conn.getNextScheduledDMTime();
+      var catchUp = catchingUp;
+      if (catchUp.isPresent()
+          && (next.isEmpty() || next.get().isAfter(catchUp.get().startedAt()))) {
+        catchingUp = Optional.empty();
+        logger.info(
+            "Caught up on {} overdue reminders in {}ms",
+            catchUp.get().numOverdue(),
+            Duration.between(catchUp.get().startedAt(), ZonedDateTime.now(clock)).toMillis());
+      }
+      return next;
     }
   }
 
-  private List<WithId<ScheduledDM>> getScheduledDMsBefore(ZonedDateTime localDateTime)
-      throws SQLException, IOException {
+  private List<ReminderMessage> getDueDMs(ZonedDateTime time) throws SQLException, IOException {
     try (var conn = databaseManager.getConnection()) {
-      return conn.getScheduledDMsBefore(localDateTime);
+      var dueDMs =
+          groupByUser(
+              conn.claimScheduledDMs(
+                  time,
+                  time.plus(alarmsConfig.dmCoalesceWindow()),
+                  ZonedDateTime.now(clock).plus(DM_CLAIM_TIMEOUT),
+                  DM_CLAIM_BATCH_SIZE),
+              time);
+
+      var now = ZonedDateTime.now(clock);
+      var toSend = new ArrayList<DueDMs>();
+      var tooLate = new ArrayList<Integer>();
+      for (var userDMs : dueDMs) {
+        var userToSend = new ArrayList<WithId<ScheduledDM>>();
+        for (var dmWithId : userDMs.dms()) {
+          if (dmWithId
+              .value()
+              .messageTime()
+              .plus(alarmsConfig.timeBeforeToNotify())
+              .plus(alarmsConfig.maxTimeAfterToNotify())
+              .isAfter(now)) {
+            userToSend.add(dmWithId);
+          } else {
+            logger.warn(
+                "DM {} is being processed too late after it's scheduled time of {}. Ignoring",
+                dmWithId.id(),
+                dmWithId.value().messageTime());
+            tooLate.add(dmWithId.id());
+          }
+        }
+        if (!userToSend.isEmpty()) {
+          toSend.add(new DueDMs(userDMs.userId(), userToSend));
+        }
+      }
+      if (!tooLate.isEmpty()) {
+        conn.deleteScheduledDMs(tooLate);
+      }
+      return toMessages(toSend);
     }
   }
 
-  private void sendDM(WithId<ScheduledDM> dmWithId) {
-    try (var conn = databaseManager.getConnection()) {
-      try {
-        conn.deleteScheduledDM(dmWithId.id());
-      } catch (SQLException e) {
-        logger.error("Error deleting scheduled DM {}", dmWithId.id(), e);
-        return;
+  /**
+   * Groups the reminders by user, for the users who have a reminder due by the given time. Expects
+   * the reminders in the order they're due, and keeps the users in the order their first reminder
+   * is due.
+   */
+  static List<DueDMs> groupByUser(List<WithId<ScheduledDM>> dms, ZonedDateTime dueBy) {
+    var byUser = new LinkedHashMap<String, List<WithId<ScheduledDM>>>();
+    for (var dm : dms) {
+      byUser.computeIfAbsent(dm.value().userId(), k -> new ArrayList<>()).add(dm);
+    }
+    return byUser.entrySet().stream()
+        .filter(e -> !e.getValue().get(0).value().messageTime().isAfter(dueBy))
+        .map(e -> new DueDMs(e.getKey(), e.getValue()))
+        .toList();
+  }
+
+  /**
+   * Splits the reminders into as few messages as they'll fit in, given Discord's limits on how many
+   * embeds a message can have and how long they can be in total.
+   */
+  static List<List<WithId<ScheduledDM>>> splitIntoMessages(List<WithId<ScheduledDM>> dms) {
+    var messages = new ArrayList<List<WithId<ScheduledDM>>>();
+    var current = new ArrayList<WithId<ScheduledDM>>();
+    var currentLength = 0;
+    for (var dm : dms) {
+      var length = toEmbed(dm.value()).getLength();
+      if (!current.isEmpty()
+          && (current.size() == Message.MAX_EMBED_COUNT
+              || currentLength + length > MessageEmbed.EMBED_MAX_LENGTH_BOT)) {
+        messages.add(current);
+        current = new ArrayList<>();
+        currentLength = 0;
       }
+      current.add(dm);
+      currentLength += length;
+    }
+    if (!current.isEmpty()) {
+      messages.add(current);
+    }
+    return messages;
+  }
 
-      var dm = dmWithId.value();
-      if (!dm.messageTime()
-          .plus(alarmsConfig.timeBeforeToNotify())
-          .plus(alarmsConfig.maxTimeAfterToNotify())
-          .isAfter(ZonedDateTime.now())) {
-        logger.warn(
-            "DM {} is being processed too late after it's scheduled time of {}. Ignoring",
-            dmWithId.id(),
-            dm.messageTime());
-        return;
+  /**
+   * Splits each user's reminders into the messages they'll be sent in. Each message is raised as an
+   * event of its own, so the scheduler spaces them out like any other.
+   */
+  static List<ReminderMessage> toMessages(List<DueDMs> dueDMs) {
+    var messages = new ArrayList<ReminderMessage>();
+    for (var userDMs : dueDMs) {
+      var split = splitIntoMessages(userDMs.dms());
+      for (var i = 0; i < split.size(); i++) {
+        messages.add(
+            new ReminderMessage(userDMs.userId(), split.get(i), i == 0, userDMs.dms().size()));
       }
+    }
+    return messages;
+  }
 
+  private void sendDMs(ReminderMessage reminderMessage) {
+    var userId = reminderMessage.userId();
+    var ids = reminderMessage.dms().stream().map(WithId::id).toList();
+    var firstDueAt = reminderMessage.dms().get(0).value().messageTime();
+    try (var conn = databaseManager.getConnection()) {
       ThreadChannel thread;
       try {
         thread =
-            privateThreadManager
-                .createThread(
-                    conn,
-                    dm.userId(),
-                    () -> {
-                      var nowNextChannel = jdaUtils.getMessageChannel(alarmsConfig.alarmsChannel());
-                      return nowNextChannel.createThreadChannel("reminders", true).complete();
-                    })
-                .thread();
+            privateThreadManager.createThread(conn, userId, this::createReminderThread).thread();
       } catch (SQLException e) {
-        logger.error("Error recording private thread for user {}", dm.userId(), e);
+        // Left claimed, so they're tried again once the claim runs out.
+        logger.error("Error recording private thread for user {}", userId, e);
         return;
       }
 
-      var embedBuilder =
-          new EmbedBuilder()
-              .setTitle(dm.title(), dm.jumpUrl())
-              .addField("Description", dm.contents(), false);
-      dm.tags().ifPresent(tags -> embedBuilder.addField("Tags", tags, false));
-
-      thread
-          .sendMessage(
-              new MessageCreateBuilder()
-                  .addContent("<@" + dm.userId() + "> You asked me to remind you about this event:")
-                  .addEmbeds(embedBuilder.build())
-                  .build())
-          .queue(
-              success -> {},
-              error ->
-                  logger.error(
-                      "Error sending message to user {} message {}",
-                      dm.userId(),
-                      dmWithId.id(),
-                      error));
+      var builder = new MessageCreateBuilder();
+      if (reminderMessage.first()) {
+        builder.addContent(
+            "<@"
+                + userId
+                + "> You asked me to remind you about "
+                + (reminderMessage.numReminders() == 1 ? "this event:" : "these events:"));
+      }
+      builder.addEmbeds(reminderMessage.dms().stream().map(dm -> toEmbed(dm.value())).toList());
+      try {
+        thread.sendMessage(builder.build()).complete(false);
+        dmRateLimit.succeeded();
+        logger.info(
+            "Sent DMs {} to user {} {}ms after the first was due",
+            ids,
+            userId,
+            Duration.between(firstDueAt, ZonedDateTime.now(clock)).toMillis());
+      } catch (RateLimitedException e) {
+        // Release them to be sent again once the rate limit has passed, ahead of anything due
+        // later.
+        dmRateLimit.rateLimited(Duration.ofMillis(e.getRetryAfter()));
+        logger.warn(
+            "Rate limited sending DMs to user {}. Retrying after {}ms at {} DMs per second",
+            userId,
+            e.getRetryAfter(),
+            dmRateLimit.tokensPerSecond());
+        conn.releaseScheduledDMs(ids);
+        dmScheduler.notifyOfDbChange();
+        return;
+      } catch (RuntimeException e) {
+        logger.error("Error sending message to user {} messages {}", userId, ids, e);
+      }
+      // Acknowledged whether or not it could be sent, so a message that fails isn't retried over
+      // and over.
+      conn.deleteScheduledDMs(ids);
     } catch (SQLException e) {
-      logger.error("Error sending DM {}", dmWithId.id(), e);
+      logger.error("Error sending DMs {}", ids, e);
     }
   }
 
+  private ThreadChannel createReminderThread() {
+    // Threads are usually created well before their first reminder, so keep them open for as long
+    // as Discord allows.
+    return jdaUtils
+        .getMessageChannel(alarmsConfig.alarmsChannel())
+        .createThreadChannel("reminders", true)
+        .setAutoArchiveDuration(AutoArchiveDuration.TIME_1_WEEK)
+        .complete();
+  }
+
+  private static MessageEmbed toEmbed(ScheduledDM dm) {
+    var embedBuilder =
+        new EmbedBuilder()
+            .setTitle(dm.title(), dm.jumpUrl())
+            .addField("Description", dm.contents(), false);
+    dm.tags().ifPresent(tags -> embedBuilder.addField("Tags", tags, false));
+    return embedBuilder.build();
+  }
+
   private String formatTag(ForumTag tag) {
     if (tag.getEmoji() != null) {
       return tag.getEmoji().getFormatted() + " " + tag.getName();
@@ -238,4 +568,6 @@ public class AlarmsModule {
       return tag.getName();
     }
   }
+
+  private record CatchUp(ZonedDateTime startedAt, int numOverdue) {}
 }
@@ -0,0 +1,6 @@
+package com.ajanuary.watson.alarms;
+
+import java.util.List;
+
+/** The reminders to send a user together, earliest due first. */
+record DueDMs(String userId, List<WithId<ScheduledDM>> dms) {}
@@ -0,0 +1,10 @@
+package com.ajanuary.watson.alarms;
+
+import java.util.List;
+
+/**
+ * One message's worth of a user's due reminders. The first of a user's messages says what the
+ * reminders are for, out of {@code numReminders} in total.
+ */
+record ReminderMessage(
+    String userId, List<WithId<ScheduledDM>> dms, boolean first, int numReminders) {}
@@ -0,0 +1,165 @@
+package com.ajanuary.watson.alarms;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.privatethreads.PrivateThreadManager;
+import com.ajanuary.watson.programme.ProgrammeSnapshot;
+import com.ajanuary.watson.programme.Status;
+import com.ajanuary.watson.scheduling.Timers;
+import com.ajanuary.watson.scheduling.TokenBucket;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the private threads reminders are sent in ahead of time, so sending a reminder is just
+ * sending a message, rather than also creating a thread while lots of other reminders are due.
+ *
+ * <p>Every few minutes it looks for users subscribed to items starting within the next day who
+ * don't have a thread, and creates theirs one at a time at a gentle rate. It stays out of the way
+ * while reminders are due soon, so it never competes with them for Discord's rate limits.
+ */
+class ReminderThreadProvisioner {
+
+  static final Duration PROVISION_AHEAD = Duration.ofHours(24);
+  private static final Duration INITIAL_DELAY = Duration.ofMinutes(1);
+  private static final Duration INTERVAL = Duration.ofMinutes(5);
+  private static final Duration QUIET_BEFORE_DMS = Duration.ofMinutes(5);
+  private static final Duration TIME_BETWEEN_CREATES = Duration.ofSeconds(2);
+
+  private final Logger logger = LoggerFactory.getLogger(ReminderThreadProvisioner.class);
+
+  private final DatabaseManager databaseManager;
+  private final PrivateThreadManager privateThreadManager;
+  private final AtomicReference<ProgrammeSnapshot> programmeSnapshot;
+  private final Supplier<ThreadChannel> createThread;
+  private final TemporalAmount timeBeforeToNotify;
+  private final Timers timers;
+  private final TokenBucket rateLimit;
+
+  // The users still waiting for a thread from the last time it looked.
+  private final Deque<String> pending = new ArrayDeque<>();
+  private long startedAt;
+  private int numCreated;
+
+  ReminderThreadProvisioner(
+      DatabaseManager databaseManager,
+      PrivateThreadManager privateThreadManager,
+      AtomicReference<ProgrammeSnapshot> programmeSnapshot,
+      Supplier<ThreadChannel> createThread,
+      TemporalAmount timeBeforeToNotify,
+      Timers timers) {
+    this.databaseManager = databaseManager;
+    this.privateThreadManager = privateThreadManager;
+    this.programmeSnapshot = programmeSnapshot;
+    this.createThread = createThread;
+    this.timeBeforeToNotify = timeBeforeToNotify;
+    this.timers = timers;
+    this.rateLimit = TokenBucket.spacedBy(timers.clock(), TIME_BETWEEN_CREATES);
+  }
+
+  void start() {
+    timers.repeat(INITIAL_DELAY, INTERVAL, this::provision);
+  }
+
+  synchronized void provision() {
+    if (!pending.isEmpty()) {
+      logger.debug("Not looking for reminder threads to create as the last lot aren't done");
+      return;
+    }
+    var now = timers.now();
+    try (var conn = databaseManager.getConnection()) {
+      if (!quietUntil(conn, now).isAfter(now)) {
+        logger.debug("Not creating reminder threads as reminders are due soon");
+        return;
+      }
+
+      var itemIds = new ArrayList<String>();
+      var provisionUntil = now.plus(PROVISION_AHEAD).getEpochSecond();
+      for (var discordThread : programmeSnapshot.get().startingAfter(now.getEpochSecond())) {
+        if (discordThread.item().startEpochSecond() > provisionUntil) {
+          break;
+        }
+        if (discordThread.status() != Status.CANCELLED) {
+          itemIds.add(discordThread.item().id());
+        }
+      }
+
+      for (var userId : conn.getAlarmSubscribers(itemIds)) {
+        if (privateThreadManager.getThread(conn, userId).isEmpty()) {
+          pending.add(userId);
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      logger.error("Error finding reminder threads to create", e);
+      pending.clear();
+    }
+    if (!pending.isEmpty()) {
+      startedAt = System.currentTimeMillis();
+      numCreated = 0;
+      timers.schedule(rateLimit.reserve(), this::createNext);
+    }
+  }
+
+  /**
+   * Creates the thread for the next user waiting for one, then schedules the one after, so nothing
+   * holds a thread while waiting for its turn. Reminders may have been scheduled since the users
+   * were found, so it checks they aren't due soon each time.
+   */
+  private synchronized void createNext() {
+    var now = timers.now();
+    try (var conn = databaseManager.getConnection()) {
+      if (!quietUntil(conn, now).isAfter(now)) {
+        logger.debug("Stopping creating reminder threads as reminders are due soon");
+        pending.clear();
+      } else {
+        var userId = pending.remove();
+        if (privateThreadManager.createThread(conn, userId, createThread).created()) {
+          numCreated++;
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      logger.error("Error creating reminder threads", e);
+      pending.clear();
+    }
+
+    if (!pending.isEmpty()) {
+      timers.schedule(rateLimit.reserve(), this::createNext);
+    } else if (numCreated > 0) {
+      logger.info(
+          "Created {} reminder threads ahead of time in {}ms",
+          numCreated,
+          System.currentTimeMillis() - startedAt);
+    }
+  }
+
+  /**
+   * Until when no reminders are due, leaving a margin before the next ones. They're either the
+   * reminders that have already been scheduled, or those for the next item whose reminders haven't.
+   */
+  private Instant quietUntil(DatabaseManager.DatabaseConnection conn, Instant now)
+      throws SQLException {
+    var nextReminder = conn.getNextScheduledDMTime().map(ZonedDateTime::toInstant);
+    var notScheduledAfter = now.plus(timeBeforeToNotify).getEpochSecond();
+    var nextItems = programmeSnapshot.get().startingAfter(notScheduledAfter);
+    if (!nextItems.isEmpty()) {
+      var nextAlarm =
+          Instant.ofEpochSecond(nextItems.get(0).item().startEpochSecond())
+              .minus(timeBeforeToNotify);
+      if (nextReminder.isEmpty() || nextAlarm.isBefore(nextReminder.get())) {
+        nextReminder = Optional.of(nextAlarm);
+      }
+    }
+    return nextReminder.map(t -> t.minus(QUIET_BEFORE_DMS)).orElse(Instant.MAX);
+  }
+}
@@ -84,6 +84,8 @@ public class ApiModule implements EventListener {
             messages -> {
               try (var conn = databaseManager.getConnection()) {
                 var membersToCheck = new HashMap<String, DiscordUser>();
+                var reorderProgramme = false;
+                var resyncPortalPosts = false;
                 // The come in newest first, so reverse them
                 Collections.reverse(messages);
                 for (var message : messages) {
@@ -97,6 +99,12 @@ public class ApiModule implements EventListener {
                         if (user != null) {
                           membersToCheck.put(userId, new DiscordUser(userId, user.getName()));
                         }
+                      } else if (command.has("action")
+                          && command.get("action").asText().equals("reorder-programme")) {
+                        reorderProgramme = true;
+                      } else if (command.has("action")
+                          && command.get("action").asText().equals("resync-portal-posts")) {
+                        resyncPortalPosts = true;
                       }
                     }
                   } catch (SQLException | JsonProcessingException e) {
@@ -106,6 +114,12 @@ public class ApiModule implements EventListener {
                 if (!membersToCheck.isEmpty()) {
                   eventDispatcher.dispatch(new CheckUserEvent(membersToCheck.values()));
                 }
+                if (reorderProgramme) {
+                  eventDispatcher.dispatch(new ReorderProgrammeEvent());
+                }
+                if (resyncPortalPosts) {
+                  eventDispatcher.dispatch(new ResyncPortalPostsEvent());
+                }
 
               } catch (SQLException e) {
                 logger.error("Error getting database connection", e);
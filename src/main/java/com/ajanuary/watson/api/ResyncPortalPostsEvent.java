@@ -0,0 +1,5 @@
+package com.ajanuary.watson.api;
+
+import com.ajanuary.watson.notification.Event;
+
+public record ResyncPortalPostsEvent() implements Event {}
@@ -0,0 +1,9 @@
+package com.ajanuary.watson.calendar;
+
+import java.net.URI;
+
+/**
+ * @param publicUrl the URL the server can be reached at, used to give users their feed's address
+ * @param userFeeds whether to serve each user a feed of the items they've set an alarm for
+ */
+public record CalendarConfig(String host, int port, URI publicUrl, boolean userFeeds) {}
@@ -0,0 +1,28 @@
+package com.ajanuary.watson.calendar;
+
+import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
+import java.net.URI;
+import java.util.Optional;
+
+public class CalendarConfigYamlParser {
+
+  private CalendarConfigYamlParser() {}
+
+  public static CalendarConfig parse(ObjectConfigParserWithValue configParser) {
+    var host = configParser.get("host").string().defaultingTo("localhost").value();
+    var port =
+        configParser
+            .get("port")
+            .integer()
+            .required()
+            .validate(
+                value ->
+                    value < 1 || value > 65535
+                        ? Optional.of("must be between 1 and 65535")
+                        : Optional.empty())
+            .value();
+    var publicUrl = configParser.get("publicUrl").string().required().map(URI::create);
+    var userFeeds = configParser.get("userFeeds").bool().defaultingTo(false).value();
+    return new CalendarConfig(host, port, publicUrl, userFeeds);
+  }
+}
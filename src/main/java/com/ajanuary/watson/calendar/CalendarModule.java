@@ -0,0 +1,181 @@
+package com.ajanuary.watson.calendar;
+
+import com.ajanuary.watson.alarms.AlarmSubscriptionsChangedEvent;
+import com.ajanuary.watson.config.Config;
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.notification.EventDispatcher;
+import com.ajanuary.watson.notification.ReadyEvent;
+import com.ajanuary.watson.programme.DiscordThread;
+import com.ajanuary.watson.programme.ItemChange;
+import com.ajanuary.watson.programme.ItemsChangedEvent;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Optional;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the programme as calendar feeds people can subscribe to from their phone, and adds a
+ * {@code /calendar} slash command that tells users where to find them.
+ */
+public class CalendarModule implements EventListener {
+
+  private final Logger logger = LoggerFactory.getLogger(CalendarModule.class);
+  private final SecureRandom random = new SecureRandom();
+
+  private final JDA jda;
+  private final CalendarConfig calendarConfig;
+  private final Config config;
+  private final DatabaseManager databaseManager;
+  private final ProgrammeCalendar calendar;
+
+  public CalendarModule(
+      JDA jda,
+      CalendarConfig calendarConfig,
+      Config config,
+      DatabaseManager databaseManager,
+      EventDispatcher eventDispatcher) {
+    this.jda = jda;
+    this.calendarConfig = calendarConfig;
+    this.config = config;
+    this.databaseManager = databaseManager;
+
+    var guild = jda.getGuildById(config.guildId());
+    assert guild != null;
+    this.calendar = new ProgrammeCalendar(config.guildId(), guild.getName());
+    try {
+      new CalendarServer(
+              calendarConfig.host(),
+              calendarConfig.port(),
+              calendar,
+              databaseManager,
+              calendarConfig.userFeeds())
+          .start();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    eventDispatcher.register(ProgrammePolledEvent.class, this::handlePoll);
+    eventDispatcher.register(ItemsChangedEvent.class, this::handleChanges);
+    eventDispatcher.register(
+        AlarmSubscriptionsChangedEvent.class, e -> calendar.invalidateUser(e.userId()));
+    eventDispatcher.register(ReadyEvent.class, e -> registerCommands());
+    jda.addEventListener(this);
+  }
+
+  private void handlePoll(ProgrammePolledEvent event) {
+    var discordThreadIds = new HashMap<String, String>();
+    try (var conn = databaseManager.getConnection()) {
+      if (event.reconciled()) {
+        for (var discordThread : conn.getAllDiscordThreads()) {
+          discordThread
+              .discordThreadId()
+              .ifPresent(id -> discordThreadIds.put(discordThread.item().id(), id));
+        }
+      } else {
+        for (var item : event.items()) {
+          conn.getDiscordThread(item.id())
+              .flatMap(DiscordThread::discordThreadId)
+              .ifPresent(id -> discordThreadIds.put(item.id(), id));
+        }
+      }
+    } catch (SQLException e) {
+      logger.error("Error reading threads to update the calendar", e);
+      return;
+    }
+
+    var numWritten = calendar.update(event, discordThreadIds, Instant.now());
+    if (numWritten > 0) {
+      logger.info("Updated {} calendar events", numWritten);
+    }
+  }
+
+  private void handleChanges(ItemsChangedEvent event) {
+    var discordThreadIds = new HashMap<String, Optional<String>>();
+    try (var conn = databaseManager.getConnection()) {
+      for (var change : event.changes()) {
+        if (change.kind() == ItemChange.Kind.REPOSTED) {
+          discordThreadIds.put(
+              change.itemId(),
+              conn.getDiscordThread(change.itemId()).flatMap(DiscordThread::discordThreadId));
+        }
+      }
+    } catch (SQLException e) {
+      logger.error("Error reading threads to update the calendar", e);
+      return;
+    }
+
+    if (!discordThreadIds.isEmpty()) {
+      var numWritten = calendar.updateThreads(discordThreadIds, Instant.now());
+      if (numWritten > 0) {
+        logger.info("Updated {} calendar events for recreated posts", numWritten);
+      }
+    }
+  }
+
+  private void registerCommands() {
+    var guild = jda.getGuildById(config.guildId());
+    assert guild != null;
+    guild
+        .upsertCommand(Commands.slash("calendar", "Get the programme in your calendar app"))
+        .queue(
+            success -> {},
+            error -> logger.error("Error registering the calendar command", error));
+  }
+
+  @Override
+  public void onEvent(@NotNull GenericEvent event) {
+    if (!(event instanceof SlashCommandInteractionEvent commandEvent)
+        || commandEvent.getGuild() == null
+        || !commandEvent.getGuild().getId().equals(config.guildId())
+        || !commandEvent.getName().equals("calendar")) {
+      return;
+    }
+
+    var message =
+        new StringBuilder("Subscribe to this address in your calendar app to get the programme: ")
+            .append(url("programme.ics"));
+    if (calendarConfig.userFeeds()) {
+      String token;
+      try (var conn = databaseManager.getConnection()) {
+        token = conn.getOrCreateCalendarToken(commandEvent.getUser().getId(), newToken());
+      } catch (SQLException e) {
+        logger.error(
+            "Error getting calendar token for user {}", commandEvent.getUser().getId(), e);
+        commandEvent
+            .reply("Something went wrong. Please try again later.")
+            .setEphemeral(true)
+            .queue();
+        return;
+      }
+      message
+          .append("\n\nOr subscribe to this address to get just the items you've set an alarm for.")
+          .append(" Keep it to yourself, as anyone with it can see them: ")
+          .append(url("calendar/" + token + ".ics"));
+    }
+    commandEvent.reply(message.toString()).setEphemeral(true).queue();
+  }
+
+  private String url(String path) {
+    var publicUrl = calendarConfig.publicUrl().toString();
+    return publicUrl.endsWith("/") ? publicUrl + path : publicUrl + "/" + path;
+  }
+
+  private String newToken() {
+    var bytes = new byte[24];
+    random.nextBytes(bytes);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
@@ -0,0 +1,126 @@
+package com.ajanuary.watson.calendar;
+
+import com.ajanuary.watson.calendar.ProgrammeCalendar.Feed;
+import com.ajanuary.watson.db.DatabaseManager;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the calendar feeds over HTTP. The programme is at {@code /programme.ics} and each user's
+ * feed at {@code /calendar/<token>.ics}.
+ *
+ * <p>Each response has an {@code ETag}, so calendar apps that poll with {@code If-None-Match} get
+ * an empty {@code 304 Not Modified} until the feed changes.
+ */
+public class CalendarServer {
+
+  private static final int NUM_THREADS = 4;
+
+  private final Logger logger = LoggerFactory.getLogger(CalendarServer.class);
+
+  private final ProgrammeCalendar calendar;
+  private final DatabaseManager databaseManager;
+  private final boolean userFeeds;
+  private final HttpServer server;
+
+  public CalendarServer(
+      String host,
+      int port,
+      ProgrammeCalendar calendar,
+      DatabaseManager databaseManager,
+      boolean userFeeds)
+      throws IOException {
+    this.calendar = calendar;
+    this.databaseManager = databaseManager;
+    this.userFeeds = userFeeds;
+    this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+    server.setExecutor(Executors.newFixedThreadPool(NUM_THREADS));
+    server.createContext("/", this::handle);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+  }
+
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      var method = exchange.getRequestMethod();
+      if (!method.equals("GET") && !method.equals("HEAD")) {
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        exchange.sendResponseHeaders(405, -1);
+        return;
+      }
+
+      Optional<Feed> feed;
+      try {
+        feed = feed(exchange.getRequestURI().getPath());
+      } catch (SQLException e) {
+        logger.error("Error getting calendar feed {}", exchange.getRequestURI().getPath(), e);
+        exchange.sendResponseHeaders(500, -1);
+        return;
+      }
+      if (feed.isEmpty()) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+
+      var headers = exchange.getResponseHeaders();
+      headers.set("ETag", feed.get().etag());
+      headers.set("Cache-Control", "no-cache");
+      if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), feed.get().etag())) {
+        exchange.sendResponseHeaders(304, -1);
+        return;
+      }
+      headers.set("Content-Type", "text/calendar; charset=utf-8");
+      var body = feed.get().body();
+      if (method.equals("HEAD")) {
+        headers.set("Content-Length", String.valueOf(body.length));
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+    }
+  }
+
+  private Optional<Feed> feed(String path) throws SQLException {
+    if (path.equals("/programme.ics")) {
+      return Optional.of(calendar.programme());
+    }
+    if (userFeeds && path.startsWith("/calendar/") && path.endsWith(".ics")) {
+      var token = path.substring("/calendar/".length(), path.length() - ".ics".length());
+      try (var conn = databaseManager.getConnection()) {
+        var userId = conn.getCalendarTokenUser(token);
+        if (userId.isPresent()) {
+          return Optional.of(calendar.forUser(conn, userId.get()));
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::strip)
+        .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+  }
+}
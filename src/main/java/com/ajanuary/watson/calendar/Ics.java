@@ -0,0 +1,93 @@
+package com.ajanuary.watson.calendar;
+
+import com.ajanuary.watson.programme.ProgrammeItem;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Optional;
+
+/** Writes programme items in the iCalendar format (RFC 5545). */
+final class Ics {
+
+  private static final DateTimeFormatter DATE_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+  private static final int MAX_LINE_OCTETS = 75;
+
+  private Ics() {}
+
+  static String event(
+      ProgrammeItem item, String description, Optional<String> url, Instant stamp) {
+    var event = new StringBuilder();
+    line(event, "BEGIN:VEVENT");
+    line(event, "UID:" + escape(item.id()) + "@watson");
+    line(event, "DTSTAMP:" + DATE_TIME_FORMATTER.format(stamp));
+    line(event, "DTSTART:" + formatEpochSecond(item.startEpochSecond()));
+    line(event, "DTEND:" + formatEpochSecond(item.endEpochSecond()));
+    line(event, "SUMMARY:" + escape(item.title()));
+    if (item.loc() != null) {
+      line(event, "LOCATION:" + escape(item.loc()));
+    }
+    if (description != null && !description.isBlank()) {
+      line(event, "DESCRIPTION:" + escape(description));
+    }
+    url.ifPresent(u -> line(event, "URL:" + u));
+    line(event, "END:VEVENT");
+    return event.toString();
+  }
+
+  private static String formatEpochSecond(long epochSecond) {
+    return DATE_TIME_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+  }
+
+  static String calendar(String name, Collection<String> events) {
+    var size = events.stream().mapToInt(String::length).sum();
+    var calendar = new StringBuilder(size + 256);
+    line(calendar, "BEGIN:VCALENDAR");
+    line(calendar, "VERSION:2.0");
+    line(calendar, "PRODID:-//ajanuary//watson//EN");
+    line(calendar, "CALSCALE:GREGORIAN");
+    line(calendar, "X-WR-CALNAME:" + escape(name));
+    events.forEach(calendar::append);
+    line(calendar, "END:VCALENDAR");
+    return calendar.toString();
+  }
+
+  static String escape(String text) {
+    return text.replace("\\", "\\\\")
+        .replace(";", "\\;")
+        .replace(",", "\\,")
+        .replace("\r\n", "\\n")
+        .replace("\n", "\\n")
+        .replace("\r", "\\n");
+  }
+
+  /** Appends the line, folded so no line is longer than 75 octets. */
+  private static void line(StringBuilder builder, String line) {
+    var octets = 0;
+    for (var i = 0; i < line.length(); ) {
+      var codePoint = line.codePointAt(i);
+      var codePointOctets = utf8Length(codePoint);
+      if (octets + codePointOctets > MAX_LINE_OCTETS) {
+        builder.append("\r\n ");
+        // The space starting a continued line counts towards its length.
+        octets = 1;
+      }
+      builder.appendCodePoint(codePoint);
+      octets += codePointOctets;
+      i += Character.charCount(codePoint);
+    }
+    builder.append("\r\n");
+  }
+
+  private static int utf8Length(int codePoint) {
+    if (codePoint < 0x80) {
+      return 1;
+    } else if (codePoint < 0x800) {
+      return 2;
+    } else if (codePoint < 0x10000) {
+      return 3;
+    }
+    return 4;
+  }
+}
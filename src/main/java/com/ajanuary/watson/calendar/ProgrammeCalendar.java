@@ -0,0 +1,178 @@
+package com.ajanuary.watson.calendar;
+
+import com.ajanuary.watson.db.DatabaseManager.DatabaseConnection;
+import com.ajanuary.watson.programme.ProgrammeItem;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import io.github.furstenheim.CopyDown;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The programme as iCalendar feeds: one for the whole programme, and one for each user with the
+ * items they've set an alarm for.
+ *
+ * <p>Each item's event is only written again when the item or its thread changes, and the feeds
+ * are put together from the events already written. A user's feed is kept until one of its items
+ * changes or the user changes which items they want reminding about.
+ */
+public class ProgrammeCalendar {
+
+  private final String guildId;
+  private final String name;
+
+  private final Map<String, CalendarEvent> eventsByItemId = new HashMap<>();
+  private final Map<String, UserFeed> userFeeds = new HashMap<>();
+  private Feed programmeFeed;
+
+  public ProgrammeCalendar(String guildId, String name) {
+    this.guildId = guildId;
+    this.name = name;
+    this.programmeFeed = Feed.of(Ics.calendar(name, List.of()));
+  }
+
+  /**
+   * Writes the events for the items that have changed since the last poll.
+   *
+   * @param discordThreadIds the thread for each of the poll's items that has one
+   * @return how many events were written
+   */
+  public synchronized int update(
+      ProgrammePolledEvent event, Map<String, String> discordThreadIds, Instant now) {
+    var changedItemIds = new HashSet<String>();
+    var mdConverter = new CopyDown();
+    for (var item : event.items()) {
+      var discordThreadId = Optional.ofNullable(discordThreadIds.get(item.id()));
+      var existing = eventsByItemId.get(item.id());
+      if (existing != null
+          && existing.item().equals(item)
+          && existing.discordThreadId().equals(discordThreadId)) {
+        continue;
+      }
+      write(item, discordThreadId, mdConverter, now);
+      changedItemIds.add(item.id());
+    }
+    for (var itemId : event.removedItemIds()) {
+      if (eventsByItemId.remove(itemId) != null) {
+        changedItemIds.add(itemId);
+      }
+    }
+    if (event.reconciled()) {
+      var itemIds = new HashSet<String>();
+      event.items().forEach(item -> itemIds.add(item.id()));
+      for (var itemId : List.copyOf(eventsByItemId.keySet())) {
+        if (!itemIds.contains(itemId)) {
+          eventsByItemId.remove(itemId);
+          changedItemIds.add(itemId);
+        }
+      }
+    }
+
+    invalidate(changedItemIds);
+    return changedItemIds.size();
+  }
+
+  /**
+   * Writes the events for items whose thread has changed, such as when their post has been
+   * recreated, so they link to the new thread.
+   *
+   * @param discordThreadIds the new thread for each item, or empty if it no longer has one
+   * @return how many events were written
+   */
+  public synchronized int updateThreads(
+      Map<String, Optional<String>> discordThreadIds, Instant now) {
+    var changedItemIds = new HashSet<String>();
+    var mdConverter = new CopyDown();
+    discordThreadIds.forEach(
+        (itemId, discordThreadId) -> {
+          var existing = eventsByItemId.get(itemId);
+          if (existing != null && !existing.discordThreadId().equals(discordThreadId)) {
+            write(existing.item(), discordThreadId, mdConverter, now);
+            changedItemIds.add(itemId);
+          }
+        });
+    invalidate(changedItemIds);
+    return changedItemIds.size();
+  }
+
+  public synchronized Feed programme() {
+    return programmeFeed;
+  }
+
+  public synchronized Feed forUser(DatabaseConnection conn, String userId) throws SQLException {
+    var userFeed = userFeeds.get(userId);
+    if (userFeed == null) {
+      var itemIds = Set.copyOf(conn.getAlarmSubscriptions(userId));
+      userFeed =
+          new UserFeed(itemIds, Feed.of(Ics.calendar(name, eventsInOrder(itemIds))));
+      userFeeds.put(userId, userFeed);
+    }
+    return userFeed.feed();
+  }
+
+  /** Forgets the user's feed, so it's put together again the next time it's asked for. */
+  public synchronized void invalidateUser(String userId) {
+    userFeeds.remove(userId);
+  }
+
+  private void write(
+      ProgrammeItem item, Optional<String> discordThreadId, CopyDown mdConverter, Instant now) {
+    var url = discordThreadId.map(id -> "https://discord.com/channels/" + guildId + "/" + id);
+    var description = item.desc() == null ? null : mdConverter.convert(item.desc());
+    eventsByItemId.put(
+        item.id(),
+        new CalendarEvent(item, discordThreadId, Ics.event(item, description, url, now)));
+  }
+
+  /** Puts the programme feed together again, and forgets the user feeds with changed items. */
+  private void invalidate(Set<String> changedItemIds) {
+    if (changedItemIds.isEmpty()) {
+      return;
+    }
+    programmeFeed = Feed.of(Ics.calendar(name, eventsInOrder(eventsByItemId.keySet())));
+    userFeeds
+        .values()
+        .removeIf(userFeed -> userFeed.itemIds().stream().anyMatch(changedItemIds::contains));
+  }
+
+  private List<String> eventsInOrder(Set<String> itemIds) {
+    var events = new ArrayList<CalendarEvent>();
+    for (var itemId : itemIds) {
+      var event = eventsByItemId.get(itemId);
+      if (event != null) {
+        events.add(event);
+      }
+    }
+    events.sort(
+        Comparator.<CalendarEvent>comparingLong(event -> event.item().startEpochSecond())
+            .thenComparing(event -> event.item().id()));
+    return events.stream().map(CalendarEvent::ics).toList();
+  }
+
+  public record Feed(byte[] body, String etag) {
+    static Feed of(String ics) {
+      var body = ics.getBytes(StandardCharsets.UTF_8);
+      try {
+        var digest = MessageDigest.getInstance("SHA-256").digest(body);
+        return new Feed(body, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private record CalendarEvent(ProgrammeItem item, Optional<String> discordThreadId, String ics) {}
+
+  private record UserFeed(Set<String> itemIds, Feed feed) {}
+}
@@ -2,9 +2,12 @@ package com.ajanuary.watson.config;
 
 import com.ajanuary.watson.alarms.AlarmsConfig;
 import com.ajanuary.watson.api.ApiConfig;
+import com.ajanuary.watson.calendar.CalendarConfig;
+import com.ajanuary.watson.follows.FollowsConfig;
 import com.ajanuary.watson.membership.MembershipConfig;
 import com.ajanuary.watson.newsletter.NewsletterConfig;
 import com.ajanuary.watson.programme.ProgrammeConfig;
+import com.ajanuary.watson.search.SearchConfig;
 import com.ajanuary.watson.utils.JDAUtils;
 import java.time.ZoneId;
 import java.util.Optional;
@@ -18,9 +21,12 @@ public record Config(
     ZoneId timezone,
     Optional<AlarmsConfig> alarms,
     Optional<ApiConfig> api,
+    Optional<CalendarConfig> calendar,
+    Optional<FollowsConfig> follows,
     Optional<MembershipConfig> membership,
     Optional<NewsletterConfig> newsletter,
-    Optional<ProgrammeConfig> programme) {
+    Optional<ProgrammeConfig> programme,
+    Optional<SearchConfig> search) {
 
   public void validateDiscordConfig(JDA jda) {
     var guild = jda.getGuildById(guildId());
@@ -34,6 +40,7 @@ public record Config(
     var jdaUtils = new JDAUtils(jda, this);
     alarms().ifPresent(alarmsConfig -> alarmsConfig.validateDiscordConfig(jdaUtils));
     api().ifPresent(apiConfig -> apiConfig.validateDiscordConfig(jdaUtils));
+    follows().ifPresent(followsConfig -> followsConfig.validateDiscordConfig(jdaUtils));
     membership().ifPresent(membershipConfig -> membershipConfig.validateDiscordConfig(jdaUtils));
     newsletter().ifPresent(newsletterConfig -> newsletterConfig.validateDiscordConfig(jdaUtils));
     programme().ifPresent(programmeConfig -> programmeConfig.validateDiscordConfig(jdaUtils));
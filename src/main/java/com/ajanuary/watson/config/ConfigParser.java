@@ -59,6 +59,14 @@ public abstract class ConfigParser {
       return new BooleanConfigParser(node, path);
     }
 
+    public IntegerConfigParser integer() {
+      if (node != null && !node.isNull() && !node.isInt()) {
+        throw new ConfigException(path + " must be an integer");
+      }
+
+      return new IntegerConfigParser(node, path);
+    }
+
     public ListConfigParser list() {
       if (node != null && !node.isNull() && !node.isArray()) {
         throw new ConfigException(path + " must be a list");
@@ -151,11 +159,27 @@ public abstract class ConfigParser {
       this.node = node;
     }
 
+    public <T> Optional<T> map(Function<ListConfigParserWithValue, T> mapper) {
+      if (node == null || node.isNull()) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.of(mapper.apply(withValue()));
+      } catch (ConfigException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new ConfigException("Malformed value for " + path + ": " + e.getMessage(), e);
+      }
+    }
+
     public ListConfigParserWithValue required() {
       if (node == null || node.isNull()) {
         throw new ConfigException(path + " is required");
       }
+      return withValue();
+    }
 
+    private ListConfigParserWithValue withValue() {
       var list = new ArrayList<UnknownTypeConfigParser>();
       var index = 0;
       for (var element : node) {
@@ -300,4 +324,64 @@ public abstract class ConfigParser {
       }
     }
   }
+
+  public static class IntegerConfigParser extends ConfigParser {
+
+    private final JsonNode node;
+
+    private IntegerConfigParser(JsonNode node, String path) {
+      super(path);
+      this.node = node;
+    }
+
+    public IntegerConfigParserWithValue required() {
+      if (node == null || node.isNull()) {
+        throw new ConfigException(path + " is required");
+      }
+      return new IntegerConfigParserWithValue(node.intValue(), path);
+    }
+
+    public IntegerConfigParserWithValue defaultingTo(int defaultValue) {
+      var value = node == null || node.isNull() ? defaultValue : node.intValue();
+      return new IntegerConfigParserWithValue(value, path);
+    }
+  }
+
+  public static class IntegerConfigParserWithValue extends ConfigParser {
+
+    private final int value;
+
+    private IntegerConfigParserWithValue(int value, String path) {
+      super(path);
+      this.value = value;
+    }
+
+    public int value() {
+      return value;
+    }
+
+    public IntegerConfigParserWithValue validate(Function<Integer, Optional<String>> validator) {
+      try {
+        var errorM = validator.apply(value);
+        if (errorM.isPresent()) {
+          throw new ConfigException("Malformed value for " + path + ": " + errorM.get());
+        }
+        return this;
+      } catch (ConfigException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new ConfigException("Malformed value for " + path + ": " + e.getMessage(), e);
+      }
+    }
+
+    public <T> T map(Function<Integer, T> mapper) {
+      try {
+        return mapper.apply(value);
+      } catch (ConfigException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new ConfigException("Malformed value for " + path + ": " + e.getMessage(), e);
+      }
+    }
+  }
 }
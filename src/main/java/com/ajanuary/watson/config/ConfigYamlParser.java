@@ -2,9 +2,12 @@ package com.ajanuary.watson.config;
 
 import com.ajanuary.watson.alarms.AlarmsConfigYamlParser;
 import com.ajanuary.watson.api.ApiConfigYamlParser;
+import com.ajanuary.watson.calendar.CalendarConfigYamlParser;
+import com.ajanuary.watson.follows.FollowsConfigYamlParser;
 import com.ajanuary.watson.membership.MembershipConfigYamlParser;
 import com.ajanuary.watson.newsletter.NewsletterConfigYamlParser;
 import com.ajanuary.watson.programme.ProgrammeConfigYamlParser;
+import com.ajanuary.watson.search.SearchConfigYamlParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import java.time.ZoneId;
 
@@ -21,12 +24,30 @@ public class ConfigYamlParser {
     var timezone = configParser.get("timezone").string().required().map(ZoneId::of);
     var alarmsConfig = configParser.get("alarms").object().map(AlarmsConfigYamlParser::parse);
     var apiConfig = configParser.get("api").object().map(ApiConfigYamlParser::parse);
+    var calendarConfig =
+        configParser.get("calendar").object().map(CalendarConfigYamlParser::parse);
+    var followsConfig = configParser.get("follows").object().map(FollowsConfigYamlParser::parse);
     var membershipConfig =
         configParser.get("membership").object().map(MembershipConfigYamlParser::parse);
     var newsletterConfig =
         configParser.get("newsletter").object().map(NewsletterConfigYamlParser::parse);
     var programmeConfig =
         configParser.get("programme").object().map(c -> ProgrammeConfigYamlParser.parse(c, timezone));
+    var searchConfig = configParser.get("search").object().map(SearchConfigYamlParser::parse);
+    if (calendarConfig.isPresent() && programmeConfig.isEmpty()) {
+      throw new ConfigException("calendar requires programme");
+    }
+    if (calendarConfig.isPresent()
+        && calendarConfig.get().userFeeds()
+        && alarmsConfig.isEmpty()) {
+      throw new ConfigException("calendar.userFeeds requires alarms");
+    }
+    if (followsConfig.isPresent() && programmeConfig.isEmpty()) {
+      throw new ConfigException("follows requires programme");
+    }
+    if (searchConfig.isPresent() && programmeConfig.isEmpty()) {
+      throw new ConfigException("search requires programme");
+    }
 
     return new Config(
         discordBotToken,
@@ -36,8 +57,11 @@ public class ConfigYamlParser {
         timezone,
         alarmsConfig,
         apiConfig,
+        calendarConfig,
+        followsConfig,
         membershipConfig,
         newsletterConfig,
-        programmeConfig);
+        programmeConfig,
+        searchConfig);
   }
 }
@@ -2,21 +2,38 @@ package com.ajanuary.watson.db;
 
 import com.ajanuary.watson.alarms.ScheduledDM;
 import com.ajanuary.watson.alarms.WithId;
+import com.ajanuary.watson.follows.Follow;
+import com.ajanuary.watson.follows.FollowTarget;
 import com.ajanuary.watson.newsletter.NewsletterDbItem;
 import com.ajanuary.watson.programme.DiscordItem;
 import com.ajanuary.watson.programme.DiscordThread;
+import com.ajanuary.watson.programme.NowOnMessage;
+import com.ajanuary.watson.programme.PortalProgrammeApiClient.PostDetails;
+import com.ajanuary.watson.programme.PortalProgrammeApiClient.QueueStats;
+import com.ajanuary.watson.programme.PortalProgrammeApiClient.QueuedPost;
 import com.ajanuary.watson.programme.Status;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.time.ZoneId;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import javax.sql.DataSource;
 import org.flywaydb.core.Flyway;
 import org.jetbrains.annotations.NotNull;
@@ -26,6 +43,8 @@ import org.sqlite.SQLiteException;
 
 public class DatabaseManager {
 
+  private static final int MAX_PARAMETERS = 500;
+
   private final DataSource dataSource;
 
   public DatabaseManager(String path) throws SQLException {
@@ -54,12 +73,20 @@ public class DatabaseManager {
       return endTime.withZoneSameInstant(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME);
     }
 
+    private static @NotNull String toDbDateTimeString(long epochSecond) {
+      return toDbDateTimeString(Instant.ofEpochSecond(epochSecond).atZone(ZoneOffset.UTC));
+    }
+
+    private static long fromDbDateTimeString(String dateTime) {
+      return ZonedDateTime.parse(dateTime).toEpochSecond();
+    }
+
     @Override
     public void close() throws SQLException {
       connection.close();
     }
 
-    public Optional<DiscordThread> getDiscordThread(String programmeItemId, ZoneId zoneId) throws SQLException {
+    public Optional<DiscordThread> getDiscordThread(String programmeItemId) throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
@@ -106,8 +133,8 @@ public class DatabaseManager {
           desc = new String(descBytes);
         }
         var loc = rs.getString(5);
-        var startTime = ZonedDateTime.parse(rs.getString(6)).withZoneSameInstant(zoneId);
-        var endTime = ZonedDateTime.parse(rs.getString(7)).withZoneSameInstant(zoneId);
+        var startTime = fromDbDateTimeString(rs.getString(6));
+        var endTime = fromDbDateTimeString(rs.getString(7));
         var status = Status.valueOf(rs.getString(8));
         return Optional.of(
             new DiscordThread(
@@ -154,8 +181,8 @@ public class DatabaseManager {
           statement.setBytes(5, discordThread.item().body().getBytes());
         }
         statement.setString(6, discordThread.item().loc());
-        statement.setString(7, toDbDateTimeString(discordThread.item().startTime()));
-        statement.setString(8, toDbDateTimeString(discordThread.item().endTime()));
+        statement.setString(7, toDbDateTimeString(discordThread.item().startEpochSecond()));
+        statement.setString(8, toDbDateTimeString(discordThread.item().endEpochSecond()));
         statement.setString(9, discordThread.status().toString());
 
         var rowsAffected = statement.executeUpdate();
@@ -200,8 +227,8 @@ public class DatabaseManager {
           statement.setBytes(4, discordThread.item().body().getBytes());
         }
         statement.setString(5, discordThread.item().loc());
-        statement.setString(6, toDbDateTimeString(discordThread.item().startTime()));
-        statement.setString(7, toDbDateTimeString(discordThread.item().endTime()));
+        statement.setString(6, toDbDateTimeString(discordThread.item().startEpochSecond()));
+        statement.setString(7, toDbDateTimeString(discordThread.item().endEpochSecond()));
         statement.setString(8, discordThread.status().toString());
         statement.setString(9, discordThread.item().id());
 
@@ -232,90 +259,55 @@ public class DatabaseManager {
       }
     }
 
-    public List<DiscordThread> getItemsBefore(ZonedDateTime maxTime) throws SQLException {
+    /** The items whose alarms have been scheduled, so they aren't scheduled again. */
+    public List<String> getAlarmsProcessedItemIds() throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
           select
-            programme_item_id,
-            thread_id,
-            message_id,
-            title,
-            desc,
-            loc,
-            start_time,
-            end_time,
-            status
+            programme_item_id
           from
             discord_threads
           where
-            start_time <= ?
-            and processed_alarms = 0
+            processed_alarms = 1
           """)) {
-        statement.setString(1, toDbDateTimeString(maxTime));
         var rs = statement.executeQuery();
-        var results = new ArrayList<DiscordThread>();
+        var results = new ArrayList<String>();
         while (rs.next()) {
-          var programmeItemId = rs.getString(1);
-          Optional<String> threadId;
-          var threadIdBytes = rs.getBytes(2);
-          if (threadIdBytes != null) {
-            threadId = Optional.of(new String(threadIdBytes));
-          } else {
-            threadId = Optional.empty();
-          }
-          Optional<String> messageId;
-          var messageIdBytes = rs.getBytes(3);
-          if (messageIdBytes != null) {
-            messageId = Optional.of(new String(messageIdBytes));
-          } else {
-            messageId = Optional.empty();
-          }
-          var title = rs.getString(4);
-          String desc;
-          var descBytes = rs.getBytes(5);
-          if (descBytes == null) {
-            desc = null;
-          } else {
-            desc = new String(descBytes);
-          }
-          var loc = rs.getString(6);
-          var startTime = ZonedDateTime.parse(rs.getString(7));
-          var endTime = ZonedDateTime.parse(rs.getString(8));
-          var status = Status.valueOf(rs.getString(9));
-          results.add(
-              new DiscordThread(
-                  threadId,
-                  messageId,
-                  status,
-                  new DiscordItem(programmeItemId, title, desc, loc, startTime, endTime)));
+          results.add(rs.getString(1));
         }
         return results;
       }
     }
 
-    public Optional<ZonedDateTime> getNextItemTime() throws SQLException {
+    /**
+     * Marks the alarms of the items starting at or before the given time as processed in one go,
+     * for when it's too late to send them. Returns the items that hadn't already been processed.
+     */
+    public List<String> markAlarmsProcessedForItemsStartingBefore(ZonedDateTime dateTime)
+        throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
-          select
-            min(start_time)
-          from
+          update
             discord_threads
+          set
+            processed_alarms = 1
           where
             processed_alarms = 0
+            and start_time <= ?
+          returning programme_item_id
           """)) {
-        var rs = statement.executeQuery();
-        if (!rs.next()) {
-          return Optional.empty();
-        }
-        var time = rs.getString(1);
-        if (time == null) {
-          return Optional.empty();
+        statement.setString(1, toDbDateTimeString(dateTime));
+        try (var rs = statement.executeQuery()) {
+          var results = new ArrayList<String>();
+          while (rs.next()) {
+            results.add(rs.getString(1));
+          }
+          return results;
         }
-        return Optional.of(ZonedDateTime.parse(time));
       }
     }
 
@@ -336,245 +328,419 @@ public class DatabaseManager {
       }
     }
 
-    public void addScheduledDM(ScheduledDM scheduledDM) throws SQLException {
+    /**
+     * Schedules the DMs. The content of a reminder is stored once however many users it's for, so
+     * DMs for the same item should be added together.
+     */
+    public void addScheduledDMs(Collection<ScheduledDM> scheduledDMs) throws SQLException {
+      var byPayload = new LinkedHashMap<ReminderPayload, List<ScheduledDM>>();
+      for (var scheduledDM : scheduledDMs) {
+        byPayload
+            .computeIfAbsent(ReminderPayload.of(scheduledDM), k -> new ArrayList<>())
+            .add(scheduledDM);
+      }
       try (var connection = dataSource.getConnection();
-          var statement =
+          var payloadStatement =
               connection.prepareStatement(
                   """
-          insert into scheduled_dm(
+          insert into reminder_payloads(
             discord_thread_id,
             discord_message_id,
-            user_id,
-            message_time,
             title,
             jump_url,
             contents,
             tags
           )
-          values (?, ?, ?, ?, ?, ?, ?, ?)
-          """)) {
-        statement.setString(1, scheduledDM.discordThreadId());
-        statement.setString(2, scheduledDM.discordMessageId());
-        statement.setString(3, scheduledDM.userId());
-        statement.setString(4, toDbDateTimeString(scheduledDM.messageTime()));
-        statement.setString(5, scheduledDM.title());
-        statement.setString(6, scheduledDM.jumpUrl());
-        statement.setString(7, scheduledDM.contents());
-        if (scheduledDM.tags().isPresent()) {
-          statement.setString(8, scheduledDM.tags().get());
-        } else {
-          statement.setNull(8, Types.VARCHAR);
-        }
-
-        int rowsAffected = statement.executeUpdate();
-        if (rowsAffected != 1) {
-          throw new SQLException(
-              "Error inserting event. Expected to insert 1 row but got " + rowsAffected);
+          values (?, ?, ?, ?, ?, ?)
+          returning id
+          """);
+          var dmStatement =
+              connection.prepareStatement(
+                  """
+          insert into scheduled_dm(
+            payload_id,
+            user_id,
+            message_time
+          )
+          values (?, ?, ?)
+          """)) {
+        connection.setAutoCommit(false);
+        try {
+          for (var entry : byPayload.entrySet()) {
+            var payload = entry.getKey();
+            payloadStatement.setString(1, payload.discordThreadId());
+            payloadStatement.setString(2, payload.discordMessageId());
+            payloadStatement.setString(3, payload.title());
+            payloadStatement.setString(4, payload.jumpUrl());
+            payloadStatement.setString(5, payload.contents());
+            if (payload.tags().isPresent()) {
+              payloadStatement.setString(6, payload.tags().get());
+            } else {
+              payloadStatement.setNull(6, Types.VARCHAR);
+            }
+            int payloadId;
+            try (var rs = payloadStatement.executeQuery()) {
+              if (!rs.next()) {
+                throw new SQLException("Error inserting reminder payload. No id was returned");
+              }
+              payloadId = rs.getInt(1);
+            }
+            for (var scheduledDM : entry.getValue()) {
+              dmStatement.setInt(1, payloadId);
+              dmStatement.setString(2, scheduledDM.userId());
+              dmStatement.setString(3, toDbDateTimeString(scheduledDM.messageTime()));
+              dmStatement.addBatch();
+            }
+          }
+          dmStatement.executeBatch();
+          connection.commit();
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
         }
       }
     }
 
+    /**
+     * When the next DM is due to be claimed. That's either when the earliest unclaimed one is due,
+     * or when the earliest claim runs out.
+     */
     public Optional<ZonedDateTime> getNextScheduledDMTime() throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
           select
-            min(message_time)
-          from
-            scheduled_dm
+            (
+              select min(message_time)
+              from scheduled_dm
+              where claimed_until is null
+            ),
+            (
+              select min(claimed_until)
+              from scheduled_dm
+              where claimed_until is not null
+            )
           """)) {
         var rs = statement.executeQuery();
         if (!rs.next()) {
           return Optional.empty();
         }
-        var time = rs.getString(1);
-        if (time == null) {
-          return Optional.empty();
+        var nextUnclaimed = Optional.ofNullable(rs.getString(1)).map(ZonedDateTime::parse);
+        var nextClaimExpiry = Optional.ofNullable(rs.getString(2)).map(ZonedDateTime::parse);
+        if (nextUnclaimed.isEmpty()
+            || nextClaimExpiry.isPresent() && nextClaimExpiry.get().isBefore(nextUnclaimed.get())) {
+          return nextClaimExpiry;
         }
-        return Optional.of(ZonedDateTime.parse(time));
+        return nextUnclaimed;
       }
     }
 
-    public List<WithId<ScheduledDM>> getScheduledDMsBefore(ZonedDateTime dateTime)
+    /**
+     * Claims up to {@code limit} of the DMs due by {@code dueBy}, earliest first, along with any
+     * other DMs for the same users due by {@code coalesceUntil}. Claimed DMs won't be claimed again
+     * until {@code claimUntil}, by which time they should have been sent and deleted or released.
+     * DMs whose claim has run out are claimed again as if they were unclaimed.
+     */
+    public List<WithId<ScheduledDM>> claimScheduledDMs(
+        ZonedDateTime dueBy, ZonedDateTime coalesceUntil, ZonedDateTime claimUntil, int limit)
         throws SQLException {
-      try (var connection = dataSource.getConnection();
-          var statement =
+      var claimed = new ArrayList<ClaimedDM>();
+      try (var connection = dataSource.getConnection()) {
+        connection.setAutoCommit(false);
+        try {
+          try (var statement =
               connection.prepareStatement(
                   """
+          update scheduled_dm
+          set claimed_until = ?
+          where id in (
+            select id
+            from (
+              select id, message_time
+              from scheduled_dm
+              where claimed_until is null and message_time <= ?
+              union all
+              select id, message_time
+              from scheduled_dm
+              where claimed_until is not null and claimed_until <= ?
+            )
+            order by
+              message_time,
+              id
+            limit ?
+          )
+          returning id, payload_id, user_id, message_time
+          """)) {
+            statement.setString(1, toDbDateTimeString(claimUntil));
+            statement.setString(2, toDbDateTimeString(dueBy));
+            statement.setString(3, toDbDateTimeString(dueBy));
+            statement.setInt(4, limit);
+            readClaimedDMs(statement, claimed);
+          }
+
+          var userIds = claimed.stream().map(ClaimedDM::userId).distinct().toList();
+          // Keep well under SQLite's limit on the number of parameters in a statement.
+          for (var from = 0; from < userIds.size(); from += MAX_PARAMETERS) {
+            var chunk = userIds.subList(from, Math.min(userIds.size(), from + MAX_PARAMETERS));
+            var placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (var statement =
+                connection.prepareStatement(
+                    """
+            update scheduled_dm
+            set claimed_until = ?
+            where
+              claimed_until is null
+              and message_time <= ?
+              and user_id in (%s)
+            returning id, payload_id, user_id, message_time
+            """
+                        .formatted(placeholders))) {
+              statement.setString(1, toDbDateTimeString(claimUntil));
+              statement.setString(2, toDbDateTimeString(coalesceUntil));
+              for (var i = 0; i < chunk.size(); i++) {
+                statement.setString(i + 3, chunk.get(i));
+              }
+              readClaimedDMs(statement, claimed);
+            }
+          }
+
+          var payloads =
+              getReminderPayloads(
+                  connection, claimed.stream().map(ClaimedDM::payloadId).distinct().toList());
+          connection.commit();
+
+          // The order rows are returned in isn't defined, so put them back in the order they're
+          // due.
+          claimed.sort(Comparator.comparing(ClaimedDM::messageTime).thenComparing(ClaimedDM::id));
+          return claimed.stream()
+              .map(
+                  dm -> {
+                    var payload = payloads.get(dm.payloadId());
+                    return new WithId<>(
+                        dm.id(),
+                        new ScheduledDM(
+                            payload.discordThreadId(),
+                            payload.discordMessageId(),
+                            dm.userId(),
+                            dm.messageTime(),
+                            payload.title(),
+                            payload.jumpUrl(),
+                            payload.contents(),
+                            payload.tags()));
+                  })
+              .toList();
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
+        }
+      }
+    }
+
+    private static void readClaimedDMs(PreparedStatement statement, List<ClaimedDM> claimed)
+        throws SQLException {
+      try (var rs = statement.executeQuery()) {
+        while (rs.next()) {
+          claimed.add(
+              new ClaimedDM(
+                  rs.getInt(1),
+                  rs.getInt(2),
+                  rs.getString(3),
+                  ZonedDateTime.parse(rs.getString(4))));
+        }
+      }
+    }
+
+    private static Map<Integer, ReminderPayload> getReminderPayloads(
+        Connection connection, List<Integer> ids) throws SQLException {
+      var results = new HashMap<Integer, ReminderPayload>();
+      for (var from = 0; from < ids.size(); from += MAX_PARAMETERS) {
+        var chunk = ids.subList(from, Math.min(ids.size(), from + MAX_PARAMETERS));
+        var placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+        try (var statement =
+            connection.prepareStatement(
+                """
           select
             id,
             discord_thread_id,
             discord_message_id,
-            user_id,
-            message_time,
             title,
             jump_url,
             contents,
             tags
           from
-            scheduled_dm
+            reminder_payloads
           where
-            message_time <= ?
-          """)) {
-        statement.setString(1, toDbDateTimeString(dateTime));
-        var rs = statement.executeQuery();
-        var results = new ArrayList<WithId<ScheduledDM>>();
-        while (rs.next()) {
-          var id = rs.getInt(1);
-          var discordThreadId = rs.getString(2);
-          var discordMessageId = rs.getString(3);
-          var userId = rs.getString(4);
-          var messageTime = ZonedDateTime.parse(rs.getString(5));
-          var title = rs.getString(6);
-          var jumpUrl = rs.getString(7);
-          var contents = rs.getString(8);
-          var tags = Optional.ofNullable(rs.getString(9));
-          results.add(
-              new WithId<>(
-                  id,
-                  new ScheduledDM(
-                      discordThreadId,
-                      discordMessageId,
-                      userId,
-                      messageTime,
-                      title,
-                      jumpUrl,
-                      contents,
-                      tags)));
+            id in (%s)
+          """
+                    .formatted(placeholders))) {
+          for (var i = 0; i < chunk.size(); i++) {
+            statement.setInt(i + 1, chunk.get(i));
+          }
+          var rs = statement.executeQuery();
+          while (rs.next()) {
+            results.put(
+                rs.getInt(1),
+                new ReminderPayload(
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getString(5),
+                    rs.getString(6),
+                    Optional.ofNullable(rs.getString(7))));
+          }
         }
-        return results;
       }
+      return results;
     }
 
-    public void deleteScheduledDM(int id) throws SQLException {
+    /** Gives up the claim on DMs that weren't sent, so they're claimed again straight away. */
+    public void releaseScheduledDMs(Collection<Integer> ids) throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
-          delete from scheduled_dm
+          update scheduled_dm
+          set claimed_until = null
           where id = ?
           """)) {
-        statement.setInt(1, id);
-        statement.executeUpdate();
-      }
-    }
-
-    public void deleteDiscordThread(String id) throws SQLException {
-      try (var connection = dataSource.getConnection();
-          var statement =
-              connection.prepareStatement(
-                  """
-          delete from discord_threads
-          where programme_item_id = ?
-          """)) {
-        statement.setString(1, id);
-        statement.executeUpdate();
+        for (var id : ids) {
+          statement.setInt(1, id);
+          statement.addBatch();
+        }
+        statement.executeBatch();
       }
     }
 
-    public Optional<String> getPrivateThread(String userId, String purpose) throws SQLException {
-      try (var connection = dataSource.getConnection();
-          var statement =
+    /**
+     * Deletes the DMs once they've been dealt with, along with the payloads that no other DMs need
+     * any more.
+     */
+    public void deleteScheduledDMs(Collection<Integer> ids) throws SQLException {
+      var idList = List.copyOf(ids);
+      var payloadIds = new LinkedHashSet<Integer>();
+      try (var connection = dataSource.getConnection()) {
+        connection.setAutoCommit(false);
+        try {
+          // Keep well under SQLite's limit on the number of parameters in a statement.
+          for (var from = 0; from < idList.size(); from += MAX_PARAMETERS) {
+            var chunk = idList.subList(from, Math.min(idList.size(), from + MAX_PARAMETERS));
+            var placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (var statement =
+                connection.prepareStatement(
+                    """
+            delete from scheduled_dm
+            where id in (%s)
+            returning payload_id
+            """
+                        .formatted(placeholders))) {
+              for (var i = 0; i < chunk.size(); i++) {
+                statement.setInt(i + 1, chunk.get(i));
+              }
+              try (var rs = statement.executeQuery()) {
+                while (rs.next()) {
+                  payloadIds.add(rs.getInt(1));
+                }
+              }
+            }
+          }
+          try (var statement =
               connection.prepareStatement(
                   """
-          select
-            discord_thread_id
-          from
-            private_threads
+          delete from reminder_payloads
           where
-            user_id = ?
-            and purpose = ?
+            id = ?
+            and not exists (select 1 from scheduled_dm where payload_id = ?)
           """)) {
-        statement.setString(1, userId);
-        statement.setString(2, purpose);
-        var rs = statement.executeQuery();
-        if (!rs.next()) {
-          return Optional.empty();
+            for (var payloadId : payloadIds) {
+              statement.setInt(1, payloadId);
+              statement.setInt(2, payloadId);
+              statement.addBatch();
+            }
+            statement.executeBatch();
+          }
+          connection.commit();
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
         }
-        return Optional.of(rs.getString(1));
       }
     }
 
-    public void insertPrivateThread(String userId, String purpose, String threadId)
-        throws SQLException {
+    /**
+     * Deletes the DMs due at or before the given time in one go, for when they're too late to be
+     * worth sending, along with the payloads no DMs need any more. Returns how many were deleted.
+     */
+    public int purgeScheduledDMsBefore(ZonedDateTime dateTime) throws SQLException {
       try (var connection = dataSource.getConnection();
-          var statement =
+          var dmStatement =
               connection.prepareStatement(
                   """
-          insert or replace into private_threads(
-            user_id,
-            purpose,
-            discord_thread_id
+          delete from scheduled_dm
+          where message_time <= ?
+          """);
+          var payloadStatement =
+              connection.prepareStatement(
+                  """
+          delete from reminder_payloads
+          where not exists (
+            select 1 from scheduled_dm where payload_id = reminder_payloads.id
           )
-          values (?, ?, ?)
           """)) {
-        statement.setString(1, userId);
-        statement.setString(2, purpose);
-        statement.setString(3, threadId);
-        statement.executeUpdate();
+        connection.setAutoCommit(false);
+        try {
+          dmStatement.setString(1, toDbDateTimeString(dateTime));
+          var numDeleted = dmStatement.executeUpdate();
+          payloadStatement.executeUpdate();
+          connection.commit();
+          return numDeleted;
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
+        }
       }
     }
 
-    public Optional<ZonedDateTime> getNextNowOn(ZonedDateTime now, TemporalAmount timeAfterToKeep)
-        throws SQLException {
+    /**
+     * Gives up every claim on DMs, for when nothing can be sending them. Returns how many were
+     * claimed.
+     */
+    public int releaseAllScheduledDMs() throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
-          select
-            min(start_time)
-          from
-            discord_threads
-          where
-            end_time > ? and not exists (
-              select
-                1
-              from
-                now_on
-              where
-                discord_threads.programme_item_id = now_on.programme_item_id
-            ) AND
-            status != 'CANCELLED'
-          """)) {
-        statement.setString(1, toDbDateTimeString(now.minus(timeAfterToKeep)));
-        var rs = statement.executeQuery();
-        if (!rs.next()) {
-          return Optional.empty();
-        }
-        var time = rs.getString(1);
-        if (time == null) {
-          return Optional.empty();
-        }
-        return Optional.of(ZonedDateTime.parse(time));
+          update scheduled_dm
+          set claimed_until = null
+          where claimed_until is not null
+          """)) {
+        return statement.executeUpdate();
       }
     }
 
-    public Optional<ZonedDateTime> getNextNowOnEnd() throws SQLException {
+    /** How many DMs are due at or before the given time, and when the earliest was due. */
+    public OverdueDMs getOverdueDMs(ZonedDateTime dateTime) throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
           select
-            min(end_time)
+            count(*),
+            min(message_time)
           from
-            now_on
+            scheduled_dm
+          where
+            message_time <= ?
           """)) {
+        statement.setString(1, toDbDateTimeString(dateTime));
         var rs = statement.executeQuery();
-        if (!rs.next()) {
-          return Optional.empty();
-        }
-        var time = rs.getString(1);
-        if (time == null) {
-          return Optional.empty();
-        }
-        return Optional.of(ZonedDateTime.parse(time));
+        rs.next();
+        return new OverdueDMs(
+            rs.getInt(1), Optional.ofNullable(rs.getString(2)).map(ZonedDateTime::parse));
       }
     }
 
-    public List<DiscordThread> getNowOn(
-        ZonedDateTime now, TemporalAmount timeBeforeToAdd, TemporalAmount timeAfterToKeep)
-        throws SQLException {
+    public List<DiscordThread> getAllDiscordThreads() throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
@@ -591,170 +757,685 @@ public class DatabaseManager {
             status
           from
             discord_threads
-          where
-            start_time <= ? and end_time > ? and not exists (
-              select
-                1
-              from
-                now_on
-              where
-                discord_threads.programme_item_id = now_on.programme_item_id
-            )
-            order by
-              start_time, loc
           """)) {
-        statement.setString(1, toDbDateTimeString(now.plus(timeBeforeToAdd)));
-        statement.setString(2, toDbDateTimeString(now.minus(timeAfterToKeep)));
         var rs = statement.executeQuery();
         var results = new ArrayList<DiscordThread>();
         while (rs.next()) {
-          var programmeItemId = rs.getString(1);
-          Optional<String> threadId;
-          var threadIdBytes = rs.getBytes(2);
-          if (threadIdBytes != null) {
-            threadId = Optional.of(new String(threadIdBytes));
-          } else {
-            threadId = Optional.empty();
-          }
-          Optional<String> messageId;
-          var messageIdBytes = rs.getBytes(3);
-          if (messageIdBytes != null) {
-            messageId = Optional.of(new String(messageIdBytes));
-          } else {
-            messageId = Optional.empty();
-          }
-          var title = rs.getString(4);
-          String desc;
-          var descBytes = rs.getBytes(5);
-          if (descBytes == null) {
-            desc = null;
-          } else {
-            desc = new String(descBytes);
-          }
-          var loc = rs.getString(6);
-          var startTime = ZonedDateTime.parse(rs.getString(7));
-          var endTime = ZonedDateTime.parse(rs.getString(8));
-          var status = Status.valueOf(rs.getString(9));
-          results.add(
-              new DiscordThread(
-                  threadId,
-                  messageId,
-                  status,
-                  new DiscordItem(programmeItemId, title, desc, loc, startTime, endTime)));
+          results.add(readDiscordThread(rs));
         }
         return results;
       }
     }
 
-    public List<String> getExpiredNowOnMessages(ZonedDateTime time) throws SQLException {
+    /**
+     * Reads the threads that have a Discord post, a page at a time in programme item id order.
+     * Pass the id of the last thread in the previous page, or an empty string for the first page.
+     */
+    public List<DiscordThread> getPostedDiscordThreads(String afterProgrammeItemId, int limit)
+        throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
           select
-            discord_message_id
+            programme_item_id,
+            thread_id,
+            message_id,
+            title,
+            desc,
+            loc,
+            start_time,
+            end_time,
+            status
           from
-            now_on
+            discord_threads
           where
-            end_time <= ?
+            thread_id is not null
+            and programme_item_id > ?
+          order by
+            programme_item_id
+          limit ?
           """)) {
-        statement.setString(1, toDbDateTimeString(time));
+        statement.setString(1, afterProgrammeItemId);
+        statement.setInt(2, limit);
         var rs = statement.executeQuery();
-        var results = new ArrayList<String>();
+        var results = new ArrayList<DiscordThread>();
         while (rs.next()) {
-          results.add(rs.getString(1));
+          results.add(readDiscordThread(rs));
         }
         return results;
       }
     }
 
-    public void insertNowOnMessage(
-        String programmeItemId, String discordMessageId, ZonedDateTime endTime)
+    public void insertRecoveredDiscordThreads(
+        Collection<DiscordThread> discordThreads, ZonedDateTime alarmsProcessedBefore)
         throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
-          insert into now_on(
+          insert into discord_threads (
             programme_item_id,
-            discord_message_id,
-            end_time
+            thread_id,
+            message_id,
+            title,
+            desc,
+            loc,
+            start_time,
+            end_time,
+            status,
+            processed_alarms
           )
-          values (?, ?, ?)
+          values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
           """)) {
-        statement.setString(1, programmeItemId);
-        statement.setString(2, discordMessageId);
-        statement.setString(3, toDbDateTimeString(endTime));
-        statement.executeUpdate();
+        connection.setAutoCommit(false);
+        try {
+          for (var discordThread : discordThreads) {
+            statement.setString(1, discordThread.item().id());
+            statement.setString(2, discordThread.discordThreadId().orElse(null));
+            statement.setString(3, discordThread.discordMessageId().orElse(null));
+            statement.setString(4, discordThread.item().title());
+            if (discordThread.item().body() == null) {
+              statement.setNull(5, Types.BLOB);
+            } else {
+              statement.setBytes(5, discordThread.item().body().getBytes());
+            }
+            statement.setString(6, discordThread.item().loc());
+            statement.setString(7, toDbDateTimeString(discordThread.item().startEpochSecond()));
+            statement.setString(8, toDbDateTimeString(discordThread.item().endEpochSecond()));
+            statement.setString(9, discordThread.status().toString());
+            statement.setInt(
+                10,
+                discordThread.item().startEpochSecond() > alarmsProcessedBefore.toEpochSecond()
+                    ? 0
+                    : 1);
+            statement.addBatch();
+          }
+          statement.executeBatch();
+          connection.commit();
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
+        }
       }
     }
 
-    public void deleteNowOnMessage(String messageId) throws SQLException {
+    public void updateDiscordThreadPost(String programmeItemId, String threadId, String messageId)
+        throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
-          delete from now_on
-          where discord_message_id = ?
+          update discord_threads
+            set thread_id = ?,
+            message_id = ?
+          where
+            programme_item_id = ?
           """)) {
-        statement.setString(1, messageId);
-        statement.executeUpdate();
+        statement.setString(1, threadId);
+        statement.setString(2, messageId);
+        statement.setString(3, programmeItemId);
+
+        var rowsAffected = statement.executeUpdate();
+        if (rowsAffected != 1) {
+          throw new SQLException(
+              "Error updating discord thread. Expected to update 1 row but got " + rowsAffected);
+        }
       }
     }
 
-    public boolean markCommsLogAsProcessed(String messageId) throws SQLException {
+    public void addAlarmSubscriptions(String programmeItemId, Collection<String> userIds)
+        throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
-          insert into comms_log(discord_message_id) values (?)
+          insert or ignore into alarm_subscriptions(
+            programme_item_id,
+            user_id
+          )
+          values (?, ?)
           """)) {
-        statement.setString(1, messageId);
-        statement.executeUpdate();
-        return true;
-      } catch (SQLiteException e) {
-        if (e.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_PRIMARYKEY) {
-          return false;
+        for (var userId : userIds) {
+          statement.setString(1, programmeItemId);
+          statement.setString(2, userId);
+          statement.addBatch();
         }
-        throw e;
+        statement.executeBatch();
       }
     }
 
-    public Optional<NewsletterDbItem> getNewsletterItem(String id) throws SQLException {
+    public List<String> getAlarmSubscribers(String programmeItemId) throws SQLException {
       try (var connection = dataSource.getConnection();
           var statement =
               connection.prepareStatement(
                   """
           select
-            discord_message_id,
-            content_checksum
+            user_id
           from
-            newsletter_items
+            alarm_subscriptions
           where
-            id = ?
+            programme_item_id = ?
           """)) {
-        statement.setString(1, id);
+        statement.setString(1, programmeItemId);
         var rs = statement.executeQuery();
-        if (!rs.next()) {
-          return Optional.empty();
+        var results = new ArrayList<String>();
+        while (rs.next()) {
+          results.add(rs.getString(1));
         }
-        return Optional.of(
-            new NewsletterDbItem(id, rs.getString(1), rs.getString(2)));
+        return results;
       }
     }
 
-    public void insertNewsletterItem(String id, String discordMessageId, String contentChecksum)
+    /** The users subscribed to any of the programme items. */
+    public Set<String> getAlarmSubscribers(Collection<String> programmeItemIds)
         throws SQLException {
-      try (var connection = dataSource.getConnection();
-          var statement =
+      var ids = List.copyOf(programmeItemIds);
+      var results = new LinkedHashSet<String>();
+      try (var connection = dataSource.getConnection()) {
+        // Keep well under SQLite's limit on the number of parameters in a statement.
+        for (var from = 0; from < ids.size(); from += MAX_PARAMETERS) {
+          var chunk = ids.subList(from, Math.min(ids.size(), from + MAX_PARAMETERS));
+          var placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+          try (var statement =
               connection.prepareStatement(
                   """
-          insert into newsletter_items (id, discord_message_id, content_checksum)
-          values (?, ?, ?)
-          """)) {
-        statement.setString(1, id);
-        statement.setString(2, discordMessageId);
-        statement.setString(3, contentChecksum);
+          select distinct
+            user_id
+          from
+            alarm_subscriptions
+          where
+            programme_item_id in (%s)
+          """
+                      .formatted(placeholders))) {
+            for (var i = 0; i < chunk.size(); i++) {
+              statement.setString(i + 1, chunk.get(i));
+            }
+            var rs = statement.executeQuery();
+            while (rs.next()) {
+              results.add(rs.getString(1));
+            }
+          }
+        }
+      }
+      return results;
+    }
+
+    public void removeAlarmSubscription(String programmeItemId, String userId)
+        throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          delete from alarm_subscriptions
+          where
+            programme_item_id = ?
+            and user_id = ?
+          """)) {
+        statement.setString(1, programmeItemId);
+        statement.setString(2, userId);
+        statement.executeUpdate();
+      }
+    }
+
+    /** The programme items the user has asked to be reminded about. */
+    public List<String> getAlarmSubscriptions(String userId) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            programme_item_id
+          from
+            alarm_subscriptions
+          where
+            user_id = ?
+          """)) {
+        statement.setString(1, userId);
+        var rs = statement.executeQuery();
+        var results = new ArrayList<String>();
+        while (rs.next()) {
+          results.add(rs.getString(1));
+        }
+        return results;
+      }
+    }
+
+    public Optional<String> getProgrammeItemIdForMessage(String messageId) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            programme_item_id
+          from
+            discord_threads
+          where
+            message_id = ?
+          """)) {
+        statement.setString(1, messageId);
+        var rs = statement.executeQuery();
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(rs.getString(1));
+      }
+    }
+
+    /** Returns the user's calendar token, first storing {@code newToken} if they don't have one. */
+    public String getOrCreateCalendarToken(String userId, String newToken) throws SQLException {
+      try (var connection = dataSource.getConnection()) {
+        try (var statement =
+            connection.prepareStatement(
+                """
+            insert or ignore into calendar_tokens(
+              user_id,
+              token
+            )
+            values (?, ?)
+            """)) {
+          statement.setString(1, userId);
+          statement.setString(2, newToken);
+          statement.executeUpdate();
+        }
+        try (var statement =
+            connection.prepareStatement(
+                """
+            select
+              token
+            from
+              calendar_tokens
+            where
+              user_id = ?
+            """)) {
+          statement.setString(1, userId);
+          var rs = statement.executeQuery();
+          rs.next();
+          return rs.getString(1);
+        }
+      }
+    }
+
+    public Optional<String> getCalendarTokenUser(String token) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            user_id
+          from
+            calendar_tokens
+          where
+            token = ?
+          """)) {
+        statement.setString(1, token);
+        var rs = statement.executeQuery();
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(rs.getString(1));
+      }
+    }
+
+    /** Returns false if the user was already following the target. */
+    public boolean addFollow(String userId, Follow follow) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert or ignore into follows(
+            user_id,
+            kind,
+            value,
+            name
+          )
+          values (?, ?, ?, ?)
+          """)) {
+        statement.setString(1, userId);
+        statement.setString(2, follow.target().kind().name());
+        statement.setString(3, follow.target().value());
+        statement.setString(4, follow.name());
+        return statement.executeUpdate() == 1;
+      }
+    }
+
+    /** Returns false if the user wasn't following the target. */
+    public boolean removeFollow(String userId, FollowTarget target) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          delete from follows
+          where
+            user_id = ?
+            and kind = ?
+            and value = ?
+          """)) {
+        statement.setString(1, userId);
+        statement.setString(2, target.kind().name());
+        statement.setString(3, target.value());
+        return statement.executeUpdate() == 1;
+      }
+    }
+
+    public List<Follow> getFollows(String userId) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            kind,
+            value,
+            name
+          from
+            follows
+          where
+            user_id = ?
+          order by
+            kind,
+            value
+          """)) {
+        statement.setString(1, userId);
+        var rs = statement.executeQuery();
+        var results = new ArrayList<Follow>();
+        while (rs.next()) {
+          results.add(
+              new Follow(
+                  new FollowTarget(FollowTarget.Kind.valueOf(rs.getString(1)), rs.getString(2)),
+                  rs.getString(3)));
+        }
+        return results;
+      }
+    }
+
+    /** The users following each of the targets. Targets nobody follows are left out. */
+    public Map<FollowTarget, List<String>> getFollowers(Collection<FollowTarget> targets)
+        throws SQLException {
+      var valuesByKind = new EnumMap<FollowTarget.Kind, List<String>>(FollowTarget.Kind.class);
+      for (var target : targets) {
+        valuesByKind.computeIfAbsent(target.kind(), k -> new ArrayList<>()).add(target.value());
+      }
+
+      var results = new HashMap<FollowTarget, List<String>>();
+      try (var connection = dataSource.getConnection()) {
+        for (var entry : valuesByKind.entrySet()) {
+          var values = entry.getValue();
+          // Keep well under SQLite's limit on the number of parameters in a statement.
+          for (var from = 0; from < values.size(); from += MAX_PARAMETERS) {
+            var chunk = values.subList(from, Math.min(values.size(), from + MAX_PARAMETERS));
+            var placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+            try (var statement =
+                connection.prepareStatement(
+                    """
+            select
+              value,
+              user_id
+            from
+              follows
+            where
+              kind = ?
+              and value in (%s)
+            """
+                        .formatted(placeholders))) {
+              statement.setString(1, entry.getKey().name());
+              for (var i = 0; i < chunk.size(); i++) {
+                statement.setString(i + 2, chunk.get(i));
+              }
+              var rs = statement.executeQuery();
+              while (rs.next()) {
+                results
+                    .computeIfAbsent(
+                        new FollowTarget(entry.getKey(), rs.getString(1)), k -> new ArrayList<>())
+                    .add(rs.getString(2));
+              }
+            }
+          }
+        }
+      }
+      return results;
+    }
+
+    private static DiscordThread readDiscordThread(ResultSet rs)
+        throws SQLException {
+      var programmeItemId = rs.getString(1);
+      var threadIdBytes = rs.getBytes(2);
+      var threadId =
+          threadIdBytes == null ? Optional.<String>empty() : Optional.of(new String(threadIdBytes));
+      var messageIdBytes = rs.getBytes(3);
+      var messageId =
+          messageIdBytes == null
+              ? Optional.<String>empty()
+              : Optional.of(new String(messageIdBytes));
+      var title = rs.getString(4);
+      var descBytes = rs.getBytes(5);
+      var desc = descBytes == null ? null : new String(descBytes);
+      var loc = rs.getString(6);
+      var startTime = fromDbDateTimeString(rs.getString(7));
+      var endTime = fromDbDateTimeString(rs.getString(8));
+      var status = Status.valueOf(rs.getString(9));
+      return new DiscordThread(
+          threadId,
+          messageId,
+          status,
+          new DiscordItem(programmeItemId, title, desc, loc, startTime, endTime));
+    }
+
+    public void deleteDiscordThread(String id) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          delete from discord_threads
+          where programme_item_id = ?
+          """)) {
+        statement.setString(1, id);
+        statement.executeUpdate();
+      }
+    }
+
+    public Optional<String> getPrivateThread(String userId, String purpose) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            discord_thread_id
+          from
+            private_threads
+          where
+            user_id = ?
+            and purpose = ?
+          """)) {
+        statement.setString(1, userId);
+        statement.setString(2, purpose);
+        var rs = statement.executeQuery();
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(rs.getString(1));
+      }
+    }
+
+    public void insertPrivateThread(String userId, String purpose, String threadId)
+        throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert or replace into private_threads(
+            user_id,
+            purpose,
+            discord_thread_id
+          )
+          values (?, ?, ?)
+          """)) {
+        statement.setString(1, userId);
+        statement.setString(2, purpose);
+        statement.setString(3, threadId);
+        statement.executeUpdate();
+      }
+    }
+
+    public List<NowOnMessage> getNowOnMessages() throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            programme_item_id,
+            discord_message_id,
+            end_time
+          from
+            now_on
+          """)) {
+        var rs = statement.executeQuery();
+        var results = new ArrayList<NowOnMessage>();
+        while (rs.next()) {
+          results.add(
+              new NowOnMessage(
+                  rs.getString(1), rs.getString(2), fromDbDateTimeString(rs.getString(3))));
+        }
+        return results;
+      }
+    }
+
+    /** Records the now on messages that have been posted and deleted in one transaction. */
+    public void updateNowOnMessages(
+        Collection<NowOnMessage> posted, Collection<String> deletedMessageIds)
+        throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var deleteStatement =
+              connection.prepareStatement(
+                  """
+          delete from now_on
+          where discord_message_id = ?
+          """);
+          var insertStatement =
+              connection.prepareStatement(
+                  """
+          insert into now_on(
+            programme_item_id,
+            discord_message_id,
+            end_time
+          )
+          values (?, ?, ?)
+          """)) {
+        connection.setAutoCommit(false);
+        try {
+          for (var messageId : deletedMessageIds) {
+            deleteStatement.setString(1, messageId);
+            deleteStatement.addBatch();
+          }
+          deleteStatement.executeBatch();
+          for (var nowOnMessage : posted) {
+            insertStatement.setString(1, nowOnMessage.programmeItemId());
+            insertStatement.setString(2, nowOnMessage.discordMessageId());
+            insertStatement.setString(3, toDbDateTimeString(nowOnMessage.endEpochSecond()));
+            insertStatement.addBatch();
+          }
+          insertStatement.executeBatch();
+          connection.commit();
+        } catch (SQLException e) {
+          connection.rollback();
+          throw e;
+        }
+      }
+    }
+
+    public Optional<String> getNowOnBoardMessageId(String channel) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            discord_message_id
+          from
+            now_on_boards
+          where
+            channel = ?
+          """)) {
+        statement.setString(1, channel);
+        var rs = statement.executeQuery();
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(rs.getString(1));
+      }
+    }
+
+    public void setNowOnBoardMessageId(String channel, String discordMessageId)
+        throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert into now_on_boards (
+            channel,
+            discord_message_id
+          )
+          values (?, ?)
+          on conflict (channel) do update set
+            discord_message_id = excluded.discord_message_id
+          """)) {
+        statement.setString(1, channel);
+        statement.setString(2, discordMessageId);
+        statement.executeUpdate();
+      }
+    }
+
+    public boolean markCommsLogAsProcessed(String messageId) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert into comms_log(discord_message_id) values (?)
+          """)) {
+        statement.setString(1, messageId);
+        statement.executeUpdate();
+        return true;
+      } catch (SQLiteException e) {
+        if (e.getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_PRIMARYKEY) {
+          return false;
+        }
+        throw e;
+      }
+    }
+
+    public Optional<NewsletterDbItem> getNewsletterItem(String id) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            discord_message_id,
+            content_checksum
+          from
+            newsletter_items
+          where
+            id = ?
+          """)) {
+        statement.setString(1, id);
+        var rs = statement.executeQuery();
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(
+            new NewsletterDbItem(id, rs.getString(1), rs.getString(2)));
+      }
+    }
+
+    public void insertNewsletterItem(String id, String discordMessageId, String contentChecksum)
+        throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert into newsletter_items (id, discord_message_id, content_checksum)
+          values (?, ?, ?)
+          """)) {
+        statement.setString(1, id);
+        statement.setString(2, discordMessageId);
+        statement.setString(3, contentChecksum);
         var rowsAffected = statement.executeUpdate();
         if (rowsAffected != 1) {
           throw new SQLException(
@@ -810,5 +1491,178 @@ public class DatabaseManager {
         return results;
       }
     }
+
+    public Optional<String> getFeedCursor(String feed) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select cursor from feed_cursors where feed = ?
+          """)) {
+        statement.setString(1, feed);
+        var rs = statement.executeQuery();
+        if (!rs.next()) {
+          return Optional.empty();
+        }
+        return Optional.of(rs.getString(1));
+      }
+    }
+
+    public void setFeedCursor(String feed, String cursor) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert or replace into feed_cursors (feed, cursor)
+          values (?, ?)
+          """)) {
+        statement.setString(1, feed);
+        statement.setString(2, cursor);
+        statement.executeUpdate();
+      }
+    }
+
+    public void queuePortalPost(PostDetails postDetails, ZonedDateTime now) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          insert into portal_post_queue (
+            programme_item_id,
+            title,
+            start_time,
+            mins,
+            room_id,
+            post_url,
+            version,
+            queued_at
+          )
+          values (?, ?, ?, ?, ?, ?, 1, ?)
+          on conflict (programme_item_id) do update set
+            title = excluded.title,
+            start_time = excluded.start_time,
+            mins = excluded.mins,
+            room_id = excluded.room_id,
+            post_url = excluded.post_url,
+            version = version + 1
+          """)) {
+        statement.setString(1, postDetails.itemId());
+        statement.setString(2, postDetails.title());
+        statement.setString(3, postDetails.start());
+        statement.setInt(4, postDetails.mins());
+        statement.setString(5, postDetails.roomId());
+        statement.setString(6, postDetails.postUrl());
+        statement.setString(7, toDbDateTimeString(now));
+        statement.executeUpdate();
+      }
+    }
+
+    public List<QueuedPost> getQueuedPortalPosts(int limit) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            programme_item_id,
+            title,
+            start_time,
+            mins,
+            room_id,
+            post_url,
+            version
+          from
+            portal_post_queue
+          order by
+            queued_at
+          limit ?
+          """)) {
+        statement.setInt(1, limit);
+        var rs = statement.executeQuery();
+        var results = new ArrayList<QueuedPost>();
+        while (rs.next()) {
+          results.add(
+              new QueuedPost(
+                  new PostDetails(
+                      rs.getString(1),
+                      rs.getString(2),
+                      rs.getString(3),
+                      rs.getInt(4),
+                      rs.getString(5),
+                      rs.getString(6)),
+                  rs.getInt(7)));
+        }
+        return results;
+      }
+    }
+
+    /**
+     * Removes sent posts from the queue, unless they've been queued again since they were read.
+     * Returns how many were removed.
+     */
+    public int ackPortalPosts(Collection<QueuedPost> queuedPosts) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          delete from portal_post_queue
+          where programme_item_id = ? and version = ?
+          """)) {
+        for (var queuedPost : queuedPosts) {
+          statement.setString(1, queuedPost.details().itemId());
+          statement.setInt(2, queuedPost.version());
+          statement.addBatch();
+        }
+        var removed = 0;
+        for (var rowsAffected : statement.executeBatch()) {
+          removed += rowsAffected;
+        }
+        return removed;
+      }
+    }
+
+    public QueueStats getPortalPostQueueStats(ZonedDateTime now) throws SQLException {
+      try (var connection = dataSource.getConnection();
+          var statement =
+              connection.prepareStatement(
+                  """
+          select
+            count(*),
+            min(queued_at)
+          from
+            portal_post_queue
+          """)) {
+        var rs = statement.executeQuery();
+        rs.next();
+        var oldest = rs.getString(2);
+        return new QueueStats(
+            rs.getInt(1),
+            Optional.ofNullable(oldest)
+                .map(time -> Duration.between(ZonedDateTime.parse(time), now)));
+      }
+    }
+  }
+
+  public record OverdueDMs(int count, Optional<ZonedDateTime> earliest) {}
+
+  private record ClaimedDM(int id, int payloadId, String userId, ZonedDateTime messageTime) {}
+
+  /** The part of a scheduled DM that's the same for every user it's sent to. */
+  private record ReminderPayload(
+      String discordThreadId,
+      String discordMessageId,
+      String title,
+      String jumpUrl,
+      String contents,
+      Optional<String> tags) {
+
+    static ReminderPayload of(ScheduledDM scheduledDM) {
+      return new ReminderPayload(
+          scheduledDM.discordThreadId(),
+          scheduledDM.discordMessageId(),
+          scheduledDM.title(),
+          scheduledDM.jumpUrl(),
+          scheduledDM.contents(),
+          scheduledDM.tags());
+    }
   }
 }
@@ -0,0 +1,123 @@
+package com.ajanuary.watson.feed;
+
+import com.ajanuary.watson.db.DatabaseManager.DatabaseConnection;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of where we are in a feed's delta endpoint, and decides when a poll can use it.
+ *
+ * <p>The endpoint is called with a {@code since} query parameter holding the cursor from the last
+ * delta, and returns a {@link FeedDelta}. Called without {@code since}, it returns the current
+ * cursor and no changes. If the cursor is no longer known it returns 410 Gone.
+ *
+ * <p>The cursor is kept in the database so deltas carry on across restarts. A full sync is still
+ * done on startup, every {@link DeltaFeedConfig#fullSyncInterval()}, and whenever the cursor can't
+ * be used, to put right anything the deltas missed.
+ */
+public class DeltaFeed<T> {
+
+  // So an endpoint that stops responding fails the sync instead of holding up every poll.
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final Logger logger = LoggerFactory.getLogger(DeltaFeed.class);
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+
+  private final String name;
+  private final DeltaFeedConfig config;
+  private final ObjectMapper objectMapper;
+  private final JavaType deltaType;
+
+  private Instant lastFullSync = null;
+
+  public DeltaFeed(
+      String name, DeltaFeedConfig config, ObjectMapper objectMapper, Class<T> itemType) {
+    this.name = name;
+    this.config = config;
+    this.objectMapper = objectMapper;
+    this.deltaType =
+        objectMapper.getTypeFactory().constructParametricType(FeedDelta.class, itemType);
+  }
+
+  /**
+   * Works out how this poll should sync. If the returned sync is full, the caller should fetch and
+   * reconcile the whole feed. Either way, it should call {@link #finish} once it has applied the
+   * changes.
+   */
+  public Sync<T> start(DatabaseConnection conn)
+      throws IOException, InterruptedException, SQLException {
+    var cursor = conn.getFeedCursor(name);
+    var fullSyncDue =
+        lastFullSync == null
+            || !Instant.now().isBefore(lastFullSync.plus(config.fullSyncInterval()));
+    if (cursor.isPresent() && !fullSyncDue) {
+      var delta = fetch(cursor);
+      if (delta.isPresent()) {
+        return new Sync<>(delta, delta.get().cursor());
+      }
+      logger.warn("Cursor for the {} feed has expired. Doing a full sync", name);
+    }
+
+    // Take the cursor before the full fetch, so anything that changes while we're fetching is
+    // picked up by the next delta.
+    var head =
+        fetch(Optional.empty())
+            .orElseThrow(() -> new IOException("Delta endpoint for " + name + " has no cursor"));
+    return new Sync<>(Optional.empty(), head.cursor());
+  }
+
+  public void finish(DatabaseConnection conn, Sync<T> sync) throws SQLException {
+    conn.setFeedCursor(name, sync.cursor());
+    if (sync.isFull()) {
+      lastFullSync = Instant.now();
+    }
+  }
+
+  private Optional<FeedDelta<T>> fetch(Optional<String> since)
+      throws IOException, InterruptedException {
+    var uri =
+        since
+            .map(
+                cursor ->
+                    URI.create(
+                        config.url()
+                            + (config.url().getRawQuery() == null ? "?" : "&")
+                            + "since="
+                            + URLEncoder.encode(cursor, StandardCharsets.UTF_8)))
+            .orElse(config.url());
+    var request = HttpRequest.newBuilder().uri(uri).timeout(REQUEST_TIMEOUT).GET().build();
+    var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() == 410) {
+      return Optional.empty();
+    }
+    if (response.statusCode() != 200) {
+      throw new IOException("Error polling " + name + " delta: " + response.body());
+    }
+    return Optional.of(objectMapper.readValue(response.body(), deltaType));
+  }
+
+  /**
+   * @param delta the changes to apply, or empty if the whole feed needs to be synced
+   * @param cursor the cursor to save once the changes have been applied
+   */
+  public record Sync<T>(Optional<FeedDelta<T>> delta, String cursor) {
+    public boolean isFull() {
+      return delta.isEmpty();
+    }
+  }
+}
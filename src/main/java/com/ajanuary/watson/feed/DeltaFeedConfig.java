@@ -0,0 +1,6 @@
+package com.ajanuary.watson.feed;
+
+import java.net.URI;
+import java.time.Duration;
+
+public record DeltaFeedConfig(URI url, Duration fullSyncInterval) {}
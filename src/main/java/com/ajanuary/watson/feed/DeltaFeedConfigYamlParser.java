@@ -0,0 +1,21 @@
+package com.ajanuary.watson.feed;
+
+import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
+import java.net.URI;
+import java.time.Duration;
+
+public class DeltaFeedConfigYamlParser {
+
+  private DeltaFeedConfigYamlParser() {}
+
+  public static DeltaFeedConfig parse(ObjectConfigParserWithValue configParser) {
+    var url = configParser.get("url").string().required().map(URI::create);
+    var fullSyncInterval =
+        configParser
+            .get("fullSyncInterval")
+            .string()
+            .defaultingTo("1h")
+            .map(v -> Duration.parse("PT" + v));
+    return new DeltaFeedConfig(url, fullSyncInterval);
+  }
+}
@@ -0,0 +1,18 @@
+package com.ajanuary.watson.feed;
+
+import java.util.List;
+
+/**
+ * What has changed in a feed since a cursor.
+ *
+ * @param cursor the cursor to ask for the next delta with
+ * @param upserts items that have been added or changed
+ * @param tombstones ids of items that have been removed
+ */
+public record FeedDelta<T>(String cursor, List<T> upserts, List<String> tombstones) {
+
+  public FeedDelta {
+    upserts = upserts == null ? List.of() : upserts;
+    tombstones = tombstones == null ? List.of() : tombstones;
+  }
+}
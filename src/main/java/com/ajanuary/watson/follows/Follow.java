@@ -0,0 +1,6 @@
+package com.ajanuary.watson.follows;
+
+/**
+ * @param name the name as it appeared on the programme when the user followed it
+ */
+public record Follow(FollowTarget target, String name) {}
@@ -0,0 +1,97 @@
+package com.ajanuary.watson.follows;
+
+import com.ajanuary.watson.follows.FollowTarget.Kind;
+import com.ajanuary.watson.programme.ProgrammeItem;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Which items each person, tag and room is on, so the users to tell about a change can be found
+ * from the items that changed rather than by going through everyone's follows.
+ */
+public class FollowIndex {
+
+  private final Map<FollowTarget, Set<String>> itemIdsByTarget = new HashMap<>();
+  private final Map<String, Entry> entriesByItemId = new HashMap<>();
+
+  /** Adds the item, or replaces what was indexed for it before. */
+  public synchronized void put(ProgrammeItem item) {
+    remove(item.id());
+    var targets = targetsOf(item);
+    entriesByItemId.put(item.id(), new Entry(item.title(), targets));
+    for (var target : targets.keySet()) {
+      itemIdsByTarget.computeIfAbsent(target, k -> new HashSet<>()).add(item.id());
+    }
+  }
+
+  public synchronized void remove(String itemId) {
+    var entry = entriesByItemId.remove(itemId);
+    if (entry == null) {
+      return;
+    }
+    for (var target : entry.targets().keySet()) {
+      var itemIds = itemIdsByTarget.get(target);
+      itemIds.remove(itemId);
+      if (itemIds.isEmpty()) {
+        itemIdsByTarget.remove(target);
+      }
+    }
+  }
+
+  /** Removes every item that isn't in {@code itemIds}. */
+  public synchronized void retainOnly(Collection<String> itemIds) {
+    var keep = new HashSet<>(itemIds);
+    for (var itemId : List.copyOf(entriesByItemId.keySet())) {
+      if (!keep.contains(itemId)) {
+        remove(itemId);
+      }
+    }
+  }
+
+  public synchronized Set<FollowTarget> targetsOf(String itemId) {
+    var entry = entriesByItemId.get(itemId);
+    return entry == null ? Set.of() : Set.copyOf(entry.targets().keySet());
+  }
+
+  public synchronized Set<String> itemIds(FollowTarget target) {
+    return Set.copyOf(itemIdsByTarget.getOrDefault(target, Set.of()));
+  }
+
+  public synchronized Optional<String> title(String itemId) {
+    return Optional.ofNullable(entriesByItemId.get(itemId)).map(Entry::title);
+  }
+
+  /** The name of the target as it appears on the programme, if it's on any item. */
+  public synchronized Optional<String> name(FollowTarget target) {
+    var itemIds = itemIdsByTarget.get(target);
+    if (itemIds == null) {
+      return Optional.empty();
+    }
+    return Optional.of(entriesByItemId.get(itemIds.iterator().next()).targets().get(target));
+  }
+
+  /** The people, tags and room on the item, with the name each has on it. */
+  static Map<FollowTarget, String> targetsOf(ProgrammeItem item) {
+    var targets = new LinkedHashMap<FollowTarget, String>();
+    for (var person : item.people()) {
+      targets.putIfAbsent(
+          FollowTarget.of(Kind.PERSON, person), FollowTarget.displayName(Kind.PERSON, person));
+    }
+    for (var tag : item.tags()) {
+      targets.putIfAbsent(FollowTarget.of(Kind.TAG, tag), FollowTarget.displayName(Kind.TAG, tag));
+    }
+    if (item.loc() != null) {
+      targets.putIfAbsent(
+          FollowTarget.of(Kind.ROOM, item.loc()), FollowTarget.displayName(Kind.ROOM, item.loc()));
+    }
+    return targets;
+  }
+
+  private record Entry(String title, Map<FollowTarget, String> targets) {}
+}
@@ -0,0 +1,128 @@
+package com.ajanuary.watson.follows;
+
+import com.ajanuary.watson.db.DatabaseManager.DatabaseConnection;
+import com.ajanuary.watson.programme.DiscordThread;
+import com.ajanuary.watson.programme.ProgrammeItem;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out what to tell each user after a poll of the programme, keeping the {@link FollowIndex}
+ * up to date as it goes.
+ */
+class FollowNotifier {
+
+  private final FollowIndex index;
+
+  FollowNotifier(FollowIndex index) {
+    this.index = index;
+  }
+
+  /**
+   * Updates the index with the poll, and returns the lines to send to each user following
+   * something on an item that was added, changed or cancelled. Each user gets at most one line per
+   * item, however many of the item's people, tags and room they follow.
+   */
+  synchronized Map<String, List<String>> notifications(
+      DatabaseConnection conn, ProgrammePolledEvent event, boolean notify) throws SQLException {
+    var itemsById = new HashMap<String, ProgrammeItem>();
+    for (var item : event.items()) {
+      itemsById.put(item.id(), item);
+    }
+
+    var whatHappened = new LinkedHashMap<String, String>();
+    event.changes().added().forEach(id -> whatHappened.put(id, "has been added"));
+    event.changes().updated().forEach(id -> whatHappened.put(id, "has been changed"));
+    event.changes().cancelled().forEach(id -> whatHappened.put(id, "has been cancelled"));
+
+    // Look at what was on the item before it changed as well as after, so the followers of someone
+    // taken off an item, or of the room it moved out of, hear about it too.
+    var targetsByItemId = new HashMap<String, Set<FollowTarget>>();
+    var names = new HashMap<FollowTarget, String>();
+    for (var itemId : whatHappened.keySet()) {
+      var targets = new LinkedHashSet<FollowTarget>();
+      var item = itemsById.get(itemId);
+      if (item != null) {
+        var newTargets = FollowIndex.targetsOf(item);
+        targets.addAll(newTargets.keySet());
+        names.putAll(newTargets);
+      }
+      for (var target : index.targetsOf(itemId)) {
+        targets.add(target);
+        index.name(target).ifPresent(name -> names.putIfAbsent(target, name));
+      }
+      targetsByItemId.put(itemId, targets);
+    }
+    var titles = new HashMap<String, String>();
+    for (var itemId : whatHappened.keySet()) {
+      var item = itemsById.get(itemId);
+      if (item != null) {
+        titles.put(itemId, item.title());
+      } else {
+        index.title(itemId).ifPresent(title -> titles.put(itemId, title));
+      }
+    }
+
+    for (var item : event.items()) {
+      index.put(item);
+    }
+    event.removedItemIds().forEach(index::remove);
+    if (event.reconciled()) {
+      index.retainOnly(itemsById.keySet());
+    }
+
+    if (!notify || whatHappened.isEmpty()) {
+      return Map.of();
+    }
+
+    var allTargets = new HashSet<FollowTarget>();
+    targetsByItemId.values().forEach(allTargets::addAll);
+    var followers = conn.getFollowers(allTargets);
+    if (followers.isEmpty()) {
+      return Map.of();
+    }
+
+    var linesByUser = new LinkedHashMap<String, List<String>>();
+    for (var entry : whatHappened.entrySet()) {
+      var itemId = entry.getKey();
+      var told = new HashSet<String>();
+      String line = null;
+      for (var target : targetsByItemId.get(itemId)) {
+        for (var userId : followers.getOrDefault(target, List.of())) {
+          if (!told.add(userId)) {
+            continue;
+          }
+          if (line == null) {
+            line = line(conn, itemId, titles.get(itemId), entry.getValue());
+          }
+          linesByUser
+              .computeIfAbsent(userId, k -> new ArrayList<>())
+              .add(line + " (you follow " + names.get(target) + ")");
+        }
+      }
+    }
+    return linesByUser;
+  }
+
+  private static String line(DatabaseConnection conn, String itemId, String title, String what)
+      throws SQLException {
+    var discordThread = conn.getDiscordThread(itemId);
+    if (title == null) {
+      title = discordThread.map(t -> t.item().title()).orElse(itemId);
+    }
+    var line = "- **" + title + "** " + what;
+    var discordThreadId = discordThread.flatMap(DiscordThread::discordThreadId);
+    if (discordThreadId.isPresent()) {
+      line += " <#" + discordThreadId.get() + ">";
+    }
+    return line;
+  }
+}
@@ -0,0 +1,32 @@
+package com.ajanuary.watson.follows;
+
+import java.util.Locale;
+
+/**
+ * A person, tag or room that a user can follow. Names are compared ignoring case, and a person is
+ * the same person whether or not they're moderating.
+ */
+public record FollowTarget(Kind kind, String value) {
+
+  private static final String MODERATOR_SUFFIX = "(moderator)";
+
+  public static FollowTarget of(Kind kind, String name) {
+    return new FollowTarget(kind, displayName(kind, name).toLowerCase(Locale.ROOT));
+  }
+
+  /** The name to show for {@code name}, which is how it appears on an item. */
+  static String displayName(Kind kind, String name) {
+    var displayName = name.strip();
+    if (kind == Kind.PERSON && displayName.endsWith(MODERATOR_SUFFIX)) {
+      displayName =
+          displayName.substring(0, displayName.length() - MODERATOR_SUFFIX.length()).strip();
+    }
+    return displayName;
+  }
+
+  public enum Kind {
+    PERSON,
+    TAG,
+    ROOM
+  }
+}
@@ -0,0 +1,10 @@
+package com.ajanuary.watson.follows;
+
+import com.ajanuary.watson.utils.JDAUtils;
+
+public record FollowsConfig(String channel) {
+
+  public void validateDiscordConfig(JDAUtils jdaUtils) {
+    jdaUtils.getMessageChannel(channel());
+  }
+}
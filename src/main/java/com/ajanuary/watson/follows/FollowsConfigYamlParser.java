@@ -0,0 +1,13 @@
+package com.ajanuary.watson.follows;
+
+import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
+
+public class FollowsConfigYamlParser {
+
+  private FollowsConfigYamlParser() {}
+
+  public static FollowsConfig parse(ObjectConfigParserWithValue configParser) {
+    var channel = configParser.get("channel").string().defaultingTo("follows").value();
+    return new FollowsConfig(channel);
+  }
+}
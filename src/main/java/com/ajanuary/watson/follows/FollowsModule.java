@@ -0,0 +1,268 @@
+package com.ajanuary.watson.follows;
+
+import com.ajanuary.watson.config.Config;
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.follows.FollowTarget.Kind;
+import com.ajanuary.watson.notification.EventDispatcher;
+import com.ajanuary.watson.notification.ReadyEvent;
+import com.ajanuary.watson.privatethreads.PrivateThreadManager;
+import com.ajanuary.watson.programme.ProgrammeConfig;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import com.ajanuary.watson.utils.JDAUtils;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets users follow a person, tag or room with slash commands, and tells them in a private thread
+ * when an item with something they follow is added, changed or cancelled. Everything a user needs
+ * to hear about from one poll is sent together.
+ */
+public class FollowsModule implements EventListener {
+
+  static final int MAX_MESSAGE_LEN = 2000;
+
+  private final Logger logger = LoggerFactory.getLogger(FollowsModule.class);
+
+  private final JDA jda;
+  private final JDAUtils jdaUtils;
+  private final FollowsConfig followsConfig;
+  private final ProgrammeConfig programmeConfig;
+  private final Config config;
+  private final DatabaseManager databaseManager;
+  private final FollowIndex index = new FollowIndex();
+  private final FollowNotifier notifier = new FollowNotifier(index);
+  private final PrivateThreadManager privateThreadManager;
+
+  public FollowsModule(
+      JDA jda,
+      FollowsConfig followsConfig,
+      ProgrammeConfig programmeConfig,
+      Config config,
+      DatabaseManager databaseManager,
+      EventDispatcher eventDispatcher) {
+    this.jda = jda;
+    this.jdaUtils = new JDAUtils(jda, config);
+    this.followsConfig = followsConfig;
+    this.programmeConfig = programmeConfig;
+    this.config = config;
+    this.databaseManager = databaseManager;
+    this.privateThreadManager = new PrivateThreadManager(jda, "follows");
+
+    eventDispatcher.register(ProgrammePolledEvent.class, this::handlePoll);
+    eventDispatcher.register(ReadyEvent.class, e -> registerCommands());
+    jda.addEventListener(this);
+  }
+
+  private void registerCommands() {
+    var guild = jda.getGuildById(config.guildId());
+    assert guild != null;
+    var commands =
+        List.of(
+            Commands.slash("follow", "Hear about changes to items with a person, tag or room")
+                .addSubcommands(targetSubcommands()),
+            Commands.slash("unfollow", "Stop hearing about a person, tag or room")
+                .addSubcommands(targetSubcommands()),
+            Commands.slash("following", "List the people, tags and rooms you follow"));
+    for (var command : commands) {
+      guild
+          .upsertCommand(command)
+          .queue(
+              success -> {},
+              error -> logger.error("Error registering command {}", command.getName(), error));
+    }
+  }
+
+  private static List<SubcommandData> targetSubcommands() {
+    return List.of(
+        new SubcommandData("person", "A panelist")
+            .addOption(OptionType.STRING, "name", "As it appears on the programme", true),
+        new SubcommandData("tag", "A tag")
+            .addOption(OptionType.STRING, "name", "As it appears on the programme", true),
+        new SubcommandData("room", "A room")
+            .addOption(OptionType.STRING, "name", "As it appears on the programme", true));
+  }
+
+  @Override
+  public void onEvent(@NotNull GenericEvent event) {
+    if (!(event instanceof SlashCommandInteractionEvent commandEvent)
+        || commandEvent.getGuild() == null
+        || !commandEvent.getGuild().getId().equals(config.guildId())) {
+      return;
+    }
+
+    try {
+      switch (commandEvent.getName()) {
+        case "follow" -> follow(commandEvent);
+        case "unfollow" -> unfollow(commandEvent);
+        case "following" -> following(commandEvent);
+        default -> {}
+      }
+    } catch (SQLException e) {
+      logger.error(
+          "Error handling /{} for user {}",
+          commandEvent.getName(),
+          commandEvent.getUser().getId(),
+          e);
+      commandEvent
+          .reply("Something went wrong. Please try again later.")
+          .setEphemeral(true)
+          .queue();
+    }
+  }
+
+  private void follow(SlashCommandInteractionEvent event) throws SQLException {
+    var target = target(event);
+    var name = index.name(target);
+    if (name.isEmpty()) {
+      event
+          .reply(
+              "There's no "
+                  + describe(target.kind())
+                  + " called '"
+                  + event.getOption("name").getAsString()
+                  + "' on the programme.")
+          .setEphemeral(true)
+          .queue();
+      return;
+    }
+
+    boolean added;
+    try (var conn = databaseManager.getConnection()) {
+      added = conn.addFollow(event.getUser().getId(), new Follow(target, name.get()));
+    }
+    var message =
+        added
+            ? "You're now following "
+                + name.get()
+                + ". I'll tell you in a private thread when items with them are added or changed."
+            : "You're already following " + name.get() + ".";
+    event.reply(message).setEphemeral(true).queue();
+  }
+
+  private void unfollow(SlashCommandInteractionEvent event) throws SQLException {
+    var target = target(event);
+    boolean removed;
+    try (var conn = databaseManager.getConnection()) {
+      removed = conn.removeFollow(event.getUser().getId(), target);
+    }
+    var name = event.getOption("name").getAsString();
+    var message =
+        removed
+            ? "You're no longer following " + name + "."
+            : "You weren't following " + name + ".";
+    event.reply(message).setEphemeral(true).queue();
+  }
+
+  private void following(SlashCommandInteractionEvent event) throws SQLException {
+    List<Follow> follows;
+    try (var conn = databaseManager.getConnection()) {
+      follows = conn.getFollows(event.getUser().getId());
+    }
+    if (follows.isEmpty()) {
+      event
+          .reply("You're not following anything. Use /follow to start.")
+          .setEphemeral(true)
+          .queue();
+      return;
+    }
+    var lines =
+        follows.stream()
+            .map(follow -> "- " + follow.name() + " (" + describe(follow.target().kind()) + ")")
+            .toList();
+    var messages = messages("You're following:", lines);
+    event.reply(messages.get(0)).setEphemeral(true).queue();
+    for (var message : messages.subList(1, messages.size())) {
+      event.getHook().sendMessage(message).setEphemeral(true).queue();
+    }
+  }
+
+  private static FollowTarget target(SlashCommandInteractionEvent event) {
+    var kind = Kind.valueOf(event.getSubcommandName().toUpperCase(Locale.ROOT));
+    return FollowTarget.of(kind, event.getOption("name").getAsString());
+  }
+
+  private static String describe(Kind kind) {
+    return switch (kind) {
+      case PERSON -> "person";
+      case TAG -> "tag";
+      case ROOM -> "room";
+    };
+  }
+
+  private void handlePoll(ProgrammePolledEvent event) {
+    try (var conn = databaseManager.getConnection()) {
+      var notifications =
+          notifier.notifications(conn, event, programmeConfig.hasPerformedFirstLoad());
+      for (var entry : notifications.entrySet()) {
+        var userId = entry.getKey();
+        try {
+          notify(conn, userId, entry.getValue());
+        } catch (SQLException | RuntimeException e) {
+          logger.error("Error telling user {} about changes to items they follow", userId, e);
+        }
+      }
+    } catch (SQLException e) {
+      logger.error("Error working out who follows the changed items", e);
+    }
+  }
+
+  private void notify(DatabaseManager.DatabaseConnection conn, String userId, List<String> lines)
+      throws SQLException {
+    ThreadChannel thread =
+        privateThreadManager
+            .createThread(
+                conn,
+                userId,
+                () ->
+                    jdaUtils
+                        .getMessageChannel(followsConfig.channel())
+                        .createThreadChannel("followed items", true)
+                        .complete())
+            .thread();
+    for (var message :
+        messages("<@" + userId + "> Some items you follow have changed:", lines)) {
+      thread
+          .sendMessage(message)
+          .queue(
+              success -> {},
+              error -> logger.error("Error sending follow message to user {}", userId, error));
+    }
+  }
+
+  /**
+   * Splits the lines into as few messages as possible, each within Discord's limit, with the header
+   * at the start of the first.
+   */
+  static List<String> messages(String header, List<String> lines) {
+    var messages = new ArrayList<String>();
+    var current = new StringBuilder(header);
+    for (var line : lines) {
+      if (line.length() > MAX_MESSAGE_LEN - 1) {
+        line = line.substring(0, MAX_MESSAGE_LEN - 4) + "...";
+      }
+      if (current.length() + 1 + line.length() > MAX_MESSAGE_LEN) {
+        messages.add(current.toString());
+        current = new StringBuilder();
+      }
+      if (!current.isEmpty()) {
+        current.append('\n');
+      }
+      current.append(line);
+    }
+    messages.add(current.toString());
+    return messages;
+  }
+}
@@ -1,11 +1,14 @@
 package com.ajanuary.watson.newsletter;
 
+import com.ajanuary.watson.feed.DeltaFeedConfig;
 import com.ajanuary.watson.utils.JDAUtils;
 import java.net.URI;
 import java.time.Duration;
+import java.util.Optional;
 import net.dv8tion.jda.api.Permission;
 
-public record NewsletterConfig(String channel, URI feedUrl, Duration pollInterval) {
+public record NewsletterConfig(
+    String channel, URI feedUrl, Optional<DeltaFeedConfig> delta, Duration pollInterval) {
 
   public void validateDiscordConfig(JDAUtils jdaUtils) {
     var textChannel = jdaUtils.getMessageChannel(channel());
@@ -1,6 +1,7 @@
 package com.ajanuary.watson.newsletter;
 
 import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
+import com.ajanuary.watson.feed.DeltaFeedConfigYamlParser;
 import java.net.URI;
 import java.time.Duration;
 
@@ -11,8 +12,9 @@ public class NewsletterConfigYamlParser {
   public static NewsletterConfig parse(ObjectConfigParserWithValue configParser) {
     var channel = configParser.get("channel").string().required().value();
     var feedUrl = configParser.get("feedUrl").string().required().map(URI::create);
+    var delta = configParser.get("delta").object().map(DeltaFeedConfigYamlParser::parse);
     var pollInterval =
         configParser.get("pollInterval").string().required().map(v -> Duration.parse("PT" + v));
-    return new NewsletterConfig(channel, feedUrl, pollInterval);
+    return new NewsletterConfig(channel, feedUrl, delta, pollInterval);
   }
 }
@@ -2,6 +2,9 @@ package com.ajanuary.watson.newsletter;
 
 import com.ajanuary.watson.config.Config;
 import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.feed.DeltaFeed;
+import com.ajanuary.watson.feed.DeltaFeed.Sync;
+import com.ajanuary.watson.scheduling.Timers;
 import com.ajanuary.watson.utils.JDAUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -15,12 +18,12 @@ import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.utils.FileUpload;
 import org.slf4j.Logger;
@@ -39,19 +42,26 @@ public class NewsletterModule {
           .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
           .build();
   private final HttpClient httpClient = HttpClient.newHttpClient();
+  private final Optional<DeltaFeed<NewsletterItem>> deltaFeed;
 
   public NewsletterModule(
       JDA jda,
       NewsletterConfig newsletterConfig,
       Config config,
-      DatabaseManager databaseManager) {
+      DatabaseManager databaseManager,
+      Timers timers) {
     this.jdaUtils = new JDAUtils(jda, config);
     this.newsletterConfig = newsletterConfig;
     this.databaseManager = databaseManager;
-
-    var intervalSeconds = newsletterConfig.pollInterval().getSeconds();
-    Executors.newSingleThreadScheduledExecutor()
-        .scheduleWithFixedDelay(this::pollNewsletter, 0, intervalSeconds, TimeUnit.SECONDS);
+    this.deltaFeed =
+        newsletterConfig
+            .delta()
+            .map(
+                deltaFeedConfig ->
+                    new DeltaFeed<>(
+                        "newsletter", deltaFeedConfig, objectMapper, NewsletterItem.class));
+
+    timers.repeat(Duration.ZERO, newsletterConfig.pollInterval(), this::pollNewsletter);
   }
 
   private void pollNewsletter() {
@@ -60,13 +70,25 @@ public class NewsletterModule {
     var numUpdated = 0;
     var numDeleted = 0;
     try (var conn = databaseManager.getConnection()) {
-      var feedItems = fetchFeed();
-      var channel = jdaUtils.getMessageChannel(newsletterConfig.channel());
-
-      var feedIds = new HashSet<String>();
-      for (var item : feedItems) {
-        feedIds.add(item.id());
+      var sync =
+          deltaFeed.isPresent()
+              ? Optional.of(deltaFeed.get().start(conn))
+              : Optional.<Sync<NewsletterItem>>empty();
+      List<NewsletterItem> feedItems;
+      List<String> removedIds;
+      if (sync.isPresent() && !sync.get().isFull()) {
+        feedItems = sync.get().delta().get().upserts();
+        removedIds = sync.get().delta().get().tombstones();
+      } else {
+        feedItems = fetchFeed();
+        var feedIds = new HashSet<String>();
+        for (var item : feedItems) {
+          feedIds.add(item.id());
+        }
+        removedIds =
+            conn.getAllNewsletterIds().stream().filter(id -> !feedIds.contains(id)).toList();
       }
+      var channel = jdaUtils.getMessageChannel(newsletterConfig.channel());
 
       for (var item : feedItems) {
         var isEmpty = (item.body() == null || item.body().isEmpty())
@@ -116,17 +138,19 @@ public class NewsletterModule {
         }
       }
 
-      for (var existingId : conn.getAllNewsletterIds()) {
-        if (!feedIds.contains(existingId)) {
-          var existing = conn.getNewsletterItem(existingId);
-          if (existing.isPresent()) {
-            channel.deleteMessageById(existing.get().discordMessageId()).complete();
-            conn.deleteNewsletterItem(existingId);
-            logger.info("Deleted newsletter item [{}]", existingId);
-            numDeleted++;
-          }
+      for (var existingId : removedIds) {
+        var existing = conn.getNewsletterItem(existingId);
+        if (existing.isPresent()) {
+          channel.deleteMessageById(existing.get().discordMessageId()).complete();
+          conn.deleteNewsletterItem(existingId);
+          logger.info("Deleted newsletter item [{}]", existingId);
+          numDeleted++;
         }
       }
+
+      if (sync.isPresent()) {
+        deltaFeed.get().finish(conn, sync.get());
+      }
     } catch (Exception e) {
       logger.error("Failed to poll newsletter", e);
     } finally {
@@ -2,15 +2,17 @@ package com.ajanuary.watson.privatethreads;
 
 import com.ajanuary.watson.db.DatabaseManager;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 
 public class PrivateThreadManager {
-  private final Map<String, Object> locks = new HashMap<>();
+  // Used from several threads at once, such as concurrent reminders and creating threads ahead of
+  // time, so every caller must get the same lock for a user.
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
   private final JDA jda;
   private final String purpose;
 
@@ -1,5 +1,7 @@
 package com.ajanuary.watson.programme;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 public record DiscordItem(
@@ -7,5 +9,14 @@ public record DiscordItem(
     String title,
     String body,
     String loc,
-    ZonedDateTime startTime,
-    ZonedDateTime endTime) {}
+    long startEpochSecond,
+    long endEpochSecond) {
+
+  public ZonedDateTime startTime(ZoneId zoneId) {
+    return Instant.ofEpochSecond(startEpochSecond).atZone(zoneId);
+  }
+
+  public ZonedDateTime endTime(ZoneId zoneId) {
+    return Instant.ofEpochSecond(endEpochSecond).atZone(zoneId);
+  }
+}
@@ -0,0 +1,80 @@
+package com.ajanuary.watson.programme;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Works out which forum posts need to be recreated so that a forum sorted by creation time shows
+ * its posts in start time order.
+ *
+ * <p>Posts are created in reverse start time order, so the newest post is the earliest item. A
+ * recreated post always becomes the newest post in the forum, which means it can only ever be
+ * moved to the top. The posts we keep therefore have to be the items that start latest, already in
+ * the right relative order, and everything after them is recreated from the latest start time to
+ * the earliest.
+ */
+public class ForumOrderPlanner {
+
+  private ForumOrderPlanner() {}
+
+  public static Plan plan(List<Post> posts) {
+    var byStartTimeDescending =
+        posts.stream()
+            .sorted(
+                Comparator.comparing(Post::startTime)
+                    .reversed()
+                    .thenComparing(Post::creationOrder))
+            .toList();
+
+    var keep = new ArrayList<Post>();
+    var recreate = new ArrayList<Post>();
+    var lastKeptCreationOrder = Long.MIN_VALUE;
+    var i = 0;
+    while (i < byStartTimeDescending.size()) {
+      // Items that start at the same time can be in any order relative to each other, so we
+      // treat them as a group.
+      var groupStartTime = byStartTimeDescending.get(i).startTime();
+      var groupEnd = i;
+      while (groupEnd < byStartTimeDescending.size()
+          && byStartTimeDescending.get(groupEnd).startTime().equals(groupStartTime)) {
+        groupEnd++;
+      }
+      var group = byStartTimeDescending.subList(i, groupEnd);
+
+      var inOrder = true;
+      var groupMaxCreationOrder = lastKeptCreationOrder;
+      for (var post : group) {
+        if (post.creationOrder() > lastKeptCreationOrder) {
+          keep.add(post);
+          groupMaxCreationOrder = Math.max(groupMaxCreationOrder, post.creationOrder());
+        } else {
+          recreate.add(post);
+          inOrder = false;
+        }
+      }
+      lastKeptCreationOrder = groupMaxCreationOrder;
+      i = groupEnd;
+
+      if (!inOrder) {
+        // Once one post has to be recreated, every post that should appear above it does too.
+        recreate.addAll(byStartTimeDescending.subList(i, byStartTimeDescending.size()));
+        break;
+      }
+    }
+
+    return new Plan(keep, recreate);
+  }
+
+  /**
+   * @param creationOrder anything that increases with the post's creation time, such as its
+   *     snowflake id
+   */
+  public record Post(String programmeItemId, long creationOrder, Instant startTime) {}
+
+  /**
+   * @param recreate the posts to recreate, in the order they should be created
+   */
+  public record Plan(List<Post> keep, List<Post> recreate) {}
+}
@@ -0,0 +1,54 @@
+package com.ajanuary.watson.programme;
+
+import java.util.Optional;
+
+/**
+ * Something that happened to a programme item.
+ *
+ * @param before the item's times before the change, or empty if it has just been added
+ * @param after the item's times after the change, or empty if it has been deleted
+ */
+public record ItemChange(String itemId, Kind kind, Optional<Times> before, Optional<Times> after) {
+
+  public static ItemChange added(DiscordItem item) {
+    return new ItemChange(item.id(), Kind.ADDED, Optional.empty(), Optional.of(Times.of(item)));
+  }
+
+  public static ItemChange updated(DiscordItem before, DiscordItem after) {
+    return new ItemChange(
+        after.id(), Kind.UPDATED, Optional.of(Times.of(before)), Optional.of(Times.of(after)));
+  }
+
+  public static ItemChange cancelled(DiscordItem item) {
+    return new ItemChange(
+        item.id(), Kind.CANCELLED, Optional.of(Times.of(item)), Optional.of(Times.of(item)));
+  }
+
+  public static ItemChange deleted(DiscordItem item) {
+    return new ItemChange(item.id(), Kind.DELETED, Optional.of(Times.of(item)), Optional.empty());
+  }
+
+  /** The item's post was recreated, so it has a new thread and message. */
+  public static ItemChange reposted(DiscordItem item) {
+    return new ItemChange(
+        item.id(), Kind.REPOSTED, Optional.of(Times.of(item)), Optional.of(Times.of(item)));
+  }
+
+  public boolean timesChanged() {
+    return !before.equals(after);
+  }
+
+  public enum Kind {
+    ADDED,
+    UPDATED,
+    CANCELLED,
+    DELETED,
+    REPOSTED
+  }
+
+  public record Times(long startEpochSecond, long endEpochSecond) {
+    public static Times of(DiscordItem item) {
+      return new Times(item.startEpochSecond(), item.endEpochSecond());
+    }
+  }
+}
@@ -1,5 +0,0 @@
-package com.ajanuary.watson.programme;
-
-import com.ajanuary.watson.notification.Event;
-
-public class ItemChangedEvent implements Event {}
@@ -0,0 +1,10 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.notification.Event;
+import java.util.List;
+
+/**
+ * Dispatched once a new {@link ProgrammeSnapshot} has been published, with every change it
+ * includes, so each scheduler can decide whether it needs to look at the programme again.
+ */
+public record ItemsChangedEvent(List<ItemChange> changes) implements Event {}
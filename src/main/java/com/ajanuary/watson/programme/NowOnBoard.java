@@ -0,0 +1,123 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.programme.ProgrammeConfig.NowOnConfig;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.LongStream;
+
+/**
+ * Renders the now on board: a single message listing what's on now and what's on next.
+ *
+ * <p>An item is on from {@code timeBeforeToAdd} before it starts until {@code timeAfterToKeep}
+ * after it ends, the same as a now on message would be. What's next is every item starting at the
+ * next start time after that.
+ */
+class NowOnBoard {
+
+  static final int MAX_BOARD_LEN = 2000;
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+  private static final DateTimeFormatter DAY_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("EEE HH:mm");
+
+  private final long secondsBeforeToAdd;
+  private final long secondsAfterToKeep;
+  private final ZoneId timezone;
+
+  NowOnBoard(NowOnConfig nowOnConfig, ZoneId timezone) {
+    this.secondsBeforeToAdd = Duration.from(nowOnConfig.timeBeforeToAdd()).toSeconds();
+    this.secondsAfterToKeep = Duration.from(nowOnConfig.timeAfterToKeep()).toSeconds();
+    this.timezone = timezone;
+  }
+
+  List<DiscordThread> onNow(ProgrammeSnapshot snapshot, long now) {
+    return snapshot.overlapping(now + secondsBeforeToAdd, now - secondsAfterToKeep).stream()
+        .filter(t -> t.status() != Status.CANCELLED)
+        .toList();
+  }
+
+  List<DiscordThread> next(ProgrammeSnapshot snapshot, long now) {
+    var next = new ArrayList<DiscordThread>();
+    for (var discordThread : snapshot.startingAfter(now + secondsBeforeToAdd)) {
+      if (discordThread.status() == Status.CANCELLED) {
+        continue;
+      }
+      if (!next.isEmpty()
+          && discordThread.item().startEpochSecond() != next.get(0).item().startEpochSecond()) {
+        break;
+      }
+      next.add(discordThread);
+    }
+    return next;
+  }
+
+  /** When the board will next need to change, if nothing about the programme changes. */
+  OptionalLong nextChange(ProgrammeSnapshot snapshot, long now) {
+    var nextStart =
+        next(snapshot, now).stream()
+            .mapToLong(t -> t.item().startEpochSecond() - secondsBeforeToAdd)
+            .limit(1);
+    var nextEnd =
+        onNow(snapshot, now).stream()
+            .mapToLong(t -> t.item().endEpochSecond() + secondsAfterToKeep);
+    return LongStream.concat(nextStart, nextEnd).min();
+  }
+
+  String render(ProgrammeSnapshot snapshot, long now) {
+    var board = new StringBuilder();
+    var onNow = onNow(snapshot, now);
+    var next = next(snapshot, now);
+
+    board.append("**On now**\n");
+    if (onNow.isEmpty()) {
+      board.append("Nothing is on right now.\n");
+    }
+    // Leave room for the next section, so a busy slot doesn't push it off the board.
+    var nextSection = next.isEmpty() ? "" : nextSection(next, MAX_BOARD_LEN / 2);
+    appendLines(board, onNow, MAX_BOARD_LEN - nextSection.length());
+    board.append(nextSection);
+    return board.toString().stripTrailing();
+  }
+
+  private String nextSection(List<DiscordThread> next, int maxLen) {
+    var start = Instant.ofEpochSecond(next.get(0).item().startEpochSecond()).atZone(timezone);
+    var section = new StringBuilder("\n**Next, at " + start.format(DAY_TIME_FORMATTER) + "**\n");
+    appendLines(section, next, maxLen);
+    return section.toString();
+  }
+
+  /** Appends a line for each item, ending with a count of those that didn't fit in the length. */
+  private void appendLines(StringBuilder builder, List<DiscordThread> discordThreads, int maxLen) {
+    for (var i = 0; i < discordThreads.size(); i++) {
+      var line = formatLine(discordThreads.get(i)) + "\n";
+      var remaining = discordThreads.size() - i - 1;
+      var moreLine = remaining == 0 ? "" : "…and " + remaining + " more\n";
+      if (builder.length() + line.length() + moreLine.length() > maxLen) {
+        builder.append("…and ").append(discordThreads.size() - i).append(" more\n");
+        return;
+      }
+      builder.append(line);
+    }
+  }
+
+  private String formatLine(DiscordThread discordThread) {
+    var item = discordThread.item();
+    var line =
+        "`"
+            + item.startTime(timezone).format(TIME_FORMATTER)
+            + " - "
+            + item.endTime(timezone).format(TIME_FORMATTER)
+            + "` **"
+            + item.title()
+            + "** "
+            + item.loc();
+    if (discordThread.discordThreadId().isPresent()) {
+      line += " | <#" + discordThread.discordThreadId().get() + ">";
+    }
+    return line;
+  }
+}
@@ -0,0 +1,8 @@
+package com.ajanuary.watson.programme;
+
+/**
+ * A message posted to the now on channel.
+ *
+ * @param endEpochSecond when the message should be deleted
+ */
+public record NowOnMessage(String programmeItemId, String discordMessageId, long endEpochSecond) {}
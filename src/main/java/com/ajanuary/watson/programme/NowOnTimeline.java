@@ -0,0 +1,147 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.programme.ProgrammeConfig.NowOnConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * What the now on channel has to do and when, kept in memory so working out what's next never has
+ * to scan the programme.
+ *
+ * <p>Items that haven't been posted are ordered by start time, and posted messages by when they
+ * should be deleted, so the next thing to do is always at the front of one of the two. It's loaded
+ * once, then kept up to date from the changes in each published snapshot and from what the
+ * scheduler posts and deletes.
+ */
+class NowOnTimeline {
+
+  private static final Comparator<NowOnMessage> BY_END =
+      Comparator.comparingLong(NowOnMessage::endEpochSecond)
+          .thenComparing(NowOnMessage::discordMessageId)
+          .thenComparing(NowOnMessage::programmeItemId);
+
+  private final long secondsBeforeToAdd;
+  private final long secondsAfterToKeep;
+
+  private final TreeSet<DiscordThread> pending = new TreeSet<>(ProgrammeSnapshot.BY_START);
+  private final Map<String, DiscordThread> pendingById = new HashMap<>();
+  private final TreeSet<NowOnMessage> posted = new TreeSet<>(BY_END);
+  private final Map<String, NowOnMessage> postedByItemId = new HashMap<>();
+
+  NowOnTimeline(NowOnConfig nowOnConfig) {
+    this.secondsBeforeToAdd = Duration.from(nowOnConfig.timeBeforeToAdd()).toSeconds();
+    this.secondsAfterToKeep = Duration.from(nowOnConfig.timeAfterToKeep()).toSeconds();
+  }
+
+  synchronized void load(ProgrammeSnapshot snapshot, Collection<NowOnMessage> nowOnMessages) {
+    for (var nowOnMessage : nowOnMessages) {
+      posted.add(nowOnMessage);
+      postedByItemId.put(nowOnMessage.programmeItemId(), nowOnMessage);
+    }
+    for (var discordThread : snapshot.all()) {
+      addIfPending(discordThread);
+    }
+  }
+
+  /** Brings the changed items up to date with how they are in the snapshot. */
+  synchronized void apply(ProgrammeSnapshot snapshot, Collection<ItemChange> changes) {
+    for (var change : changes) {
+      var existing = pendingById.remove(change.itemId());
+      if (existing != null) {
+        pending.remove(existing);
+      }
+      snapshot.get(change.itemId()).ifPresent(this::addIfPending);
+    }
+  }
+
+  private void addIfPending(DiscordThread discordThread) {
+    if (discordThread.status() == Status.CANCELLED
+        || postedByItemId.containsKey(discordThread.item().id())) {
+      return;
+    }
+    pending.add(discordThread);
+    pendingById.put(discordThread.item().id(), discordThread);
+  }
+
+  /** When something next needs posting or deleting. */
+  synchronized OptionalLong nextEvent() {
+    var next = OptionalLong.empty();
+    if (!pending.isEmpty()) {
+      next = OptionalLong.of(pending.first().item().startEpochSecond() - secondsBeforeToAdd);
+    }
+    if (!posted.isEmpty()) {
+      var end = posted.first().endEpochSecond();
+      if (next.isEmpty() || end < next.getAsLong()) {
+        next = OptionalLong.of(end);
+      }
+    }
+    return next;
+  }
+
+  /**
+   * The items that should be posted by the given time, in start time order, then by location, and
+   * the messages that should be deleted. Items that have already ended are dropped, as there's no
+   * point posting them.
+   */
+  synchronized Due due(long now) {
+    var toPost = new ArrayList<DiscordThread>();
+    var startedBy = now + secondsBeforeToAdd;
+    var iterator = pending.iterator();
+    while (iterator.hasNext()) {
+      var discordThread = iterator.next();
+      if (discordThread.item().startEpochSecond() > startedBy) {
+        break;
+      }
+      if (discordThread.item().endEpochSecond() > now - secondsAfterToKeep) {
+        toPost.add(discordThread);
+      } else {
+        iterator.remove();
+        pendingById.remove(discordThread.item().id());
+      }
+    }
+
+    var toDelete = new LinkedHashSet<String>();
+    for (var nowOnMessage : posted) {
+      if (nowOnMessage.endEpochSecond() > now) {
+        break;
+      }
+      toDelete.add(nowOnMessage.discordMessageId());
+    }
+    return new Due(toPost, toDelete);
+  }
+
+  synchronized void posted(Collection<NowOnMessage> nowOnMessages) {
+    for (var nowOnMessage : nowOnMessages) {
+      var discordThread = pendingById.remove(nowOnMessage.programmeItemId());
+      if (discordThread != null) {
+        pending.remove(discordThread);
+      }
+      posted.add(nowOnMessage);
+      postedByItemId.put(nowOnMessage.programmeItemId(), nowOnMessage);
+    }
+  }
+
+  synchronized void deleted(Set<String> discordMessageIds) {
+    posted.removeIf(m -> discordMessageIds.contains(m.discordMessageId()));
+    postedByItemId.values().removeIf(m -> discordMessageIds.contains(m.discordMessageId()));
+  }
+
+  /**
+   * @param toPost the items to post, in start time order, then by location
+   * @param messageIdsToDelete the messages for items that have finished
+   */
+  record Due(List<DiscordThread> toPost, Set<String> messageIdsToDelete) {
+    boolean isEmpty() {
+      return toPost.isEmpty() && messageIdsToDelete.isEmpty();
+    }
+  }
+}
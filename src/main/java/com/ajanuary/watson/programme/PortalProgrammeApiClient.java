@@ -1,106 +1,309 @@
 package com.ajanuary.watson.programme;
 
+import com.ajanuary.watson.db.DatabaseManager;
 import com.ajanuary.watson.portalapi.PortalApiClient;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.io.IOException;
 import java.net.URI;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Tells the portal which Discord post belongs to each programme item.
+ *
+ * <p>Post details are queued in the database, so anything that hasn't been sent when the bot stops
+ * is sent when it starts again. They're sent in batches of at most {@link #MAX_BATCH_SIZE}, backing
+ * off exponentially when the portal returns an error. Once a batch is accepted, each item is
+ * removed from the queue unless it has been queued again since the batch was read.
+ */
 public class PortalProgrammeApiClient {
+  static final int MAX_BATCH_SIZE = 50;
+  static final int RESYNC_CHUNK_SIZE = 100;
+  static final int RESYNC_CONCURRENCY = 4;
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
   private final Logger logger = LoggerFactory.getLogger(PortalProgrammeApiClient.class);
 
   private final ReentrantLock lock = new ReentrantLock();
   private final Condition hasPostDetails = lock.newCondition();
-  private Map<String, PostDetails> queue = new HashMap<>();
+  // Start off assuming there is something to send, in case it was queued before a restart.
+  private boolean pending = true;
 
-  public PortalProgrammeApiClient(URI assignDiscordPostApiUrl, PortalApiClient portalApiClient) {
-    new Thread(
-            () -> {
-              while (true) {
-                Collection<PostDetails> toSend;
-                lock.lock();
-                try {
-                  while (queue.isEmpty()) {
-                    hasPostDetails.await();
-                  }
-                  toSend = queue.values();
-                  queue = new HashMap<>();
-                } catch (InterruptedException e) {
-                  Thread.currentThread().interrupt();
-                  break;
-                } finally {
-                  lock.unlock();
-                }
+  private final URI assignDiscordPostApiUrl;
+  private final PortalApiClient portalApiClient;
+  private final DatabaseManager databaseManager;
+  private final Duration initialBackoff;
 
-                try {
-                  var result = portalApiClient.send(assignDiscordPostApiUrl, toSend);
-                  if (!result.isObject()
-                      || !result.has("result")
-                      || !result.get("result").isTextual()
-                      || !result.get("result").asText().equals("success"))
-                    if (!result.isBoolean() || !result.asBoolean()) {
-                      throw new IOException("Error sending post details");
-                    }
-                } catch (IOException e) {
-                  logger.error("Error sending post details", e);
-                  lock.lock();
-                  try {
-                    // Requeue them, but only if they haven't been updated since
-                    toSend.stream()
-                        .filter(postDetails -> !queue.containsKey(postDetails.itemId()))
-                        .forEach(postDetails -> queue.put(postDetails.itemId(), postDetails));
-                  } finally {
-                    lock.unlock();
-                  }
-                  // Prevent spamming the API
-                  try {
-                    Thread.sleep(TimeUnit.SECONDS.toMillis(5));
-                  } catch (InterruptedException e1) {
-                    Thread.currentThread().interrupt();
-                    break;
-                  }
-                } catch (InterruptedException e) {
-                  Thread.currentThread().interrupt();
-                  break;
-                }
-              }
-            })
-        .start();
+  public PortalProgrammeApiClient(
+      URI assignDiscordPostApiUrl,
+      PortalApiClient portalApiClient,
+      DatabaseManager databaseManager) {
+    this(assignDiscordPostApiUrl, portalApiClient, databaseManager, Duration.ofSeconds(5));
+  }
+
+  PortalProgrammeApiClient(
+      URI assignDiscordPostApiUrl,
+      PortalApiClient portalApiClient,
+      DatabaseManager databaseManager,
+      Duration initialBackoff) {
+    this.assignDiscordPostApiUrl = assignDiscordPostApiUrl;
+    this.portalApiClient = portalApiClient;
+    this.databaseManager = databaseManager;
+    this.initialBackoff = initialBackoff;
+    var thread = new Thread(this::run, "portal-programme-api");
+    thread.setDaemon(true);
+    thread.start();
   }
 
-  public void addPostDetails(
-      String itemId,
-      String title,
-      ZonedDateTime dateTime,
-      int mins,
-      String roomId,
-      String postUrl) {
-    var postDetails =
-        new PostDetails(
-            itemId,
-            title,
-            dateTime.withZoneSameInstant(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME),
-            mins,
-            roomId,
-            postUrl);
+  public void addPostDetails(PostDetails postDetails) {
+    try (var conn = databaseManager.getConnection()) {
+      conn.queuePortalPost(postDetails, ZonedDateTime.now());
+    } catch (SQLException e) {
+      logger.error("Error queueing post details for item {}", postDetails.itemId(), e);
+      return;
+    }
     lock.lock();
     try {
-      queue.put(itemId, postDetails);
+      pending = true;
       hasPostDetails.signal();
     } finally {
       lock.unlock();
     }
   }
 
-  private record PostDetails(
-      String itemId, String title, String start, int mins, String roomId, String postUrl) {}
+  /**
+   * Sends the details of every post in the database to the portal, in case it has lost track of
+   * them. Posts are read and sent in chunks of {@link #RESYNC_CHUNK_SIZE}, with at most {@link
+   * #RESYNC_CONCURRENCY} chunks being sent at once. Chunks the portal doesn't accept are added to
+   * the queue, so they're retried like any other post details.
+   */
+  public ResyncResult resync(Function<DiscordThread, PostDetails> toPostDetails)
+      throws SQLException, InterruptedException {
+    var start = System.nanoTime();
+    var executor = Executors.newFixedThreadPool(RESYNC_CONCURRENCY);
+    var inFlight = new Semaphore(RESYNC_CONCURRENCY);
+    var numPosts = 0;
+    var numChunks = 0;
+    var failedChunks = new AtomicInteger();
+    try {
+      var after = "";
+      while (true) {
+        List<DiscordThread> discordThreads;
+        try (var conn = databaseManager.getConnection()) {
+          discordThreads = conn.getPostedDiscordThreads(after, RESYNC_CHUNK_SIZE);
+        }
+        if (discordThreads.isEmpty()) {
+          break;
+        }
+        after = discordThreads.get(discordThreads.size() - 1).item().id();
+        var chunk = discordThreads.stream().map(toPostDetails).toList();
+        numPosts += chunk.size();
+        numChunks++;
+
+        inFlight.acquire();
+        executor.execute(
+            () -> {
+              try {
+                if (!sendResyncChunk(chunk)) {
+                  failedChunks.incrementAndGet();
+                }
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+      // Wait for the last chunks to finish.
+      inFlight.acquire(RESYNC_CONCURRENCY);
+    } finally {
+      executor.shutdown();
+    }
+
+    var result =
+        new ResyncResult(
+            numPosts, numChunks, failedChunks.get(), Duration.ofNanos(System.nanoTime() - start));
+    logger.info(
+        "Resynced {} posts to the portal in {} chunks in {}ms ({} posts/s). {} chunks failed and"
+            + " were queued to retry",
+        result.numPosts(),
+        result.numChunks(),
+        result.elapsed().toMillis(),
+        result.postsPerSecond(),
+        result.numFailedChunks());
+    return result;
+  }
+
+  private boolean sendResyncChunk(List<PostDetails> chunk) {
+    try {
+      var result = portalApiClient.send(assignDiscordPostApiUrl, chunk);
+      if (isSuccess(result)) {
+        return true;
+      }
+      logger.error("Portal rejected a chunk of {} post details: {}", chunk.size(), result);
+    } catch (IOException e) {
+      logger.error("Error sending a chunk of {} post details", chunk.size(), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (var postDetails : chunk) {
+      addPostDetails(postDetails);
+    }
+    return false;
+  }
+
+  /** How many items are waiting to be sent, and how long the oldest has been waiting. */
+  public QueueStats queueStats() throws SQLException {
+    try (var conn = databaseManager.getConnection()) {
+      return conn.getPortalPostQueueStats(ZonedDateTime.now());
+    }
+  }
+
+  private void run() {
+    var failures = 0;
+    while (true) {
+      lock.lock();
+      try {
+        while (!pending) {
+          hasPostDetails.await();
+        }
+        pending = false;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        lock.unlock();
+      }
+
+      // Keep going until the queue is empty, as there may be more than one batch.
+      while (true) {
+        try {
+          if (!sendBatch()) {
+            break;
+          }
+          failures = 0;
+        } catch (IOException | SQLException e) {
+          failures++;
+          var backoff = backoff(failures);
+          logger.error(
+              "Error sending post details. Retrying in {}s ({})",
+              backoff.toSeconds(),
+              describeQueue(),
+              e);
+          try {
+            Thread.sleep(backoff);
+          } catch (InterruptedException e1) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /** Sends the oldest batch of queued post details. Returns false if the queue was empty. */
+  private boolean sendBatch() throws IOException, SQLException, InterruptedException {
+    List<QueuedPost> batch;
+    try (var conn = databaseManager.getConnection()) {
+      batch = conn.getQueuedPortalPosts(MAX_BATCH_SIZE);
+    }
+    if (batch.isEmpty()) {
+      return false;
+    }
+
+    var result =
+        portalApiClient.send(
+            assignDiscordPostApiUrl, batch.stream().map(QueuedPost::details).toList());
+    if (!isSuccess(result)) {
+      throw new IOException("Error sending post details: " + result);
+    }
+
+    try (var conn = databaseManager.getConnection()) {
+      var acknowledged = conn.ackPortalPosts(batch);
+      logger.info(
+          "Sent {} post details, {} updated while sending ({})",
+          batch.size(),
+          batch.size() - acknowledged,
+          describeQueue());
+    }
+    return true;
+  }
+
+  private static boolean isSuccess(JsonNode result) {
+    if (result.isObject()
+        && result.has("result")
+        && result.get("result").isTextual()
+        && result.get("result").asText().equals("success")) {
+      return true;
+    }
+    return result.isBoolean() && result.asBoolean();
+  }
+
+  /** Exponential backoff with jitter, so a struggling portal isn't hit by retries all at once. */
+  private Duration backoff(int failures) {
+    var exponent = Math.min(failures - 1, 16);
+    var delay = initialBackoff.multipliedBy(1L << exponent);
+    if (delay.compareTo(MAX_BACKOFF) > 0) {
+      delay = MAX_BACKOFF;
+    }
+    var jitter = ThreadLocalRandom.current().nextDouble(0.5, 1.0);
+    return Duration.ofMillis((long) (delay.toMillis() * jitter));
+  }
+
+  private String describeQueue() {
+    try {
+      var stats = queueStats();
+      return stats.depth()
+          + " queued"
+          + stats
+              .oldestAge()
+              .map(age -> ", oldest queued " + age.toSeconds() + "s ago")
+              .orElse("");
+    } catch (SQLException e) {
+      return "queue size unknown";
+    }
+  }
+
+  public record PostDetails(
+      String itemId, String title, String start, int mins, String roomId, String postUrl) {
+
+    public static PostDetails of(DiscordItem item, String roomId, String postUrl) {
+      return new PostDetails(
+          item.id(),
+          item.title(),
+          item.startTime(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME),
+          (int) ((item.endEpochSecond() - item.startEpochSecond()) / 60),
+          roomId,
+          postUrl);
+    }
+  }
+
+  /**
+   * @param version incremented each time the item is queued again, so an item updated while a
+   *     batch is being sent stays in the queue
+   */
+  public record QueuedPost(PostDetails details, int version) {}
+
+  public record QueueStats(int depth, Optional<Duration> oldestAge) {}
+
+  public record ResyncResult(int numPosts, int numChunks, int numFailedChunks, Duration elapsed) {
+    public long postsPerSecond() {
+      return numPosts * 1000L / Math.max(1, elapsed.toMillis());
+    }
+  }
 }
@@ -1,23 +1,28 @@
 package com.ajanuary.watson.programme;
 
+import com.ajanuary.watson.feed.DeltaFeedConfig;
 import com.ajanuary.watson.programme.channelnameresolvers.ChannelNameResolver;
 import com.ajanuary.watson.utils.JDAUtils;
 import net.dv8tion.jda.api.Permission;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.temporal.TemporalAmount;
 import java.util.List;
 import java.util.Optional;
 
 public record ProgrammeConfig(
-    URI programmeUrl,
+    List<FeedSource> feeds,
+    ConflictPolicy conflictPolicy,
     Optional<URI> assignDiscordPostsApiUrl,
+    boolean resyncPortalPostsOnStartup,
     String majorAnnouncementsChannel,
     Optional<NowOnConfig> nowOn,
     ChannelNameResolver channelNameResolver,
     List<Link> links,
     List<Location> locations,
-    boolean hasPerformedFirstLoad) {
+    boolean hasPerformedFirstLoad,
+    Optional<FeedArchiveConfig> feedArchive) {
 
   public void validateDiscordConfig(JDAUtils jdaUtils) {
     var majorAnnouncementsChannel = jdaUtils.getMessageChannel(majorAnnouncementsChannel());
@@ -26,6 +31,10 @@ public record ProgrammeConfig(
     nowOn().ifPresent(nowOn -> {
       var nowOnChannel = jdaUtils.getMessageChannel(nowOn.channel());
       jdaUtils.checkPermissions(nowOnChannel, Permission.MESSAGE_SEND);
+      if (nowOn.mode() == NowOnConfig.Mode.BOARD) {
+        // Needed to pin the board.
+        jdaUtils.checkPermissions(nowOnChannel, Permission.MESSAGE_MANAGE);
+      }
     });
 
     var channelNames = channelNameResolver().getChannelNames();
@@ -36,9 +45,40 @@ public record ProgrammeConfig(
   }
 
   public record NowOnConfig(
-      String channel, TemporalAmount timeBeforeToAdd, TemporalAmount timeAfterToKeep) {}
+      String channel,
+      TemporalAmount timeBeforeToAdd,
+      TemporalAmount timeAfterToKeep,
+      Mode mode) {
+
+    public enum Mode {
+      /** A message for each item, posted when it starts and deleted when it ends. */
+      MESSAGES,
+      /** A single pinned message, edited to show what's on now and what's on next. */
+      BOARD
+    }
+  }
 
   public record Link(String name, String label) {}
 
   public record Location(String id, String name) {}
+
+  public record FeedArchiveConfig(Path path, int maxEntries) {}
+
+  /**
+   * @param name used in logs, and to keep track of the source's delta cursor
+   * @param idPrefix prepended to the ids of the source's items, so they can't clash with another
+   *     source's
+   */
+  public record FeedSource(
+      String name, URI url, Optional<String> idPrefix, Optional<DeltaFeedConfig> delta) {}
+
+  /** What to do when more than one source has an item with the same id. */
+  public enum ConflictPolicy {
+    /** Use the item from the source listed first. */
+    FIRST,
+    /** Use the item from the source listed last. */
+    LAST,
+    /** Fail the poll, leaving everything as it was. */
+    FAIL
+  }
 }
@@ -2,14 +2,20 @@ package com.ajanuary.watson.programme;
 
 import com.ajanuary.watson.config.ConfigException;
 import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
+import com.ajanuary.watson.feed.DeltaFeedConfigYamlParser;
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedSource;
+import com.ajanuary.watson.programme.ProgrammeConfig.NowOnConfig;
 import com.ajanuary.watson.programme.channelnameresolvers.ChannelNameResolver;
 import com.ajanuary.watson.programme.channelnameresolvers.DayChannelNameResolver;
 import com.ajanuary.watson.programme.channelnameresolvers.DayTodChannelNameResolver;
 import com.ajanuary.watson.programme.channelnameresolvers.DayTodChannelNameResolver.Threshold;
 import com.ajanuary.watson.programme.channelnameresolvers.LocChannelNameResolver;
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
 
 public class ProgrammeConfigYamlParser {
@@ -17,7 +23,44 @@ public class ProgrammeConfigYamlParser {
   private ProgrammeConfigYamlParser() {}
 
   public static ProgrammeConfig parse(ObjectConfigParserWithValue configParser, ZoneId timezone) {
-    var programmeUrl = configParser.get("programmeUrl").string().required().map(URI::create);
+    var feeds =
+        configParser
+            .get("feeds")
+            .list()
+            .map(
+                feedsConfig ->
+                    feedsConfig.value().stream()
+                        .map(feedConfig -> parseFeedSource(feedConfig.object().required()))
+                        .toList())
+            .orElseGet(
+                () -> {
+                  // A single feed, as configured before multiple feeds were supported.
+                  var programmeUrl =
+                      configParser.get("programmeUrl").string().required().map(URI::create);
+                  var delta =
+                      configParser.get("delta").object().map(DeltaFeedConfigYamlParser::parse);
+                  return List.of(
+                      new FeedSource("programme", programmeUrl, Optional.empty(), delta));
+                });
+    if (feeds.isEmpty()) {
+      throw new ConfigException("programme.feeds must not be empty");
+    }
+    if (feeds.stream().map(FeedSource::name).distinct().count() != feeds.size()) {
+      throw new ConfigException("programme.feeds names must be unique");
+    }
+    var conflictPolicy =
+        configParser
+            .get("conflictPolicy")
+            .string()
+            .defaultingTo("first")
+            .map(
+                v ->
+                    switch (v) {
+                      case "first" -> ConflictPolicy.FIRST;
+                      case "last" -> ConflictPolicy.LAST;
+                      case "fail" -> ConflictPolicy.FAIL;
+                      default -> throw new IllegalArgumentException("Unknown policy " + v);
+                    });
     var assignDiscordPostsApiUrl =
         configParser.get("assignDiscordPostsApiUrl").string().defaultingTo("").<Optional<URI>>map(v -> {
           if (v.isEmpty()) {
@@ -26,6 +69,8 @@ public class ProgrammeConfigYamlParser {
             return Optional.of(URI.create(v));
           }
         });
+    var resyncPortalPostsOnStartup =
+        configParser.get("resyncPortalPostsOnStartup").bool().defaultingTo(false).value();
     var majorAnnouncementsChannel =
         configParser
             .get("majorAnnouncementsChannel")
@@ -50,7 +95,19 @@ public class ProgrammeConfigYamlParser {
                           .string()
                           .required()
                           .map(ProgrammeConfigYamlParser::parseDuration);
-                  return new ProgrammeConfig.NowOnConfig(channel, timeBeforeToAdd, timeAfterToKeep);
+                  var mode =
+                      p.get("mode")
+                          .string()
+                          .defaultingTo("messages")
+                          .map(
+                              v ->
+                                  switch (v) {
+                                    case "messages" -> NowOnConfig.Mode.MESSAGES;
+                                    case "board" -> NowOnConfig.Mode.BOARD;
+                                    default ->
+                                        throw new IllegalArgumentException("Unknown mode " + v);
+                                  });
+                  return new NowOnConfig(channel, timeBeforeToAdd, timeAfterToKeep, mode);
                 });
 
     var channelNameResolver =
@@ -102,15 +159,48 @@ public class ProgrammeConfigYamlParser {
     var hasPerformedFirstLoadNode =
         configParser.get("hasPerformedFirstLoad").bool().defaultingTo(true).value();
 
+    var feedArchive =
+        configParser
+            .get("feedArchive")
+            .object()
+            .map(
+                p -> {
+                  var path = p.get("path").string().required().map(Path::of);
+                  var maxEntries =
+                      p.get("maxEntries")
+                          .integer()
+                          .defaultingTo(1000)
+                          .validate(
+                              v -> v > 0 ? Optional.empty() : Optional.of("must be positive"))
+                          .value();
+                  return new ProgrammeConfig.FeedArchiveConfig(path, maxEntries);
+                });
+
     return new ProgrammeConfig(
-        programmeUrl,
+        feeds,
+        conflictPolicy,
         assignDiscordPostsApiUrl,
+        resyncPortalPostsOnStartup,
         majorAnnouncementsChannel,
         nowOnConfig,
         channelNameResolver,
         links,
         locations,
-        hasPerformedFirstLoadNode);
+        hasPerformedFirstLoadNode,
+        feedArchive);
+  }
+
+  private static FeedSource parseFeedSource(ObjectConfigParserWithValue feedConfig) {
+    var name = feedConfig.get("name").string().required().value();
+    var url = feedConfig.get("url").string().required().map(URI::create);
+    var idPrefix =
+        feedConfig
+            .get("idPrefix")
+            .string()
+            .defaultingTo("")
+            .<Optional<String>>map(v -> v.isEmpty() ? Optional.empty() : Optional.of(v));
+    var delta = feedConfig.get("delta").object().map(DeltaFeedConfigYamlParser::parse);
+    return new FeedSource(name, url, idPrefix, delta);
   }
 
   private static ChannelNameResolver parseLocChannelNameResolver(
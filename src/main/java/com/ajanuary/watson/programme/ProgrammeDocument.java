@@ -1,6 +0,0 @@
-package com.ajanuary.watson.programme;
-
-import java.util.List;
-
-public record ProgrammeDocument(List<ProgrammeItem> program) {
-}
@@ -0,0 +1,165 @@
+package com.ajanuary.watson.programme;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rolling on-disk archive of the programme feed bodies the bot has seen, along with the changes it
+ * made in response to each one. Used to reproduce misbehaving polls and to replay real convention
+ * data.
+ *
+ * <p>Each distinct body is stored once, gzipped and named after its SHA-256 hash. The index is a
+ * JSON lines file with one entry per recorded poll.
+ */
+public class ProgrammeFeedArchive {
+
+  private static final String INDEX_FILE = "index.jsonl";
+  private static final String SNAPSHOTS_DIR = "snapshots";
+  private static final ObjectMapper OBJECT_MAPPER =
+      JsonMapper.builder()
+          .addModule(new JavaTimeModule())
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+          .build();
+
+  private final Logger logger = LoggerFactory.getLogger(ProgrammeFeedArchive.class);
+
+  private final Path directory;
+  private final int maxEntries;
+  private final Deque<Entry> entries;
+
+  public ProgrammeFeedArchive(Path directory, int maxEntries) throws IOException {
+    this.directory = directory;
+    this.maxEntries = maxEntries;
+    Files.createDirectories(directory.resolve(SNAPSHOTS_DIR));
+    this.entries = new ArrayDeque<>(readIndex(directory));
+  }
+
+  public static List<Entry> readIndex(Path directory) throws IOException {
+    var index = directory.resolve(INDEX_FILE);
+    if (!Files.exists(index)) {
+      return List.of();
+    }
+    var results = new ArrayList<Entry>();
+    for (var line : Files.readAllLines(index, StandardCharsets.UTF_8)) {
+      if (!line.isBlank()) {
+        results.add(OBJECT_MAPPER.readValue(line, Entry.class));
+      }
+    }
+    return results;
+  }
+
+  public static String readBody(Path directory, String hash) throws IOException {
+    try (var in =
+        new GZIPInputStream(Files.newInputStream(snapshotPath(directory, hash)))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  public synchronized void record(String body, Changes changes) throws IOException {
+    var hash = hash(body);
+    if (!entries.isEmpty() && entries.getLast().hash().equals(hash) && changes.isEmpty()) {
+      // Nothing has happened since the last poll we recorded.
+      return;
+    }
+
+    var snapshot = snapshotPath(directory, hash);
+    if (!Files.exists(snapshot)) {
+      var tmp = Files.createTempFile(snapshot.getParent(), hash, ".tmp");
+      try (var out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+        out.write(body.getBytes(StandardCharsets.UTF_8));
+      }
+      Files.move(tmp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    var entry = new Entry(Instant.now(), hash, changes);
+    entries.addLast(entry);
+    Files.writeString(
+        directory.resolve(INDEX_FILE),
+        OBJECT_MAPPER.writeValueAsString(entry) + "\n",
+        StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+
+    if (entries.size() > maxEntries) {
+      prune();
+    }
+  }
+
+  private void prune() throws IOException {
+    while (entries.size() > maxEntries) {
+      entries.removeFirst();
+    }
+
+    var tmp = Files.createTempFile(directory, INDEX_FILE, ".tmp");
+    var lines = new ArrayList<String>();
+    for (var entry : entries) {
+      lines.add(OBJECT_MAPPER.writeValueAsString(entry));
+    }
+    Files.write(tmp, lines, StandardCharsets.UTF_8);
+    Files.move(
+        tmp,
+        directory.resolve(INDEX_FILE),
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+
+    var referenced = entries.stream().map(Entry::hash).collect(Collectors.toSet());
+    try (var snapshots = Files.list(directory.resolve(SNAPSHOTS_DIR))) {
+      for (var snapshot : snapshots.toList()) {
+        var name = snapshot.getFileName().toString();
+        if (name.endsWith(".json.gz")
+            && !referenced.contains(name.substring(0, name.length() - ".json.gz".length()))) {
+          logger.debug("Pruning snapshot {}", name);
+          Files.delete(snapshot);
+        }
+      }
+    }
+  }
+
+  private static Path snapshotPath(Path directory, String hash) {
+    return directory.resolve(SNAPSHOTS_DIR).resolve(hash + ".json.gz");
+  }
+
+  private static String hash(String body) {
+    try {
+      var digest =
+          MessageDigest.getInstance("SHA-256").digest(body.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("SHA-256 not available", e);
+    }
+  }
+
+  /** The programme item ids affected by a poll. */
+  public record Changes(
+      List<String> added, List<String> updated, List<String> cancelled, List<String> deleted) {
+
+    @JsonIgnore
+    public boolean isEmpty() {
+      return added.isEmpty() && updated.isEmpty() && cancelled.isEmpty() && deleted.isEmpty();
+    }
+  }
+
+  public record Entry(Instant time, String hash, Changes changes) {}
+}
@@ -0,0 +1,149 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.feed.DeltaFeed;
+import com.ajanuary.watson.feed.DeltaFeedConfig;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class ProgrammeFeedClient {
+
+  private static final ObjectMapper OBJECT_MAPPER =
+      JsonMapper.builder()
+          .addModule(new JavaTimeModule())
+          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+          .enable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION)
+          .build();
+  // So a feed that stops responding fails the fetch instead of holding up every poll.
+  private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient httpClient =
+      HttpClient.newBuilder().connectTimeout(CONNECT_TIMEOUT).build();
+
+  private final URI programmeUrl;
+  private final ZoneId timezone;
+
+  private String etag = null;
+  private String lastModified = null;
+
+  public ProgrammeFeedClient(URI programmeUrl, ZoneId timezone) {
+    this.programmeUrl = programmeUrl;
+    this.timezone = timezone;
+  }
+
+  /** Fetches the programme, sorted in reverse start time order. */
+  public List<ProgrammeItem> fetch() throws IOException, InterruptedException {
+    return parse(fetchBody());
+  }
+
+  public String fetchBody() throws IOException, InterruptedException {
+    var request =
+        HttpRequest.newBuilder().uri(programmeUrl).timeout(REQUEST_TIMEOUT).GET().build();
+    var response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IOException("Error polling programme: " + response.body());
+    }
+    return response.body();
+  }
+
+  /**
+   * Fetches the programme if it has changed since the last time this was called, using the ETag
+   * and Last-Modified headers from the last response.
+   */
+  public Optional<String> fetchBodyIfChanged() throws IOException, InterruptedException {
+    var request = HttpRequest.newBuilder().uri(programmeUrl).timeout(REQUEST_TIMEOUT).GET();
+    if (etag != null) {
+      request.header("If-None-Match", etag);
+    }
+    if (lastModified != null) {
+      request.header("If-Modified-Since", lastModified);
+    }
+    var response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() == 304) {
+      return Optional.empty();
+    }
+    if (response.statusCode() != 200) {
+      throw new IOException("Error polling programme: " + response.body());
+    }
+    etag = response.headers().firstValue("ETag").orElse(null);
+    lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+    return Optional.of(response.body());
+  }
+
+  public List<ProgrammeItem> parse(String body) throws IOException {
+    return toItems(readItems(body, Optional.empty()).values(), timezone);
+  }
+
+  /**
+   * Reads the items in a programme without interpreting them, keyed by id, so items from more than
+   * one feed can be merged and compared.
+   */
+  public static Map<String, JsonNode> readItems(String body, Optional<String> idPrefix)
+      throws IOException {
+    var root = OBJECT_MAPPER.reader().with(new StringPool().nodeFactory()).readTree(body);
+    // The new format has the items under "program". The old format is just the items.
+    var items = root.isArray() ? root : root.get("program");
+    if (items == null || !items.isArray()) {
+      throw new IOException("Programme has no items");
+    }
+    var results = new LinkedHashMap<String, JsonNode>();
+    for (var item : items) {
+      var withPrefix = withIdPrefix(item, idPrefix);
+      results.put(withPrefix.get("id").asText(), withPrefix);
+    }
+    return results;
+  }
+
+  public static JsonNode withIdPrefix(JsonNode item, Optional<String> idPrefix) {
+    if (idPrefix.isEmpty()) {
+      return item;
+    }
+    var copy = ((ObjectNode) item).deepCopy();
+    copy.put("id", idPrefix.get() + item.get("id").asText());
+    return copy;
+  }
+
+  public static List<ProgrammeItem> toItems(Collection<JsonNode> nodes, ZoneId timezone)
+      throws IOException {
+    var strings = new StringPool();
+    var items = new ArrayList<ProgrammeItem>();
+    for (var node : nodes) {
+      items.add(ProgrammeItem.fromJson(node, timezone, strings));
+    }
+    return inPostingOrder(items);
+  }
+
+  public static String toBody(Collection<JsonNode> nodes) throws IOException {
+    return OBJECT_MAPPER.writeValueAsString(nodes);
+  }
+
+  public DeltaFeed<JsonNode> deltaFeed(String name, DeltaFeedConfig deltaFeedConfig) {
+    return new DeltaFeed<>(name, deltaFeedConfig, OBJECT_MAPPER, JsonNode.class);
+  }
+
+  /** Reverse start time order, so the earliest item ends up as the newest post in a forum. */
+  public static List<ProgrammeItem> inPostingOrder(List<ProgrammeItem> items) {
+    return items.stream()
+        .sorted(Comparator.comparingLong(ProgrammeItem::startEpochSecond).reversed())
+        .toList();
+  }
+}
@@ -0,0 +1,292 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.db.DatabaseManager.DatabaseConnection;
+import com.ajanuary.watson.feed.DeltaFeed;
+import com.ajanuary.watson.feed.DeltaFeed.Sync;
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedSource;
+import com.ajanuary.watson.scheduling.Timers;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches each of the programme's feeds in parallel and merges them into one programme.
+ *
+ * <p>Each source keeps the items from its last good fetch, so a source that is slow or failing
+ * doesn't hold up the others or make its items look like they've been removed. Items are only
+ * reconciled against the database, which is how removed items are found, once every source has
+ * been fetched at least once.
+ */
+public class ProgrammeFeeds {
+
+  // How long a poll waits for the sources before using the last good items of those that haven't
+  // finished. Each request has its own timeout, but a sync can take more than one.
+  private static final Duration FETCH_TIMEOUT = Duration.ofMinutes(1);
+
+  private final Logger logger = LoggerFactory.getLogger(ProgrammeFeeds.class);
+
+  private final List<Source> sources;
+  private final ConflictPolicy conflictPolicy;
+  private final ZoneId timezone;
+  private final Duration fetchTimeout;
+  private final ExecutorService fetchExecutor;
+
+  // The merged items as of the last poll that was successfully applied.
+  private Map<String, JsonNode> lastApplied = null;
+  private Map<String, JsonNode> merged = null;
+  private String body = null;
+  private int numConflicts = 0;
+
+  public ProgrammeFeeds(ProgrammeConfig programmeConfig, ZoneId timezone) {
+    this(
+        programmeConfig.feeds().stream()
+            .map(
+                feedSource ->
+                    new Source(feedSource, new ProgrammeFeedClient(feedSource.url(), timezone)))
+            .toList(),
+        programmeConfig.conflictPolicy(),
+        timezone);
+  }
+
+  ProgrammeFeeds(List<Source> sources, ConflictPolicy conflictPolicy, ZoneId timezone) {
+    this(sources, conflictPolicy, timezone, FETCH_TIMEOUT);
+  }
+
+  ProgrammeFeeds(
+      List<Source> sources,
+      ConflictPolicy conflictPolicy,
+      ZoneId timezone,
+      Duration fetchTimeout) {
+    this.sources = sources;
+    this.conflictPolicy = conflictPolicy;
+    this.timezone = timezone;
+    this.fetchTimeout = fetchTimeout;
+    // One thread per source, so each poll fetches them all at once. Idle threads are let go, as
+    // polls are minutes apart.
+    var executor =
+        new ThreadPoolExecutor(
+            sources.size(),
+            sources.size(),
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            Timers.daemonThreads("programme-fetch"));
+    executor.allowCoreThreadTimeOut(true);
+    this.fetchExecutor = executor;
+  }
+
+  /**
+   * Fetches every source and works out what has changed. Once the changes have been applied,
+   * {@link #finish} must be called so the next poll only returns what has changed since.
+   */
+  public Poll poll(DatabaseConnection conn)
+      throws IOException, InterruptedException, SQLException {
+    var futures = new ArrayList<Future<Update>>();
+    for (var source : sources) {
+      futures.add(fetchExecutor.submit(() -> source.fetch(conn)));
+    }
+    var deadline = System.nanoTime() + fetchTimeout.toNanos();
+    var fullFetch = false;
+    var changed = false;
+    for (var i = 0; i < sources.size(); i++) {
+      var source = sources.get(i);
+      try {
+        var update =
+            futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        source.apply(update);
+        fullFetch |= update.fetch() == Fetch.FULL;
+        changed |= update.fetch() != Fetch.UNCHANGED;
+      } catch (ExecutionException e) {
+        logger.error(
+            "Failed to fetch programme feed {}. Using its last good items",
+            source.feedSource.name(),
+            e.getCause());
+      } catch (TimeoutException e) {
+        futures.get(i).cancel(true);
+        source.timedOut();
+        logger.error(
+            "Timed out fetching programme feed {} after {}. Using its last good items",
+            source.feedSource.name(),
+            fetchTimeout);
+      }
+    }
+
+    var allLoaded = sources.stream().allMatch(source -> source.items != null);
+    if (changed || merged == null) {
+      merged = merge();
+      body = ProgrammeFeedClient.toBody(merged.values());
+    }
+
+    if (allLoaded && (lastApplied == null || fullFetch)) {
+      var mergedIds = merged.keySet();
+      var removedItemIds =
+          conn.getAllProgrammeItemIds().stream().filter(id -> !mergedIds.contains(id)).toList();
+      return new Poll(
+          body, ProgrammeFeedClient.toItems(merged.values(), timezone), removedItemIds, true);
+    }
+
+    var previous = lastApplied == null ? Map.<String, JsonNode>of() : lastApplied;
+    var changedItems = new ArrayList<JsonNode>();
+    if (merged != previous) {
+      merged.forEach(
+          (id, item) -> {
+            if (!item.equals(previous.get(id))) {
+              changedItems.add(item);
+            }
+          });
+    }
+    var removedItemIds =
+        previous.keySet().stream().filter(id -> !merged.containsKey(id)).toList();
+    return new Poll(
+        body, ProgrammeFeedClient.toItems(changedItems, timezone), removedItemIds, false);
+  }
+
+  public void finish(DatabaseConnection conn) throws SQLException {
+    for (var source : sources) {
+      if (source.pendingSync.isPresent()) {
+        source.deltaFeed.get().finish(conn, source.pendingSync.get());
+        source.pendingSync = Optional.empty();
+      }
+    }
+    lastApplied = merged;
+  }
+
+  private Map<String, JsonNode> merge() throws IOException {
+    var results = new LinkedHashMap<String, JsonNode>();
+    var sourceNames = new HashMap<String, String>();
+    var conflicts = 0;
+    for (var source : sources) {
+      if (source.items == null) {
+        continue;
+      }
+      for (var entry : source.items.entrySet()) {
+        var id = entry.getKey();
+        if (!results.containsKey(id)) {
+          results.put(id, entry.getValue());
+          sourceNames.put(id, source.feedSource.name());
+          continue;
+        }
+        conflicts++;
+        switch (conflictPolicy) {
+          case FIRST -> {}
+          case LAST -> {
+            results.put(id, entry.getValue());
+            sourceNames.put(id, source.feedSource.name());
+          }
+          case FAIL ->
+              throw new IOException(
+                  "Item "
+                      + id
+                      + " is in both "
+                      + sourceNames.get(id)
+                      + " and "
+                      + source.feedSource.name());
+        }
+      }
+    }
+    if (conflicts != numConflicts) {
+      logger.warn("{} programme items are in more than one feed", conflicts);
+      numConflicts = conflicts;
+    }
+    return results;
+  }
+
+  /**
+   * @param items the items to add or update, in the order they should be posted
+   * @param removedItemIds items that are no longer in any feed
+   * @param reconciled whether {@code items} is the whole programme, rather than just what changed
+   */
+  public record Poll(
+      String body, List<ProgrammeItem> items, List<String> removedItemIds, boolean reconciled) {}
+
+  static class Source {
+    private final FeedSource feedSource;
+    private final ProgrammeFeedClient client;
+    private final Optional<DeltaFeed<JsonNode>> deltaFeed;
+
+    // The items from the last good fetch, or null if there hasn't been one yet.
+    private Map<String, JsonNode> items = null;
+    private Optional<Sync<JsonNode>> pendingSync = Optional.empty();
+    // Whether the last fetch timed out. The client may have kept the ETag of the response it was
+    // reading, so the next fetch can't ask for the feed only if it has changed.
+    private boolean timedOut = false;
+
+    Source(FeedSource feedSource, ProgrammeFeedClient client) {
+      this.feedSource = feedSource;
+      this.client = client;
+      // Keep the name the cursor was stored under before there could be more than one feed.
+      var cursorName =
+          feedSource.name().equals("programme") ? "programme" : "programme:" + feedSource.name();
+      this.deltaFeed = feedSource.delta().map(delta -> client.deltaFeed(cursorName, delta));
+    }
+
+    /**
+     * Fetches the source without changing it, so a fetch that times out can be abandoned. The
+     * result is applied with {@link #apply}.
+     */
+    private Update fetch(DatabaseConnection conn)
+        throws IOException, InterruptedException, SQLException {
+      if (deltaFeed.isPresent()) {
+        var sync = deltaFeed.get().start(conn);
+        if (!sync.isFull() && items != null) {
+          var updated = new LinkedHashMap<>(items);
+          for (var item : sync.delta().get().upserts()) {
+            var withPrefix = ProgrammeFeedClient.withIdPrefix(item, feedSource.idPrefix());
+            updated.put(withPrefix.get("id").asText(), withPrefix);
+          }
+          for (var id : sync.delta().get().tombstones()) {
+            updated.remove(feedSource.idPrefix().orElse("") + id);
+          }
+          return new Update(Fetch.DELTA, updated, Optional.of(sync));
+        }
+        var items = ProgrammeFeedClient.readItems(client.fetchBody(), feedSource.idPrefix());
+        return new Update(Fetch.FULL, items, Optional.of(sync));
+      }
+
+      var body = timedOut ? Optional.of(client.fetchBody()) : client.fetchBodyIfChanged();
+      if (body.isEmpty()) {
+        return new Update(Fetch.UNCHANGED, items, Optional.empty());
+      }
+      var items = ProgrammeFeedClient.readItems(body.get(), feedSource.idPrefix());
+      return new Update(Fetch.FULL, items, Optional.empty());
+    }
+
+    private void apply(Update update) {
+      items = update.items();
+      if (update.sync().isPresent()) {
+        pendingSync = update.sync();
+      }
+      timedOut = false;
+    }
+
+    private void timedOut() {
+      timedOut = true;
+    }
+  }
+
+  private record Update(Fetch fetch, Map<String, JsonNode> items, Optional<Sync<JsonNode>> sync) {}
+
+  private enum Fetch {
+    UNCHANGED,
+    DELTA,
+    FULL
+  }
+}
@@ -1,136 +1,145 @@
 package com.ajanuary.watson.programme;
 
-import com.fasterxml.jackson.core.JacksonException;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
-import com.fasterxml.jackson.databind.util.StdConverter;
-
 import java.io.IOException;
-import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * A programme item as read from the feed.
+ *
+ * <p>The start time is kept as seconds since the epoch, and only turned into a date and time in a
+ * particular timezone when it's displayed.
+ */
 public record ProgrammeItem(
     String id,
     String title,
-    @JsonDeserialize(using = TagDeserializer.class) List<String> tags,
-    LocalDate date,
-    LocalTime time,
-    ZonedDateTime dateTime,
+    List<String> tags,
+    long startEpochSecond,
     int mins,
-    @JsonDeserialize(converter = LocationConverter.class) String loc,
-    @JsonDeserialize(using = PersonDeserializer.class) List<String> people,
+    String loc,
+    List<String> people,
     String desc,
-    @JsonDeserialize(using = LinksDeserializer.class) Map<String, String> links) {
+    Map<String, String> links) {
 
   public ZonedDateTime startTime(ZoneId zoneId) {
-    if (dateTime != null) {
-      return dateTime.withZoneSameInstant(zoneId);
-    } else {
-      return ZonedDateTime.of(date, time, zoneId);
-    }
+    return Instant.ofEpochSecond(startEpochSecond).atZone(zoneId);
   }
+
   public ZonedDateTime endTime(ZoneId zoneId) {
-    return startTime(zoneId).plus(Duration.ofMinutes(mins));
+    return startTime(zoneId).plusMinutes(mins);
   }
 
-  private static final class TagDeserializer extends StdDeserializer<List<String>> {
+  public long endEpochSecond() {
+    return startEpochSecond + mins * 60L;
+  }
 
-    public TagDeserializer() {
-      super(List.class);
+  /**
+   * Reads an item in the ConClár format. Items with only a date and time are taken to be in {@code
+   * timezone}.
+   */
+  static ProgrammeItem fromJson(JsonNode node, ZoneId timezone, StringPool strings)
+      throws IOException {
+    try {
+      return new ProgrammeItem(
+          text(node, "id"),
+          text(node, "title"),
+          strings.intern(tags(node.get("tags"))),
+          startEpochSecond(node, timezone),
+          node.path("mins").asInt(),
+          strings.intern(loc(node.get("loc"))),
+          strings.intern(people(node.get("people"))),
+          text(node, "desc"),
+          links(node.get("links"), strings));
+    } catch (DateTimeParseException e) {
+      throw new IOException("Malformed time for item " + node.path("id").asText(), e);
     }
+  }
 
-    @Override
-    public List<String> deserialize(
-        com.fasterxml.jackson.core.JsonParser p,
-        com.fasterxml.jackson.databind.DeserializationContext ctxt)
-        throws java.io.IOException {
-      var result = new ArrayList<String>();
-      var list = p.readValueAsTree();
-      for (var i = 0; i < list.size(); i++) {
-        var value = ((JsonNode) list.get(i));
-        if (value.isTextual()) {
-          result.add(value.asText());
-        } else if (value.has("label")) {
-          var tag = value.get("label").asText();
-          result.add(tag);
-        }
-      }
-      return result;
-    }
+  private static String text(JsonNode node, String field) {
+    var value = node.get(field);
+    return value == null || value.isNull() ? null : value.asText();
   }
 
-  private static final class LinksDeserializer extends StdDeserializer<Map<String, String>> {
-    public LinksDeserializer() {
-      super(Map.class);
+  private static long startEpochSecond(JsonNode node, ZoneId timezone) throws IOException {
+    var dateTime = text(node, "dateTime");
+    if (dateTime != null) {
+      return ZonedDateTime.parse(dateTime).toEpochSecond();
     }
-
-    @Override
-    @SuppressWarnings("unchecked")
-    public Map<String, String> deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JacksonException {
-        var value = ctxt.readTree(p);
-        if (value.isArray()) {
-          // For some reason the JSON is an empty list instead of an empty object
-          return Map.of();
-        } else {
-          return ctxt.readTreeAsValue(value, Map.class);
-        }
+    var date = text(node, "date");
+    var time = text(node, "time");
+    if (date == null || time == null) {
+      throw new IOException("Item " + node.path("id").asText() + " has no start time");
     }
+    return ZonedDateTime.of(LocalDate.parse(date), LocalTime.parse(time), timezone)
+        .toEpochSecond();
   }
 
-  private static final class DateConverter extends StdConverter<String, ZonedDateTime> {
-
-    @Override
-    public ZonedDateTime convert(String value) {
-      return ZonedDateTime.parse(value);
+  private static List<String> tags(JsonNode list) {
+    var result = new ArrayList<String>();
+    if (list == null) {
+      return result;
     }
+    for (var value : list) {
+      if (value.isTextual()) {
+        result.add(value.asText());
+      } else if (value.has("label")) {
+        result.add(value.get("label").asText());
+      }
+    }
+    return result;
   }
 
-  private static final class LocationConverter extends StdConverter<List<String>, String> {
-
-    @Override
-    public String convert(List<String> value) {
-      return value.get(0);
+  private static String loc(JsonNode list) {
+    if (list == null || list.isEmpty()) {
+      return null;
     }
+    return list.get(0).asText();
   }
 
-  private static final class PersonDeserializer extends StdDeserializer<List<String>> {
-
-    public PersonDeserializer() {
-      super(List.class);
+  private static List<String> people(JsonNode list) {
+    var result = new ArrayList<String>();
+    if (list == null) {
+      return result;
+    }
+    for (var person : list) {
+      result.add(person.get("name").asText());
     }
+    result.sort(
+        (a, b) -> {
+          if (a.endsWith("(moderator)")) {
+            return -1;
+          }
+          if (b.endsWith("(moderator)")) {
+            return 1;
+          }
+          return a.compareTo(b);
+        });
+    return result;
+  }
 
-    @Override
-    public List<String> deserialize(
-        com.fasterxml.jackson.core.JsonParser p,
-        com.fasterxml.jackson.databind.DeserializationContext ctxt)
-        throws java.io.IOException {
-      var result = new ArrayList<String>();
-      var list = p.readValueAsTree();
-      for (var i = 0; i < list.size(); i++) {
-        var name = ((JsonNode) list.get(i)).get("name").asText();
-        result.add(name);
-      }
-      return result.stream()
-          .sorted(
-              (a, b) -> {
-                if (a.endsWith("(moderator)")) {
-                  return -1;
-                }
-                if (b.endsWith("(moderator)")) {
-                  return 1;
-                }
-                return a.compareTo(b);
-              })
-          .toList();
+  private static Map<String, String> links(JsonNode links, StringPool strings) {
+    // For some reason the JSON is an empty list instead of an empty object when there are no links
+    if (links == null || !links.isObject() || links.isEmpty()) {
+      return Map.of();
     }
+    var result = new HashMap<String, String>();
+    links
+        .fields()
+        .forEachRemaining(
+            entry -> {
+              if (!entry.getValue().isNull()) {
+                result.put(strings.intern(entry.getKey()), entry.getValue().asText());
+              }
+            });
+    return Map.copyOf(result);
   }
 }
@@ -1,46 +1,52 @@
 package com.ajanuary.watson.programme;
 
-import com.ajanuary.watson.alarms.Scheduler;
+import com.ajanuary.watson.api.ReorderProgrammeEvent;
+import com.ajanuary.watson.api.ResyncPortalPostsEvent;
 import com.ajanuary.watson.config.Config;
 import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.db.DatabaseManager.DatabaseConnection;
 import com.ajanuary.watson.notification.EventDispatcher;
 import com.ajanuary.watson.portalapi.PortalApiClient;
+import com.ajanuary.watson.programme.PortalProgrammeApiClient.PostDetails;
 import com.ajanuary.watson.programme.ProgrammeConfig.Location;
+import com.ajanuary.watson.programme.ProgrammeConfig.NowOnConfig;
+import com.ajanuary.watson.scheduling.Scheduler;
+import com.ajanuary.watson.scheduling.Timers;
 import com.ajanuary.watson.utils.JDAUtils;
-import com.fasterxml.jackson.core.JacksonException;
-import com.fasterxml.jackson.core.StreamReadFeature;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.github.furstenheim.CopyDown;
 import java.io.IOException;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.sql.SQLException;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
+import net.dv8tion.jda.api.entities.channel.middleman.StandardGuildMessageChannel;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.requests.ErrorResponse;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
@@ -48,17 +54,12 @@ import org.slf4j.LoggerFactory;
 
 public class ProgrammeModule {
 
-  private static final int MAX_THREAD_TITLE_LEN = 100;
+  static final int MAX_THREAD_TITLE_LEN = 100;
+  private static final int MAX_MESSAGE_LEN = 2000;
   private final Logger logger = LoggerFactory.getLogger(ProgrammeModule.class);
   private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
   private static final DateTimeFormatter DATE_TIME_FORMATTER =
       DateTimeFormatter.ofPattern("EEE HH:mm");
-  private final ObjectMapper objectMapper =
-      JsonMapper.builder()
-          .addModule(new JavaTimeModule())
-          .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-          .enable(StreamReadFeature.INCLUDE_SOURCE_IN_LOCATION)
-          .build();
 
   private final JDA jda;
   private final JDAUtils jdaUtils;
@@ -67,8 +68,18 @@ public class ProgrammeModule {
   private final DatabaseManager databaseManager;
   private final EventDispatcher eventDispatcher;
   private final Optional<PortalProgrammeApiClient> portalProgrammeApiClient;
-
-  private boolean doneFirstOnNowPoll = false;
+  private final ProgrammeFeeds programmeFeeds;
+  private final Optional<ProgrammeFeedArchive> feedArchive;
+  private final AtomicReference<ProgrammeSnapshot> programmeSnapshot;
+  private final Clock clock;
+  private final Optional<NowOnTimeline> nowOnTimeline;
+  private final Optional<NowOnBoard> nowOnBoard;
+  // Starts off stale so the board is brought up to date when we start up.
+  private final AtomicBoolean boardStale = new AtomicBoolean(true);
+  private String lastBoard = null;
+
+  private final ScheduledExecutorService pollExecutor =
+      Executors.newSingleThreadScheduledExecutor();
 
   public ProgrammeModule(
       JDA jda,
@@ -76,29 +87,124 @@ public class ProgrammeModule {
       Config config,
       DatabaseManager databaseManager,
       PortalApiClient portalApiClient,
-      EventDispatcher eventDispatcher) {
+      EventDispatcher eventDispatcher,
+      AtomicReference<ProgrammeSnapshot> programmeSnapshot,
+      Timers timers) {
+    this(
+        jda,
+        programmeConfig,
+        config,
+        databaseManager,
+        portalApiClient,
+        eventDispatcher,
+        programmeSnapshot,
+        timers,
+        new ProgrammeFeeds(programmeConfig, config.timezone()),
+        openFeedArchive(programmeConfig));
+    pollExecutor.scheduleWithFixedDelay(this::pollProgramme, 0, 1, TimeUnit.MINUTES);
+    if (programmeConfig.resyncPortalPostsOnStartup()) {
+      // Queued after the first poll, so any posts it creates are included.
+      pollExecutor.execute(this::resyncPortalPosts);
+    }
+  }
+
+  /** Doesn't poll on its own, so that polls can be driven by replaying recorded feeds. */
+  ProgrammeModule(
+      JDA jda,
+      ProgrammeConfig programmeConfig,
+      Config config,
+      DatabaseManager databaseManager,
+      PortalApiClient portalApiClient,
+      EventDispatcher eventDispatcher,
+      AtomicReference<ProgrammeSnapshot> programmeSnapshot,
+      Timers timers,
+      ProgrammeFeeds programmeFeeds,
+      Optional<ProgrammeFeedArchive> feedArchive) {
     this.jda = jda;
     this.jdaUtils = new JDAUtils(jda, config);
     this.programmeConfig = programmeConfig;
     this.config = config;
     this.databaseManager = databaseManager;
-    this.portalProgrammeApiClient = programmeConfig.assignDiscordPostsApiUrl().map(assignDiscordPostsApiUrl -> new PortalProgrammeApiClient(assignDiscordPostsApiUrl, portalApiClient));
+    this.portalProgrammeApiClient = programmeConfig.assignDiscordPostsApiUrl().map(assignDiscordPostsApiUrl -> new PortalProgrammeApiClient(assignDiscordPostsApiUrl, portalApiClient, databaseManager));
     this.eventDispatcher = eventDispatcher;
-    Executors.newSingleThreadScheduledExecutor()
-        .scheduleWithFixedDelay(this::pollProgramme, 0, 1, TimeUnit.MINUTES);
-
-    if (programmeConfig.nowOn().isPresent()) {
+    this.programmeFeeds = programmeFeeds;
+    this.feedArchive = feedArchive;
+    this.programmeSnapshot = programmeSnapshot;
+    this.clock = timers.clock();
+    // Reordering runs on the poll thread so it never sees a poll half-way through.
+    eventDispatcher.register(
+        ReorderProgrammeEvent.class, e -> pollExecutor.execute(this::reorderForums));
+    eventDispatcher.register(
+        ResyncPortalPostsEvent.class, e -> pollExecutor.execute(this::resyncPortalPosts));
+
+    if (programmeConfig.nowOn().isPresent()
+        && programmeConfig.nowOn().get().mode() == NowOnConfig.Mode.BOARD) {
+      this.nowOnBoard =
+          Optional.of(new NowOnBoard(programmeConfig.nowOn().get(), config.timezone()));
+      this.nowOnTimeline = Optional.empty();
+      var scheduler =
+          new Scheduler<>(
+              "now on board",
+              timers,
+              Duration.ZERO,
+              this::getNextBoardTime,
+              this::getBoard,
+              this::updateBoard);
+      eventDispatcher.register(
+          ItemsChangedEvent.class,
+          e -> {
+            boardStale.set(true);
+            scheduler.notifyOfDbChange();
+          });
+    } else if (programmeConfig.nowOn().isPresent()) {
+      this.nowOnBoard = Optional.empty();
+      var timeline = new NowOnTimeline(programmeConfig.nowOn().get());
+      try (var conn = databaseManager.getConnection()) {
+        timeline.load(programmeSnapshot.get(), conn.getNowOnMessages());
+      } catch (SQLException e) {
+        throw new RuntimeException(e);
+      }
+      this.nowOnTimeline = Optional.of(timeline);
       var scheduler =
           new Scheduler<>(
               "now on item",
+              timers,
               Duration.ZERO,
               this::getNextNowOnTime,
               this::getNowOn,
               this::handleNowOn);
-      eventDispatcher.register(ItemChangedEvent.class, e -> scheduler.notifyOfDbChange());
+      eventDispatcher.register(
+          ItemsChangedEvent.class,
+          e -> {
+            timeline.apply(programmeSnapshot.get(), e.changes());
+            // Reposting only changes the link, which is read when the message is posted.
+            if (e.changes().stream().anyMatch(c -> c.kind() != ItemChange.Kind.REPOSTED)) {
+              scheduler.notifyOfDbChange();
+            }
+          });
+    } else {
+      this.nowOnBoard = Optional.empty();
+      this.nowOnTimeline = Optional.empty();
     }
   }
 
+  private static Optional<ProgrammeFeedArchive> openFeedArchive(ProgrammeConfig programmeConfig) {
+    return programmeConfig
+        .feedArchive()
+        .flatMap(
+            feedArchiveConfig -> {
+              try {
+                return Optional.of(
+                    new ProgrammeFeedArchive(
+                        feedArchiveConfig.path(), feedArchiveConfig.maxEntries()));
+              } catch (IOException e) {
+                LoggerFactory.getLogger(ProgrammeModule.class)
+                    .error("Failed to open programme feed archive. Not recording polls", e);
+                return Optional.empty();
+              }
+            });
+  }
+
   @NotNull
   private static ArrayList<ForumTag> getTags(ProgrammeItem newItem, ForumChannel channel) {
     var tags = new ArrayList<ForumTag>();
@@ -159,11 +265,14 @@ public class ProgrammeModule {
     return descMdTrunc + post;
   }
 
-  private void pollProgramme() {
+  void pollProgramme() {
     var start = System.currentTimeMillis();
-    var numAdded = new AtomicInteger(0);
-    var numUpdated = new AtomicInteger(0);
-    var numDeleted = new AtomicInteger(0);
+    String body = null;
+    var added = new ArrayList<String>();
+    var updated = new ArrayList<String>();
+    var cancelled = new ArrayList<String>();
+    var deleted = new ArrayList<String>();
+    var changes = new ArrayList<ItemChange>();
     try (var conn = databaseManager.getConnection()) {
       var mdConverter = new CopyDown();
       var guild = jda.getGuildById(config.guildId());
@@ -173,221 +282,221 @@ public class ProgrammeModule {
           jdaUtils.getMessageChannel(programmeConfig.majorAnnouncementsChannel());
       assert announcementChannel != null;
 
-      var newProgrammeItems = getNewProgrammeItems();
-
-      for (var newItem : newProgrammeItems) {
-        var existingThread = conn.getDiscordThread(newItem.id(), config.timezone());
-        var newDiscordItem =
-            new DiscordItem(
-                newItem.id(),
-                newItem.title(),
-                newItem.desc(),
-                newItem.loc(),
-                newItem.startTime(config.timezone()),
-                newItem.endTime(config.timezone()));
-        if (existingThread.isEmpty()) {
-          logger.info("Add item [{}] '{}'", newItem.id(), newItem.title());
-
-          var channelName =
-              programmeConfig.channelNameResolver().resolveChannelName(newItem).orElse(null);
-
-          String discordThreadId = null;
-          String discordMessageId = null;
-
-          var title = formatTitle(newItem);
-          if (programmeConfig.hasPerformedFirstLoad()) {
-            if (title.length() > MAX_THREAD_TITLE_LEN - 6) {
-              title = title.substring(0, MAX_THREAD_TITLE_LEN - 6);
-            }
-            title += " [NEW]";
-          } else {
-            if (title.length() > MAX_THREAD_TITLE_LEN) {
-              title = title.substring(0, MAX_THREAD_TITLE_LEN);
+      ProgrammeFeeds.Poll poll;
+      List<ProgrammeItem> newProgrammeItems;
+      try {
+        poll = programmeFeeds.poll(conn);
+        body = poll.body();
+        newProgrammeItems = poll.items();
+
+        for (var newItem : newProgrammeItems) {
+          var existingThread = conn.getDiscordThread(newItem.id());
+          var newDiscordItem =
+              new DiscordItem(
+                  newItem.id(),
+                  newItem.title(),
+                  newItem.desc(),
+                  newItem.loc(),
+                  newItem.startEpochSecond(),
+                  newItem.endEpochSecond());
+          if (existingThread.isEmpty()) {
+            logger.info("Add item [{}] '{}'", newItem.id(), newItem.title());
+
+            var channelName =
+                programmeConfig.channelNameResolver().resolveChannelName(newItem).orElse(null);
+
+            String discordThreadId = null;
+            String discordMessageId = null;
+
+            var title = formatTitle(newItem);
+            if (programmeConfig.hasPerformedFirstLoad()) {
+              if (title.length() > MAX_THREAD_TITLE_LEN - 6) {
+                title = title.substring(0, MAX_THREAD_TITLE_LEN - 6);
+              }
+              title += " [NEW]";
+            } else {
+              if (title.length() > MAX_THREAD_TITLE_LEN) {
+                title = title.substring(0, MAX_THREAD_TITLE_LEN);
+              }
             }
-          }
 
-          var desc = makeDescription(newItem, mdConverter, config.alarms().isPresent());
-
-          if (channelName != null) {
-            var channels = guild.getForumChannelsByName(channelName, true);
-            if (!channels.isEmpty()) {
-              var channel = channels.get(0);
-              if (channel.getType() == ChannelType.FORUM) {
-                var tags = getTags(newItem, channel);
-                var forumPost =
-                    channel
-                        .createForumPost(title, MessageCreateData.fromContent(desc))
-                        .setTags(tags)
-                        .complete();
-
-                config
-                    .alarms()
-                    .ifPresent(
-                        alarmsConfig -> {
-                          forumPost.getMessage().addReaction(alarmsConfig.alarmEmoji()).complete();
-                        });
-
-                discordThreadId = forumPost.getThreadChannel().getId();
-                discordMessageId = forumPost.getMessage().getId();
+            var desc = makeDescription(newItem, mdConverter, config.alarms().isPresent());
+
+            if (channelName != null) {
+              var channels = guild.getForumChannelsByName(channelName, true);
+              if (!channels.isEmpty()) {
+                var channel = channels.get(0);
+                if (channel.getType() == ChannelType.FORUM) {
+                  var tags = getTags(newItem, channel);
+                  var forumPost =
+                      channel
+                          .createForumPost(title, MessageCreateData.fromContent(desc))
+                          .setTags(tags)
+                          .complete();
+
+                  config
+                      .alarms()
+                      .ifPresent(
+                          alarmsConfig -> {
+                            forumPost
+                                .getMessage()
+                                .addReaction(alarmsConfig.alarmEmoji())
+                                .complete();
+                          });
+
+                  discordThreadId = forumPost.getThreadChannel().getId();
+                  discordMessageId = forumPost.getMessage().getId();
+                }
               }
             }
-          }
-
-          conn.insertDiscordThread(
-              new DiscordThread(
-                  Optional.ofNullable(discordThreadId),
-                  Optional.ofNullable(discordMessageId),
-                  Status.SCHEDULED,
-                  newDiscordItem));
-
-          if (discordThreadId != null) {
-            var roomId =
-                programmeConfig.locations().stream()
-                    .filter(l -> l.name().equals(newItem.loc()))
-                    .findFirst()
-                    .map(Location::id)
-                    .orElse("");
-            var theDiscordThreadId = discordThreadId;
-            portalProgrammeApiClient.ifPresent(client -> client.addPostDetails(
-                newItem.id(),
-                newItem.title(),
-                newItem.startTime(config.timezone()),
-                newItem.mins(),
-                roomId,
-                "https://discord.com/channels/" + config.guildId() + "/" + theDiscordThreadId));
-          }
 
-          eventDispatcher.dispatch(new ItemChangedEvent());
+            conn.insertDiscordThread(
+                new DiscordThread(
+                    Optional.ofNullable(discordThreadId),
+                    Optional.ofNullable(discordMessageId),
+                    Status.SCHEDULED,
+                    newDiscordItem));
+            added.add(newItem.id());
+            changes.add(ItemChange.added(newDiscordItem));
 
-          if (programmeConfig.hasPerformedFirstLoad()) {
-            var announcementEmbedBuilder = new EmbedBuilder();
-            announcementEmbedBuilder.appendDescription("'" + newItem.title() + "' has been added");
-            announcementEmbedBuilder.addField("Time", newItem.startTime(config.timezone()).format(DATE_TIME_FORMATTER), false);
-            announcementEmbedBuilder.addField("Room", newItem.loc(), false);
             if (discordThreadId != null) {
-              announcementEmbedBuilder.addField(
-                  "Discussion thread", "<#" + discordThreadId + ">", false);
+              var postDetails = postDetails(newDiscordItem, discordThreadId);
+              portalProgrammeApiClient.ifPresent(client -> client.addPostDetails(postDetails));
             }
-            announcementChannel
-                .sendMessage(MessageCreateData.fromEmbeds(announcementEmbedBuilder.build()))
-                .complete();
-          }
 
-          numAdded.incrementAndGet();
-        } else if (!existingThread.get().item().equals(newDiscordItem)
-            || existingThread.get().status() == Status.CANCELLED) {
-          logger.info("Edit item [{}] '{}'", newItem.id(), newItem.title());
-
-          var tagChanges = List.<TagChange>of();
-          var newTags = List.<ForumTag>of();
-          ThreadChannel threadChannel = null;
-          if (existingThread.get().discordThreadId().isPresent()) {
-            threadChannel = jda.getThreadChannelById(existingThread.get().discordThreadId().get());
-            assert threadChannel != null;
-            var forumChannel = threadChannel.getParentChannel().asForumChannel();
-            newTags = getTags(newItem, forumChannel);
-            var existingTags = threadChannel.getAppliedTags();
-            // Because we've done a massive hack and are using discord to store the tags rather than
-            // the database, now we've made discord threads optional and independant of the major
-            // changes announcement, we can't announce on major changes for things without threads.
-            // Oh well.
-            tagChanges = getTagChanges(newTags, existingTags);
-          }
+            if (programmeConfig.hasPerformedFirstLoad()) {
+              var announcementEmbedBuilder = new EmbedBuilder();
+              announcementEmbedBuilder.appendDescription(
+                  "'" + newItem.title() + "' has been added");
+              announcementEmbedBuilder.addField("Time", newItem.startTime(config.timezone()).format(DATE_TIME_FORMATTER), false);
+              announcementEmbedBuilder.addField("Room", newItem.loc(), false);
+              if (discordThreadId != null) {
+                announcementEmbedBuilder.addField(
+                    "Discussion thread", "<#" + discordThreadId + ">", false);
+              }
+              announcementChannel
+                  .sendMessage(MessageCreateData.fromEmbeds(announcementEmbedBuilder.build()))
+                  .complete();
+            }
+          } else if (!existingThread.get().item().equals(newDiscordItem)
+              || existingThread.get().status() == Status.CANCELLED) {
+            logger.info("Edit item [{}] '{}'", newItem.id(), newItem.title());
+
+            var tagChanges = List.<TagChange>of();
+            var newTags = List.<ForumTag>of();
+            ThreadChannel threadChannel = null;
+            if (existingThread.get().discordThreadId().isPresent()) {
+              threadChannel =
+                  jda.getThreadChannelById(existingThread.get().discordThreadId().get());
+              assert threadChannel != null;
+              var forumChannel = threadChannel.getParentChannel().asForumChannel();
+              newTags = getTags(newItem, forumChannel);
+              var existingTags = threadChannel.getAppliedTags();
+              // Because we've done a massive hack and are using discord to store the tags rather
+              // than the database, now we've made discord threads optional and independant of the
+              // major changes announcement, we can't announce on major changes for things without
+              // threads. Oh well.
+              tagChanges = getTagChanges(newTags, existingTags);
+            }
 
-          boolean timeChanged =
-              !existingThread.get().item().startTime().equals(newItem.startTime(config.timezone()));
-          boolean noLongerCancelled = existingThread.get().status() == Status.CANCELLED;
-          boolean roomDifferent = !existingThread.get().item().loc().equals(newItem.loc());
+            boolean timeChanged =
+                existingThread.get().item().startEpochSecond() != newItem.startEpochSecond();
+            boolean noLongerCancelled = existingThread.get().status() == Status.CANCELLED;
+            boolean roomDifferent = !existingThread.get().item().loc().equals(newItem.loc());
 
-          var isSignificantUpdate =
-              timeChanged || noLongerCancelled || roomDifferent || !tagChanges.isEmpty();
+            var isSignificantUpdate =
+                timeChanged || noLongerCancelled || roomDifferent || !tagChanges.isEmpty();
 
-          var title = formatTitle(newItem);
+            var title = formatTitle(newItem);
 
-          if (programmeConfig.hasPerformedFirstLoad()
-              && (isSignificantUpdate || existingThread.get().status() == Status.UPDATED)) {
-            if (title.length() > MAX_THREAD_TITLE_LEN - 10) {
-              title = title.substring(0, MAX_THREAD_TITLE_LEN - 10);
-            }
-            title += " [UPDATED]";
-          } else {
-            if (title.length() > MAX_THREAD_TITLE_LEN) {
-              title = title.substring(0, MAX_THREAD_TITLE_LEN);
+            if (programmeConfig.hasPerformedFirstLoad()
+                && (isSignificantUpdate || existingThread.get().status() == Status.UPDATED)) {
+              if (title.length() > MAX_THREAD_TITLE_LEN - 10) {
+                title = title.substring(0, MAX_THREAD_TITLE_LEN - 10);
+              }
+              title += " [UPDATED]";
+            } else {
+              if (title.length() > MAX_THREAD_TITLE_LEN) {
+                title = title.substring(0, MAX_THREAD_TITLE_LEN);
+              }
             }
-          }
 
-          var desc = makeDescription(newItem, mdConverter, config.alarms().isPresent());
+            var desc = makeDescription(newItem, mdConverter, config.alarms().isPresent());
 
-          if (threadChannel != null) {
-            threadChannel.getManager().setName(title).setAppliedTags(newTags).complete();
-            threadChannel
-                .editMessageById(existingThread.get().discordMessageId().get(), desc)
-                .complete();
-          }
-
-          conn.updateDiscordThread(
-              new DiscordThread(
-                  existingThread.get().discordThreadId(),
-                  existingThread.get().discordMessageId(),
-                  isSignificantUpdate ? Status.UPDATED : existingThread.get().status(),
-                  newDiscordItem));
-          eventDispatcher.dispatch(new ItemChangedEvent());
-
-          if (programmeConfig.hasPerformedFirstLoad() && isSignificantUpdate) {
-            var announcementEmbedBuilder = new EmbedBuilder();
-            var threadEmbedBuilder = new EmbedBuilder();
-            var allEmbedBuilders = List.of(announcementEmbedBuilder, threadEmbedBuilder);
-            announcementEmbedBuilder.appendDescription(
-                "'" + existingThread.get().item().title() + "' has been changed");
-            threadEmbedBuilder.appendDescription("This item has been changed");
-            if (noLongerCancelled) {
-              allEmbedBuilders.forEach(
-                  builder -> builder.addField("Status", "The item is no longer cancelled", false));
-            }
-            if (timeChanged) {
-              allEmbedBuilders.forEach(builder -> builder.addField("New time", newItem.startTime(config.timezone()).format(DATE_TIME_FORMATTER), false));
-            }
-            if (roomDifferent) {
-              allEmbedBuilders.forEach(
-                  builder -> builder.addField("New room", newItem.loc(), false));
+            if (threadChannel != null) {
+              threadChannel.getManager().setName(title).setAppliedTags(newTags).complete();
+              threadChannel
+                  .editMessageById(existingThread.get().discordMessageId().get(), desc)
+                  .complete();
             }
-            for (var tagChange : tagChanges) {
-              if (!tagChange.tag().equalsIgnoreCase(newItem.loc())
-                  && !tagChange.tag().equalsIgnoreCase(existingThread.get().item().loc())) {
+
+            conn.updateDiscordThread(
+                new DiscordThread(
+                    existingThread.get().discordThreadId(),
+                    existingThread.get().discordMessageId(),
+                    isSignificantUpdate ? Status.UPDATED : existingThread.get().status(),
+                    newDiscordItem));
+            updated.add(newItem.id());
+            changes.add(ItemChange.updated(existingThread.get().item(), newDiscordItem));
+
+            if (programmeConfig.hasPerformedFirstLoad() && isSignificantUpdate) {
+              var announcementEmbedBuilder = new EmbedBuilder();
+              var threadEmbedBuilder = new EmbedBuilder();
+              var allEmbedBuilders = List.of(announcementEmbedBuilder, threadEmbedBuilder);
+              announcementEmbedBuilder.appendDescription(
+                  "'" + existingThread.get().item().title() + "' has been changed");
+              threadEmbedBuilder.appendDescription("This item has been changed");
+              if (noLongerCancelled) {
                 allEmbedBuilders.forEach(
                     builder ->
-                        builder.addField(
-                            tagChange.added() ? "New tag" : "Tag removed", tagChange.tag(), false));
+                        builder.addField("Status", "The item is no longer cancelled", false));
               }
-            }
-            existingThread
-                .get()
-                .discordThreadId()
-                .ifPresent(
-                    discordThreadId ->
-                        announcementEmbedBuilder.addField(
-                            "Discussion thread", "<#" + discordThreadId + ">", false));
-
-            announcementChannel
-                .sendMessage(MessageCreateData.fromEmbeds(announcementEmbedBuilder.build()))
-                .complete();
+              if (timeChanged) {
+                allEmbedBuilders.forEach(builder -> builder.addField("New time", newItem.startTime(config.timezone()).format(DATE_TIME_FORMATTER), false));
+              }
+              if (roomDifferent) {
+                allEmbedBuilders.forEach(
+                    builder -> builder.addField("New room", newItem.loc(), false));
+              }
+              for (var tagChange : tagChanges) {
+                if (!tagChange.tag().equalsIgnoreCase(newItem.loc())
+                    && !tagChange.tag().equalsIgnoreCase(existingThread.get().item().loc())) {
+                  allEmbedBuilders.forEach(
+                      builder ->
+                          builder.addField(
+                              tagChange.added() ? "New tag" : "Tag removed",
+                              tagChange.tag(),
+                              false));
+                }
+              }
+              existingThread
+                  .get()
+                  .discordThreadId()
+                  .ifPresent(
+                      discordThreadId ->
+                          announcementEmbedBuilder.addField(
+                              "Discussion thread", "<#" + discordThreadId + ">", false));
 
-            if (threadChannel != null) {
-              threadChannel
-                  .sendMessage(MessageCreateData.fromEmbeds(threadEmbedBuilder.build()))
+              announcementChannel
+                  .sendMessage(MessageCreateData.fromEmbeds(announcementEmbedBuilder.build()))
                   .complete();
+
+              if (threadChannel != null) {
+                threadChannel
+                    .sendMessage(MessageCreateData.fromEmbeds(threadEmbedBuilder.build()))
+                    .complete();
+              }
             }
           }
-
-          numUpdated.incrementAndGet();
         }
-      }
 
-      for (var oldItemId : conn.getAllProgrammeItemIds()) {
-        if (newProgrammeItems.stream().noneMatch(newItem -> newItem.id().equals(oldItemId))) {
-          var existingThreadM = conn.getDiscordThread(oldItemId, config.timezone());
+        for (var oldItemId : poll.removedItemIds()) {
+          var existingThreadM = conn.getDiscordThread(oldItemId);
           if (existingThreadM.isEmpty()) {
-            logger.error("Existing to find item for {} but not found", oldItemId);
+            // Deltas can include tombstones for items we never saw.
+            if (poll.reconciled()) {
+              logger.error("Existing to find item for {} but not found", oldItemId);
+            }
             continue;
           }
           var existingThread = existingThreadM.get();
@@ -399,6 +508,8 @@ public class ProgrammeModule {
                   .complete();
             }
             conn.deleteDiscordThread(oldItemId);
+            deleted.add(oldItemId);
+            changes.add(ItemChange.deleted(existingThread.item()));
           } else {
             if (existingThread.status() != Status.CANCELLED) {
               logger.info("Cancel item [{}] '{}'", oldItemId, existingThread.item().title());
@@ -424,7 +535,8 @@ public class ProgrammeModule {
                       existingThread.discordMessageId(),
                       Status.CANCELLED,
                       existingThread.item()));
-              eventDispatcher.dispatch(new ItemChangedEvent());
+              cancelled.add(oldItemId);
+              changes.add(ItemChange.cancelled(existingThread.item()));
 
               var announcementEmbedBuilder = new EmbedBuilder();
               announcementEmbedBuilder.appendDescription(
@@ -448,8 +560,27 @@ public class ProgrammeModule {
               }
             }
           }
-          numDeleted.incrementAndGet();
         }
+
+        programmeFeeds.finish(conn);
+      } finally {
+        // Each change is written to the database as it's made, so the next poll won't see it as a
+        // change again. Publish what was done, even if a later item failed.
+        if (!changes.isEmpty()) {
+          publishSnapshot(conn, changes);
+        }
+      }
+      if (!newProgrammeItems.isEmpty() || !poll.removedItemIds().isEmpty()) {
+        eventDispatcher.dispatch(
+            new ProgrammePolledEvent(
+                newProgrammeItems,
+                poll.removedItemIds(),
+                poll.reconciled(),
+                new ProgrammeFeedArchive.Changes(
+                    List.copyOf(added),
+                    List.copyOf(updated),
+                    List.copyOf(cancelled),
+                    List.copyOf(deleted))));
       }
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
@@ -458,12 +589,207 @@ public class ProgrammeModule {
     } finally {
       long end = System.currentTimeMillis();
       logger.info(
-          "Poll took {}ms. added {} updated {} deleted {}",
+          "Poll took {}ms. added {} updated {} cancelled {} deleted {}",
+          end - start,
+          added.size(),
+          updated.size(),
+          cancelled.size(),
+          deleted.size());
+      if (body != null && feedArchive.isPresent()) {
+        try {
+          feedArchive
+              .get()
+              .record(
+                  body, new ProgrammeFeedArchive.Changes(added, updated, cancelled, deleted));
+        } catch (IOException e) {
+          logger.error("Failed to record programme feed", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the snapshot the schedulers read with the threads as they are now in the database,
+   * then tells them what changed so they can decide whether to look at it again.
+   */
+  private void publishSnapshot(DatabaseConnection conn, List<ItemChange> changes)
+      throws SQLException {
+    programmeSnapshot.set(ProgrammeSnapshot.load(conn));
+    eventDispatcher.dispatch(new ItemsChangedEvent(List.copyOf(changes)));
+  }
+
+  /**
+   * Recreates the smallest set of forum posts needed to put each forum back into start time order.
+   * Discussion in the recreated posts is lost, so this is only done when explicitly requested.
+   */
+  private void reorderForums() {
+    var start = System.currentTimeMillis();
+    var numPosts = 0;
+    var numRecreated = 0;
+    var apiCallsMade = 0;
+    var fullRebuildApiCalls = 0;
+    var reposted = new ArrayList<ItemChange>();
+    try (var conn = databaseManager.getConnection()) {
+      var postsByChannel = new HashMap<String, List<ForumOrderPlanner.Post>>();
+      var threadsByItemId = new HashMap<String, DiscordThread>();
+      for (var discordThread : conn.getAllDiscordThreads()) {
+        if (discordThread.discordThreadId().isEmpty()
+            || discordThread.discordMessageId().isEmpty()) {
+          continue;
+        }
+        var threadChannel = jda.getThreadChannelById(discordThread.discordThreadId().get());
+        if (threadChannel == null) {
+          logger.warn(
+              "Thread {} for item [{}] not found. Skipping",
+              discordThread.discordThreadId().get(),
+              discordThread.item().id());
+          continue;
+        }
+        threadsByItemId.put(discordThread.item().id(), discordThread);
+        postsByChannel
+            .computeIfAbsent(threadChannel.getParentChannel().getId(), k -> new ArrayList<>())
+            .add(
+                new ForumOrderPlanner.Post(
+                    discordThread.item().id(),
+                    threadChannel.getIdLong(),
+                    Instant.ofEpochSecond(discordThread.item().startEpochSecond())));
+      }
+
+      try {
+        for (var entry : postsByChannel.entrySet()) {
+          var forumChannel = jda.getForumChannelById(entry.getKey());
+          assert forumChannel != null;
+          var plan = ForumOrderPlanner.plan(entry.getValue());
+          numPosts += entry.getValue().size();
+          fullRebuildApiCalls += plan.keep().size() * minApiCallsToRecreate();
+          logger.info(
+              "Reordering {}: keeping {} posts, recreating {}",
+              forumChannel.getName(),
+              plan.keep().size(),
+              plan.recreate().size());
+          for (var post : plan.recreate()) {
+            var discordThread = threadsByItemId.get(post.programmeItemId());
+            var calls = recreatePost(conn, forumChannel, discordThread);
+            apiCallsMade += calls;
+            fullRebuildApiCalls += calls;
+            numRecreated++;
+            reposted.add(ItemChange.reposted(discordThread.item()));
+          }
+        }
+      } finally {
+        // Publish whatever was recreated, even if a later post failed.
+        if (!reposted.isEmpty()) {
+          publishSnapshot(conn, reposted);
+        }
+      }
+    } catch (Exception e) {
+      logger.error("Failed to reorder programme", e);
+    } finally {
+      long end = System.currentTimeMillis();
+      logger.info(
+          "Reorder took {}ms. Recreated {} of {} posts using {} API calls. A full rebuild would"
+              + " have needed at least {}, saving {}",
           end - start,
-          numAdded.get(),
-          numUpdated.get(),
-          numDeleted.get());
+          numRecreated,
+          numPosts,
+          apiCallsMade,
+          fullRebuildApiCalls,
+          fullRebuildApiCalls - apiCallsMade);
+    }
+  }
+
+  private int minApiCallsToRecreate() {
+    // Fetch the message, create the post and delete the old one, plus fetching the reactions and
+    // adding our own if alarms are enabled.
+    return config.alarms().isPresent() ? 5 : 3;
+  }
+
+  /**
+   * Recreates a forum post, carrying over its title, content, tags and alarm reactions.
+   *
+   * @return the number of API calls made
+   */
+  private int recreatePost(
+      DatabaseManager.DatabaseConnection conn,
+      ForumChannel forumChannel,
+      DiscordThread discordThread)
+      throws SQLException {
+    var apiCalls = 0;
+    var oldThread = jda.getThreadChannelById(discordThread.discordThreadId().get());
+    assert oldThread != null;
+    var oldMessage =
+        oldThread.retrieveMessageById(discordThread.discordMessageId().get()).complete();
+    apiCalls++;
+
+    // We can't react on behalf of users, so remember who wanted a reminder and let the alarms
+    // module pick them up from the database instead.
+    var subscribers = new ArrayList<String>();
+    if (config.alarms().isPresent()) {
+      var reaction = oldMessage.getReaction(config.alarms().get().alarmEmoji());
+      if (reaction != null) {
+        var users = reaction.retrieveUsers();
+        users.stream().filter(user -> !user.isBot()).forEach(user -> subscribers.add(user.getId()));
+        apiCalls += Math.max(1, (reaction.getCount() + 99) / 100);
+      }
+    }
+
+    logger.info(
+        "Recreating post for item [{}] '{}'", discordThread.item().id(), oldThread.getName());
+    var forumPost =
+        forumChannel
+            .createForumPost(
+                oldThread.getName(), MessageCreateData.fromContent(oldMessage.getContentRaw()))
+            .setTags(oldThread.getAppliedTags())
+            .complete();
+    apiCalls++;
+    if (config.alarms().isPresent()) {
+      forumPost.getMessage().addReaction(config.alarms().get().alarmEmoji()).complete();
+      apiCalls++;
+    }
+
+    var newThreadId = forumPost.getThreadChannel().getId();
+    conn.updateDiscordThreadPost(
+        discordThread.item().id(), newThreadId, forumPost.getMessage().getId());
+    if (!subscribers.isEmpty()) {
+      conn.addAlarmSubscriptions(discordThread.item().id(), subscribers);
     }
+
+    oldThread.delete().complete();
+    apiCalls++;
+
+    portalProgrammeApiClient.ifPresent(
+        client -> client.addPostDetails(postDetails(discordThread.item(), newThreadId)));
+
+    return apiCalls;
+  }
+
+  private void resyncPortalPosts() {
+    if (portalProgrammeApiClient.isEmpty()) {
+      logger.warn("Not resyncing posts to the portal as assignDiscordPostsApiUrl isn't set");
+      return;
+    }
+    try {
+      portalProgrammeApiClient
+          .get()
+          .resync(
+              discordThread ->
+                  postDetails(discordThread.item(), discordThread.discordThreadId().get()));
+    } catch (SQLException e) {
+      logger.error("Error resyncing posts to the portal", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private PostDetails postDetails(DiscordItem item, String discordThreadId) {
+    var roomId =
+        programmeConfig.locations().stream()
+            .filter(l -> l.name().equals(item.loc()))
+            .findFirst()
+            .map(Location::id)
+            .orElse("");
+    return PostDetails.of(
+        item, roomId, "https://discord.com/channels/" + config.guildId() + "/" + discordThreadId);
   }
 
   private List<TagChange> getTagChanges(List<ForumTag> newTags, List<ForumTag> existingTags) {
@@ -482,117 +808,133 @@ public class ProgrammeModule {
     return tagChanges;
   }
 
-  private List<ProgrammeItem> getNewProgrammeItems() throws IOException, InterruptedException {
-    var client = HttpClient.newHttpClient();
-    var request = HttpRequest.newBuilder().uri(programmeConfig.programmeUrl()).GET().build();
-    var response = client.send(request, HttpResponse.BodyHandlers.ofString());
-    if (response.statusCode() != 200) {
-      throw new IOException("Error polling programme: " + response.body());
-    }
-    List<ProgrammeItem> items;
-    try {
-      items = objectMapper.readValue(response.body(), new TypeReference<ProgrammeDocument>() {}).program();
-    } catch (JacksonException e) {
-      // If we can't parse the new format, try the old format
-      items = objectMapper.readValue(response.body(), new TypeReference<List<ProgrammeItem>>() {
-      });
-    }
-    return items.stream()
-        .sorted(Comparator.comparing((ProgrammeItem i) -> i.startTime(config.timezone())).reversed())
-        .toList();
+  private Optional<ZonedDateTime> getNextNowOnTime() {
+    var nextEvent = nowOnTimeline.get().nextEvent();
+    return nextEvent.isPresent()
+        ? Optional.of(toZonedDateTime(nextEvent.getAsLong()))
+        : Optional.empty();
   }
 
-  private Optional<ZonedDateTime> getNextNowOnTime() throws SQLException {
-    if (!doneFirstOnNowPoll) {
-      // When we start up we want to check what messages we should be posting.
-      // It could be that we were down when an event started, so we need to catch up and post it.
-      doneFirstOnNowPoll = true;
-      return Optional.of(LocalDateTime.MIN.atZone(ZoneId.of("UTC")));
-    }
-
-    try (var conn = databaseManager.getConnection()) {
-      var nextItemStart =
-          conn.getNextNowOn(ZonedDateTime.now(), programmeConfig.nowOn().get().timeAfterToKeep())
-              .map(t -> t.minus(programmeConfig.nowOn().get().timeBeforeToAdd()));
-      var nextNowOnEnd = conn.getNextNowOnEnd();
-
-      if (nextItemStart.isEmpty()) {
-        return nextNowOnEnd;
-      }
+  private ZonedDateTime toZonedDateTime(long epochSecond) {
+    return Instant.ofEpochSecond(epochSecond).atZone(config.timezone());
+  }
 
-      return nextNowOnEnd
-          .map(dateTime -> nextItemStart.get().isBefore(dateTime) ? nextItemStart.get() : dateTime)
-          .or(() -> nextItemStart);
-    }
+  private List<NowOnTimeline.Due> getNowOn(ZonedDateTime time) {
+    var due = nowOnTimeline.get().due(time.toEpochSecond());
+    return due.isEmpty() ? List.of() : List.of(due);
   }
 
-  private static class NowOnAction {
-    private final DiscordThread discordThreadToPost;
-    private final String discordMessageIdToDelete;
+  private void handleNowOn(NowOnTimeline.Due due) {
+    var channel = jdaUtils.getMessageChannel(programmeConfig.nowOn().get().channel());
+    deleteNowOnMessages(channel, due.messageIdsToDelete());
+    var posted = postNowOnMessages(channel, due.toPost());
 
-    private NowOnAction(DiscordThread discordThreadToPost, String discordMessageIdToDelete) {
-      this.discordThreadToPost = discordThreadToPost;
-      this.discordMessageIdToDelete = discordMessageIdToDelete;
+    nowOnTimeline.get().deleted(due.messageIdsToDelete());
+    nowOnTimeline.get().posted(posted);
+    try (var conn = databaseManager.getConnection()) {
+      conn.updateNowOnMessages(posted, due.messageIdsToDelete());
+    } catch (SQLException e) {
+      logger.error("Failed to update now on messages", e);
     }
+  }
 
-    public static NowOnAction post(DiscordThread discordThreadToPost) {
-      return new NowOnAction(discordThreadToPost, null);
+  /** Deletes the messages by id, in bulk where there's more than one, without fetching them. */
+  private void deleteNowOnMessages(StandardGuildMessageChannel channel, Set<String> messageIds) {
+    if (messageIds.isEmpty()) {
+      return;
     }
-
-    public static NowOnAction delete(String discordMessageIdToDelete) {
-      return new NowOnAction(null, discordMessageIdToDelete);
+    logger.info("Deleting now on messages {}", messageIds);
+    if (messageIds.size() == 1) {
+      channel
+          .deleteMessageById(messageIds.iterator().next())
+          .queue(
+              success -> {},
+              error -> logger.error("Failed to delete now on message {}", messageIds, error));
+      return;
     }
-
-    public DiscordThread discordThreadToPost() {
-      return discordThreadToPost;
+    // Purging falls back to deleting one at a time for messages too old to bulk delete, or if
+    // the bot isn't allowed to.
+    for (var future : channel.purgeMessagesById(List.copyOf(messageIds))) {
+      future.exceptionally(
+          error -> {
+            logger.error("Failed to delete now on messages", error);
+            return null;
+          });
     }
+  }
 
-    public String discordMessageIdToDelete() {
-      return discordMessageIdToDelete;
+  /**
+   * Posts one message for the items starting at the same time, split where it would be too long
+   * for Discord. Each message is kept until the last of its items has finished.
+   *
+   * <p>Returns the messages that were actually posted, so they're recorded even if a later one
+   * fails. The items in a message that failed are left to be posted next time.
+   */
+  private List<NowOnMessage> postNowOnMessages(
+      StandardGuildMessageChannel channel, List<DiscordThread> discordThreads) {
+    var byStart = new LinkedHashMap<Long, List<DiscordThread>>();
+    for (var discordThread : discordThreads) {
+      byStart
+          .computeIfAbsent(discordThread.item().startEpochSecond(), k -> new ArrayList<>())
+          .add(discordThread);
     }
-  }
 
-  private List<NowOnAction> getNowOn(ZonedDateTime time) throws SQLException {
-    try (var conn = databaseManager.getConnection()) {
-      return Stream.concat(
-              conn
-                  .getNowOn(
-                      time,
-                      programmeConfig.nowOn().get().timeBeforeToAdd(),
-                      programmeConfig.nowOn().get().timeAfterToKeep())
-                  .stream()
-                  .map(NowOnAction::post),
-              conn.getExpiredNowOnMessages(time).stream().map(NowOnAction::delete))
-          .toList();
+    var posted = new ArrayList<NowOnMessage>();
+    for (var group : byStart.values()) {
+      var chunk = new ArrayList<DiscordThread>();
+      var content = new StringBuilder();
+      for (var discordThread : group) {
+        var entry = formatNowOn(discordThread);
+        if (!chunk.isEmpty() && content.length() + 2 + entry.length() > MAX_MESSAGE_LEN) {
+          posted.addAll(postNowOnMessage(channel, chunk, content.toString()));
+          chunk.clear();
+          content.setLength(0);
+        }
+        if (!chunk.isEmpty()) {
+          content.append("\n\n");
+        }
+        chunk.add(discordThread);
+        content.append(entry);
+      }
+      posted.addAll(postNowOnMessage(channel, chunk, content.toString()));
     }
+    return posted;
   }
 
-  private void handleNowOn(NowOnAction action) {
-    if (action.discordThreadToPost() != null) {
-      handleNowOnPost(action.discordThreadToPost());
-    } else if (action.discordMessageIdToDelete() != null) {
-      handleNowOnDelete(action.discordMessageIdToDelete());
+  private List<NowOnMessage> postNowOnMessage(
+      StandardGuildMessageChannel channel, List<DiscordThread> discordThreads, String content) {
+    logger.info(
+        "Posting now on message for {}",
+        discordThreads.stream().map(t -> t.item().id()).toList());
+    Message message;
+    try {
+      message = channel.sendMessage(content).complete();
+    } catch (RuntimeException e) {
+      logger.error(
+          "Failed to post now on message for {}",
+          discordThreads.stream().map(t -> t.item().id()).toList(),
+          e);
+      return List.of();
     }
+    var lastEnd =
+        discordThreads.stream().mapToLong(t -> t.item().endEpochSecond()).max().getAsLong();
+    var endTime =
+        toZonedDateTime(lastEnd).plus(programmeConfig.nowOn().get().timeAfterToKeep());
+    return discordThreads.stream()
+        .map(t -> new NowOnMessage(t.item().id(), message.getId(), endTime.toEpochSecond()))
+        .toList();
   }
 
-  private void handleNowOnPost(DiscordThread discordThread) {
-    if (discordThread.status() == Status.CANCELLED) {
-      logger.info(
-          "Not posting now on message for {} as it is cancelled", discordThread.item().id());
-      return;
-    }
-    logger.info("Posting now on message for {}", discordThread.item().id());
+  private String formatNowOn(DiscordThread discordThread) {
     var start =
         discordThread
             .item()
-            .startTime()
-            .withZoneSameInstant(config.timezone())
+            .startTime(config.timezone())
             .format(TIME_FORMATTER);
     var end =
         discordThread
             .item()
-            .endTime()
-            .withZoneSameInstant(config.timezone())
+            .endTime(config.timezone())
             .format(TIME_FORMATTER);
     var discussUrl =
         discordThread
@@ -610,7 +952,15 @@ public class ProgrammeModule {
                   // This is hardcoding the assumption that we are using a loc resolver :(
                   var progItem =
                       new ProgrammeItem(
-                          null, null, null,  null,null, null, 0, discordThread.item().loc(), null, null, null);
+                          null,
+                          null,
+                          List.of(),
+                          0,
+                          0,
+                          discordThread.item().loc(),
+                          List.of(),
+                          null,
+                          Map.of());
                   var channelName =
                       programmeConfig
                           .channelNameResolver()
@@ -642,39 +992,56 @@ public class ProgrammeModule {
     if (discussUrl != null) {
       messageContent += " | [Discuss](" + discussUrl + ")";
     }
-    var message =
-        jdaUtils
-            .getMessageChannel(programmeConfig.nowOn().get().channel())
-            .sendMessage(messageContent)
-            .complete();
-    try (var conn = databaseManager.getConnection()) {
-      conn.insertNowOnMessage(
-          discordThread.item().id(),
-          message.getId(),
-          discordThread.item().endTime().plus(programmeConfig.nowOn().get().timeAfterToKeep()));
-    } catch (SQLException e) {
-      logger.error("Failed to insert now on message", e);
+    return messageContent;
+  }
+
+  private Optional<ZonedDateTime> getNextBoardTime() {
+    if (boardStale.get()) {
+      return Optional.of(LocalDateTime.MIN.atZone(ZoneId.of("UTC")));
     }
+    var now = clock.instant().getEpochSecond();
+    var nextChange = nowOnBoard.get().nextChange(programmeSnapshot.get(), now);
+    return nextChange.isPresent()
+        ? Optional.of(toZonedDateTime(nextChange.getAsLong()))
+        : Optional.empty();
   }
 
-  private void handleNowOnDelete(String messageId) {
-    logger.info("Deleting now on message {}", messageId);
-    jdaUtils
-        .getMessageChannel(programmeConfig.nowOn().get().channel())
-        .retrieveMessageById(messageId)
-        .queue(
-            message -> {
-              message.delete().queue();
-            });
+  private List<String> getBoard(ZonedDateTime time) {
+    boardStale.set(false);
+    return List.of(nowOnBoard.get().render(programmeSnapshot.get(), time.toEpochSecond()));
+  }
 
+  /** Edits the board, unless it would look the same, posting and pinning it if it's missing. */
+  private void updateBoard(String board) {
+    if (board.equals(lastBoard)) {
+      return;
+    }
+    var channelName = programmeConfig.nowOn().get().channel();
+    var channel = jdaUtils.getMessageChannel(channelName);
     try (var conn = databaseManager.getConnection()) {
-      conn.deleteNowOnMessage(messageId);
+      var messageId = conn.getNowOnBoardMessageId(channelName);
+      if (messageId.isPresent()) {
+        try {
+          channel.editMessageById(messageId.get(), board).complete();
+          lastBoard = board;
+          return;
+        } catch (ErrorResponseException e) {
+          if (e.getErrorResponse() != ErrorResponse.UNKNOWN_MESSAGE) {
+            logger.error("Failed to edit now on board", e);
+            return;
+          }
+          logger.warn("Now on board {} has been deleted. Posting a new one", messageId.get());
+        }
+      }
+      var message = channel.sendMessage(board).complete();
+      message.pin().complete();
+      conn.setNowOnBoardMessageId(channelName, message.getId());
+      lastBoard = board;
     } catch (SQLException e) {
-      logger.error("Failed to delete now on message", e);
+      logger.error("Failed to record now on board", e);
     }
   }
 
-
   private String formatTitle(ProgrammeItem item) {
     var formatter = programmeConfig.channelNameResolver().nameIncludesDay() ? TIME_FORMATTER : DATE_TIME_FORMATTER;
     var time = item.startTime(config.timezone()).format(formatter);
@@ -683,7 +1050,7 @@ public class ProgrammeModule {
 
   private String formatTitle(DiscordItem item) {
     var formatter = programmeConfig.channelNameResolver().nameIncludesDay() ? TIME_FORMATTER : DATE_TIME_FORMATTER;
-    var time = item.startTime().format(formatter);
+    var time = item.startTime(config.timezone()).format(formatter);
     return time + " " + item.title();
   }
 
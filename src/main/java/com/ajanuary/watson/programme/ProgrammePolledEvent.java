@@ -0,0 +1,19 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.notification.Event;
+import java.util.List;
+
+/**
+ * Sent once a poll of the programme has been applied.
+ *
+ * @param items the items that were added or updated, or the whole programme if {@code reconciled}
+ * @param removedItemIds items that are no longer in any feed
+ * @param reconciled whether {@code items} is the whole programme, rather than just what changed
+ * @param changes the ids of the items whose posts were added, updated, cancelled or deleted
+ */
+public record ProgrammePolledEvent(
+    List<ProgrammeItem> items,
+    List<String> removedItemIds,
+    boolean reconciled,
+    ProgrammeFeedArchive.Changes changes)
+    implements Event {}
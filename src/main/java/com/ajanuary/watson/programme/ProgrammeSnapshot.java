@@ -0,0 +1,111 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.db.DatabaseManager.DatabaseConnection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable copy of every programme thread, indexed by start and end time.
+ *
+ * <p>A new snapshot is published at the end of each successful poll, so the schedulers that need to
+ * know what's on when can read it without going to the database, and never see a poll half-way
+ * through.
+ */
+public final class ProgrammeSnapshot {
+
+  static final Comparator<DiscordThread> BY_START =
+      Comparator.<DiscordThread>comparingLong(t -> t.item().startEpochSecond())
+          .thenComparing(t -> t.item().loc(), Comparator.nullsFirst(Comparator.naturalOrder()))
+          .thenComparing(t -> t.item().id());
+  private static final Comparator<DiscordThread> BY_END =
+      Comparator.<DiscordThread>comparingLong(t -> t.item().endEpochSecond())
+          .thenComparing(t -> t.item().id());
+
+  // Declared after the comparators, which it needs to be constructed.
+  public static final ProgrammeSnapshot EMPTY = new ProgrammeSnapshot(List.of());
+
+  private final List<DiscordThread> byStart;
+  private final long[] startTimes;
+  private final List<DiscordThread> byEnd;
+  private final long[] endTimes;
+  private final Map<String, DiscordThread> byId;
+
+  public ProgrammeSnapshot(Collection<DiscordThread> discordThreads) {
+    this.byStart = discordThreads.stream().sorted(BY_START).toList();
+    this.startTimes = byStart.stream().mapToLong(t -> t.item().startEpochSecond()).toArray();
+    this.byEnd = discordThreads.stream().sorted(BY_END).toList();
+    this.endTimes = byEnd.stream().mapToLong(t -> t.item().endEpochSecond()).toArray();
+    var byId = new HashMap<String, DiscordThread>();
+    for (var discordThread : discordThreads) {
+      byId.put(discordThread.item().id(), discordThread);
+    }
+    this.byId = Map.copyOf(byId);
+  }
+
+  public static ProgrammeSnapshot load(DatabaseConnection conn) throws SQLException {
+    return new ProgrammeSnapshot(conn.getAllDiscordThreads());
+  }
+
+  public Optional<DiscordThread> get(String programmeItemId) {
+    return Optional.ofNullable(byId.get(programmeItemId));
+  }
+
+  /** Every thread, in start time order, then by location. */
+  public List<DiscordThread> all() {
+    return byStart;
+  }
+
+  public int size() {
+    return byStart.size();
+  }
+
+  /** The threads starting at or before the given time, in start time order, then by location. */
+  public List<DiscordThread> startingAtOrBefore(long epochSecond) {
+    return byStart.subList(0, upperBound(startTimes, epochSecond));
+  }
+
+  /** The threads ending strictly after the given time, in end time order. */
+  public List<DiscordThread> endingAfter(long epochSecond) {
+    return byEnd.subList(upperBound(endTimes, epochSecond), byEnd.size());
+  }
+
+  /** The threads starting strictly after the given time, in start time order, then by location. */
+  public List<DiscordThread> startingAfter(long epochSecond) {
+    return byStart.subList(upperBound(startTimes, epochSecond), byStart.size());
+  }
+
+  /**
+   * The threads that have started by one time and not ended by another, in start time order, then
+   * by location. Whichever of the two indexes gives fewer candidates is the one that's scanned.
+   */
+  public List<DiscordThread> overlapping(long startedBy, long notEndedBy) {
+    var started = startingAtOrBefore(startedBy);
+    var notEnded = endingAfter(notEndedBy);
+    if (started.size() <= notEnded.size()) {
+      return started.stream().filter(t -> t.item().endEpochSecond() > notEndedBy).toList();
+    }
+    return notEnded.stream()
+        .filter(t -> t.item().startEpochSecond() <= startedBy)
+        .sorted(BY_START)
+        .toList();
+  }
+
+  /** The index of the first time strictly after the given one. */
+  private static int upperBound(long[] times, long epochSecond) {
+    var i = Arrays.binarySearch(times, epochSecond);
+    if (i < 0) {
+      return -i - 1;
+    }
+    // There may be several equal times, and the search can land on any of them.
+    while (i < times.length && times[i] == epochSecond) {
+      i++;
+    }
+    return i;
+  }
+}
@@ -0,0 +1,48 @@
+package com.ajanuary.watson.programme;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.TextNode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shares one copy of each repeated string while a programme is being read. Room names, tags, dates
+ * and people's names appear on thousands of items, and would otherwise each get their own copy.
+ *
+ * <p>A pool only lives for one poll, so strings that drop out of the programme aren't kept around.
+ * Long strings such as descriptions are almost never repeated, so they're passed through as they
+ * are rather than filling up the pool.
+ */
+class StringPool {
+
+  private static final int MAX_INTERNED_LENGTH = 128;
+
+  private final Map<String, String> strings = new HashMap<>();
+  private final Map<String, TextNode> textNodes = new HashMap<>();
+
+  String intern(String value) {
+    if (value == null || value.length() > MAX_INTERNED_LENGTH) {
+      return value;
+    }
+    var existing = strings.putIfAbsent(value, value);
+    return existing == null ? value : existing;
+  }
+
+  List<String> intern(List<String> values) {
+    return values.stream().map(this::intern).toList();
+  }
+
+  /** A node factory for reading JSON trees, so repeated text values share the same node. */
+  JsonNodeFactory nodeFactory() {
+    return new JsonNodeFactory() {
+      @Override
+      public TextNode textNode(String text) {
+        if (text == null || text.length() > MAX_INTERNED_LENGTH) {
+          return super.textNode(text);
+        }
+        return textNodes.computeIfAbsent(intern(text), TextNode::new);
+      }
+    };
+  }
+}
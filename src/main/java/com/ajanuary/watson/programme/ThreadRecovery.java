@@ -0,0 +1,218 @@
+package com.ajanuary.watson.programme;
+
+import com.ajanuary.watson.config.Config;
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.programme.channelnameresolvers.ChannelNameResolver;
+import com.ajanuary.watson.utils.JDAUtils;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Rebuilds the discord_threads table from the posts in the programme forums, for when the database
+ * has been lost. Without it, the next poll would treat every item as new and post it again.
+ *
+ * <p>Posts are matched back to programme items using their titles, which contain the start time
+ * and the item's title.
+ */
+public class ThreadRecovery {
+
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+  private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("EEE");
+  private static final Pattern THREAD_NAME =
+      Pattern.compile("^(?:(\\S+) )?(\\d{2}:\\d{2}) (.*?)(?: \\[(NEW|UPDATED|CANCELLED)])?$");
+
+  private final Logger logger = LoggerFactory.getLogger(ThreadRecovery.class);
+
+  private final JDAUtils jdaUtils;
+  private final ProgrammeConfig programmeConfig;
+  private final Config config;
+  private final DatabaseManager databaseManager;
+
+  public ThreadRecovery(
+      JDA jda, ProgrammeConfig programmeConfig, Config config, DatabaseManager databaseManager) {
+    this.jdaUtils = new JDAUtils(jda, config);
+    this.programmeConfig = programmeConfig;
+    this.config = config;
+    this.databaseManager = databaseManager;
+  }
+
+  public Result recover() throws IOException, InterruptedException, SQLException {
+    try (var conn = databaseManager.getConnection()) {
+      var poll = new ProgrammeFeeds(programmeConfig, config.timezone()).poll(conn);
+      if (!poll.reconciled()) {
+        throw new IOException("Couldn't fetch every programme feed");
+      }
+      var items = poll.items();
+
+      // Anything still in the database is left alone, so recovery can be re-run safely.
+      var existingItemIds = new HashSet<>(conn.getAllProgrammeItemIds());
+      var existingThreadIds = new HashSet<String>();
+      for (var discordThread : conn.getAllDiscordThreads()) {
+        discordThread.discordThreadId().ifPresent(existingThreadIds::add);
+      }
+
+      var itemsByStartTime = new HashMap<String, List<ProgrammeItem>>();
+      for (var item : items) {
+        if (!existingItemIds.contains(item.id())) {
+          itemsByStartTime
+              .computeIfAbsent(
+                  item.startTime(config.timezone()).format(TIME_FORMATTER),
+                  k -> new ArrayList<>())
+              .add(item);
+        }
+      }
+
+      var numScanned = 0;
+      var numUnmatched = 0;
+      var numDuplicates = 0;
+      var recovered = new LinkedHashMap<String, DiscordThread>();
+      for (var channelName : programmeConfig.channelNameResolver().getChannelNames()) {
+        var forumChannel = jdaUtils.getOptionalForumChannel(channelName);
+        if (forumChannel.isEmpty()) {
+          logger.warn("Forum channel {} not found. Skipping", channelName);
+          continue;
+        }
+
+        // Active threads are already in the cache; archived ones have to be paged through.
+        // Oldest first, so if the programme was posted more than once we keep the original.
+        var threads =
+            Stream.concat(
+                    forumChannel.get().getThreadChannels().stream(),
+                    forumChannel.get().retrieveArchivedPublicThreadChannels().stream())
+                .sorted(Comparator.comparingLong(ThreadChannel::getIdLong))
+                .toList();
+        logger.info("Scanning {} posts in {}", threads.size(), channelName);
+
+        for (var thread : threads) {
+          numScanned++;
+          if (existingThreadIds.contains(thread.getId())) {
+            continue;
+          }
+          var match =
+              match(
+                  thread.getName(),
+                  channelName,
+                  itemsByStartTime,
+                  programmeConfig.channelNameResolver(),
+                  config.timezone());
+          if (match.isEmpty()) {
+            logger.warn("Couldn't match post {} '{}'", thread.getId(), thread.getName());
+            numUnmatched++;
+            continue;
+          }
+          var item = match.get().item();
+          if (recovered.containsKey(item.id())) {
+            logger.warn(
+                "Post {} '{}' is a duplicate of {}",
+                thread.getId(),
+                thread.getName(),
+                recovered.get(item.id()).discordThreadId().get());
+            numDuplicates++;
+            continue;
+          }
+          // The starter message of a forum post has the same id as the post itself.
+          recovered.put(
+              item.id(),
+              new DiscordThread(
+                  Optional.of(thread.getId()),
+                  Optional.of(thread.getId()),
+                  match.get().status(),
+                  new DiscordItem(
+                      item.id(),
+                      item.title(),
+                      item.desc(),
+                      item.loc(),
+                      item.startEpochSecond(),
+                      item.endEpochSecond())));
+        }
+      }
+
+      // Reminders for items that have already reached their alarm time were either sent before
+      // the database was lost or are too late to send now.
+      var alarmsProcessedBefore =
+          config
+              .alarms()
+              .map(alarmsConfig -> ZonedDateTime.now().plus(alarmsConfig.timeBeforeToNotify()))
+              .orElseGet(ZonedDateTime::now);
+      conn.insertRecoveredDiscordThreads(recovered.values(), alarmsProcessedBefore);
+
+      return new Result(numScanned, recovered.size(), numUnmatched, numDuplicates);
+    }
+  }
+
+  /**
+   * Finds the item a post is for from its title, out of the items that haven't been matched yet by
+   * their start time.
+   */
+  static Optional<Match> match(
+      String threadName,
+      String channelName,
+      Map<String, List<ProgrammeItem>> itemsByStartTime,
+      ChannelNameResolver channelNameResolver,
+      ZoneId timezone) {
+    var matcher = THREAD_NAME.matcher(threadName);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    var day = matcher.group(1);
+    var title = matcher.group(3);
+    // Long titles get cut off to fit in Discord's limit.
+    var truncated = threadName.length() >= ProgrammeModule.MAX_THREAD_TITLE_LEN;
+    var candidates =
+        itemsByStartTime.getOrDefault(matcher.group(2), List.of()).stream()
+            .filter(
+                item ->
+                    item.title().equals(title) || (truncated && item.title().startsWith(title)))
+            // Where the channel isn't for a single day, the title says which day it's on.
+            .filter(
+                item ->
+                    day == null || item.startTime(timezone).format(DAY_FORMATTER).equals(day))
+            .toList();
+    if (candidates.size() > 1) {
+      // The same title at the same time on different days. Use the channel to tell them apart.
+      candidates =
+          candidates.stream()
+              .filter(
+                  item ->
+                      channelNameResolver
+                          .resolveChannelName(item)
+                          .map(channelName::equalsIgnoreCase)
+                          .orElse(false))
+              .toList();
+    }
+    if (candidates.size() != 1) {
+      return Optional.empty();
+    }
+
+    var status =
+        matcher.group(4) == null
+            ? Status.SCHEDULED
+            : switch (matcher.group(4)) {
+              case "UPDATED" -> Status.UPDATED;
+              case "CANCELLED" -> Status.CANCELLED;
+              default -> Status.SCHEDULED;
+            };
+    return Optional.of(new Match(candidates.get(0), status));
+  }
+
+  record Match(ProgrammeItem item, Status status) {}
+
+  public record Result(int scanned, int recovered, int unmatched, int duplicates) {}
+}
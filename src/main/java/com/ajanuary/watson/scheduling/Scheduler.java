@@ -0,0 +1,265 @@
+package com.ajanuary.watson.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAmount;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Raises events at the times they're due, asking for the next time whenever it's told something
+ * has changed.
+ *
+ * <p>It doesn't have a thread of its own. It sets a timer for the next event time, and when that
+ * goes off it works out which events are due and hands them to the timers' workers. Up to {@code
+ * parallelism} events are raised at once, but never two with the same ordering key. Whenever a
+ * worker is free, the earliest got event that can be raised goes next, so events should be got in
+ * the order they're due. Each event takes a token from the pacer before it's started.
+ *
+ * <p>Due events are only got again once every event from the last lot has been raised, so an event
+ * is never raised twice because it was still being handled when the scheduler looked again.
+ */
+public class Scheduler<T> {
+
+  private static final Duration RETRY_AFTER_ERROR = Duration.ofMinutes(1);
+
+  private final Logger logger = LoggerFactory.getLogger(Scheduler.class);
+
+  private final String name;
+  private final Timers timers;
+  private final TokenBucket pacer;
+  private final int parallelism;
+  private final Function<? super T, ?> orderingKey;
+  private final NextEventTimeGetter getNextEventTime;
+  private final EventsGetter<T> eventsGetter;
+  private final Consumer<T> onEvent;
+  private final Timers.Timer timer;
+
+  // Only one run works out what's due at a time.
+  private final ReentrantLock runLock = new ReentrantLock();
+
+  // The rest are guarded by this, and only ever held briefly so notifications never wait on events
+  // being raised.
+  private final Map<Object, ArrayDeque<Waiting<T>>> waiting = new HashMap<>();
+  // The keys that have events waiting and none running, by their earliest event.
+  private final PriorityQueue<Waiting<T>> ready =
+      new PriorityQueue<>(Comparator.comparingLong(Waiting::seq));
+  private final Set<Object> runningKeys = new HashSet<>();
+  private int outstanding = 0;
+  private long nextSeq = 0;
+  private boolean changedSinceRunStarted = false;
+  private boolean stopped = false;
+
+  public Scheduler(
+      String name,
+      Timers timers,
+      TemporalAmount minTimeBetweenEvents,
+      NextEventTimeGetter getNextEventTime,
+      EventsGetter<T> eventsGetter,
+      Consumer<T> onEvent) {
+    this(
+        name,
+        timers,
+        TokenBucket.spacedBy(timers.clock(), Duration.from(minTimeBetweenEvents)),
+        1,
+        e -> e,
+        getNextEventTime,
+        eventsGetter,
+        onEvent);
+  }
+
+  public Scheduler(
+      String name,
+      Timers timers,
+      TokenBucket pacer,
+      int parallelism,
+      Function<? super T, ?> orderingKey,
+      NextEventTimeGetter getNextEventTime,
+      EventsGetter<T> eventsGetter,
+      Consumer<T> onEvent) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("parallelism must be at least 1");
+    }
+    this.name = name;
+    this.timers = timers;
+    this.pacer = pacer;
+    this.parallelism = parallelism;
+    this.orderingKey = orderingKey;
+    this.getNextEventTime = getNextEventTime;
+    this.eventsGetter = eventsGetter;
+    this.onEvent = onEvent;
+    this.timer = timers.timer(this::run);
+    timer.reschedule(timers.now());
+  }
+
+  /** Asks for the next event time again. Never waits for events that are being raised. */
+  public void notifyOfDbChange() {
+    logger.debug("{} scheduler notified of db change", name);
+    synchronized (this) {
+      if (stopped) {
+        return;
+      }
+      changedSinceRunStarted = true;
+      if (outstanding == 0) {
+        timer.reschedule(timers.now());
+      }
+    }
+  }
+
+  /** Stops raising events. Events that are already being raised are left to finish. */
+  public void stop() {
+    synchronized (this) {
+      stopped = true;
+      waiting.clear();
+      ready.clear();
+      timer.cancel();
+    }
+  }
+
+  private void run() {
+    runLock.lock();
+    try {
+      while (true) {
+        synchronized (this) {
+          // The last run will be picked up again once its events have all been raised.
+          if (stopped || outstanding > 0) {
+            return;
+          }
+          changedSinceRunStarted = false;
+        }
+
+        Optional<Instant> wakeAt;
+        try {
+          var nextEventTime = getNextEventTime.get();
+          logger.debug("{} scheduler got next event time {}", name, nextEventTime);
+          var now = ZonedDateTime.now(timers.clock());
+          if (nextEventTime.isPresent() && nextEventTime.get().isBefore(now)) {
+            var events = eventsGetter.getEventsBefore(now);
+            if (events.isEmpty()) {
+              continue;
+            }
+            dispatch(events);
+            return;
+          }
+          wakeAt = nextEventTime.map(ZonedDateTime::toInstant);
+        } catch (Exception e) {
+          logger.error("Error in {} scheduler", name, e);
+          // Hope that the error was temporary and try again in a while.
+          wakeAt = Optional.of(timers.now().plus(RETRY_AFTER_ERROR));
+        }
+
+        synchronized (this) {
+          if (stopped || changedSinceRunStarted) {
+            // If something changed, the timer has already been set to run again straight away.
+            return;
+          }
+          if (wakeAt.isPresent()) {
+            logger.debug("{} scheduler waiting until {}", name, wakeAt.get());
+            timer.reschedule(wakeAt.get());
+          } else {
+            logger.debug("{} scheduler waiting for a db notification", name);
+          }
+          return;
+        }
+      }
+    } finally {
+      runLock.unlock();
+    }
+  }
+
+  private synchronized void dispatch(List<T> events) {
+    if (stopped) {
+      return;
+    }
+    logger.debug("{} scheduler raising {} events", name, events.size());
+    for (var event : events) {
+      var key = orderingKey.apply(event);
+      var queue = waiting.computeIfAbsent(key, k -> new ArrayDeque<>());
+      var entry = new Waiting<>(nextSeq++, key, event);
+      if (queue.isEmpty() && !runningKeys.contains(key)) {
+        ready.add(entry);
+      }
+      queue.add(entry);
+    }
+    outstanding = events.size();
+    startWaitingEvents();
+  }
+
+  private void startWaitingEvents() {
+    while (runningKeys.size() < parallelism && !ready.isEmpty()) {
+      var key = ready.poll().key();
+      var queue = waiting.get(key);
+      var entry = queue.poll();
+      if (queue.isEmpty()) {
+        waiting.remove(key);
+      }
+      runningKeys.add(key);
+      start(entry);
+    }
+  }
+
+  private void start(Waiting<T> entry) {
+    Runnable raise = () -> timers.submit(() -> raise(entry.key(), entry.event()));
+    var startAt = pacer.reserve();
+    if (startAt.isAfter(timers.now())) {
+      timers.schedule(startAt, raise);
+    } else {
+      raise.run();
+    }
+  }
+
+  private void raise(Object key, T event) {
+    try {
+      logger.debug("{} scheduler triggering event", name);
+      onEvent.accept(event);
+    } catch (RuntimeException e) {
+      logger.error("Error in {} scheduler raising event", name, e);
+    } finally {
+      finished(key);
+    }
+  }
+
+  private synchronized void finished(Object key) {
+    runningKeys.remove(key);
+    outstanding--;
+    if (stopped) {
+      return;
+    }
+    var queue = waiting.get(key);
+    if (queue != null) {
+      ready.add(queue.peek());
+    }
+    if (outstanding == 0) {
+      timer.reschedule(timers.now());
+    } else {
+      startWaitingEvents();
+    }
+  }
+
+  private record Waiting<T>(long seq, Object key, T event) {}
+
+  @FunctionalInterface
+  public interface NextEventTimeGetter {
+
+    Optional<ZonedDateTime> get() throws Exception;
+  }
+
+  @FunctionalInterface
+  public interface EventsGetter<T> {
+
+    List<T> getEventsBefore(ZonedDateTime time) throws Exception;
+  }
+}
@@ -0,0 +1,293 @@
+package com.ajanuary.watson.scheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs jobs at given times for every module, so each doesn't need a thread of its own to wait on.
+ *
+ * <p>A single thread waits for the earliest timer to go off, then hands its job to a shared pool,
+ * so a slow job doesn't hold up the others. The time is read from the clock the timers were made
+ * with, so tests can control it.
+ *
+ * <p>Longer running work, such as the events a {@link Scheduler} raises, goes to a separate pool
+ * with a fixed number of workers, so a burst of it can't take over the bot.
+ */
+public class Timers implements AutoCloseable {
+
+  private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+  private static final int DEFAULT_WORKERS = 8;
+
+  private final Logger logger = LoggerFactory.getLogger(Timers.class);
+
+  private final Clock clock;
+  private final ExecutorService jobExecutor;
+  private final ThreadPoolExecutor workers;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition changed = lock.newCondition();
+  private final TreeSet<Timer> queue =
+      new TreeSet<>(Comparator.comparing((Timer t) -> t.deadline).thenComparingLong(t -> t.seq));
+  private long nextSeq = 0;
+  private boolean closed = false;
+
+  public Timers() {
+    this(Clock.systemUTC());
+  }
+
+  public Timers(Clock clock) {
+    this(clock, DEFAULT_WORKERS);
+  }
+
+  public Timers(Clock clock, int numWorkers) {
+    this.clock = clock;
+    this.jobExecutor = Executors.newCachedThreadPool(daemonThreads("timer-job"));
+    this.workers =
+        new ThreadPoolExecutor(
+            numWorkers,
+            numWorkers,
+            0,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            daemonThreads("worker"));
+    var thread = new Thread(this::run, "timers");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public Clock clock() {
+    return clock;
+  }
+
+  public Instant now() {
+    return clock.instant();
+  }
+
+  /** A timer that won't go off until it's given a time with {@link Timer#reschedule}. */
+  public Timer timer(Runnable job) {
+    return new Timer(job);
+  }
+
+  public Timer schedule(Instant deadline, Runnable job) {
+    var timer = new Timer(job);
+    timer.reschedule(deadline);
+    return timer;
+  }
+
+  /**
+   * Runs the job after the initial delay, then again each time the delay has passed since it last
+   * finished, until the timer is cancelled.
+   */
+  public Timer repeat(Duration initialDelay, Duration delay, Runnable job) {
+    var timer = new Timer[1];
+    timer[0] =
+        new Timer(
+            () -> {
+              try {
+                job.run();
+              } finally {
+                timer[0].rescheduleUnlessCancelled(now().plus(delay));
+              }
+            });
+    timer[0].reschedule(now().plus(initialDelay));
+    return timer[0];
+  }
+
+  /**
+   * Runs the job on one of the workers as soon as one is free. Jobs are queued while every worker
+   * is busy.
+   */
+  public void submit(Runnable job) {
+    try {
+      workers.execute(
+          () -> {
+            try {
+              job.run();
+            } catch (RuntimeException e) {
+              logger.error("Error running worker job", e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      logger.debug("Not running worker job as the timers are closed");
+    }
+  }
+
+  /** Wakes the timers to look at the clock again, for clocks that don't follow real time. */
+  public void clockChanged() {
+    lock.lock();
+    try {
+      changed.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Cancels every timer, drops any queued worker jobs and waits a short while for any jobs that are
+   * running to finish.
+   */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      for (var timer : queue) {
+        timer.deadline = null;
+      }
+      queue.clear();
+      changed.signal();
+    } finally {
+      lock.unlock();
+    }
+    jobExecutor.shutdown();
+    workers.getQueue().clear();
+    workers.shutdown();
+    awaitTermination(jobExecutor, "Timer");
+    awaitTermination(workers, "Worker");
+  }
+
+  private void awaitTermination(ExecutorService executor, String name) {
+    try {
+      if (!executor.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+        logger.warn("{} jobs didn't finish within {}s", name, SHUTDOWN_TIMEOUT.toSeconds());
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  private void run() {
+    lock.lock();
+    try {
+      while (!closed) {
+        if (queue.isEmpty()) {
+          changed.await();
+          continue;
+        }
+        var first = queue.first();
+        var wait = Duration.between(clock.instant(), first.deadline);
+        if (wait.isPositive()) {
+          changed.awaitNanos(wait.toNanos());
+          continue;
+        }
+        queue.pollFirst();
+        first.deadline = null;
+        try {
+          jobExecutor.execute(first::fire);
+        } catch (RejectedExecutionException e) {
+          // Closed while the timer was going off.
+        }
+      }
+    } catch (InterruptedException e) {
+      // Allow the thread to die
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Names each thread after {@code name} and a count, and makes it a daemon. */
+  public static ThreadFactory daemonThreads(String name) {
+    var count = new AtomicInteger();
+    return runnable -> {
+      var thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  public final class Timer {
+    private final Runnable job;
+    // Only changed while the timer isn't in the queue, so the queue's order stays valid.
+    private Instant deadline = null;
+    private long seq;
+    private boolean cancelled = false;
+
+    private Timer(Runnable job) {
+      this.job = job;
+    }
+
+    /** Sets when the timer goes off, replacing any time it was already set to. */
+    public void reschedule(Instant deadline) {
+      lock.lock();
+      try {
+        cancelled = false;
+        set(deadline);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void rescheduleUnlessCancelled(Instant deadline) {
+      lock.lock();
+      try {
+        if (!cancelled) {
+          set(deadline);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void set(Instant deadline) {
+      if (closed) {
+        return;
+      }
+      if (this.deadline != null) {
+        queue.remove(this);
+      }
+      this.deadline = deadline;
+      this.seq = nextSeq++;
+      queue.add(this);
+      changed.signal();
+    }
+
+    /** Stops the timer going off. A job that's already running is left to finish. */
+    public void cancel() {
+      lock.lock();
+      try {
+        cancelled = true;
+        if (deadline != null) {
+          queue.remove(this);
+          deadline = null;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    /** When the timer will go off, if it's set. */
+    public Optional<Instant> deadline() {
+      lock.lock();
+      try {
+        return Optional.ofNullable(deadline);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void fire() {
+      try {
+        job.run();
+      } catch (RuntimeException e) {
+        logger.error("Error running timer job", e);
+      }
+    }
+  }
+}
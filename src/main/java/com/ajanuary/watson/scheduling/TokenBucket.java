@@ -0,0 +1,109 @@
+package com.ajanuary.watson.scheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Hands out tokens at a steady rate, letting up to {@code capacity} of them build up while they
+ * aren't being used so a burst can go out straight away.
+ *
+ * <p>Tokens are reserved rather than waited for. Whoever asks for one is told when they may use it,
+ * so nobody has to hold a thread while they wait. When whatever is being limited reports that it
+ * was rate limited anyway, the rate is halved and no tokens are handed out until it says to try
+ * again. Each success after that creeps the rate back up to where it started.
+ */
+public class TokenBucket {
+
+  private static final double RECOVERY_PER_SUCCESS = 0.05;
+  private static final double MIN_RATE_FRACTION = 0.05;
+
+  private final Clock clock;
+  private final double maxTokensPerSecond;
+  private final double minTokensPerSecond;
+  private final int capacity;
+
+  private double tokensPerSecond;
+  private double tokens;
+  private Instant refilledAt;
+  private Instant blockedUntil;
+
+  public TokenBucket(Clock clock, double tokensPerSecond, int capacity) {
+    if (!(tokensPerSecond > 0)) {
+      throw new IllegalArgumentException("tokensPerSecond must be positive");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be at least 1");
+    }
+    this.clock = clock;
+    this.maxTokensPerSecond = tokensPerSecond;
+    this.minTokensPerSecond = tokensPerSecond * MIN_RATE_FRACTION;
+    this.capacity = capacity;
+    this.tokensPerSecond = tokensPerSecond;
+    this.tokens = capacity;
+    this.refilledAt = clock.instant();
+    this.blockedUntil = refilledAt;
+  }
+
+  /** One token at a time, at most one every {@code interval}. No limit if the interval is zero. */
+  public static TokenBucket spacedBy(Clock clock, Duration interval) {
+    if (interval.isZero()) {
+      return new TokenBucket(clock, Double.POSITIVE_INFINITY, 1);
+    }
+    return new TokenBucket(clock, 1_000_000_000.0 / interval.toNanos(), 1);
+  }
+
+  /** Takes a token, returning when it may be used. */
+  public synchronized Instant reserve() {
+    var now = clock.instant();
+    if (Double.isInfinite(tokensPerSecond)) {
+      return later(now, blockedUntil);
+    }
+    refill(now);
+    tokens -= 1;
+    var availableAt = now;
+    if (tokens < 0) {
+      availableAt = now.plusNanos((long) Math.ceil(-tokens / tokensPerSecond * 1_000_000_000));
+    }
+    return later(availableAt, blockedUntil);
+  }
+
+  /**
+   * Slows down after being told a request was rate limited. Nothing reserved after this may be used
+   * until {@code retryAfter} has passed.
+   */
+  public synchronized void rateLimited(Duration retryAfter) {
+    var now = clock.instant();
+    if (!Double.isInfinite(tokensPerSecond)) {
+      refill(now);
+      tokensPerSecond = Math.max(minTokensPerSecond, tokensPerSecond / 2);
+      tokens = Math.min(tokens, 0);
+    }
+    blockedUntil = later(blockedUntil, now.plus(retryAfter));
+  }
+
+  /** Speeds back up a little after a request succeeds, if it had been slowed down. */
+  public synchronized void succeeded() {
+    if (tokensPerSecond < maxTokensPerSecond) {
+      refill(clock.instant());
+      tokensPerSecond =
+          Math.min(maxTokensPerSecond, tokensPerSecond + maxTokensPerSecond * RECOVERY_PER_SUCCESS);
+    }
+  }
+
+  public synchronized double tokensPerSecond() {
+    return tokensPerSecond;
+  }
+
+  private void refill(Instant now) {
+    var elapsedSeconds = Duration.between(refilledAt, now).toNanos() / 1_000_000_000.0;
+    if (elapsedSeconds > 0) {
+      tokens = Math.min(capacity, tokens + elapsedSeconds * tokensPerSecond);
+      refilledAt = now;
+    }
+  }
+
+  private static Instant later(Instant a, Instant b) {
+    return a.isAfter(b) ? a : b;
+  }
+}
@@ -0,0 +1,3 @@
+package com.ajanuary.watson.search;
+
+public record SearchConfig(int maxResults) {}
@@ -0,0 +1,24 @@
+package com.ajanuary.watson.search;
+
+import com.ajanuary.watson.config.ConfigParser.ObjectConfigParserWithValue;
+import java.util.Optional;
+
+public class SearchConfigYamlParser {
+
+  private SearchConfigYamlParser() {}
+
+  public static SearchConfig parse(ObjectConfigParserWithValue configParser) {
+    var maxResults =
+        configParser
+            .get("maxResults")
+            .integer()
+            .defaultingTo(10)
+            .validate(
+                value ->
+                    value < 1 || value > 25
+                        ? Optional.of("must be between 1 and 25")
+                        : Optional.empty())
+            .value();
+    return new SearchConfig(maxResults);
+  }
+}
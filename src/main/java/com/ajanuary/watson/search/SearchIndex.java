@@ -0,0 +1,216 @@
+package com.ajanuary.watson.search;
+
+import com.ajanuary.watson.programme.ProgrammeItem;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index from the words in each item's title, people, tags and room to the item, so
+ * searches can be answered from memory.
+ *
+ * <p>Words are kept sorted, so every query word is matched as a prefix. This lets autocomplete
+ * find items from whatever the user has typed so far.
+ */
+public class SearchIndex {
+
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final String MODERATOR_SUFFIX = "(moderator)";
+
+  // Each item is given a slot, so the items with a word can be kept as a bit set and queries
+  // become unions and intersections of bit sets rather than of sets of ids.
+  private final NavigableMap<String, BitSet> slotsByWord = new TreeMap<>();
+  private final Map<String, Integer> slotsByItemId = new HashMap<>();
+  private final List<Entry> entriesBySlot = new ArrayList<>();
+  private final BitSet freeSlots = new BitSet();
+
+  /** Adds the item, or replaces what was indexed for it before. */
+  public synchronized void put(ProgrammeItem item, Optional<String> discordThreadId) {
+    remove(item.id());
+    var titleWords = words(item.title());
+    var words = new HashSet<>(titleWords);
+    for (var person : item.people()) {
+      if (person.endsWith(MODERATOR_SUFFIX)) {
+        person = person.substring(0, person.length() - MODERATOR_SUFFIX.length());
+      }
+      words.addAll(words(person));
+    }
+    for (var tag : item.tags()) {
+      words.addAll(words(tag));
+    }
+    if (item.loc() != null) {
+      words.addAll(words(item.loc()));
+    }
+
+    var entry =
+        new Entry(
+            new Result(
+                item.id(), item.title(), item.loc(), item.startEpochSecond(), discordThreadId),
+            titleWords,
+            words);
+    var slot = freeSlots.nextSetBit(0);
+    if (slot == -1) {
+      slot = entriesBySlot.size();
+      entriesBySlot.add(entry);
+    } else {
+      freeSlots.clear(slot);
+      entriesBySlot.set(slot, entry);
+    }
+    slotsByItemId.put(item.id(), slot);
+    for (var word : words) {
+      slotsByWord.computeIfAbsent(word, k -> new BitSet()).set(slot);
+    }
+  }
+
+  public synchronized void remove(String itemId) {
+    var slot = slotsByItemId.remove(itemId);
+    if (slot == null) {
+      return;
+    }
+    for (var word : entriesBySlot.get(slot).words()) {
+      var slots = slotsByWord.get(word);
+      slots.clear(slot);
+      if (slots.isEmpty()) {
+        slotsByWord.remove(word);
+      }
+    }
+    entriesBySlot.set(slot, null);
+    freeSlots.set(slot);
+  }
+
+  /** Changes the thread an item links to, such as when its post has been recreated. */
+  public synchronized void setDiscordThreadId(String itemId, Optional<String> discordThreadId) {
+    var slot = slotsByItemId.get(itemId);
+    if (slot == null) {
+      return;
+    }
+    var entry = entriesBySlot.get(slot);
+    var result = entry.result();
+    entriesBySlot.set(
+        slot,
+        new Entry(
+            new Result(
+                result.itemId(),
+                result.title(),
+                result.loc(),
+                result.startEpochSecond(),
+                discordThreadId),
+            entry.titleWords(),
+            entry.words()));
+  }
+
+  /** Removes every item that isn't in {@code itemIds}. */
+  public synchronized void retainOnly(Set<String> itemIds) {
+    for (var itemId : List.copyOf(slotsByItemId.keySet())) {
+      if (!itemIds.contains(itemId)) {
+        remove(itemId);
+      }
+    }
+  }
+
+  public synchronized Optional<Result> get(String itemId) {
+    return Optional.ofNullable(slotsByItemId.get(itemId))
+        .map(slot -> entriesBySlot.get(slot).result());
+  }
+
+  public synchronized int size() {
+    return slotsByItemId.size();
+  }
+
+  /**
+   * Finds the items with a word starting with each word of the query. Items matching more of the
+   * query in their title come first, then earlier items.
+   */
+  public synchronized List<Result> search(String query, int limit) {
+    var queryWords = new ArrayList<>(new LinkedHashSet<>(words(query)));
+    if (queryWords.isEmpty()) {
+      return List.of();
+    }
+
+    BitSet slots = null;
+    for (var queryWord : queryWords) {
+      var matches = new BitSet();
+      for (var wordSlots : withPrefix(queryWord).values()) {
+        matches.or(wordSlots);
+      }
+      if (slots == null) {
+        slots = matches;
+      } else {
+        slots.and(matches);
+      }
+      if (slots.isEmpty()) {
+        return List.of();
+      }
+    }
+
+    // Only the best few are wanted, so keep the worst of those at the head of a bounded heap
+    // rather than sorting every match.
+    Comparator<Ranked> best =
+        Comparator.<Ranked>comparingInt(ranked -> -ranked.titleMatches())
+            .thenComparingLong(ranked -> ranked.entry().result().startEpochSecond())
+            .thenComparing(ranked -> ranked.entry().result().title());
+    var top = new PriorityQueue<>(limit + 1, best.reversed());
+    for (var slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+      var entry = entriesBySlot.get(slot);
+      top.add(new Ranked(entry, titleMatches(entry, queryWords)));
+      if (top.size() > limit) {
+        top.poll();
+      }
+    }
+    var results = new ArrayList<>(top);
+    results.sort(best);
+    return results.stream().map(ranked -> ranked.entry().result()).toList();
+  }
+
+  private NavigableMap<String, BitSet> withPrefix(String prefix) {
+    return slotsByWord.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+  }
+  private static int titleMatches(Entry entry, List<String> queryWords) {
+    var count = 0;
+    for (var queryWord : queryWords) {
+      for (var titleWord : entry.titleWords()) {
+        if (titleWord.startsWith(queryWord)) {
+          count++;
+          break;
+        }
+      }
+    }
+    return count;
+  }
+
+  static List<String> words(String text) {
+    if (text == null) {
+      return List.of();
+    }
+    var words = new ArrayList<String>();
+    for (var word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+    return words;
+  }
+
+  public record Result(
+      String itemId,
+      String title,
+      String loc,
+      long startEpochSecond,
+      Optional<String> discordThreadId) {}
+
+  private record Entry(Result result, List<String> titleWords, Set<String> words) {}
+
+  private record Ranked(Entry entry, int titleMatches) {}
+}
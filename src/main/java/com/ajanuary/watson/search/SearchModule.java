@@ -0,0 +1,217 @@
+package com.ajanuary.watson.search;
+
+import com.ajanuary.watson.config.Config;
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.notification.EventDispatcher;
+import com.ajanuary.watson.notification.ReadyEvent;
+import com.ajanuary.watson.programme.DiscordThread;
+import com.ajanuary.watson.programme.ItemChange;
+import com.ajanuary.watson.programme.ItemsChangedEvent;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import com.ajanuary.watson.search.SearchIndex.Result;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.GenericEvent;
+import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.hooks.EventListener;
+import net.dv8tion.jda.api.interactions.commands.Command;
+import net.dv8tion.jda.api.interactions.commands.OptionType;
+import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adds a {@code /programme search} slash command, with autocomplete, that finds items by their
+ * title, people, tags or room.
+ *
+ * <p>Searches are answered from a {@link SearchIndex} kept in memory, which is updated with what
+ * changed in each poll of the programme, and with the new thread of each post that is recreated.
+ * The database is only read when the index is updated, to find the thread for each item, so
+ * searches are never held up by it.
+ */
+public class SearchModule implements EventListener {
+
+  private static final int MAX_MESSAGE_LEN = 2000;
+  private static final int MAX_CHOICES = 25;
+  private static final int MAX_CHOICE_LEN = 100;
+  private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("EEE HH:mm");
+
+  private final Logger logger = LoggerFactory.getLogger(SearchModule.class);
+
+  private final JDA jda;
+  private final SearchConfig searchConfig;
+  private final Config config;
+  private final DatabaseManager databaseManager;
+  private final SearchIndex index = new SearchIndex();
+
+  public SearchModule(
+      JDA jda,
+      SearchConfig searchConfig,
+      Config config,
+      DatabaseManager databaseManager,
+      EventDispatcher eventDispatcher) {
+    this.jda = jda;
+    this.searchConfig = searchConfig;
+    this.config = config;
+    this.databaseManager = databaseManager;
+
+    eventDispatcher.register(ProgrammePolledEvent.class, this::handlePoll);
+    eventDispatcher.register(ItemsChangedEvent.class, this::handleChanges);
+    eventDispatcher.register(ReadyEvent.class, e -> registerCommands());
+    jda.addEventListener(this);
+  }
+
+  private void registerCommands() {
+    var guild = jda.getGuildById(config.guildId());
+    assert guild != null;
+    guild
+        .upsertCommand(
+            Commands.slash("programme", "Find things on the programme")
+                .addSubcommands(
+                    new SubcommandData("search", "Search by title, people, tags or room")
+                        .addOption(OptionType.STRING, "query", "What to search for", true, true)))
+        .queue(
+            success -> {},
+            error -> logger.error("Error registering the programme command", error));
+  }
+
+  private synchronized void handlePoll(ProgrammePolledEvent event) {
+    var discordThreadIds = new HashMap<String, Optional<String>>();
+    try (var conn = databaseManager.getConnection()) {
+      if (event.reconciled()) {
+        for (var discordThread : conn.getAllDiscordThreads()) {
+          discordThreadIds.put(discordThread.item().id(), discordThread.discordThreadId());
+        }
+      } else {
+        for (var item : event.items()) {
+          discordThreadIds.put(
+              item.id(),
+              conn.getDiscordThread(item.id()).flatMap(DiscordThread::discordThreadId));
+        }
+      }
+    } catch (SQLException e) {
+      logger.error("Error reading threads to update the search index", e);
+      return;
+    }
+
+    for (var item : event.items()) {
+      index.put(item, discordThreadIds.getOrDefault(item.id(), Optional.empty()));
+    }
+    event.removedItemIds().forEach(index::remove);
+    if (event.reconciled()) {
+      var itemIds = new HashSet<String>();
+      event.items().forEach(item -> itemIds.add(item.id()));
+      index.retainOnly(itemIds);
+    }
+  }
+
+  private synchronized void handleChanges(ItemsChangedEvent event) {
+    var repostedItemIds =
+        event.changes().stream()
+            .filter(change -> change.kind() == ItemChange.Kind.REPOSTED)
+            .map(ItemChange::itemId)
+            .toList();
+    if (repostedItemIds.isEmpty()) {
+      return;
+    }
+
+    try (var conn = databaseManager.getConnection()) {
+      for (var itemId : repostedItemIds) {
+        index.setDiscordThreadId(
+            itemId, conn.getDiscordThread(itemId).flatMap(DiscordThread::discordThreadId));
+      }
+    } catch (SQLException e) {
+      logger.error("Error reading threads to update the search index", e);
+    }
+  }
+
+  @Override
+  public void onEvent(@NotNull GenericEvent event) {
+    if (event instanceof CommandAutoCompleteInteractionEvent autoCompleteEvent
+        && isSearch(autoCompleteEvent.getGuild(), autoCompleteEvent.getName())
+        && "search".equals(autoCompleteEvent.getSubcommandName())) {
+      autoComplete(autoCompleteEvent);
+    } else if (event instanceof SlashCommandInteractionEvent commandEvent
+        && isSearch(commandEvent.getGuild(), commandEvent.getName())
+        && "search".equals(commandEvent.getSubcommandName())) {
+      search(commandEvent);
+    }
+  }
+
+  private boolean isSearch(Guild guild, String commandName) {
+    return guild != null
+        && guild.getId().equals(config.guildId())
+        && commandName.equals("programme");
+  }
+
+  private void autoComplete(CommandAutoCompleteInteractionEvent event) {
+    var choices =
+        index.search(event.getFocusedOption().getValue(), MAX_CHOICES).stream()
+            .map(result -> new Command.Choice(choiceName(result), result.itemId()))
+            .toList();
+    event
+        .replyChoices(choices)
+        .queue(success -> {}, error -> logger.error("Error sending search suggestions", error));
+  }
+
+  private void search(SlashCommandInteractionEvent event) {
+    var query = event.getOption("query").getAsString();
+    // Picking a suggestion fills in the item's id.
+    var results =
+        index
+            .get(query)
+            .map(List::of)
+            .orElseGet(() -> index.search(query, searchConfig.maxResults()));
+    if (results.isEmpty()) {
+      event.reply("Nothing on the programme matches '" + query + "'.").setEphemeral(true).queue();
+      return;
+    }
+
+    var message = new StringBuilder();
+    for (var result : results) {
+      var line = line(result);
+      if (message.length() + line.length() + 1 > MAX_MESSAGE_LEN) {
+        break;
+      }
+      if (!message.isEmpty()) {
+        message.append('\n');
+      }
+      message.append(line);
+    }
+    event.reply(message.toString()).setEphemeral(true).queue();
+  }
+
+  private String line(Result result) {
+    var line = new StringBuilder("- **").append(result.title()).append("** ").append(when(result));
+    if (result.loc() != null) {
+      line.append(", ").append(result.loc());
+    }
+    result.discordThreadId().ifPresent(threadId -> line.append(" <#").append(threadId).append('>'));
+    return line.toString();
+  }
+
+  private String choiceName(Result result) {
+    var suffix = " (" + when(result) + ")";
+    var title = result.title();
+    if (title.length() + suffix.length() > MAX_CHOICE_LEN) {
+      title = title.substring(0, MAX_CHOICE_LEN - suffix.length() - 3) + "...";
+    }
+    return title + suffix;
+  }
+
+  private String when(Result result) {
+    return Instant.ofEpochSecond(result.startEpochSecond())
+        .atZone(config.timezone())
+        .format(TIME_FORMATTER);
+  }
+}
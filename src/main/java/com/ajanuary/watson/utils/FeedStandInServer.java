@@ -0,0 +1,183 @@
+package com.ajanuary.watson.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A local stand-in for the portal's programme and newsletter feeds, so delta polling can be tried
+ * out without the portal.
+ *
+ * <p>Every {@code <name>.json} file in the directory is served in full at {@code /<name>.json}, and
+ * as a delta feed at {@code /<name>.json/delta}. Each time a file is found to have changed, it
+ * becomes a new version, and the version number is used as the cursor. Edit the files while the
+ * server is running to produce deltas.
+ */
+public class FeedStandInServer {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final Map<String, FeedHistory> histories = new HashMap<>();
+
+  private final Path directory;
+  private final HttpServer server;
+
+  public FeedStandInServer(Path directory, int port) throws IOException {
+    this.directory = directory.toAbsolutePath().normalize();
+    this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    server.createContext("/", this::handle);
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 2) {
+      System.err.println("Usage: FeedStandInServer <directory> [port]");
+      System.exit(1);
+    }
+
+    var port = args.length == 2 ? Integer.parseInt(args[1]) : 8080;
+    var server = new FeedStandInServer(Path.of(args[0]), port);
+    server.start();
+    System.out.println("Serving feeds from " + args[0] + " on http://localhost:" + server.port());
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public void stop() {
+    server.stop(0);
+  }
+
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      try {
+        serve(exchange);
+      } catch (Exception e) {
+        e.printStackTrace();
+        // Headers can only be sent once, so a failure part way through a response is only logged.
+        if (exchange.getResponseCode() == -1) {
+          respond(exchange, 500, e.toString());
+        }
+      }
+    }
+  }
+
+  private void serve(HttpExchange exchange) throws IOException {
+    var path = exchange.getRequestURI().getPath().substring(1);
+    var isDelta = path.endsWith("/delta");
+    var name = isDelta ? path.substring(0, path.length() - "/delta".length()) : path;
+    var file = directory.resolve(name).normalize();
+    if (!file.getParent().equals(directory) || !name.endsWith(".json") || !Files.exists(file)) {
+      respond(exchange, 404, "Not found");
+      return;
+    }
+
+    var body = Files.readString(file, StandardCharsets.UTF_8);
+    if (!isDelta) {
+      respond(exchange, 200, body);
+      return;
+    }
+
+    var since = queryParam(exchange, "since");
+    var delta = delta(name, body, since);
+    if (delta.isEmpty()) {
+      respond(exchange, 410, "Unknown cursor " + since.orElse(""));
+      return;
+    }
+    respond(exchange, 200, objectMapper.writeValueAsString(delta.get()));
+  }
+
+  private synchronized Optional<Map<String, Object>> delta(
+      String name, String body, Optional<String> since) throws IOException {
+    var history = histories.computeIfAbsent(name, k -> new FeedHistory());
+    if (!body.equals(history.lastBody)) {
+      history.versions.add(itemsById(objectMapper.readTree(body)));
+      history.lastBody = body;
+    }
+    var current = history.versions.size();
+    var response = new LinkedHashMap<String, Object>();
+    response.put("cursor", String.valueOf(current));
+    if (since.isEmpty()) {
+      response.put("upserts", List.of());
+      response.put("tombstones", List.of());
+      return Optional.of(response);
+    }
+
+    int sinceVersion;
+    try {
+      sinceVersion = Integer.parseInt(since.get());
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+    if (sinceVersion < 1 || sinceVersion > current) {
+      return Optional.empty();
+    }
+
+    var before = history.versions.get(sinceVersion - 1);
+    var after = history.versions.get(current - 1);
+    var upserts = new ArrayList<JsonNode>();
+    after.forEach(
+        (id, item) -> {
+          if (!item.equals(before.get(id))) {
+            upserts.add(item);
+          }
+        });
+    var tombstones = before.keySet().stream().filter(id -> !after.containsKey(id)).toList();
+    response.put("upserts", upserts);
+    response.put("tombstones", tombstones);
+    return Optional.of(response);
+  }
+
+  private static Map<String, JsonNode> itemsById(JsonNode root) {
+    // Programme feeds are either a list of items or have them under "program".
+    var items = root.isArray() ? (ArrayNode) root : (ArrayNode) root.get("program");
+    var results = new LinkedHashMap<String, JsonNode>();
+    for (var item : items) {
+      results.put(item.get("id").asText(), item);
+    }
+    return results;
+  }
+
+  private static Optional<String> queryParam(HttpExchange exchange, String name) {
+    var query = exchange.getRequestURI().getRawQuery();
+    if (query == null) {
+      return Optional.empty();
+    }
+    for (var param : query.split("&")) {
+      var parts = param.split("=", 2);
+      if (parts[0].equals(name) && parts.length == 2) {
+        return Optional.of(URLDecoder.decode(parts[1], StandardCharsets.UTF_8));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+    var bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    exchange.getResponseBody().write(bytes);
+  }
+
+  private static class FeedHistory {
+    private final List<Map<String, JsonNode>> versions = new ArrayList<>();
+    private String lastBody;
+  }
+}
@@ -0,0 +1,51 @@
+package com.ajanuary.watson.utils;
+
+import com.ajanuary.watson.config.ConfigYamlParser;
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.programme.ThreadRecovery;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import net.dv8tion.jda.api.JDABuilder;
+
+public class RecoverThreads {
+
+  public static void main(String[] args)
+      throws IOException, InterruptedException, SQLException {
+    if (args.length != 2) {
+      System.err.println("Usage: RecoverThreads <secrets file> <config file>");
+      System.exit(1);
+    }
+
+    var objectMapper = new YAMLMapper();
+    var jsonSecrets = objectMapper.readTree(Paths.get(args[0]).toFile());
+    var jsonConfig = objectMapper.readTree(Paths.get(args[1]).toFile());
+    var config = new ConfigYamlParser().parse(jsonSecrets, jsonConfig);
+
+    var databaseManager = new DatabaseManager(config.databasePath());
+    databaseManager.init();
+
+    var builder = JDABuilder.createDefault(config.discordBotToken());
+    var jda = builder.build();
+    jda.awaitReady();
+
+    var start = System.currentTimeMillis();
+    var result =
+        new ThreadRecovery(jda, config.programme().get(), config, databaseManager).recover();
+    var end = System.currentTimeMillis();
+
+    jda.shutdown();
+    System.out.println(
+        "Scanned "
+            + result.scanned()
+            + " posts in "
+            + (end - start)
+            + "ms. Recovered "
+            + result.recovered()
+            + ", unmatched "
+            + result.unmatched()
+            + ", duplicates "
+            + result.duplicates());
+  }
+}
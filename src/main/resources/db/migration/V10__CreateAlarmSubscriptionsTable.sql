@@ -0,0 +1,5 @@
+create table alarm_subscriptions (
+  programme_item_id string not null,
+  user_id string not null,
+  primary key (programme_item_id, user_id)
+);
\ No newline at end of file
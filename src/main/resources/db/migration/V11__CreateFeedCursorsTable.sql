@@ -0,0 +1,4 @@
+create table feed_cursors (
+  feed string not null primary key,
+  cursor string not null
+);
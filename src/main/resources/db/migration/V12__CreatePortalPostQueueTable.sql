@@ -0,0 +1,10 @@
+create table portal_post_queue (
+  programme_item_id string primary key,
+  title string not null,
+  start_time string not null,
+  mins integer not null,
+  room_id string not null,
+  post_url string not null,
+  version integer not null,
+  queued_at string not null
+);
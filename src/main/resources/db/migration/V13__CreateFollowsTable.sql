@@ -0,0 +1,9 @@
+create table follows (
+  user_id string not null,
+  kind string not null,
+  value string not null,
+  name string not null,
+  primary key (user_id, kind, value)
+);
+
+create index follows_target on follows (kind, value);
@@ -0,0 +1,4 @@
+create table calendar_tokens (
+  user_id string primary key,
+  token text not null unique
+);
@@ -0,0 +1,4 @@
+create table now_on_boards (
+  channel text primary key,
+  discord_message_id text not null
+);
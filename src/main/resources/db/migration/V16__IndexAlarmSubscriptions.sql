@@ -0,0 +1,2 @@
+create index alarm_subscriptions_user on alarm_subscriptions (user_id);
+create index discord_threads_message on discord_threads (message_id);
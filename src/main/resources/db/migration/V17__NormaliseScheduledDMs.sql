@@ -0,0 +1,61 @@
+create table reminder_payloads (
+  id integer primary key autoincrement,
+  discord_thread_id string not null,
+  discord_message_id string not null,
+  title string not null,
+  jump_url string not null,
+  contents string not null,
+  tags string
+);
+
+insert into reminder_payloads (
+  discord_thread_id,
+  discord_message_id,
+  title,
+  jump_url,
+  contents,
+  tags
+)
+select distinct
+  discord_thread_id,
+  discord_message_id,
+  title,
+  jump_url,
+  contents,
+  tags
+from
+  scheduled_dm;
+
+create table scheduled_dm_new (
+  id integer primary key autoincrement,
+  payload_id integer not null references reminder_payloads (id),
+  user_id string not null,
+  message_time string not null
+);
+
+insert into scheduled_dm_new (
+  id,
+  payload_id,
+  user_id,
+  message_time
+)
+select
+  scheduled_dm.id,
+  reminder_payloads.id,
+  scheduled_dm.user_id,
+  scheduled_dm.message_time
+from
+  scheduled_dm
+  join reminder_payloads on
+    reminder_payloads.discord_thread_id = scheduled_dm.discord_thread_id
+    and reminder_payloads.discord_message_id = scheduled_dm.discord_message_id
+    and reminder_payloads.title = scheduled_dm.title
+    and reminder_payloads.jump_url = scheduled_dm.jump_url
+    and reminder_payloads.contents = scheduled_dm.contents
+    and reminder_payloads.tags is scheduled_dm.tags;
+
+drop table scheduled_dm;
+alter table scheduled_dm_new rename to scheduled_dm;
+
+create index scheduled_dm_message_time on scheduled_dm (message_time);
+create index scheduled_dm_payload on scheduled_dm (payload_id);
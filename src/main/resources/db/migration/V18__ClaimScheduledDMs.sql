@@ -0,0 +1,5 @@
+alter table scheduled_dm add column claimed_until string;
+
+drop index scheduled_dm_message_time;
+create index scheduled_dm_unclaimed on scheduled_dm (message_time) where claimed_until is null;
+create index scheduled_dm_claimed on scheduled_dm (claimed_until) where claimed_until is not null;
@@ -0,0 +1,173 @@
+package com.ajanuary.watson.alarms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.notification.EventDispatcher;
+import com.ajanuary.watson.programme.DiscordItem;
+import com.ajanuary.watson.programme.ItemChange;
+import com.ajanuary.watson.programme.ProgrammeSnapshot;
+import com.ajanuary.watson.scheduling.Timers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import support.FakeDiscord;
+import support.TestClock;
+import support.TestConfigBuilder;
+
+public class AlarmsModuleTest {
+
+  private static final ZonedDateTime TIME =
+      ZonedDateTime.of(2025, 8, 7, 10, 0, 0, 0, ZoneOffset.UTC);
+
+  @TempDir Path tempDir;
+
+  @Test
+  void dropsRemindersThatAreTooLateByTheTimersClock() throws Exception {
+    var config =
+        new TestConfigBuilder()
+            .withGuildId("the-guild-id")
+            .withAlarmsConfig(alarms -> alarms.withAlarmsChannel("alarms"))
+            .build();
+    var databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    // Late by the timers' clock, but not yet due by the system's.
+    var minutes = (int) Duration.ofDays(100 * 365).toMinutes();
+    var clock = new TestClock(TIME.plusMinutes(minutes).plusHours(1).toInstant());
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm(1, "user-1", minutes).value()));
+    }
+
+    try (var timers = new Timers(clock)) {
+      new AlarmsModule(
+          new FakeDiscord("the-guild-id").withTextChannel("alarms").jda(),
+          config.alarms().get(),
+          config,
+          databaseManager,
+          new EventDispatcher(),
+          new AtomicReference<>(ProgrammeSnapshot.EMPTY),
+          timers);
+
+      try (var conn = databaseManager.getConnection()) {
+        assertEquals(Optional.empty(), conn.getNextScheduledDMTime());
+      }
+    }
+  }
+
+  @Test
+  void newAndMovedItemsAffectAlarms() {
+    assertTrue(AlarmsModule.affectsAlarms(ItemChange.added(item(100, 200))));
+    assertTrue(AlarmsModule.affectsAlarms(ItemChange.updated(item(100, 200), item(150, 250))));
+  }
+
+  @Test
+  void otherChangesDoNotAffectAlarms() {
+    assertFalse(AlarmsModule.affectsAlarms(ItemChange.updated(item(100, 200), item(100, 250))));
+    assertFalse(AlarmsModule.affectsAlarms(ItemChange.cancelled(item(100, 200))));
+    assertFalse(AlarmsModule.affectsAlarms(ItemChange.deleted(item(100, 200))));
+    assertFalse(AlarmsModule.affectsAlarms(ItemChange.reposted(item(100, 200))));
+  }
+
+  @Test
+  void missingSubscribersAreReactorsWithoutASubscription() {
+    assertEquals(
+        List.of("user-2", "user-4"),
+        AlarmsModule.missingSubscribers(
+            List.of("user-1", "user-2", "user-2", "user-4"), List.of("user-1", "user-3")));
+  }
+
+  @Test
+  void groupsDueDMsByUserInTheOrderTheyAreDue() {
+    var dms =
+        List.of(
+            dm(1, "user-1", 0),
+            dm(2, "user-2", 0),
+            dm(3, "user-1", 1),
+            dm(4, "user-3", 2),
+            dm(5, "user-2", 3));
+
+    var grouped = AlarmsModule.groupByUser(dms, TIME.plusMinutes(1));
+
+    assertEquals(
+        List.of(
+            new DueDMs("user-1", List.of(dms.get(0), dms.get(2))),
+            new DueDMs("user-2", List.of(dms.get(1), dms.get(4)))),
+        grouped);
+  }
+
+  @Test
+  void splitsDMsIntoMessagesOfAtMostTenEmbeds() {
+    var dms = new ArrayList<WithId<ScheduledDM>>();
+    for (var i = 0; i < 23; i++) {
+      dms.add(dm(i, "user-1", 0));
+    }
+
+    var messages = AlarmsModule.splitIntoMessages(dms);
+
+    assertEquals(List.of(10, 10, 3), messages.stream().map(List::size).toList());
+    assertEquals(dms, messages.stream().flatMap(List::stream).toList());
+  }
+
+  @Test
+  void splitsDMsIntoMessagesWithinTheTotalEmbedLength() {
+    var dms = new ArrayList<WithId<ScheduledDM>>();
+    for (var i = 0; i < 8; i++) {
+      dms.add(dm(i, "user-1", 0, "x".repeat(1000)));
+    }
+
+    var messages = AlarmsModule.splitIntoMessages(dms);
+
+    assertEquals(List.of(5, 3), messages.stream().map(List::size).toList());
+  }
+
+  @Test
+  void raisesEachMessageOfAUsersDMsSeparately() {
+    var user1 = new ArrayList<WithId<ScheduledDM>>();
+    for (var i = 0; i < 12; i++) {
+      user1.add(dm(i, "user-1", 0));
+    }
+    var user2 = List.of(dm(12, "user-2", 0));
+
+    var messages =
+        AlarmsModule.toMessages(
+            List.of(new DueDMs("user-1", user1), new DueDMs("user-2", user2)));
+
+    assertEquals(
+        List.of(
+            new ReminderMessage("user-1", user1.subList(0, 10), true, 12),
+            new ReminderMessage("user-1", user1.subList(10, 12), false, 12),
+            new ReminderMessage("user-2", user2, true, 1)),
+        messages);
+  }
+
+  private static WithId<ScheduledDM> dm(int id, String userId, int minutes) {
+    return dm(id, userId, minutes, "Contents");
+  }
+
+  private static WithId<ScheduledDM> dm(int id, String userId, int minutes, String contents) {
+    return new WithId<>(
+        id,
+        new ScheduledDM(
+            "thread-" + id,
+            "message-" + id,
+            userId,
+            TIME.plusMinutes(minutes),
+            "Item " + id,
+            "https://discord.com/channels/1/" + id,
+            contents,
+            Optional.empty()));
+  }
+
+  private static DiscordItem item(long start, long end) {
+    return new DiscordItem("item-1", "Item", "Description", "Room 1", start, end);
+  }
+}
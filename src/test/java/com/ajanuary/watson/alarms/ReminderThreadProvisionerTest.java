@@ -0,0 +1,164 @@
+package com.ajanuary.watson.alarms;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.privatethreads.PrivateThreadManager;
+import com.ajanuary.watson.privatethreads.PrivateThreadManager.CreateThreadResult;
+import com.ajanuary.watson.programme.DiscordItem;
+import com.ajanuary.watson.programme.DiscordThread;
+import com.ajanuary.watson.programme.ProgrammeSnapshot;
+import com.ajanuary.watson.programme.Status;
+import com.ajanuary.watson.scheduling.Timers;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import support.TestClock;
+
+public class ReminderThreadProvisionerTest {
+
+  private static final Instant NOW = Instant.parse("2025-08-07T10:00:00Z");
+
+  @TempDir Path tempDir;
+
+  private final TestClock clock = new TestClock(NOW);
+  private final Timers timers = new Timers(clock);
+  private final PrivateThreadManager privateThreadManager = mock(PrivateThreadManager.class);
+  private final AtomicReference<ProgrammeSnapshot> programmeSnapshot =
+      new AtomicReference<>(ProgrammeSnapshot.EMPTY);
+  private DatabaseManager databaseManager;
+  private ReminderThreadProvisioner provisioner;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    provisioner =
+        new ReminderThreadProvisioner(
+            databaseManager,
+            privateThreadManager,
+            programmeSnapshot,
+            () -> mock(ThreadChannel.class),
+            Duration.ofMinutes(15),
+            timers);
+    when(privateThreadManager.getThread(any(), anyString())).thenReturn(Optional.empty());
+    when(privateThreadManager.createThread(any(), anyString(), any()))
+        .thenReturn(new CreateThreadResult(mock(ThreadChannel.class), true));
+  }
+
+  @AfterEach
+  void tearDown() {
+    timers.close();
+  }
+
+  @Test
+  void createsThreadsForUsersSubscribedToItemsStartingSoon() throws Exception {
+    programmeSnapshot.set(
+        new ProgrammeSnapshot(
+            List.of(
+                thread("soon", Duration.ofHours(2)), thread("later", Duration.ofHours(48)))));
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("soon", List.of("user-1", "user-2"));
+      conn.addAlarmSubscriptions("later", List.of("user-3"));
+    }
+    when(privateThreadManager.getThread(any(), eq("user-2")))
+        .thenReturn(Optional.of(mock(ThreadChannel.class)));
+
+    provisioner.provision();
+
+    verify(privateThreadManager, timeout(5000)).createThread(any(), eq("user-1"), any());
+    verify(privateThreadManager, never()).createThread(any(), eq("user-2"), any());
+    verify(privateThreadManager, never()).createThread(any(), eq("user-3"), any());
+  }
+
+  @Test
+  void doesNotCreateThreadsWhenRemindersAreDueSoon() throws Exception {
+    programmeSnapshot.set(new ProgrammeSnapshot(List.of(thread("soon", Duration.ofHours(2)))));
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("soon", List.of("user-1"));
+      conn.addScheduledDMs(
+          List.of(
+              new ScheduledDM(
+                  "thread-other",
+                  "message-other",
+                  "user-2",
+                  NOW.plus(Duration.ofMinutes(2)).atZone(ZoneOffset.UTC),
+                  "Other",
+                  "https://discord.com/channels/1/2",
+                  "Contents",
+                  Optional.empty())));
+    }
+
+    provisioner.provision();
+
+    verify(privateThreadManager, never()).createThread(any(), anyString(), any());
+  }
+
+  @Test
+  void doesNotCreateThreadsWhenAnItemsAlarmsAreDueSoon() throws Exception {
+    programmeSnapshot.set(
+        new ProgrammeSnapshot(List.of(thread("imminent", Duration.ofMinutes(18)))));
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("imminent", List.of("user-1"));
+    }
+
+    provisioner.provision();
+
+    verify(privateThreadManager, never()).createThread(any(), anyString(), any());
+  }
+
+  @Test
+  void stopsCreatingThreadsWhenRemindersAreScheduledPartWayThrough() throws Exception {
+    programmeSnapshot.set(new ProgrammeSnapshot(List.of(thread("soon", Duration.ofHours(2)))));
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("soon", List.of("user-1", "user-2"));
+    }
+
+    provisioner.provision();
+    verify(privateThreadManager, timeout(5000)).createThread(any(), anyString(), any());
+
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(
+          List.of(
+              new ScheduledDM(
+                  "thread-other",
+                  "message-other",
+                  "user-3",
+                  NOW.plus(Duration.ofMinutes(4)).atZone(ZoneOffset.UTC),
+                  "Other",
+                  "https://discord.com/channels/1/2",
+                  "Contents",
+                  Optional.empty())));
+    }
+    clock.advance(Duration.ofSeconds(2));
+    timers.clockChanged();
+
+    verify(privateThreadManager, after(500)).createThread(any(), anyString(), any());
+  }
+
+  private static DiscordThread thread(String id, Duration startsIn) {
+    var start = NOW.plus(startsIn).getEpochSecond();
+    return new DiscordThread(
+        Optional.of("thread-" + id),
+        Optional.of("message-" + id),
+        Status.SCHEDULED,
+        new DiscordItem(id, "Item " + id, "Description", "Room 1", start, start + 3600));
+  }
+}
@@ -0,0 +1,96 @@
+package com.ajanuary.watson.calendar;
+
+import static com.ajanuary.watson.calendar.ProgrammeCalendarTest.item;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.programme.ProgrammeFeedArchive.Changes;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CalendarServerTest {
+
+  @TempDir Path tempDir;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private DatabaseManager databaseManager;
+  private ProgrammeCalendar calendar;
+  private CalendarServer server;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    calendar = new ProgrammeCalendar("guild-1", "Some Con");
+    calendar.update(
+        new ProgrammePolledEvent(
+            List.of(item("item-1", "Opening"), item("item-2", "Closing")),
+            List.of(),
+            true,
+            new Changes(List.of(), List.of(), List.of(), List.of())),
+        Map.of(),
+        Instant.now());
+    server = new CalendarServer("localhost", 0, calendar, databaseManager, true);
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  void servesTheProgramme() throws Exception {
+    var response = get("/programme.ics", null);
+
+    assertEquals(200, response.statusCode());
+    assertEquals(
+        "text/calendar; charset=utf-8", response.headers().firstValue("Content-Type").get());
+    assertEquals(calendar.programme().etag(), response.headers().firstValue("ETag").get());
+    assertTrue(response.body().contains("UID:item-1@watson"));
+  }
+
+  @Test
+  void returnsNotModifiedIfTheETagMatches() throws Exception {
+    var response = get("/programme.ics", calendar.programme().etag());
+
+    assertEquals(304, response.statusCode());
+    assertEquals("", response.body());
+  }
+
+  @Test
+  void servesUserFeedsByToken() throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("item-2", List.of("user-1"));
+      var token = conn.getOrCreateCalendarToken("user-1", "some-token");
+      assertEquals(token, conn.getOrCreateCalendarToken("user-1", "another-token"));
+    }
+
+    var response = get("/calendar/some-token.ics", null);
+
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().contains("UID:item-2@watson"));
+    assertEquals(404, get("/calendar/another-token.ics", null).statusCode());
+  }
+
+  private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+    var request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path)).GET();
+    if (ifNoneMatch != null) {
+      request.header("If-None-Match", ifNoneMatch);
+    }
+    return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+}
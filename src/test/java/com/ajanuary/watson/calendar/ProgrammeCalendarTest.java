@@ -0,0 +1,191 @@
+package com.ajanuary.watson.calendar;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.programme.ProgrammeFeedArchive.Changes;
+import com.ajanuary.watson.programme.ProgrammeItem;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProgrammeCalendarTest {
+
+  private static final Instant NOW = Instant.parse("2025-08-01T09:00:00Z");
+
+  @TempDir Path tempDir;
+
+  private DatabaseManager databaseManager;
+  private ProgrammeCalendar calendar;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    calendar = new ProgrammeCalendar("guild-1", "Some Con");
+  }
+
+  @Test
+  void writesAnEventForEachItem() {
+    calendar.update(
+        reconciled(item("item-1", "Opening, Ceremony"), item("item-2", "Closing")),
+        Map.of("item-1", "thread-1"),
+        NOW);
+
+    var ics = body(calendar.programme());
+    assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"), ics);
+    assertTrue(ics.contains("UID:item-1@watson\r\n"), ics);
+    assertTrue(ics.contains("SUMMARY:Opening\\, Ceremony\r\n"), ics);
+    assertTrue(ics.contains("DTSTART:20250801T100000Z\r\nDTEND:20250801T110000Z\r\n"), ics);
+    assertTrue(ics.contains("URL:https://discord.com/channels/guild-1/thread-1\r\n"), ics);
+    assertTrue(ics.indexOf("UID:item-1@watson") < ics.indexOf("UID:item-2@watson"), ics);
+  }
+
+  @Test
+  void foldsLongLines() {
+    calendar.update(reconciled(item("item-1", "A very long title ".repeat(10))), Map.of(), NOW);
+
+    for (var line : body(calendar.programme()).split("\r\n")) {
+      assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+    }
+  }
+
+  @Test
+  void onlyWritesEventsForItemsThatChanged() {
+    calendar.update(
+        reconciled(item("item-1", "Opening"), item("item-2", "Closing")), Map.of(), NOW);
+    var before = calendar.programme();
+
+    var numWritten =
+        calendar.update(
+            reconciled(item("item-1", "Opening"), item("item-2", "Closing")), Map.of(), NOW);
+    assertEquals(0, numWritten);
+    assertSame(before, calendar.programme());
+
+    numWritten =
+        calendar.update(
+            reconciled(item("item-1", "Opening"), item("item-2", "Closing Ceremony")),
+            Map.of(),
+            NOW);
+    assertEquals(1, numWritten);
+    assertNotEquals(before.etag(), calendar.programme().etag());
+  }
+
+  @Test
+  void removesItemsThatAreNoLongerInTheProgramme() {
+    calendar.update(
+        reconciled(item("item-1", "Opening"), item("item-2", "Closing")), Map.of(), NOW);
+
+    calendar.update(
+        new ProgrammePolledEvent(List.of(), List.of("item-2"), false, changes()), Map.of(), NOW);
+
+    assertFalse(body(calendar.programme()).contains("UID:item-2@watson"));
+  }
+
+  @Test
+  void linksToTheNewThreadOfARecreatedPost() throws Exception {
+    calendar.update(
+        reconciled(item("item-1", "Opening"), item("item-2", "Closing")),
+        Map.of("item-1", "thread-1", "item-2", "thread-2"),
+        NOW);
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("item-2", List.of("user-1"));
+      var before = calendar.programme();
+      var userBefore = calendar.forUser(conn, "user-1");
+
+      var numWritten = calendar.updateThreads(Map.of("item-2", Optional.of("thread-3")), NOW);
+
+      assertEquals(1, numWritten);
+      assertNotEquals(before.etag(), calendar.programme().etag());
+      var ics = body(calendar.programme());
+      assertTrue(ics.contains("URL:https://discord.com/channels/guild-1/thread-3\r\n"), ics);
+      assertFalse(ics.contains("thread-2"), ics);
+      assertNotEquals(userBefore.etag(), calendar.forUser(conn, "user-1").etag());
+    }
+  }
+
+  @Test
+  void userFeedHasTheItemsTheUserSetAnAlarmFor() throws Exception {
+    calendar.update(
+        reconciled(item("item-1", "Opening"), item("item-2", "Closing")), Map.of(), NOW);
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("item-2", List.of("user-1"));
+
+      var ics = body(calendar.forUser(conn, "user-1"));
+
+      assertFalse(ics.contains("UID:item-1@watson"), ics);
+      assertTrue(ics.contains("UID:item-2@watson"), ics);
+    }
+  }
+
+  @Test
+  void userFeedIsKeptUntilOneOfItsItemsChanges() throws Exception {
+    calendar.update(
+        reconciled(item("item-1", "Opening"), item("item-2", "Closing")), Map.of(), NOW);
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("item-2", List.of("user-1"));
+      var before = calendar.forUser(conn, "user-1");
+
+      calendar.update(
+          reconciled(item("item-1", "Opening Ceremony"), item("item-2", "Closing")), Map.of(), NOW);
+      assertSame(before, calendar.forUser(conn, "user-1"));
+
+      calendar.update(
+          reconciled(item("item-1", "Opening Ceremony"), item("item-2", "Closing Ceremony")),
+          Map.of(),
+          NOW);
+      assertTrue(body(calendar.forUser(conn, "user-1")).contains("SUMMARY:Closing Ceremony"));
+    }
+  }
+
+  @Test
+  void userFeedIsPutTogetherAgainWhenTheirAlarmsChange() throws Exception {
+    calendar.update(
+        reconciled(item("item-1", "Opening"), item("item-2", "Closing")), Map.of(), NOW);
+    try (var conn = databaseManager.getConnection()) {
+      conn.addAlarmSubscriptions("item-2", List.of("user-1"));
+      calendar.forUser(conn, "user-1");
+
+      conn.addAlarmSubscriptions("item-1", List.of("user-1"));
+      calendar.invalidateUser("user-1");
+
+      assertTrue(body(calendar.forUser(conn, "user-1")).contains("UID:item-1@watson"));
+    }
+  }
+
+  private static ProgrammePolledEvent reconciled(ProgrammeItem... items) {
+    return new ProgrammePolledEvent(List.of(items), List.of(), true, changes());
+  }
+
+  private static Changes changes() {
+    return new Changes(List.of(), List.of(), List.of(), List.of());
+  }
+
+  static ProgrammeItem item(String id, String title) {
+    return new ProgrammeItem(
+        id,
+        title,
+        List.of(),
+        Instant.parse("2025-08-01T10:00:00Z").getEpochSecond() + (id.equals("item-2") ? 60 : 0),
+        60,
+        "Room 1",
+        List.of(),
+        "<p>Some description</p>",
+        Map.of());
+  }
+
+  private static String body(ProgrammeCalendar.Feed feed) {
+    return new String(feed.body(), StandardCharsets.UTF_8);
+  }
+}
@@ -71,6 +71,9 @@ public class ConfigTest {
         Optional.of(new ApiConfig("the-channel-id")),
         Optional.empty(),
         Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
+        Optional.empty(),
         Optional.empty());
     var thrown =
         assertThrows(IllegalArgumentException.class, () -> config.validateDiscordConfig(jda));
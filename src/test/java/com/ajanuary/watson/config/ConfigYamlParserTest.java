@@ -5,11 +5,15 @@ import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.NowOnConfig;
 import com.ajanuary.watson.programme.channelnameresolvers.DayChannelNameResolver;
 import com.ajanuary.watson.programme.channelnameresolvers.DayTodChannelNameResolver;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Optional;
 
 import net.dv8tion.jda.api.entities.emoji.Emoji;
@@ -356,6 +360,94 @@ public class ConfigYamlParserTest {
     assertEquals("PT15M", config.alarms().get().timeBeforeToNotify().toString());
   }
 
+  @Test
+  void parsesAlarmsMaxConcurrentDMs() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        alarms:
+          timeBeforeToNotify: 15m
+          maxTimeAfterToNotify: 5m
+          minTimeBetweenDMs: 0.5s
+          maxConcurrentDMs: 3
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertEquals(3, config.alarms().get().maxConcurrentDMs());
+  }
+
+  @Test
+  void parsesAlarmsMaxDMBurst() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        alarms:
+          timeBeforeToNotify: 15m
+          maxTimeAfterToNotify: 5m
+          minTimeBetweenDMs: 0.5s
+          maxDMBurst: 20
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertEquals(20, config.alarms().get().maxDMBurst());
+  }
+
+  @Test
+  void errorsIfAlarmsMaxConcurrentDMsIsLessThanOne() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        alarms:
+          timeBeforeToNotify: 15m
+          maxTimeAfterToNotify: 5m
+          minTimeBetweenDMs: 0.5s
+          maxConcurrentDMs: 0
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown =
+        assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+    assertEquals(
+        "Malformed value for alarms.maxConcurrentDMs: must be at least 1", thrown.getMessage());
+  }
+
   @Test
   void errorsIfAlarmsTimeBeforeToNotifyIsMissing() throws JsonProcessingException {
     var secretsConfig =
@@ -978,6 +1070,66 @@ public class ConfigYamlParserTest {
     assertEquals("api.channel must be a string", thrown.getMessage());
   }
 
+  @Test
+  void defaultsFollowsChannelToFollows() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        follows: {}
+        programme:
+          programmeUrl: https://example.com/the-programme-url
+          channelNameResolver:
+            type: day
+            dayMappings:
+              Friday: friday
+          links: []
+          locations: []
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.follows().isPresent(), "follows config is present");
+    assertEquals("follows", config.follows().get().channel());
+  }
+
+  @Test
+  void errorsIfFollowsHasNoProgramme() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        follows:
+          channel: the-channel
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals("follows requires programme", thrown.getMessage());
+  }
+
   @Test
   void membershipConfigIsOptional() throws JsonProcessingException {
     var secretsConfig =
@@ -1422,7 +1574,7 @@ public class ConfigYamlParserTest {
     assertTrue(config.programme().isPresent(), "programme config is present");
     assertEquals(
         URI.create("https://example.com/the-programme-url"),
-        config.programme().get().programmeUrl());
+        config.programme().get().feeds().get(0).url());
   }
 
   @Test
@@ -1639,6 +1791,91 @@ public class ConfigYamlParserTest {
     assertEquals("now-on", config.programme().get().nowOn().get().channel());
   }
 
+  @Test
+  void nowOnModeDefaultsToMessages() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        programme:
+          programmeUrl: https://example.com/some-programme-url
+          assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+          nowOn:
+            timeBeforeToAdd: 15m
+            timeAfterToKeep: 15m
+          channelNameResolver:
+            type: day
+            dayMappings:
+              Friday: friday
+          links:
+            - name: some-name
+              label: some-label
+          locations:
+            - id: some-id
+              name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().nowOn().isPresent(), "nowOn config is present");
+    assertEquals(NowOnConfig.Mode.MESSAGES, config.programme().get().nowOn().get().mode());
+  }
+
+  @Test
+  void nowOnModeCanBeBoard() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+        guildId: some-guild-id
+        databasePath: some-db-path
+        timezone: America/New_York
+        programme:
+          programmeUrl: https://example.com/some-programme-url
+          assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+          nowOn:
+            timeBeforeToAdd: 15m
+            timeAfterToKeep: 15m
+            mode: board
+          channelNameResolver:
+            type: day
+            dayMappings:
+              Friday: friday
+          links:
+            - name: some-name
+              label: some-label
+          locations:
+            - id: some-id
+              name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().nowOn().isPresent(), "nowOn config is present");
+    assertEquals(NowOnConfig.Mode.BOARD, config.programme().get().nowOn().get().mode());
+  }
+
   @Test
   void errorsIfNowOnChannelIdIsNotString() throws JsonProcessingException {
     var secretsConfig =
@@ -2160,6 +2397,588 @@ public class ConfigYamlParserTest {
     assertEquals("programme.hasPerformedFirstLoad must be a boolean", thrown.getMessage());
   }
 
+  @Test
+  void programmeDeltaIsOptional() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().feeds().get(0).delta().isEmpty(), "delta is not present");
+  }
+
+  @Test
+  void parsesProgrammeDelta() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            delta:
+              url: https://example.com/the-delta-url
+              fullSyncInterval: 30m
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().feeds().get(0).delta().isPresent(), "delta is present");
+    assertEquals(
+        URI.create("https://example.com/the-delta-url"),
+        config.programme().get().feeds().get(0).delta().get().url());
+    assertEquals(
+        Duration.ofMinutes(30),
+        config.programme().get().feeds().get(0).delta().get().fullSyncInterval());
+  }
+
+  @Test
+  void programmeDeltaFullSyncIntervalDefaultsToAnHour() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            delta:
+              url: https://example.com/the-delta-url
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().feeds().get(0).delta().isPresent(), "delta is present");
+    assertEquals(
+        Duration.ofHours(1),
+        config.programme().get().feeds().get(0).delta().get().fullSyncInterval());
+  }
+
+  @Test
+  void errorsIfProgrammeDeltaUrlIsMissing() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            delta:
+              fullSyncInterval: 30m
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals("programme.delta.url is required", thrown.getMessage());
+  }
+
+  @Test
+  void parsesProgrammeFeeds() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            feeds:
+              - name: main
+                url: https://example.com/main.json
+              - name: online
+                url: https://example.com/online.json
+                idPrefix: online-
+                delta:
+                  url: https://example.com/online.json/delta
+            conflictPolicy: last
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    var feeds = config.programme().get().feeds();
+    assertEquals(2, feeds.size());
+    assertEquals("main", feeds.get(0).name());
+    assertEquals(URI.create("https://example.com/main.json"), feeds.get(0).url());
+    assertEquals(Optional.empty(), feeds.get(0).idPrefix());
+    assertEquals(Optional.empty(), feeds.get(0).delta());
+    assertEquals("online", feeds.get(1).name());
+    assertEquals(URI.create("https://example.com/online.json"), feeds.get(1).url());
+    assertEquals(Optional.of("online-"), feeds.get(1).idPrefix());
+    assertEquals(
+        URI.create("https://example.com/online.json/delta"), feeds.get(1).delta().get().url());
+    assertEquals(ConflictPolicy.LAST, config.programme().get().conflictPolicy());
+  }
+
+  @Test
+  void programmeUrlIsASingleFeed() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    var feeds = config.programme().get().feeds();
+    assertEquals(1, feeds.size());
+    assertEquals("programme", feeds.get(0).name());
+    assertEquals(URI.create("https://example.com/some-programme-url"), feeds.get(0).url());
+    assertEquals(ConflictPolicy.FIRST, config.programme().get().conflictPolicy());
+  }
+
+  @Test
+  void errorsIfProgrammeFeedNamesAreNotUnique() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            feeds:
+              - name: main
+                url: https://example.com/main.json
+              - name: main
+                url: https://example.com/online.json
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals("programme.feeds names must be unique", thrown.getMessage());
+  }
+
+  @Test
+  void errorsIfProgrammeFeedUrlIsMissing() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            feeds:
+              - name: main
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals("programme.feeds[0].url is required", thrown.getMessage());
+  }
+
+  @Test
+  void programmeFeedArchiveIsOptional() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().feedArchive().isEmpty(), "feedArchive is not present");
+  }
+
+  @Test
+  void parsesProgrammeFeedArchive() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+            feedArchive:
+              path: /var/lib/watson/feed-archive
+              maxEntries: 50
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().feedArchive().isPresent(), "feedArchive is present");
+    assertEquals(
+        Path.of("/var/lib/watson/feed-archive"),
+        config.programme().get().feedArchive().get().path());
+    assertEquals(50, config.programme().get().feedArchive().get().maxEntries());
+  }
+
+  @Test
+  void programmeFeedArchiveMaxEntriesDefaultsTo1000() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+            feedArchive:
+              path: /var/lib/watson/feed-archive
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var config = parser.parse(secretsConfig, jsonConfig);
+
+    assertTrue(config.programme().isPresent(), "programme config is present");
+    assertTrue(config.programme().get().feedArchive().isPresent(), "feedArchive is present");
+    assertEquals(1000, config.programme().get().feedArchive().get().maxEntries());
+  }
+
+  @Test
+  void errorsIfProgrammeFeedArchivePathIsMissing() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+            feedArchive:
+              maxEntries: 50
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals("programme.feedArchive.path is required", thrown.getMessage());
+  }
+
+  @Test
+  void errorsIfProgrammeFeedArchiveMaxEntriesIsNotInteger() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+            feedArchive:
+              path: /var/lib/watson/feed-archive
+              maxEntries: lots
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals("programme.feedArchive.maxEntries must be an integer", thrown.getMessage());
+  }
+
+  @Test
+  void errorsIfProgrammeFeedArchiveMaxEntriesIsNotPositive() throws JsonProcessingException {
+    var secretsConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+      discordBotToken: some-token
+      portalApiKey: some-key
+    """);
+    var jsonConfig =
+        new YAMLMapper()
+            .readTree(
+                """
+          guildId: some-guild-id,
+          databasePath: some-db-path,
+          timezone: America/New_York
+          programme:
+            programmeUrl: https://example.com/some-programme-url
+            assignDiscordPostsApiUrl: https://example.com/some-assign-discord-posts-api-url
+            feedArchive:
+              path: /var/lib/watson/feed-archive
+              maxEntries: 0
+            channelNameResolver:
+              type: day
+              dayMappings:
+                Friday: friday
+            links:
+              - name: some-name
+                label: some-label
+            locations:
+              - id: some-id
+                name: some-name
+        """);
+
+    var parser = new ConfigYamlParser();
+    var thrown = assertThrows(ConfigException.class, () -> parser.parse(secretsConfig, jsonConfig));
+
+    assertEquals(
+        "Malformed value for programme.feedArchive.maxEntries: must be positive",
+        thrown.getMessage());
+  }
+
   @Test
   void programmeChannelNameResolverIsOptional() throws JsonProcessingException {
     var secretsConfig =
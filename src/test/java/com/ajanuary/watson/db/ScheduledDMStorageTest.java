@@ -0,0 +1,364 @@
+package com.ajanuary.watson.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.alarms.ScheduledDM;
+import com.ajanuary.watson.alarms.WithId;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class ScheduledDMStorageTest {
+
+  private static final ZonedDateTime TIME =
+      ZonedDateTime.of(2025, 8, 7, 10, 0, 0, 0, ZoneOffset.UTC);
+
+  private final Logger logger = LoggerFactory.getLogger(ScheduledDMStorageTest.class);
+
+  @TempDir Path tempDir;
+
+  @Test
+  void readsBackDMsInTheOrderTheyAreDue() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm("item-2", "user-1", 10), dm("item-2", "user-2", 10)));
+      conn.addScheduledDMs(List.of(dm("item-1", "user-1", 5), dm("item-3", "user-1", 60)));
+
+      assertEquals(Optional.of(TIME.plusMinutes(5)), conn.getNextScheduledDMTime());
+      assertEquals(
+          List.of(
+              dm("item-1", "user-1", 5), dm("item-2", "user-1", 10), dm("item-2", "user-2", 10)),
+          claim(conn, TIME.plusMinutes(30)));
+    }
+  }
+
+  @Test
+  void claimsTheEarliestDueDMsAlongWithTheSameUsersOtherDMs() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm("item-1", "user-1", 5), dm("item-1", "user-3", 5)));
+      conn.addScheduledDMs(List.of(dm("item-2", "user-2", 6)));
+      conn.addScheduledDMs(List.of(dm("item-3", "user-1", 12), dm("item-3", "user-2", 20)));
+
+      var claimed =
+          conn.claimScheduledDMs(
+              TIME.plusMinutes(10), TIME.plusMinutes(15), TIME.plusMinutes(30), 2);
+
+      assertEquals(
+          List.of(dm("item-1", "user-1", 5), dm("item-1", "user-3", 5), dm("item-3", "user-1", 12)),
+          claimed.stream().map(WithId::value).toList());
+      assertEquals(Optional.of(TIME.plusMinutes(6)), conn.getNextScheduledDMTime());
+    }
+  }
+
+  @Test
+  void doesNotClaimDMsAgainUntilTheirClaimRunsOut() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm("item-1", "user-1", 5)));
+
+      var due = TIME.plusMinutes(5);
+      var claimed = conn.claimScheduledDMs(due, due, TIME.plusMinutes(10), 10);
+      assertEquals(1, claimed.size());
+      assertEquals(List.of(), claim(conn, TIME.plusMinutes(9)));
+      assertEquals(Optional.of(TIME.plusMinutes(10)), conn.getNextScheduledDMTime());
+
+      assertEquals(List.of(dm("item-1", "user-1", 5)), claim(conn, TIME.plusMinutes(10)));
+    }
+  }
+
+  @Test
+  void claimsReleasedDMsAgainStraightAway() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm("item-1", "user-1", 5)));
+      var due = TIME.plusMinutes(5);
+      var claimed = conn.claimScheduledDMs(due, due, TIME.plusMinutes(10), 10);
+
+      conn.releaseScheduledDMs(claimed.stream().map(WithId::id).toList());
+
+      assertEquals(Optional.of(TIME.plusMinutes(5)), conn.getNextScheduledDMTime());
+      assertEquals(List.of(dm("item-1", "user-1", 5)), claim(conn, TIME.plusMinutes(5)));
+    }
+  }
+
+  @Test
+  void storesEachItemsContentsOnce() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(
+          List.of(
+              dm("item-1", "user-1", 5), dm("item-1", "user-2", 5), dm("item-2", "user-1", 5)));
+    }
+
+    assertEquals(2, count("test.db", "reminder_payloads"));
+    assertEquals(3, count("test.db", "scheduled_dm"));
+  }
+
+  @Test
+  void deletesContentsOnceNoDMsNeedThem() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm("item-1", "user-1", 5), dm("item-1", "user-2", 5)));
+      var dms =
+          conn.claimScheduledDMs(TIME.plusMinutes(5), TIME.plusMinutes(5), TIME.plusMinutes(5), 10);
+
+      conn.deleteScheduledDMs(List.of(dms.get(0).id()));
+      assertEquals(1, count("test.db", "reminder_payloads"));
+      assertEquals(List.of(dm("item-1", "user-2", 5)), claim(conn, TIME.plusMinutes(5)));
+
+      conn.deleteScheduledDMs(List.of(dms.get(1).id()));
+      assertEquals(0, count("test.db", "reminder_payloads"));
+      assertEquals(Optional.empty(), conn.getNextScheduledDMTime());
+    }
+  }
+
+  @Test
+  void catchesUpOnDMsThatBecameDueWhileStopped() throws Exception {
+    var databaseManager = newDatabase("test.db");
+    try (var conn = databaseManager.getConnection()) {
+      conn.addScheduledDMs(List.of(dm("item-1", "user-1", 5), dm("item-1", "user-2", 5)));
+      conn.addScheduledDMs(List.of(dm("item-2", "user-1", 10)));
+      conn.addScheduledDMs(List.of(dm("item-3", "user-1", 20), dm("item-3", "user-2", 20)));
+      conn.addScheduledDMs(List.of(dm("item-4", "user-1", 60)));
+      var due = TIME.plusMinutes(20);
+      conn.claimScheduledDMs(due, due, TIME.plusHours(1), 1);
+
+      assertEquals(2, conn.purgeScheduledDMsBefore(TIME.plusMinutes(5)));
+      assertEquals(2, conn.releaseAllScheduledDMs());
+      var overdue = conn.getOverdueDMs(TIME.plusMinutes(30));
+
+      assertEquals(3, overdue.count());
+      assertEquals(Optional.of(TIME.plusMinutes(10)), overdue.earliest());
+      assertEquals(Optional.of(TIME.plusMinutes(10)), conn.getNextScheduledDMTime());
+    }
+    assertEquals(3, count("test.db", "reminder_payloads"));
+  }
+
+  @Test
+  void migratesDMsScheduledBeforeTheyWereNormalised() throws Exception {
+    var path = tempDir.resolve("test.db").toString();
+    migrate(path, "16");
+    try (var connection = DriverManager.getConnection("jdbc:sqlite:" + path)) {
+      insertCopies(connection, List.of(dm("item-1", "user-1", 5), dm("item-1", "user-2", 5)));
+      insertCopies(connection, List.of(dm("item-2", "user-1", 10)));
+    }
+
+    var databaseManager = new DatabaseManager(path);
+    databaseManager.init();
+
+    try (var conn = databaseManager.getConnection()) {
+      assertEquals(
+          List.of(
+              dm("item-1", "user-1", 5), dm("item-1", "user-2", 5), dm("item-2", "user-1", 10)),
+          claim(conn, TIME.plusMinutes(10)));
+    }
+    assertEquals(2, count("test.db", "reminder_payloads"));
+  }
+
+  /**
+   * Compares storing a copy of each reminder for every user against storing it once, at the scale
+   * of a large convention. Run with {@code -Dwatson.benchmark=true}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "watson.benchmark", matches = "true")
+  void normalisedDMsAreSmallerAndFasterToDequeue() throws Exception {
+    var numItems = 50;
+    var subscribersPerItem = 2_000;
+    var dms = new ArrayList<List<ScheduledDM>>();
+    for (var item = 0; item < numItems; item++) {
+      var itemDMs = new ArrayList<ScheduledDM>();
+      for (var user = 0; user < subscribersPerItem; user++) {
+        itemDMs.add(dm("item-" + item, "user-" + user, item, "x".repeat(2_000)));
+      }
+      dms.add(itemDMs);
+    }
+
+    var copiedPath = tempDir.resolve("copied.db").toString();
+    migrate(copiedPath, "16");
+    try (var connection = DriverManager.getConnection("jdbc:sqlite:" + copiedPath)) {
+      for (var itemDMs : dms) {
+        insertCopies(connection, itemDMs);
+      }
+    }
+    var copiedBytes = Files.size(Path.of(copiedPath));
+    var copiedNanos =
+        bestOf(
+            () -> {
+              try (var connection = DriverManager.getConnection("jdbc:sqlite:" + copiedPath)) {
+                return readCopies(connection, TIME.plusMinutes(numItems)).size();
+              }
+            },
+            numItems * subscribersPerItem);
+
+    var databaseManager = newDatabase("normalised.db");
+    try (var conn = databaseManager.getConnection()) {
+      for (var itemDMs : dms) {
+        conn.addScheduledDMs(itemDMs);
+      }
+    }
+    var normalisedBytes = Files.size(tempDir.resolve("normalised.db"));
+    var normalisedNanos =
+        bestOf(
+            () -> {
+              try (var conn = databaseManager.getConnection()) {
+                var dueBy = TIME.plusMinutes(numItems);
+                // Claimed only until they're due, so they can be claimed again on the next run.
+                return conn.claimScheduledDMs(dueBy, dueBy, dueBy, numItems * subscribersPerItem)
+                    .size();
+              }
+            },
+            numItems * subscribersPerItem);
+
+    logger.info(
+        "{} DMs: copied contents take {} bytes and {}ms to dequeue, normalised take {} bytes and"
+            + " {}ms",
+        numItems * subscribersPerItem,
+        copiedBytes,
+        copiedNanos / 1_000_000,
+        normalisedBytes,
+        normalisedNanos / 1_000_000);
+    assertTrue(
+        normalisedBytes * 10 < copiedBytes,
+        "normalised take " + normalisedBytes + " bytes, copied take " + copiedBytes);
+    assertTrue(
+        normalisedNanos < copiedNanos,
+        "normalised took " + normalisedNanos + "ns, copied took " + copiedNanos + "ns");
+  }
+
+  /** How long the quickest of a few runs took, after one to warm up. */
+  private static long bestOf(Callable<Integer> dequeue, int expectedSize) throws Exception {
+    var best = Long.MAX_VALUE;
+    for (var i = 0; i < 4; i++) {
+      var start = System.nanoTime();
+      assertEquals(expectedSize, dequeue.call());
+      if (i > 0) {
+        best = Math.min(best, System.nanoTime() - start);
+      }
+    }
+    return best;
+  }
+
+  /** Reads the DMs back the way they were read before their contents were normalised. */
+  private static List<ScheduledDM> readCopies(Connection connection, ZonedDateTime dateTime)
+      throws SQLException {
+    try (var statement =
+        connection.prepareStatement(
+            """
+            select id, discord_thread_id, discord_message_id, user_id, message_time, title,
+              jump_url, contents, tags
+            from scheduled_dm
+            where message_time <= ?
+            order by message_time, id
+            """)) {
+      statement.setString(1, toDbDateTimeString(dateTime));
+      var rs = statement.executeQuery();
+      var results = new ArrayList<ScheduledDM>();
+      while (rs.next()) {
+        results.add(
+            new ScheduledDM(
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                ZonedDateTime.parse(rs.getString(5)),
+                rs.getString(6),
+                rs.getString(7),
+                rs.getString(8),
+                Optional.ofNullable(rs.getString(9))));
+      }
+      return results;
+    }
+  }
+
+  /** Claims every DM due by the given time, in a way that lets them be claimed again. */
+  private static List<ScheduledDM> claim(
+      DatabaseManager.DatabaseConnection conn, ZonedDateTime dueBy) throws SQLException {
+    return conn.claimScheduledDMs(dueBy, dueBy, dueBy, 100).stream().map(WithId::value).toList();
+  }
+
+  private DatabaseManager newDatabase(String name) throws SQLException {
+    var databaseManager = new DatabaseManager(tempDir.resolve(name).toString());
+    databaseManager.init();
+    return databaseManager;
+  }
+
+  private static void migrate(String path, String version) {
+    Flyway.configure()
+        .dataSource("jdbc:sqlite:" + path, null, null)
+        .target(version)
+        .load()
+        .migrate();
+  }
+
+  /** Inserts the DMs the way they were stored before their contents were normalised. */
+  private static void insertCopies(Connection connection, List<ScheduledDM> dms)
+      throws SQLException {
+    try (var statement =
+        connection.prepareStatement(
+            """
+            insert into scheduled_dm(discord_thread_id, discord_message_id, user_id, message_time,
+              title, jump_url, contents, tags)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            """)) {
+      connection.setAutoCommit(false);
+      for (var dm : dms) {
+        statement.setString(1, dm.discordThreadId());
+        statement.setString(2, dm.discordMessageId());
+        statement.setString(3, dm.userId());
+        statement.setString(4, toDbDateTimeString(dm.messageTime()));
+        statement.setString(5, dm.title());
+        statement.setString(6, dm.jumpUrl());
+        statement.setString(7, dm.contents());
+        statement.setString(8, dm.tags().orElse(null));
+        statement.addBatch();
+      }
+      statement.executeBatch();
+      connection.commit();
+    }
+  }
+
+  private int count(String name, String table) throws SQLException {
+    try (var connection = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve(name));
+        var statement = connection.prepareStatement("select count(*) from " + table)) {
+      var rs = statement.executeQuery();
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  private static String toDbDateTimeString(ZonedDateTime time) {
+    return time.withZoneSameInstant(ZoneOffset.UTC).format(DateTimeFormatter.ISO_DATE_TIME);
+  }
+
+  private static ScheduledDM dm(String itemId, String userId, int minutes) {
+    return dm(itemId, userId, minutes, "Contents of " + itemId);
+  }
+
+  private static ScheduledDM dm(String itemId, String userId, int minutes, String contents) {
+    return new ScheduledDM(
+        "thread-" + itemId,
+        "message-" + itemId,
+        userId,
+        TIME.plusMinutes(minutes),
+        "Title of " + itemId,
+        "https://discord.com/channels/1/" + itemId,
+        contents,
+        itemId.equals("item-1") ? Optional.of("Tag") : Optional.empty());
+  }
+}
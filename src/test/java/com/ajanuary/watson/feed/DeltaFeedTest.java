@@ -0,0 +1,129 @@
+package com.ajanuary.watson.feed;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.newsletter.NewsletterItem;
+import com.ajanuary.watson.utils.FeedStandInServer;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DeltaFeedTest {
+
+  @TempDir Path tempDir;
+
+  private FeedStandInServer server;
+  private DatabaseManager databaseManager;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    Files.createDirectories(tempDir.resolve("feeds"));
+    writeFeed(item("a", "First"), item("b", "Second"), item("c", "Third"));
+    server = new FeedStandInServer(tempDir.resolve("feeds"), 0);
+    server.start();
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  void firstPollIsAFullSync() throws Exception {
+    var deltaFeed = deltaFeed(Duration.ofHours(1));
+
+    try (var conn = databaseManager.getConnection()) {
+      var sync = deltaFeed.start(conn);
+      assertTrue(sync.isFull(), "sync is full");
+      deltaFeed.finish(conn, sync);
+      assertEquals(Optional.of(sync.cursor()), conn.getFeedCursor("newsletter"));
+    }
+  }
+
+  @Test
+  void returnsChangesSinceTheLastSync() throws Exception {
+    var deltaFeed = deltaFeed(Duration.ofHours(1));
+
+    try (var conn = databaseManager.getConnection()) {
+      deltaFeed.finish(conn, deltaFeed.start(conn));
+
+      writeFeed(item("a", "First"), item("b", "Second, edited"), item("d", "Fourth"));
+
+      var sync = deltaFeed.start(conn);
+      assertFalse(sync.isFull(), "sync is a delta");
+      var delta = sync.delta().get();
+      assertEquals(
+          List.of(
+              new NewsletterItem("b", "Second, edited", "Body", null),
+              new NewsletterItem("d", "Fourth", "Body", null)),
+          delta.upserts());
+      assertEquals(List.of("c"), delta.tombstones());
+
+      deltaFeed.finish(conn, sync);
+      assertEquals(Optional.of(delta.cursor()), conn.getFeedCursor("newsletter"));
+      assertTrue(deltaFeed.start(conn).delta().get().upserts().isEmpty(), "no more changes");
+    }
+  }
+
+  @Test
+  void fallsBackToAFullSyncIfTheCursorHasExpired() throws Exception {
+    var deltaFeed = deltaFeed(Duration.ofHours(1));
+
+    try (var conn = databaseManager.getConnection()) {
+      deltaFeed.finish(conn, deltaFeed.start(conn));
+      conn.setFeedCursor("newsletter", "999");
+
+      assertTrue(deltaFeed.start(conn).isFull(), "sync is full");
+    }
+  }
+
+  @Test
+  void doesAFullSyncOnceTheIntervalHasPassed() throws Exception {
+    var deltaFeed = deltaFeed(Duration.ZERO);
+
+    try (var conn = databaseManager.getConnection()) {
+      deltaFeed.finish(conn, deltaFeed.start(conn));
+
+      assertTrue(deltaFeed.start(conn).isFull(), "sync is full");
+    }
+  }
+
+  private DeltaFeed<NewsletterItem> deltaFeed(Duration fullSyncInterval) {
+    var objectMapper =
+        JsonMapper.builder()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+            .build();
+    var url = URI.create("http://localhost:" + server.port() + "/newsletter.json/delta");
+    return new DeltaFeed<>(
+        "newsletter",
+        new DeltaFeedConfig(url, fullSyncInterval),
+        objectMapper,
+        NewsletterItem.class);
+  }
+
+  private void writeFeed(String... items) throws Exception {
+    Files.writeString(
+        tempDir.resolve("feeds").resolve("newsletter.json"), "[" + String.join(",", items) + "]");
+  }
+
+  private static String item(String id, String title) {
+    return """
+        {"id": "%s", "title": "%s", "body": "Body", "image": null}
+        """
+        .formatted(id, title);
+  }
+}
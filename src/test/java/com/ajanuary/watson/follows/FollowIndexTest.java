@@ -0,0 +1,59 @@
+package com.ajanuary.watson.follows;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ajanuary.watson.follows.FollowTarget.Kind;
+import com.ajanuary.watson.programme.ProgrammeItem;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class FollowIndexTest {
+
+  @Test
+  void indexesPeopleTagsAndRoom() {
+    var index = new FollowIndex();
+
+    index.put(item("item-1", "Room 1", List.of("Jane Doe (moderator)", "John Smith"), "Science"));
+
+    assertEquals(Set.of("item-1"), index.itemIds(FollowTarget.of(Kind.PERSON, "jane doe")));
+    assertEquals(Set.of("item-1"), index.itemIds(FollowTarget.of(Kind.PERSON, "John Smith")));
+    assertEquals(Set.of("item-1"), index.itemIds(FollowTarget.of(Kind.TAG, "science")));
+    assertEquals(Set.of("item-1"), index.itemIds(FollowTarget.of(Kind.ROOM, "ROOM 1")));
+    assertEquals(
+        Optional.of("Jane Doe"), index.name(FollowTarget.of(Kind.PERSON, "Jane Doe (moderator)")));
+  }
+
+  @Test
+  void replacesWhatWasIndexedForAnItem() {
+    var index = new FollowIndex();
+    index.put(item("item-1", "Room 1", List.of("Jane Doe"), "Science"));
+
+    index.put(item("item-1", "Room 2", List.of("John Smith"), "Science"));
+
+    assertEquals(Set.of(), index.itemIds(FollowTarget.of(Kind.PERSON, "Jane Doe")));
+    assertEquals(Set.of(), index.itemIds(FollowTarget.of(Kind.ROOM, "Room 1")));
+    assertEquals(Set.of("item-1"), index.itemIds(FollowTarget.of(Kind.ROOM, "Room 2")));
+    assertEquals(Optional.empty(), index.name(FollowTarget.of(Kind.PERSON, "Jane Doe")));
+  }
+
+  @Test
+  void retainsOnlyTheGivenItems() {
+    var index = new FollowIndex();
+    index.put(item("item-1", "Room 1", List.of("Jane Doe"), "Science"));
+    index.put(item("item-2", "Room 1", List.of("Jane Doe"), "Art"));
+
+    index.retainOnly(List.of("item-2"));
+
+    assertEquals(Set.of("item-2"), index.itemIds(FollowTarget.of(Kind.PERSON, "Jane Doe")));
+    assertEquals(Set.of(), index.itemIds(FollowTarget.of(Kind.TAG, "Science")));
+    assertEquals(Set.of(), index.targetsOf("item-1"));
+  }
+
+  static ProgrammeItem item(String id, String loc, List<String> people, String tag) {
+    return new ProgrammeItem(
+        id, "Title of " + id, List.of(tag), 0, 60, loc, people, "Some description", Map.of());
+  }
+}
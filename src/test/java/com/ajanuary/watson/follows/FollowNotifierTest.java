@@ -0,0 +1,122 @@
+package com.ajanuary.watson.follows;
+
+import static com.ajanuary.watson.follows.FollowIndexTest.item;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.follows.FollowTarget.Kind;
+import com.ajanuary.watson.programme.ProgrammeFeedArchive.Changes;
+import com.ajanuary.watson.programme.ProgrammeItem;
+import com.ajanuary.watson.programme.ProgrammePolledEvent;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FollowNotifierTest {
+
+  @TempDir Path tempDir;
+
+  private DatabaseManager databaseManager;
+  private FollowNotifier notifier;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    notifier = new FollowNotifier(new FollowIndex());
+  }
+
+  @Test
+  void tellsFollowersAboutAddedItems() throws Exception {
+    follow("user-1", Kind.PERSON, "Jane Doe");
+    follow("user-2", Kind.ROOM, "Room 2");
+    poll(
+        List.of(item("item-1", "Room 1", List.of("John Smith"), "Art")),
+        List.of(),
+        true,
+        changes());
+
+    var notifications =
+        poll(
+            List.of(item("item-2", "Room 1", List.of("Jane Doe (moderator)"), "Art")),
+            List.of(),
+            false,
+            changes(List.of("item-2"), List.of(), List.of()));
+
+    assertEquals(
+        Map.of("user-1", List.of("- **Title of item-2** has been added (you follow Jane Doe)")),
+        notifications);
+  }
+
+  @Test
+  void tellsEachFollowerAboutAnItemOnce() throws Exception {
+    follow("user-1", Kind.PERSON, "Jane Doe");
+    follow("user-1", Kind.TAG, "Art");
+    poll(List.of(item("item-1", "Room 1", List.of("Jane Doe"), "Art")), List.of(), true, changes());
+
+    var notifications =
+        poll(
+            List.of(item("item-1", "Room 2", List.of("Jane Doe"), "Art")),
+            List.of(),
+            false,
+            changes(List.of(), List.of("item-1"), List.of()));
+
+    assertEquals(1, notifications.get("user-1").size());
+  }
+
+  @Test
+  void tellsFollowersOfWhatWasOnAnItemBeforeItChanged() throws Exception {
+    follow("user-1", Kind.ROOM, "Room 1");
+    poll(List.of(item("item-1", "Room 1", List.of("Jane Doe"), "Art")), List.of(), true, changes());
+
+    var notifications =
+        poll(
+            List.of(item("item-1", "Room 2", List.of("Jane Doe"), "Art")),
+            List.of(),
+            false,
+            changes(List.of(), List.of("item-1"), List.of()));
+
+    assertEquals(
+        Map.of("user-1", List.of("- **Title of item-1** has been changed (you follow Room 1)")),
+        notifications);
+  }
+
+  @Test
+  void tellsFollowersAboutCancelledItems() throws Exception {
+    follow("user-1", Kind.PERSON, "Jane Doe");
+    poll(List.of(item("item-1", "Room 1", List.of("Jane Doe"), "Art")), List.of(), true, changes());
+
+    var notifications =
+        poll(List.of(), List.of("item-1"), false, changes(List.of(), List.of(), List.of("item-1")));
+
+    assertEquals(
+        Map.of("user-1", List.of("- **Title of item-1** has been cancelled (you follow Jane Doe)")),
+        notifications);
+  }
+
+  private void follow(String userId, Kind kind, String name) throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      conn.addFollow(userId, new Follow(FollowTarget.of(kind, name), name));
+    }
+  }
+
+  private Map<String, List<String>> poll(
+      List<ProgrammeItem> items, List<String> removedItemIds, boolean reconciled, Changes changes)
+      throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      return notifier.notifications(
+          conn, new ProgrammePolledEvent(items, removedItemIds, reconciled, changes), true);
+    }
+  }
+
+  private static Changes changes() {
+    return changes(List.of(), List.of(), List.of());
+  }
+
+  private static Changes changes(List<String> added, List<String> updated, List<String> cancelled) {
+    return new Changes(added, updated, cancelled, List.of());
+  }
+}
@@ -0,0 +1,113 @@
+package com.ajanuary.watson.privatethreads;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import org.junit.jupiter.api.Test;
+
+public class PrivateThreadManagerTest {
+
+  // Enough users that the locks are added while others are being looked up.
+  private static final int NUM_USERS = 200;
+  private static final int SENDS_PER_USER = 4;
+  private static final int NUM_THREADS = 64;
+
+  private final Map<String, ThreadChannel> threads = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> numCreated = new ConcurrentHashMap<>();
+
+  @Test
+  void createsOneThreadPerUserWhenSendingAndProvisioningAtOnce() throws Exception {
+    // The private threads that have been recorded, by user.
+    var recorded = new ConcurrentHashMap<String, String>();
+    var conn = mock(DatabaseManager.DatabaseConnection.class);
+    when(conn.getPrivateThread(anyString(), eq("alarms")))
+        .thenAnswer(i -> Optional.ofNullable(recorded.get(i.<String>getArgument(0))));
+    doAnswer(i -> recorded.put(i.getArgument(0), i.getArgument(2)))
+        .when(conn)
+        .insertPrivateThread(anyString(), eq("alarms"), anyString());
+    var jda = mock(JDA.class);
+    when(jda.getThreadChannelById(anyString())).thenAnswer(i -> threads.get(i.getArgument(0)));
+    var privateThreadManager = new PrivateThreadManager(jda, "alarms");
+
+    var start = new CountDownLatch(1);
+    var tasks = new ArrayList<Callable<Void>>();
+    for (var user = 0; user < NUM_USERS; user++) {
+      var userId = "user-" + user;
+      // Sending a reminder creates the thread if it's missing.
+      for (var send = 0; send < SENDS_PER_USER; send++) {
+        tasks.add(
+            () -> {
+              start.await();
+              privateThreadManager.createThread(conn, userId, () -> createThread(userId));
+              return null;
+            });
+      }
+      // Provisioning checks for a thread before creating one.
+      tasks.add(
+          () -> {
+            start.await();
+            if (privateThreadManager.getThread(conn, userId).isEmpty()) {
+              privateThreadManager.createThread(conn, userId, () -> createThread(userId));
+            }
+            return null;
+          });
+    }
+
+    var executor = Executors.newFixedThreadPool(NUM_THREADS);
+    try {
+      var futures = new ArrayList<Future<Void>>();
+      for (var task : tasks) {
+        futures.add(executor.submit(task));
+      }
+      start.countDown();
+      for (var future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(NUM_USERS, numCreated.size());
+    for (var entry : numCreated.entrySet()) {
+      assertEquals(1, entry.getValue().get(), "threads created for " + entry.getKey());
+    }
+    for (var user = 0; user < NUM_USERS; user++) {
+      var userId = "user-" + user;
+      assertTrue(privateThreadManager.getThread(conn, userId).isPresent(), userId);
+    }
+  }
+
+  private ThreadChannel createThread(String userId) {
+    var id = userId + "-" + numCreated.computeIfAbsent(userId, k -> new AtomicInteger()).get();
+    try {
+      // Creating a thread is a round trip to Discord, giving others a chance to race.
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+    numCreated.get(userId).incrementAndGet();
+    var thread = mock(ThreadChannel.class);
+    when(thread.getId()).thenReturn(id);
+    when(thread.isArchived()).thenReturn(false);
+    threads.put(id, thread);
+    return thread;
+  }
+}
@@ -0,0 +1,91 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ajanuary.watson.programme.ForumOrderPlanner.Post;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ForumOrderPlannerTest {
+
+  private static final Instant NINE = Instant.parse("2025-08-01T09:00:00Z");
+  private static final Instant TEN = Instant.parse("2025-08-01T10:00:00Z");
+  private static final Instant ELEVEN = Instant.parse("2025-08-01T11:00:00Z");
+  private static final Instant TWELVE = Instant.parse("2025-08-01T12:00:00Z");
+
+  @Test
+  void keepsEverythingWhenAlreadyInOrder() {
+    var plan =
+        ForumOrderPlanner.plan(
+            List.of(
+                new Post("twelve", 1, TWELVE),
+                new Post("eleven", 2, ELEVEN),
+                new Post("ten", 3, TEN),
+                new Post("nine", 4, NINE)));
+
+    assertEquals(List.of("twelve", "eleven", "ten", "nine"), ids(plan.keep()));
+    assertEquals(List.of(), ids(plan.recreate()));
+  }
+
+  @Test
+  void recreatesItemThatMovedEarlierAndEverythingAboveIt() {
+    // "twelve" used to be at 8:00, so it was created last.
+    var plan =
+        ForumOrderPlanner.plan(
+            List.of(
+                new Post("eleven", 1, ELEVEN),
+                new Post("ten", 2, TEN),
+                new Post("nine", 3, NINE),
+                new Post("twelve", 4, TWELVE)));
+
+    assertEquals(List.of("twelve"), ids(plan.keep()));
+    assertEquals(List.of("eleven", "ten", "nine"), ids(plan.recreate()));
+  }
+
+  @Test
+  void recreatesOnlyItemThatMovedLater() {
+    // "nine" used to be at 13:00, so it was created first.
+    var plan =
+        ForumOrderPlanner.plan(
+            List.of(
+                new Post("nine", 1, NINE),
+                new Post("twelve", 2, TWELVE),
+                new Post("eleven", 3, ELEVEN),
+                new Post("ten", 4, TEN)));
+
+    assertEquals(List.of("twelve", "eleven", "ten"), ids(plan.keep()));
+    assertEquals(List.of("nine"), ids(plan.recreate()));
+  }
+
+  @Test
+  void itemsWithTheSameStartTimeCanBeInAnyOrder() {
+    var plan =
+        ForumOrderPlanner.plan(
+            List.of(
+                new Post("eleven-b", 1, ELEVEN),
+                new Post("eleven-a", 2, ELEVEN),
+                new Post("ten", 3, TEN)));
+
+    assertEquals(List.of("eleven-b", "eleven-a", "ten"), ids(plan.keep()));
+    assertEquals(List.of(), ids(plan.recreate()));
+  }
+
+  @Test
+  void keepsItemsInTheSameSlotThatAreAlreadyAfterTheLastKeptPost() {
+    var plan =
+        ForumOrderPlanner.plan(
+            List.of(
+                new Post("ten-a", 1, TEN),
+                new Post("eleven", 2, ELEVEN),
+                new Post("ten-b", 3, TEN),
+                new Post("nine", 4, NINE)));
+
+    assertEquals(List.of("eleven", "ten-b"), ids(plan.keep()));
+    assertEquals(List.of("ten-a", "nine"), ids(plan.recreate()));
+  }
+
+  private static List<String> ids(List<Post> posts) {
+    return posts.stream().map(Post::programmeItemId).toList();
+  }
+}
@@ -0,0 +1,130 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+import support.TestConfigBuilder.TestNowOnConfigBuilder;
+
+public class NowOnBoardTest {
+
+  // Friday 1 August 2025, 10:00 UTC.
+  private static final long TEN_AM =
+      ZonedDateTime.of(2025, 8, 1, 10, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+  private static final long MINUTE = 60;
+
+  private final NowOnBoard board =
+      new NowOnBoard(
+          new TestNowOnConfigBuilder()
+              .withTimeBeforeToAdd(Duration.ofMinutes(5))
+              .withTimeAfterToKeep(Duration.ofMinutes(10))
+              .build(),
+          ZoneOffset.UTC);
+
+  @Test
+  void showsWhatIsOnNowAndWhatIsNext() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", "Panel", "Room 1", TEN_AM, TEN_AM + 60 * MINUTE),
+                thread("b", "Workshop", "Room 2", TEN_AM + 30 * MINUTE, TEN_AM + 90 * MINUTE),
+                thread("c", "Reading", "Room 3", TEN_AM + 30 * MINUTE, TEN_AM + 60 * MINUTE),
+                thread("d", "Later", "Room 1", TEN_AM + 120 * MINUTE, TEN_AM + 180 * MINUTE)));
+
+    assertEquals(
+        """
+        **On now**
+        `10:00 - 11:00` **Panel** Room 1 | <#thread-a>
+
+        **Next, at Fri 10:30**
+        `10:30 - 11:30` **Workshop** Room 2 | <#thread-b>
+        `10:30 - 11:00` **Reading** Room 3 | <#thread-c>""",
+        board.render(snapshot, TEN_AM + 10 * MINUTE));
+  }
+
+  @Test
+  void showsItemsFromShortlyBeforeTheyStartUntilShortlyAfterTheyEnd() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(thread("a", "Panel", "Room 1", TEN_AM, TEN_AM + 60 * MINUTE)));
+
+    assertEquals(List.of(), ids(board.onNow(snapshot, TEN_AM - 6 * MINUTE)));
+    assertEquals(List.of("a"), ids(board.onNow(snapshot, TEN_AM - 5 * MINUTE)));
+    assertEquals(List.of("a"), ids(board.onNow(snapshot, TEN_AM + 69 * MINUTE)));
+    assertEquals(List.of(), ids(board.onNow(snapshot, TEN_AM + 70 * MINUTE)));
+  }
+
+  @Test
+  void leavesOutCancelledItems() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", "Panel", "Room 1", TEN_AM, TEN_AM + 60 * MINUTE, Status.CANCELLED),
+                thread(
+                    "b",
+                    "Later",
+                    "Room 1",
+                    TEN_AM + 60 * MINUTE,
+                    TEN_AM + 90 * MINUTE,
+                    Status.CANCELLED),
+                thread("c", "Even later", "Room 1", TEN_AM + 90 * MINUTE, TEN_AM + 120 * MINUTE)));
+
+    assertEquals(List.of(), ids(board.onNow(snapshot, TEN_AM)));
+    assertEquals(List.of("c"), ids(board.next(snapshot, TEN_AM)));
+  }
+
+  @Test
+  void changesWhenTheNextItemStartsOrAnItemEnds() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", "Panel", "Room 1", TEN_AM, TEN_AM + 30 * MINUTE),
+                thread("b", "Workshop", "Room 2", TEN_AM + 60 * MINUTE, TEN_AM + 90 * MINUTE)));
+
+    assertEquals(OptionalLong.of(TEN_AM + 40 * MINUTE), board.nextChange(snapshot, TEN_AM));
+    assertEquals(
+        OptionalLong.of(TEN_AM + 55 * MINUTE), board.nextChange(snapshot, TEN_AM + 40 * MINUTE));
+    assertEquals(OptionalLong.empty(), board.nextChange(snapshot, TEN_AM + 100 * MINUTE));
+  }
+
+  @Test
+  void fitsABusySlotInOneMessage() {
+    var threads = new ArrayList<DiscordThread>();
+    for (var i = 0; i < 200; i++) {
+      threads.add(thread("now-" + i, "Item " + i, "Room " + i, TEN_AM, TEN_AM + 60 * MINUTE));
+      threads.add(
+          thread(
+              "next-" + i, "Item " + i, "Room " + i, TEN_AM + 60 * MINUTE, TEN_AM + 120 * MINUTE));
+    }
+
+    var rendered = board.render(new ProgrammeSnapshot(threads), TEN_AM);
+
+    assertTrue(rendered.length() <= NowOnBoard.MAX_BOARD_LEN, "board is " + rendered.length());
+    assertTrue(rendered.contains("**Next, at Fri 11:00**"), "board includes what's next");
+    assertTrue(rendered.contains(" more"), "board says how many items were left out");
+  }
+
+  private static DiscordThread thread(String id, String title, String loc, long start, long end) {
+    return thread(id, title, loc, start, end, Status.SCHEDULED);
+  }
+
+  private static DiscordThread thread(
+      String id, String title, String loc, long start, long end, Status status) {
+    return new DiscordThread(
+        Optional.of("thread-" + id),
+        Optional.of("message-" + id),
+        status,
+        new DiscordItem(id, title, "Description", loc, start, end));
+  }
+
+  private static List<String> ids(List<DiscordThread> discordThreads) {
+    return discordThreads.stream().map(t -> t.item().id()).toList();
+  }
+}
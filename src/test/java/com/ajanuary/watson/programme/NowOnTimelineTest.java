@@ -0,0 +1,156 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import support.TestConfigBuilder.TestNowOnConfigBuilder;
+
+public class NowOnTimelineTest {
+
+  private static final long MINUTE = 60;
+
+  private final Logger logger = LoggerFactory.getLogger(NowOnTimelineTest.class);
+
+  private final NowOnTimeline timeline =
+      new NowOnTimeline(
+          new TestNowOnConfigBuilder()
+              .withTimeBeforeToAdd(Duration.ofMinutes(5))
+              .withTimeAfterToKeep(Duration.ofMinutes(10))
+              .build());
+
+  @Test
+  void nextEventIsWhenTheNextItemShouldBePosted() {
+    timeline.load(
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", 100 * MINUTE, 160 * MINUTE), thread("b", 50 * MINUTE, 90 * MINUTE))),
+        List.of());
+
+    assertEquals(OptionalLong.of(45 * MINUTE), timeline.nextEvent());
+  }
+
+  @Test
+  void nextEventIsWhenTheNextMessageShouldBeDeleted() {
+    timeline.load(
+        new ProgrammeSnapshot(List.of(thread("a", 100 * MINUTE, 160 * MINUTE))),
+        List.of(new NowOnMessage("b", "message-b", 40 * MINUTE)));
+
+    assertEquals(OptionalLong.of(40 * MINUTE), timeline.nextEvent());
+  }
+
+  @Test
+  void postsItemsThatHaveStartedAndDeletesMessagesThatHaveEnded() {
+    timeline.load(
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", 100 * MINUTE, 160 * MINUTE),
+                thread("b", 100 * MINUTE, 130 * MINUTE),
+                thread("c", 200 * MINUTE, 260 * MINUTE))),
+        List.of(new NowOnMessage("d", "message-d", 90 * MINUTE)));
+
+    var due = timeline.due(95 * MINUTE);
+
+    assertEquals(List.of("a", "b"), ids(due.toPost()));
+    assertEquals(Set.of("message-d"), due.messageIdsToDelete());
+  }
+
+  @Test
+  void doesNotPostItemsThatHaveAlreadyEnded() {
+    timeline.load(
+        new ProgrammeSnapshot(
+            List.of(thread("a", 0, 60 * MINUTE), thread("b", 100 * MINUTE, 160 * MINUTE))),
+        List.of());
+
+    assertEquals(List.of("b"), ids(timeline.due(100 * MINUTE).toPost()));
+    assertEquals(OptionalLong.of(95 * MINUTE), timeline.nextEvent());
+  }
+
+  @Test
+  void doesNotPostItemsAgain() {
+    timeline.load(
+        new ProgrammeSnapshot(List.of(thread("a", 100 * MINUTE, 160 * MINUTE))), List.of());
+
+    timeline.posted(List.of(new NowOnMessage("a", "message-a", 170 * MINUTE)));
+
+    assertTrue(timeline.due(100 * MINUTE).isEmpty(), "nothing is due");
+    assertEquals(OptionalLong.of(170 * MINUTE), timeline.nextEvent());
+
+    timeline.deleted(Set.of("message-a"));
+
+    assertEquals(OptionalLong.empty(), timeline.nextEvent());
+  }
+
+  @Test
+  void followsChangesToTheProgramme() {
+    var before = thread("a", 100 * MINUTE, 160 * MINUTE);
+    timeline.load(new ProgrammeSnapshot(List.of(before)), List.of());
+
+    var moved = thread("a", 200 * MINUTE, 260 * MINUTE);
+    timeline.apply(
+        new ProgrammeSnapshot(List.of(moved)),
+        List.of(ItemChange.updated(before.item(), moved.item())));
+    assertEquals(OptionalLong.of(195 * MINUTE), timeline.nextEvent());
+
+    var cancelled =
+        new DiscordThread(
+            moved.discordThreadId(), moved.discordMessageId(), Status.CANCELLED, moved.item());
+    timeline.apply(
+        new ProgrammeSnapshot(List.of(cancelled)), List.of(ItemChange.cancelled(moved.item())));
+    assertEquals(OptionalLong.empty(), timeline.nextEvent());
+  }
+
+  /** Run with {@code -Dwatson.benchmark=true}. */
+  @Test
+  @EnabledIfSystemProperty(named = "watson.benchmark", matches = "true")
+  void findsTheNextEventInALargeProgrammeQuickly() {
+    var numItems = 20_000;
+    var threads = new ArrayList<DiscordThread>();
+    for (var i = 0; i < numItems; i++) {
+      threads.add(thread("item-" + i, i * MINUTE, i * MINUTE + 60 * MINUTE));
+    }
+    timeline.load(new ProgrammeSnapshot(threads), List.of());
+
+    var start = System.nanoTime();
+    for (var i = 0; i < numItems; i++) {
+      var now = i * MINUTE;
+      var due = timeline.due(now);
+      var posted = new ArrayList<NowOnMessage>();
+      for (var discordThread : due.toPost()) {
+        posted.add(
+            new NowOnMessage(
+                discordThread.item().id(),
+                "message-" + discordThread.item().id(),
+                discordThread.item().endEpochSecond() + 10 * MINUTE));
+      }
+      timeline.deleted(due.messageIdsToDelete());
+      timeline.posted(posted);
+      timeline.nextEvent();
+    }
+    var elapsed = Duration.ofNanos(System.nanoTime() - start);
+    logger.info("Stepped through {} items in {}ms", numItems, elapsed.toMillis());
+
+    assertTrue(elapsed.toMillis() < 2000, "took " + elapsed.toMillis() + "ms");
+  }
+
+  private static DiscordThread thread(String id, long start, long end) {
+    return new DiscordThread(
+        Optional.of("thread-" + id),
+        Optional.of("message-" + id),
+        Status.SCHEDULED,
+        new DiscordItem(id, "Item " + id, "Description", "Room 1", start, end));
+  }
+
+  private static List<String> ids(List<DiscordThread> discordThreads) {
+    return discordThreads.stream().map(t -> t.item().id()).toList();
+  }
+}
@@ -0,0 +1,196 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.portalapi.PortalApiClient;
+import com.ajanuary.watson.programme.PortalProgrammeApiClient.PostDetails;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+public class PortalProgrammeApiClientTest {
+
+  private static final URI API_URL = URI.create("https://example.com/discord-posts");
+
+  @TempDir Path tempDir;
+
+  private DatabaseManager databaseManager;
+  private PortalApiClient portalApiClient;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    portalApiClient = mock(PortalApiClient.class);
+    when(portalApiClient.send(any(), any())).thenReturn(BooleanNode.TRUE);
+  }
+
+  @Test
+  void sendsPostDetailsQueuedBeforeARestart() throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      conn.queuePortalPost(postDetails("item-1"), ZonedDateTime.now());
+    }
+
+    var client = newClient();
+
+    verify(portalApiClient, timeout(5000)).send(eq(API_URL), eq(List.of(postDetails("item-1"))));
+    awaitEmptyQueue(client);
+  }
+
+  @Test
+  void sendsPostDetailsInBatches() throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      for (var i = 0; i < PortalProgrammeApiClient.MAX_BATCH_SIZE * 2 + 1; i++) {
+        conn.queuePortalPost(postDetails("item-" + i), ZonedDateTime.now());
+      }
+    }
+
+    var client = newClient();
+
+    awaitEmptyQueue(client);
+    var batches = ArgumentCaptor.forClass(Object.class);
+    verify(portalApiClient, times(3)).send(eq(API_URL), batches.capture());
+    var sizes = new ArrayList<Integer>();
+    for (var batch : batches.getAllValues()) {
+      sizes.add(((List<?>) batch).size());
+    }
+    assertEquals(
+        List.of(
+            PortalProgrammeApiClient.MAX_BATCH_SIZE, PortalProgrammeApiClient.MAX_BATCH_SIZE, 1),
+        sizes);
+  }
+
+  @Test
+  void retriesUntilThePortalAcceptsThePostDetails() throws Exception {
+    when(portalApiClient.send(any(), any()))
+        .thenThrow(new IOException("Portal is down"))
+        .thenReturn(BooleanNode.FALSE)
+        .thenReturn(BooleanNode.TRUE);
+    var client = newClient();
+
+    client.addPostDetails(postDetails("item-1"));
+
+    awaitEmptyQueue(client);
+    verify(portalApiClient, times(3)).send(any(), any());
+  }
+
+  @Test
+  void keepsPostDetailsThatWereUpdatedWhileSending() throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      conn.queuePortalPost(postDetails("item-1"), ZonedDateTime.now());
+      conn.queuePortalPost(postDetails("item-2"), ZonedDateTime.now());
+      var batch = conn.getQueuedPortalPosts(10);
+
+      conn.queuePortalPost(postDetails("item-2"), ZonedDateTime.now());
+      var removed = conn.ackPortalPosts(batch);
+
+      assertEquals(1, removed);
+      assertEquals(
+          List.of("item-2"),
+          conn.getQueuedPortalPosts(10).stream().map(p -> p.details().itemId()).toList());
+    }
+  }
+
+  @Test
+  void resyncSendsEveryPostInChunks() throws Exception {
+    var numPosts = PortalProgrammeApiClient.RESYNC_CHUNK_SIZE * 2 + 1;
+    insertDiscordThreads(numPosts);
+    var client = newClient();
+
+    var result = client.resync(PortalProgrammeApiClientTest::postDetails);
+
+    assertEquals(numPosts, result.numPosts());
+    assertEquals(3, result.numChunks());
+    assertEquals(0, result.numFailedChunks());
+    var chunks = ArgumentCaptor.forClass(Object.class);
+    verify(portalApiClient, times(3)).send(eq(API_URL), chunks.capture());
+    var itemIds = new ArrayList<String>();
+    for (var chunk : chunks.getAllValues()) {
+      for (var postDetails : (List<?>) chunk) {
+        itemIds.add(((PostDetails) postDetails).itemId());
+      }
+    }
+    assertEquals(numPosts, itemIds.stream().distinct().count());
+    assertEquals(0, client.queueStats().depth());
+  }
+
+  @Test
+  void resyncQueuesChunksThePortalRejects() throws Exception {
+    when(portalApiClient.send(any(), any())).thenReturn(BooleanNode.FALSE);
+    insertDiscordThreads(PortalProgrammeApiClient.RESYNC_CHUNK_SIZE + 1);
+    var client = newClient();
+
+    var result = client.resync(PortalProgrammeApiClientTest::postDetails);
+
+    assertEquals(2, result.numFailedChunks());
+    assertEquals(PortalProgrammeApiClient.RESYNC_CHUNK_SIZE + 1, client.queueStats().depth());
+
+    // Let the queue drain, so the sender isn't still retrying when the database is deleted.
+    when(portalApiClient.send(any(), any())).thenReturn(BooleanNode.TRUE);
+    awaitEmptyQueue(client);
+  }
+
+  private PortalProgrammeApiClient newClient() {
+    return new PortalProgrammeApiClient(
+        API_URL, portalApiClient, databaseManager, Duration.ofMillis(10));
+  }
+
+  private static PostDetails postDetails(String itemId) {
+    return new PostDetails(
+        itemId, "Some item", "2025-08-01T10:00:00Z", 60, "room-1", "https://discord.com/1");
+  }
+
+  private void insertDiscordThreads(int numPosts) throws Exception {
+    try (var conn = databaseManager.getConnection()) {
+      for (var i = 0; i < numPosts; i++) {
+        conn.insertDiscordThread(
+            new DiscordThread(
+                Optional.of("thread-" + i),
+                Optional.of("message-" + i),
+                Status.SCHEDULED,
+                new DiscordItem("item-" + i, "Some item", "Some body", "Room 1", 0, 3600)));
+      }
+      // Items without a post have nothing to tell the portal about.
+      conn.insertDiscordThread(
+          new DiscordThread(
+              Optional.empty(),
+              Optional.empty(),
+              Status.SCHEDULED,
+              new DiscordItem("no-post", "Some item", "Some body", "Room 1", 0, 3600)));
+    }
+  }
+
+  private static PostDetails postDetails(DiscordThread discordThread) {
+    return PostDetails.of(
+        discordThread.item(),
+        "room-1",
+        "https://discord.com/" + discordThread.discordThreadId().get());
+  }
+
+  private static void awaitEmptyQueue(PortalProgrammeApiClient client) throws Exception {
+    var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+    while (client.queueStats().depth() > 0) {
+      assertTrue(System.nanoTime() < deadline, "queue emptied in time");
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,202 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.notification.EventDispatcher;
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedSource;
+import com.ajanuary.watson.programme.ProgrammeFeedArchive.Changes;
+import com.ajanuary.watson.programme.ProgrammeFeedArchive.Entry;
+import com.ajanuary.watson.scheduling.Timers;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import support.FakeDiscord;
+import support.TestConfigBuilder;
+
+/**
+ * Drives the programme module through a recorded sequence of feed snapshots against a scratch
+ * database and a fake Discord, and checks it makes the same changes it did when they were
+ * recorded.
+ *
+ * <p>By default this replays a small synthetic archive. To replay a real one, point the {@code
+ * watson.replayArchive} system property at the directory configured as {@code
+ * programme.feedArchive.path}.
+ */
+public class ProgrammeFeedReplayTest {
+
+  private static final String REPLAY_ARCHIVE_PROPERTY = "watson.replayArchive";
+
+  private final Logger logger = LoggerFactory.getLogger(ProgrammeFeedReplayTest.class);
+
+  @TempDir Path tempDir;
+
+  @Test
+  void replayMakesTheSameChangesAsTheRecording() throws Exception {
+    var externalArchive = Optional.ofNullable(System.getProperty(REPLAY_ARCHIVE_PROPERTY));
+    var sourceDir =
+        externalArchive.isPresent()
+            ? Path.of(externalArchive.get())
+            : writeSyntheticArchive(tempDir.resolve("source"));
+    var recorded = ProgrammeFeedArchive.readIndex(sourceDir);
+
+    var config =
+        new TestConfigBuilder()
+            .withGuildId("the-guild-id")
+            .withProgrammeConfig(
+                programme ->
+                    programme
+                        .withNoAssignDiscordPostsApiUrl()
+                        .withMajorAnnouncementChannel("announcements"))
+            .build();
+    var discord =
+        new FakeDiscord("the-guild-id").withTextChannel("announcements").withForumChannel("friday");
+    var databaseManager = new DatabaseManager(tempDir.resolve("replay.db").toString());
+    databaseManager.init();
+    var replayDir = tempDir.resolve("replay");
+    var programmeSnapshot = new AtomicReference<>(ProgrammeSnapshot.EMPTY);
+
+    var programmeModule =
+        new ProgrammeModule(
+            discord.jda(),
+            config.programme().get(),
+            config,
+            databaseManager,
+            null,
+            new EventDispatcher(),
+            programmeSnapshot,
+            new Timers(),
+            new ProgrammeFeeds(
+                List.of(
+                    new ProgrammeFeeds.Source(
+                        new FeedSource(
+                            "programme",
+                            URI.create("https://example.com/recorded"),
+                            Optional.empty(),
+                            Optional.empty()),
+                        new RecordedFeedClient(sourceDir, recorded.iterator(), config.timezone()))),
+                ConflictPolicy.FIRST,
+                config.timezone()),
+            Optional.of(new ProgrammeFeedArchive(replayDir, Integer.MAX_VALUE)));
+
+    var start = System.nanoTime();
+    for (var i = 0; i < recorded.size(); i++) {
+      var pollStart = System.nanoTime();
+      programmeModule.pollProgramme();
+      logger.info(
+          "Replayed snapshot {} of {} in {}ms",
+          i + 1,
+          recorded.size(),
+          (System.nanoTime() - pollStart) / 1_000_000);
+    }
+    logger.info(
+        "Replayed {} snapshots in {}ms with {} Discord API calls",
+        recorded.size(),
+        (System.nanoTime() - start) / 1_000_000,
+        discord.apiCalls());
+
+    var replayed = ProgrammeFeedArchive.readIndex(replayDir);
+    assertEquals(recorded.size(), replayed.size(), "number of polls recorded");
+    // A real archive rolls, so its first entry was made against a database we don't have.
+    var first = externalArchive.isPresent() ? 1 : 0;
+    for (var i = first; i < recorded.size(); i++) {
+      // Feeds are merged before they're recorded, so compare the items rather than the bodies.
+      assertEquals(
+          ProgrammeFeedClient.readItems(
+              ProgrammeFeedArchive.readBody(sourceDir, recorded.get(i).hash()), Optional.empty()),
+          ProgrammeFeedClient.readItems(
+              ProgrammeFeedArchive.readBody(replayDir, replayed.get(i).hash()), Optional.empty()),
+          "feed items " + i);
+      assertEquals(
+          sorted(recorded.get(i).changes()), sorted(replayed.get(i).changes()), "changes " + i);
+    }
+    try (var conn = databaseManager.getConnection()) {
+      assertEquals(ProgrammeSnapshot.load(conn).all(), programmeSnapshot.get().all(), "snapshot");
+    }
+  }
+
+  private static Path writeSyntheticArchive(Path directory) throws IOException {
+    var archive = new ProgrammeFeedArchive(directory, Integer.MAX_VALUE);
+    archive.record(
+        feed(
+            item("a", "Opening ceremony", "10:00"),
+            item("b", "Panel", "11:00"),
+            item("c", "Workshop", "12:00")),
+        new Changes(List.of("a", "b", "c"), List.of(), List.of(), List.of()));
+    archive.record(
+        feed(
+            item("a", "Opening ceremony", "13:00"),
+            item("b", "Panel", "11:00"),
+            item("d", "Reading", "14:00")),
+        new Changes(List.of("d"), List.of("a"), List.of("c"), List.of()));
+    archive.record(
+        feed(
+            item("a", "Opening ceremony", "13:00"),
+            item("b", "Panel", "11:00"),
+            item("c", "Workshop", "12:00"),
+            item("d", "Reading", "14:00")),
+        new Changes(List.of(), List.of("c"), List.of(), List.of()));
+    return directory;
+  }
+
+  private static String feed(String... items) {
+    return "[" + String.join(",", items) + "]";
+  }
+
+  private static String item(String id, String title, String time) {
+    return """
+        {
+          "id": "%s",
+          "title": "%s",
+          "tags": [],
+          "date": "2025-08-01",
+          "time": "%s",
+          "mins": 60,
+          "loc": ["Main Hall"],
+          "people": [],
+          "desc": "Some description",
+          "links": {}
+        }
+        """
+        .formatted(id, title, time);
+  }
+
+  private static Changes sorted(Changes changes) {
+    return new Changes(
+        sorted(changes.added()),
+        sorted(changes.updated()),
+        sorted(changes.cancelled()),
+        sorted(changes.deleted()));
+  }
+
+  private static List<String> sorted(List<String> ids) {
+    return ids.stream().sorted().toList();
+  }
+
+  /** Serves the recorded feed bodies in order, instead of fetching the live feed. */
+  private static class RecordedFeedClient extends ProgrammeFeedClient {
+    private final Path directory;
+    private final Iterator<Entry> entries;
+
+    RecordedFeedClient(Path directory, Iterator<Entry> entries, ZoneId timezone) {
+      super(URI.create("https://example.com/recorded"), timezone);
+      this.directory = directory;
+      this.entries = entries;
+    }
+
+    @Override
+    public Optional<String> fetchBodyIfChanged() throws IOException {
+      return Optional.of(ProgrammeFeedArchive.readBody(directory, entries.next().hash()));
+    }
+  }
+}
@@ -0,0 +1,290 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedSource;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProgrammeFeedsTest {
+
+  private static final ZoneId UTC = ZoneId.of("UTC");
+
+  @TempDir Path tempDir;
+
+  private DatabaseManager databaseManager;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+  }
+
+  @Test
+  void mergesItemsFromEverySource() throws Exception {
+    var main = new ScriptedFeedClient(feed(item("1", "Main item")));
+    var kids = new ScriptedFeedClient(feed(item("1", "Kids item")));
+    var feeds =
+        new ProgrammeFeeds(
+            List.of(
+                source("main", Optional.empty(), main),
+                source("kids", Optional.of("kids-"), kids)),
+            ConflictPolicy.FIRST,
+            UTC);
+
+    try (var conn = databaseManager.getConnection()) {
+      var poll = feeds.poll(conn);
+
+      assertTrue(poll.reconciled(), "poll is reconciled");
+      assertEquals(List.of("1", "kids-1"), ids(poll.items()));
+    }
+  }
+
+  @Test
+  void usesTheFirstSourceForConflictingItemsByDefault() throws Exception {
+    var feeds = conflictingFeeds(ConflictPolicy.FIRST);
+
+    try (var conn = databaseManager.getConnection()) {
+      assertEquals(List.of("Main item"), titles(feeds.poll(conn).items()));
+    }
+  }
+
+  @Test
+  void canUseTheLastSourceForConflictingItems() throws Exception {
+    var feeds = conflictingFeeds(ConflictPolicy.LAST);
+
+    try (var conn = databaseManager.getConnection()) {
+      assertEquals(List.of("Online item"), titles(feeds.poll(conn).items()));
+    }
+  }
+
+  @Test
+  void canFailOnConflictingItems() throws Exception {
+    var feeds = conflictingFeeds(ConflictPolicy.FAIL);
+
+    try (var conn = databaseManager.getConnection()) {
+      assertThrows(IOException.class, () -> feeds.poll(conn));
+    }
+  }
+
+  @Test
+  void onlyReturnsWhatChangedSinceTheLastPoll() throws Exception {
+    var main = new ScriptedFeedClient(feed(item("1", "First"), item("2", "Second")));
+    var online = new ScriptedFeedClient(feed(item("3", "Third")));
+    var feeds =
+        new ProgrammeFeeds(
+            List.of(
+                source("main", Optional.empty(), main),
+                source("online", Optional.empty(), online)),
+            ConflictPolicy.FIRST,
+            UTC);
+
+    try (var conn = databaseManager.getConnection()) {
+      feeds.poll(conn);
+      feeds.finish(conn);
+
+      online.bodies.add(feed(item("3", "Third, edited")));
+      var poll = feeds.poll(conn);
+
+      assertTrue(poll.reconciled(), "poll is reconciled");
+      feeds.finish(conn);
+
+      // Nothing new from either source.
+      poll = feeds.poll(conn);
+      assertFalse(poll.reconciled(), "poll is not reconciled");
+      assertEquals(List.of(), poll.items());
+      assertEquals(List.of(), poll.removedItemIds());
+    }
+  }
+
+  @Test
+  void keepsTheItemsOfAFailingSource() throws Exception {
+    var main = new ScriptedFeedClient(feed(item("1", "First")));
+    var online = new ScriptedFeedClient(feed(item("2", "Second")));
+    var feeds =
+        new ProgrammeFeeds(
+            List.of(
+                source("main", Optional.empty(), main),
+                source("online", Optional.empty(), online)),
+            ConflictPolicy.FIRST,
+            UTC);
+
+    try (var conn = databaseManager.getConnection()) {
+      feeds.poll(conn);
+      feeds.finish(conn);
+
+      main.bodies.add(feed(item("1", "First"), item("4", "Fourth")));
+      online.failing = true;
+      var poll = feeds.poll(conn);
+
+      assertEquals(List.of("4", "2", "1"), ids(poll.items()));
+      assertEquals(List.of(), poll.removedItemIds());
+    }
+  }
+
+  @Test
+  void keepsTheItemsOfASourceThatHangs() throws Exception {
+    var main = new ScriptedFeedClient(feed(item("1", "First")));
+    var online = new ScriptedFeedClient(feed(item("2", "Second")));
+    var feeds =
+        new ProgrammeFeeds(
+            List.of(
+                source("main", Optional.empty(), main),
+                source("online", Optional.empty(), online)),
+            ConflictPolicy.FIRST,
+            UTC,
+            Duration.ofMillis(100));
+
+    try (var conn = databaseManager.getConnection()) {
+      feeds.poll(conn);
+      feeds.finish(conn);
+
+      main.bodies.add(feed(item("1", "First"), item("4", "Fourth")));
+      online.hanging = true;
+      var poll = feeds.poll(conn);
+
+      assertEquals(List.of("4", "2", "1"), ids(poll.items()));
+      assertEquals(List.of(), poll.removedItemIds());
+      assertTrue(online.interrupted.await(5, TimeUnit.SECONDS), "hung fetch is cancelled");
+      feeds.finish(conn);
+
+      online.hanging = false;
+      online.bodies.add(feed(item("2", "Second"), item("5", "Fifth")));
+      poll = feeds.poll(conn);
+
+      // The feed is fetched in full, as the hung fetch may have left the client thinking it has
+      // the latest version.
+      assertTrue(poll.reconciled(), "poll is reconciled");
+      assertEquals(List.of("5", "4", "2", "1"), ids(poll.items()));
+    }
+  }
+
+  @Test
+  void doesntReconcileUntilEverySourceHasLoaded() throws Exception {
+    var main = new ScriptedFeedClient(feed(item("1", "First")));
+    var online = new ScriptedFeedClient(feed(item("2", "Second")));
+    online.failing = true;
+    var feeds =
+        new ProgrammeFeeds(
+            List.of(
+                source("main", Optional.empty(), main),
+                source("online", Optional.empty(), online)),
+            ConflictPolicy.FIRST,
+            UTC);
+
+    try (var conn = databaseManager.getConnection()) {
+      var poll = feeds.poll(conn);
+      assertFalse(poll.reconciled(), "poll is not reconciled");
+      assertEquals(List.of("1"), ids(poll.items()));
+      feeds.finish(conn);
+
+      online.failing = false;
+      poll = feeds.poll(conn);
+      assertTrue(poll.reconciled(), "poll is reconciled");
+      assertEquals(List.of("2", "1"), ids(poll.items()));
+    }
+  }
+
+  private ProgrammeFeeds conflictingFeeds(ConflictPolicy conflictPolicy) {
+    return new ProgrammeFeeds(
+        List.of(
+            source("main", Optional.empty(), new ScriptedFeedClient(feed(item("1", "Main item")))),
+            source(
+                "online",
+                Optional.empty(),
+                new ScriptedFeedClient(feed(item("1", "Online item"))))),
+        conflictPolicy,
+        UTC);
+  }
+
+  private static ProgrammeFeeds.Source source(
+      String name, Optional<String> idPrefix, ProgrammeFeedClient client) {
+    return new ProgrammeFeeds.Source(
+        new FeedSource(name, URI.create("https://example.com/" + name), idPrefix, Optional.empty()),
+        client);
+  }
+
+  private static List<String> ids(List<ProgrammeItem> items) {
+    return items.stream().map(ProgrammeItem::id).toList();
+  }
+
+  private static List<String> titles(List<ProgrammeItem> items) {
+    return items.stream().map(ProgrammeItem::title).toList();
+  }
+
+  private static String feed(String... items) {
+    return "[" + String.join(",", items) + "]";
+  }
+
+  private static String item(String id, String title) {
+    // Later ids start later, so the expected posting order is easy to follow.
+    return """
+        {
+          "id": "%s",
+          "title": "%s",
+          "tags": [],
+          "date": "2025-08-01",
+          "time": "1%s:00",
+          "mins": 60,
+          "loc": ["Main Hall"],
+          "people": [],
+          "desc": "Some description",
+          "links": {}
+        }
+        """
+        .formatted(id, title, id);
+  }
+
+  /** Returns a new body each time one is queued, and reports the feed as unchanged otherwise. */
+  private static class ScriptedFeedClient extends ProgrammeFeedClient {
+    private final Deque<String> bodies = new ArrayDeque<>();
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+    private boolean failing = false;
+    private boolean hanging = false;
+    private String lastBody = null;
+
+    ScriptedFeedClient(String body) {
+      super(URI.create("https://example.com/scripted"), UTC);
+      bodies.add(body);
+    }
+
+    @Override
+    public String fetchBody() throws IOException, InterruptedException {
+      return fetchBodyIfChanged().orElse(lastBody);
+    }
+
+    @Override
+    public Optional<String> fetchBodyIfChanged() throws IOException, InterruptedException {
+      if (failing) {
+        throw new IOException("Feed is down");
+      }
+      if (hanging) {
+        try {
+          new CountDownLatch(1).await();
+        } finally {
+          interrupted.countDown();
+        }
+      }
+      var body = Optional.ofNullable(bodies.poll());
+      body.ifPresent(b -> lastBody = b);
+      return body;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.ref.Reference;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how much heap a large programme takes up once it has been read, to keep an eye on the
+ * cost of holding every item in memory between polls.
+ */
+public class ProgrammeFootprintTest {
+
+  private static final int NUM_ITEMS = 20_000;
+  private static final ZoneId TIMEZONE = ZoneId.of("Europe/London");
+
+  private final Logger logger = LoggerFactory.getLogger(ProgrammeFootprintTest.class);
+
+  @Test
+  void repeatedStringsAreShared() throws Exception {
+    var tree = ProgrammeFeedClient.readItems(feed(NUM_ITEMS), Optional.empty());
+    var items = ProgrammeFeedClient.toItems(tree.values(), TIMEZONE);
+
+    var first = items.stream().filter(item -> item.loc().equals("Room 1")).toList();
+    assertTrue(first.size() > 1, "more than one item in Room 1");
+    for (var item : first) {
+      assertSame(first.get(0).loc(), item.loc(), "room name of " + item.id());
+    }
+  }
+
+  /** Run with {@code -Dwatson.benchmark=true}. */
+  @Test
+  @EnabledIfSystemProperty(named = "watson.benchmark", matches = "true")
+  void programmeFitsInTheExpectedHeap() throws Exception {
+    var body = feed(NUM_ITEMS);
+
+    var plainTreeBytes = retainedBytes(() -> new ObjectMapper().readTree(body));
+    var treeBytes = retainedBytes(() -> ProgrammeFeedClient.readItems(body, Optional.empty()));
+    var tree = ProgrammeFeedClient.readItems(body, Optional.empty());
+    var itemBytes = retainedBytes(() -> ProgrammeFeedClient.toItems(tree.values(), TIMEZONE));
+    logger.info(
+        "{} items: {} bytes per item as a plain JSON tree, {} as a shared JSON tree, {} for the"
+            + " items themselves",
+        NUM_ITEMS,
+        plainTreeBytes / NUM_ITEMS,
+        treeBytes / NUM_ITEMS,
+        itemBytes / NUM_ITEMS);
+
+    assertEquals(NUM_ITEMS, tree.size());
+    // Most of a tree is its object maps, which sharing strings doesn't help with.
+    assertTrue(
+        treeBytes < plainTreeBytes * 0.95,
+        "shared tree takes " + treeBytes + " bytes, plain tree takes " + plainTreeBytes);
+    // The items share their strings with the tree, so they only cost their own fields and lists.
+    assertTrue(
+        itemBytes / NUM_ITEMS < 256, "items take " + itemBytes / NUM_ITEMS + " bytes per item");
+  }
+
+  private static long retainedBytes(Callable<Object> build) throws Exception {
+    var before = usedHeap();
+    var result = build.call();
+    var after = usedHeap();
+    Reference.reachabilityFence(result);
+    return after - before;
+  }
+
+  private static long usedHeap() {
+    var runtime = Runtime.getRuntime();
+    for (var i = 0; i < 4; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  /** A programme where, as in a real one, rooms, tags, times and people repeat across items. */
+  private static String feed(int numItems) {
+    var items = new ArrayList<String>();
+    for (var i = 0; i < numItems; i++) {
+      items.add(
+          """
+          {
+            "id": "item-%d",
+            "title": "Item number %d",
+            "tags": [{"value": "track", "category": "Track", "label": "Track: %s"}, "Online"],
+            "date": "2025-08-0%d",
+            "time": "%02d:00",
+            "mins": 60,
+            "loc": ["Room %d"],
+            "people": [{"id": "%d", "name": "Person %d"}, {"id": "%d", "name": "Person %d"}],
+            "desc": "A description of item %d that is long enough that it would never be repeated.",
+            "links": {"meeting": "https://example.com/meeting/%d"}
+          }
+          """
+              .formatted(
+                  i,
+                  i,
+                  List.of("Literature", "Science", "Art", "Gaming").get(i % 4),
+                  1 + i % 5,
+                  9 + i % 12,
+                  i % 40,
+                  i % 2000,
+                  i % 2000,
+                  (i + 7) % 2000,
+                  (i + 7) % 2000,
+                  i,
+                  i));
+    }
+    return "[" + String.join(",", items) + "]";
+  }
+}
@@ -0,0 +1,157 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import com.ajanuary.watson.notification.EventDispatcher;
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedSource;
+import com.ajanuary.watson.scheduling.Timers;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import support.FakeDiscord;
+import support.TestConfigBuilder;
+
+public class ProgrammeModuleTest {
+
+  @TempDir Path tempDir;
+
+  private final FakeDiscord discord =
+      new FakeDiscord("the-guild-id").withTextChannel("announcements").withForumChannel("friday");
+  private final ScriptedFeedClient feedClient = new ScriptedFeedClient(ZoneId.of("UTC"));
+  private final AtomicReference<ProgrammeSnapshot> programmeSnapshot =
+      new AtomicReference<>(ProgrammeSnapshot.EMPTY);
+  // Events are handled on another thread.
+  private final BlockingQueue<ItemsChangedEvent> events = new LinkedBlockingQueue<>();
+
+  private ProgrammeModule programmeModule;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    var config =
+        new TestConfigBuilder()
+            .withGuildId("the-guild-id")
+            .withProgrammeConfig(
+                programme ->
+                    programme
+                        .withNoAssignDiscordPostsApiUrl()
+                        .withMajorAnnouncementChannel("announcements"))
+            .build();
+    var databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    var eventDispatcher = new EventDispatcher();
+    eventDispatcher.register(ItemsChangedEvent.class, events::add);
+
+    programmeModule =
+        new ProgrammeModule(
+            discord.jda(),
+            config.programme().get(),
+            config,
+            databaseManager,
+            null,
+            eventDispatcher,
+            programmeSnapshot,
+            new Timers(),
+            new ProgrammeFeeds(
+                List.of(
+                    new ProgrammeFeeds.Source(
+                        new FeedSource(
+                            "programme",
+                            URI.create("https://example.com/scripted"),
+                            Optional.empty(),
+                            Optional.empty()),
+                        feedClient)),
+                ConflictPolicy.FIRST,
+                config.timezone()),
+            Optional.empty());
+  }
+
+  @Test
+  void publishesTheItemsHandledBeforeADiscordCallFails() throws Exception {
+    feedClient.bodies.add(feed(item("a", "10:00"), item("b", "11:00"), item("c", "12:00")));
+    // Each added item is a post and an announcement, so this fails announcing the second.
+    discord.failAfter(3);
+
+    programmeModule.pollProgramme();
+
+    var handled = itemIds(nextEvent());
+    assertEquals(2, handled.size(), "items handled");
+    assertEquals(handled, snapshotIds());
+
+    discord.recover();
+    programmeModule.pollProgramme();
+
+    var remaining = new ArrayList<>(List.of("a", "b", "c"));
+    remaining.removeAll(handled);
+    assertEquals(remaining, itemIds(nextEvent()));
+    assertEquals(List.of("a", "b", "c"), snapshotIds());
+  }
+
+  private ItemsChangedEvent nextEvent() throws InterruptedException {
+    var event = events.poll(5, TimeUnit.SECONDS);
+    assertNotNull(event, "items changed event");
+    return event;
+  }
+
+  private List<String> snapshotIds() {
+    return programmeSnapshot.get().all().stream()
+        .map(discordThread -> discordThread.item().id())
+        .sorted()
+        .toList();
+  }
+
+  private static List<String> itemIds(ItemsChangedEvent event) {
+    return event.changes().stream().map(ItemChange::itemId).sorted().toList();
+  }
+
+  private static String feed(String... items) {
+    return "[" + String.join(",", items) + "]";
+  }
+
+  private static String item(String id, String time) {
+    return """
+        {
+          "id": "%s",
+          "title": "Item %s",
+          "tags": [],
+          "date": "2025-08-01",
+          "time": "%s",
+          "mins": 60,
+          "loc": ["Main Hall"],
+          "people": [],
+          "desc": "Some description",
+          "links": {}
+        }
+        """
+        .formatted(id, id, time);
+  }
+
+  /** Returns a new body each time one is queued, and reports the feed as unchanged otherwise. */
+  private static class ScriptedFeedClient extends ProgrammeFeedClient {
+    private final Deque<String> bodies = new ArrayDeque<>();
+
+    ScriptedFeedClient(ZoneId timezone) {
+      super(URI.create("https://example.com/scripted"), timezone);
+    }
+
+    @Override
+    public Optional<String> fetchBodyIfChanged() throws IOException {
+      return Optional.ofNullable(bodies.poll());
+    }
+  }
+}
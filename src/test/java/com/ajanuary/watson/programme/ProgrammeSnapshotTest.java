@@ -0,0 +1,112 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.db.DatabaseManager;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProgrammeSnapshotTest {
+
+  @TempDir Path tempDir;
+
+  @Test
+  void ordersThreadsByStartThenLocation() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(
+                thread("c", "Room 1", 200, 300),
+                thread("b", "Room 2", 100, 200),
+                thread("a", "Room 1", 100, 400)));
+
+    assertEquals(List.of("a", "b", "c"), ids(snapshot.all()));
+  }
+
+  @Test
+  void findsThreadsStartingAtOrBeforeATime() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", "Room 1", 100, 200),
+                thread("b", "Room 2", 100, 200),
+                thread("c", "Room 3", 100, 200),
+                thread("d", "Room 1", 200, 300),
+                thread("e", "Room 1", 300, 400)));
+
+    assertEquals(List.of(), ids(snapshot.startingAtOrBefore(99)));
+    assertEquals(List.of("a", "b", "c"), ids(snapshot.startingAtOrBefore(100)));
+    assertEquals(List.of("a", "b", "c"), ids(snapshot.startingAtOrBefore(199)));
+    assertEquals(List.of("a", "b", "c", "d"), ids(snapshot.startingAtOrBefore(200)));
+    assertEquals(List.of("a", "b", "c", "d", "e"), ids(snapshot.startingAtOrBefore(1000)));
+  }
+
+  @Test
+  void findsThreadsEndingAfterATime() {
+    var snapshot =
+        new ProgrammeSnapshot(
+            List.of(
+                thread("a", "Room 1", 100, 200),
+                thread("b", "Room 2", 100, 300),
+                thread("c", "Room 3", 200, 300),
+                thread("d", "Room 1", 300, 400)));
+
+    assertEquals(List.of("a", "b", "c", "d"), ids(snapshot.endingAfter(199)));
+    assertEquals(List.of("b", "c", "d"), ids(snapshot.endingAfter(200)));
+    assertEquals(List.of("d"), ids(snapshot.endingAfter(300)));
+    assertEquals(List.of(), ids(snapshot.endingAfter(400)));
+  }
+
+  @Test
+  void findsThreadsOverlappingATime() {
+    var threads = new ArrayList<DiscordThread>();
+    for (var i = 0; i < 10; i++) {
+      threads.add(thread("early-" + i, "Room " + i, 0, 100));
+    }
+    threads.add(thread("b", "Room 2", 150, 300));
+    threads.add(thread("a", "Room 1", 150, 250));
+    for (var i = 0; i < 10; i++) {
+      threads.add(thread("late-" + i, "Room " + i, 400, 500));
+    }
+    var snapshot = new ProgrammeSnapshot(threads);
+
+    // Fewer items have started than have not ended, so the start index is scanned.
+    assertEquals(List.of(), ids(snapshot.overlapping(0, 100)));
+    assertEquals(List.of("a", "b"), ids(snapshot.overlapping(200, 200)));
+    // Fewer items have not ended than have started, so the end index is scanned.
+    assertEquals(List.of("b"), ids(snapshot.overlapping(300, 250)));
+    assertEquals(List.of("late-0", "late-1"), ids(snapshot.overlapping(400, 450)).subList(0, 2));
+  }
+
+  @Test
+  void loadsEveryThreadFromTheDatabase() throws Exception {
+    var databaseManager = new DatabaseManager(tempDir.resolve("test.db").toString());
+    databaseManager.init();
+    try (var conn = databaseManager.getConnection()) {
+      conn.insertDiscordThread(thread("a", "Room 1", 100, 200));
+      conn.insertDiscordThread(thread("b", "Room 2", 50, 200));
+
+      var snapshot = ProgrammeSnapshot.load(conn);
+
+      assertEquals(List.of("b", "a"), ids(snapshot.all()));
+      assertEquals(Optional.of(thread("a", "Room 1", 100, 200)), snapshot.get("a"));
+      assertTrue(snapshot.get("c").isEmpty());
+    }
+  }
+
+  private static DiscordThread thread(String id, String loc, long start, long end) {
+    return new DiscordThread(
+        Optional.of("thread-" + id),
+        Optional.of("message-" + id),
+        Status.SCHEDULED,
+        new DiscordItem(id, "Item " + id, "Description", loc, start, end));
+  }
+
+  private static List<String> ids(List<DiscordThread> discordThreads) {
+    return discordThreads.stream().map(t -> t.item().id()).toList();
+  }
+}
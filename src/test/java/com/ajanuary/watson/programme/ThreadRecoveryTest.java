@@ -0,0 +1,78 @@
+package com.ajanuary.watson.programme;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.ajanuary.watson.programme.ThreadRecovery.Match;
+import com.ajanuary.watson.programme.channelnameresolvers.LocChannelNameResolver;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class ThreadRecoveryTest {
+
+  private static final ZoneId TIMEZONE = ZoneId.of("Europe/London");
+  private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("EEE");
+
+  private final LocChannelNameResolver channelNameResolver =
+      new LocChannelNameResolver(Map.of("Room 1", "programme"));
+
+  @Test
+  void usesTheDayToTellApartTheSameTitleAtTheSameTimeInTheSameChannel() {
+    var friday = item("friday", ZonedDateTime.of(2025, 8, 8, 10, 0, 0, 0, TIMEZONE));
+    var saturday = item("saturday", ZonedDateTime.of(2025, 8, 9, 10, 0, 0, 0, TIMEZONE));
+    var itemsByStartTime = Map.of("10:00", List.of(friday, saturday));
+
+    assertEquals(
+        Optional.of(new Match(saturday, Status.UPDATED)),
+        match(day(saturday) + " 10:00 Panel [UPDATED]", itemsByStartTime));
+    assertEquals(
+        Optional.of(new Match(friday, Status.SCHEDULED)),
+        match(day(friday) + " 10:00 Panel", itemsByStartTime));
+  }
+
+  @Test
+  void doesNotMatchAnItemOnADifferentDay() {
+    var friday = item("friday", ZonedDateTime.of(2025, 8, 8, 10, 0, 0, 0, TIMEZONE));
+    var saturday = ZonedDateTime.of(2025, 8, 9, 10, 0, 0, 0, TIMEZONE);
+
+    assertEquals(
+        Optional.empty(),
+        match(saturday.format(DAY_FORMATTER) + " 10:00 Panel", Map.of("10:00", List.of(friday))));
+  }
+
+  @Test
+  void matchesTitlesWithoutADay() {
+    var friday = item("friday", ZonedDateTime.of(2025, 8, 8, 10, 0, 0, 0, TIMEZONE));
+
+    assertEquals(
+        Optional.of(new Match(friday, Status.SCHEDULED)),
+        match("10:00 Panel", Map.of("10:00", List.of(friday))));
+  }
+
+  private Optional<Match> match(
+      String threadName, Map<String, List<ProgrammeItem>> itemsByStartTime) {
+    return ThreadRecovery.match(
+        threadName, "programme", itemsByStartTime, channelNameResolver, TIMEZONE);
+  }
+
+  private static String day(ProgrammeItem item) {
+    return item.startTime(TIMEZONE).format(DAY_FORMATTER);
+  }
+
+  private static ProgrammeItem item(String id, ZonedDateTime start) {
+    return new ProgrammeItem(
+        id,
+        "Panel",
+        List.of(),
+        start.toEpochSecond(),
+        60,
+        "Room 1",
+        List.of(),
+        "Description",
+        Map.of());
+  }
+}
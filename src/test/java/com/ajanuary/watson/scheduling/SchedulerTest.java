@@ -0,0 +1,182 @@
+package com.ajanuary.watson.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SchedulerTest {
+
+  private final Timers timers = new Timers();
+  private final List<Event> due = new CopyOnWriteArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    timers.close();
+  }
+
+  @Test
+  void raisesEventsWithTheSameKeyOneAtATimeInOrder() throws Exception {
+    for (var i = 0; i < 5; i++) {
+      due.add(new Event("a", i));
+      due.add(new Event("b", i));
+    }
+    var raised = new ConcurrentHashMap<String, List<Integer>>();
+    var running = ConcurrentHashMap.<String>newKeySet();
+    var overlapped = new AtomicInteger();
+    var done = new CountDownLatch(10);
+
+    newScheduler(
+        4,
+        event -> {
+          if (!running.add(event.key())) {
+            overlapped.incrementAndGet();
+          }
+          sleep(20);
+          raised.computeIfAbsent(event.key(), k -> new CopyOnWriteArrayList<>()).add(event.seq());
+          running.remove(event.key());
+          due.remove(event);
+          done.countDown();
+        });
+
+    assertTrue(done.await(5, TimeUnit.SECONDS), "all events raised");
+    assertEquals(0, overlapped.get());
+    assertEquals(List.of(0, 1, 2, 3, 4), raised.get("a"));
+    assertEquals(List.of(0, 1, 2, 3, 4), raised.get("b"));
+  }
+
+  @Test
+  void raisesNoMoreThanTheParallelismAtOnce() throws Exception {
+    for (var i = 0; i < 12; i++) {
+      due.add(new Event("key-" + i, 0));
+    }
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    var done = new CountDownLatch(12);
+
+    newScheduler(
+        3,
+        event -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          sleep(20);
+          running.decrementAndGet();
+          due.remove(event);
+          done.countDown();
+        });
+
+    assertTrue(done.await(5, TimeUnit.SECONDS), "all events raised");
+    assertEquals(3, maxRunning.get());
+  }
+
+  @Test
+  void raisesTheEarliestWaitingEventNext() throws Exception {
+    due.add(new Event("a", 0));
+    due.add(new Event("a", 1));
+    due.add(new Event("b", 2));
+    due.add(new Event("c", 3));
+    var raised = new CopyOnWriteArrayList<Integer>();
+    var done = new CountDownLatch(4);
+
+    newScheduler(
+        1,
+        event -> {
+          raised.add(event.seq());
+          due.remove(event);
+          done.countDown();
+        });
+
+    assertTrue(done.await(5, TimeUnit.SECONDS), "all events raised");
+    assertEquals(List.of(0, 1, 2, 3), raised);
+  }
+
+  @Test
+  void doesNotBlockNotificationsWhileRaisingEvents() throws Exception {
+    due.add(new Event("a", 0));
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var raisedAgain = new CountDownLatch(1);
+
+    var scheduler =
+        newScheduler(
+            1,
+            event -> {
+              if (event.seq() == 0) {
+                started.countDown();
+                await(release);
+                due.remove(event);
+              } else {
+                due.remove(event);
+                raisedAgain.countDown();
+              }
+            });
+    assertTrue(started.await(5, TimeUnit.SECONDS), "event started");
+
+    var notifyStart = System.nanoTime();
+    due.add(new Event("a", 1));
+    scheduler.notifyOfDbChange();
+    var notifyTook = Duration.ofNanos(System.nanoTime() - notifyStart);
+    release.countDown();
+
+    assertTrue(notifyTook.toMillis() < 100, "notify took " + notifyTook.toMillis() + "ms");
+    assertTrue(raisedAgain.await(5, TimeUnit.SECONDS), "event added while raising was raised");
+  }
+
+  @Test
+  void doesNotRaiseEventsOnceStopped() throws Exception {
+    var raised = new AtomicInteger();
+    var scheduler = newScheduler(1, event -> raised.incrementAndGet());
+
+    scheduler.stop();
+    due.add(new Event("a", 0));
+    scheduler.notifyOfDbChange();
+    Thread.sleep(100);
+
+    assertEquals(0, raised.get());
+  }
+
+  private Scheduler<Event> newScheduler(int parallelism, Consumer<Event> onEvent) {
+    return new Scheduler<>(
+        "test",
+        timers,
+        TokenBucket.spacedBy(timers.clock(), Duration.ZERO),
+        parallelism,
+        Event::key,
+        () ->
+            due.isEmpty()
+                ? Optional.empty()
+                : Optional.of(ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(1)),
+        time -> new ArrayList<>(due),
+        onEvent);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private record Event(String key, int seq) {}
+}
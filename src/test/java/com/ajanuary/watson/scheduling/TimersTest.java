@@ -0,0 +1,131 @@
+package com.ajanuary.watson.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import support.TestClock;
+
+public class TimersTest {
+
+  private static final Instant START = Instant.parse("2025-08-07T10:00:00Z");
+
+  private final TestClock clock = new TestClock(START);
+  private final Timers timers = new Timers(clock);
+
+  @AfterEach
+  void tearDown() {
+    timers.close();
+  }
+
+  @Test
+  void runsJobsInDeadlineOrderOnceTheirTimeHasCome() throws Exception {
+    var ran = new CopyOnWriteArrayList<String>();
+    var done = new CountDownLatch(2);
+    timers.schedule(START.plusSeconds(20), () -> record(ran, "b", done));
+    timers.schedule(START.plusSeconds(10), () -> record(ran, "a", done));
+    timers.schedule(START.plusSeconds(30), () -> record(ran, "c", done));
+
+    clock.advance(Duration.ofSeconds(10));
+    timers.clockChanged();
+    awaitSettled();
+    assertEquals(List.of("a"), ran);
+
+    clock.advance(Duration.ofSeconds(10));
+    timers.clockChanged();
+    assertTrue(done.await(5, TimeUnit.SECONDS), "second job ran");
+    assertEquals(List.of("a", "b"), ran);
+  }
+
+  @Test
+  void doesNotRunCancelledJobs() throws Exception {
+    var ran = new AtomicInteger();
+    var timer = timers.schedule(START.plusSeconds(10), ran::incrementAndGet);
+
+    timer.cancel();
+    clock.advance(Duration.ofSeconds(10));
+    timers.clockChanged();
+    awaitSettled();
+
+    assertEquals(0, ran.get());
+    assertEquals(Optional.empty(), timer.deadline());
+  }
+
+  @Test
+  void runsRescheduledJobsAtTheirNewTime() throws Exception {
+    var ran = new CountDownLatch(1);
+    var timer = timers.schedule(START.plusSeconds(60), ran::countDown);
+
+    timer.reschedule(START.plusSeconds(10));
+    assertEquals(Optional.of(START.plusSeconds(10)), timer.deadline());
+    clock.advance(Duration.ofSeconds(10));
+    timers.clockChanged();
+
+    assertTrue(ran.await(5, TimeUnit.SECONDS), "job ran");
+  }
+
+  @Test
+  void repeatsJobsAfterTheDelay() throws Exception {
+    var ran = new AtomicInteger();
+    var timer = timers.repeat(Duration.ZERO, Duration.ofMinutes(1), ran::incrementAndGet);
+    awaitSettled();
+    assertEquals(1, ran.get());
+    assertEquals(Optional.of(START.plus(Duration.ofMinutes(1))), timer.deadline());
+
+    clock.advance(Duration.ofMinutes(1));
+    timers.clockChanged();
+    awaitSettled();
+    assertEquals(2, ran.get());
+
+    timer.cancel();
+    clock.advance(Duration.ofMinutes(1));
+    timers.clockChanged();
+    awaitSettled();
+    assertEquals(2, ran.get());
+  }
+
+  @Test
+  void keepsRunningJobsAfterOneFails() throws Exception {
+    var ran = new CountDownLatch(1);
+    timers.schedule(
+        START,
+        () -> {
+          throw new IllegalStateException("Failed");
+        });
+    timers.schedule(START, ran::countDown);
+
+    assertTrue(ran.await(5, TimeUnit.SECONDS), "job ran");
+  }
+
+  @Test
+  void doesNotRunJobsOnceClosed() throws Exception {
+    var ran = new AtomicInteger();
+    var timer = timers.schedule(START.plusSeconds(10), ran::incrementAndGet);
+
+    timers.close();
+    timer.reschedule(START);
+    timers.schedule(START, ran::incrementAndGet);
+    awaitSettled();
+
+    assertEquals(0, ran.get());
+  }
+
+  private static void record(List<String> ran, String name, CountDownLatch done) {
+    ran.add(name);
+    done.countDown();
+  }
+
+  /** Gives the timer thread a chance to run anything that's due. */
+  private static void awaitSettled() throws InterruptedException {
+    Thread.sleep(100);
+  }
+}
@@ -0,0 +1,74 @@
+package com.ajanuary.watson.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import support.TestClock;
+
+public class TokenBucketTest {
+
+  private static final Instant START = Instant.parse("2025-08-07T10:00:00Z");
+
+  private final TestClock clock = new TestClock(START);
+
+  @Test
+  void letsABurstGoStraightAwayThenSpacesOutTheRest() {
+    var bucket = new TokenBucket(clock, 10, 3);
+
+    assertEquals(START, bucket.reserve());
+    assertEquals(START, bucket.reserve());
+    assertEquals(START, bucket.reserve());
+    assertEquals(START.plusMillis(100), bucket.reserve());
+    assertEquals(START.plusMillis(200), bucket.reserve());
+  }
+
+  @Test
+  void refillsWhileUnused() {
+    var bucket = new TokenBucket(clock, 10, 2);
+    bucket.reserve();
+    bucket.reserve();
+
+    clock.advance(Duration.ofSeconds(5));
+
+    assertEquals(clock.instant(), bucket.reserve());
+    assertEquals(clock.instant(), bucket.reserve());
+    assertEquals(clock.instant().plusMillis(100), bucket.reserve());
+  }
+
+  @Test
+  void slowsDownAndWaitsWhenRateLimited() {
+    var bucket = new TokenBucket(clock, 10, 1);
+
+    bucket.rateLimited(Duration.ofSeconds(2));
+
+    assertEquals(5, bucket.tokensPerSecond());
+    assertEquals(START.plusSeconds(2), bucket.reserve());
+  }
+
+  @Test
+  void speedsBackUpAfterSucceeding() {
+    var bucket = new TokenBucket(clock, 10, 1);
+    bucket.rateLimited(Duration.ZERO);
+
+    for (var i = 0; i < 5; i++) {
+      bucket.succeeded();
+    }
+    assertEquals(7.5, bucket.tokensPerSecond(), 0.001);
+
+    for (var i = 0; i < 100; i++) {
+      bucket.succeeded();
+    }
+    assertEquals(10, bucket.tokensPerSecond());
+  }
+
+  @Test
+  void doesNotLimitWhenSpacedByNothing() {
+    var bucket = TokenBucket.spacedBy(clock, Duration.ZERO);
+
+    for (var i = 0; i < 100; i++) {
+      assertEquals(START, bucket.reserve());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.ajanuary.watson.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ajanuary.watson.programme.ProgrammeItem;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+public class SearchIndexTest {
+
+  @Test
+  void findsItemsByTitlePeopleTagsAndRoom() {
+    var index = new SearchIndex();
+    index.put(
+        item("item-1", "Writing Space Opera", 0, "Room 1", "Jane Doe", "Literature"), thread("1"));
+    index.put(item("item-2", "Painting Dragons", 0, "Room 2", "John Smith", "Art"), thread("2"));
+
+    assertEquals(List.of("item-1"), itemIds(index.search("opera", 10)));
+    assertEquals(List.of("item-2"), itemIds(index.search("John Smith", 10)));
+    assertEquals(List.of("item-1"), itemIds(index.search("literature", 10)));
+    assertEquals(List.of("item-2"), itemIds(index.search("room 2", 10)));
+    assertEquals(List.of(), itemIds(index.search("opera art", 10)));
+  }
+
+  @Test
+  void matchesEveryWordAsAPrefix() {
+    var index = new SearchIndex();
+    index.put(
+        item("item-1", "Writing Space Opera", 0, "Room 1", "Jane Doe", "Literature"), thread("1"));
+
+    assertEquals(List.of("item-1"), itemIds(index.search("wri spa", 10)));
+    assertEquals(List.of(), itemIds(index.search("riting", 10)));
+  }
+
+  @Test
+  void ranksTitleMatchesFirstThenByStartTime() {
+    var index = new SearchIndex();
+    index.put(item("item-1", "Late dragons", 200, "Room 1", "Jane Doe", "Art"), thread("1"));
+    index.put(item("item-2", "Early dragons", 100, "Room 1", "Jane Doe", "Art"), thread("2"));
+    index.put(item("item-3", "Knights", 0, "Room 1", "Jane Doe", "Dragons"), thread("3"));
+
+    assertEquals(List.of("item-2", "item-1", "item-3"), itemIds(index.search("dragons", 10)));
+    assertEquals(List.of("item-2"), itemIds(index.search("dragons", 1)));
+  }
+
+  @Test
+  void linksToTheItemsThread() {
+    var index = new SearchIndex();
+    index.put(
+        item("item-1", "Writing Space Opera", 0, "Room 1", "Jane Doe", "Literature"),
+        thread("123"));
+
+    assertEquals(Optional.of("123"), index.search("opera", 10).get(0).discordThreadId());
+  }
+
+  @Test
+  void linksToTheNewThreadOfARecreatedPost() {
+    var index = new SearchIndex();
+    index.put(
+        item("item-1", "Writing Space Opera", 0, "Room 1", "Jane Doe", "Literature"),
+        thread("123"));
+
+    index.setDiscordThreadId("item-1", thread("456"));
+
+    assertEquals(Optional.of("456"), index.search("opera", 10).get(0).discordThreadId());
+    assertEquals(Optional.of("456"), index.get("item-1").get().discordThreadId());
+  }
+
+  @Test
+  void forgetsWhatWasIndexedForAnItemBefore() {
+    var index = new SearchIndex();
+    index.put(
+        item("item-1", "Writing Space Opera", 0, "Room 1", "Jane Doe", "Literature"), thread("1"));
+    index.put(item("item-2", "Painting Dragons", 0, "Room 2", "John Smith", "Art"), thread("2"));
+
+    index.put(
+        item("item-1", "Writing Fantasy", 0, "Room 1", "Jane Doe", "Literature"), thread("1"));
+    index.retainOnly(Set.of("item-1"));
+
+    assertEquals(List.of(), itemIds(index.search("opera", 10)));
+    assertEquals(List.of(), itemIds(index.search("dragons", 10)));
+    assertEquals(List.of("item-1"), itemIds(index.search("fantasy", 10)));
+  }
+
+  /** Run with {@code -Dwatson.benchmark=true}. */
+  @Test
+  @EnabledIfSystemProperty(named = "watson.benchmark", matches = "true")
+  void answersQuicklyForALargeProgramme() {
+    var index = new SearchIndex();
+    for (var i = 0; i < 20_000; i++) {
+      index.put(
+          item(
+              "item-" + i,
+              "Item number " + i + " about " + List.of("dragons", "space", "knitting").get(i % 3),
+              i,
+              "Room " + i % 40,
+              "Person " + i % 2000,
+              "Track " + i % 10),
+          thread(String.valueOf(i)));
+    }
+
+    var slowestMillis = 0L;
+    for (var query : List.of("d", "1", "space room 1", "item number 19999", "person 1 track")) {
+      var start = System.nanoTime();
+      var results = index.search(query, 25);
+      slowestMillis = Math.max(slowestMillis, (System.nanoTime() - start) / 1_000_000);
+      assertTrue(!results.isEmpty(), "found something for '" + query + "'");
+    }
+
+    // Well under the 3 seconds Discord gives us to reply, even for the broadest prefixes.
+    assertTrue(slowestMillis < 500, "slowest search took " + slowestMillis + "ms");
+  }
+
+  private static ProgrammeItem item(
+      String id, String title, long start, String loc, String person, String tag) {
+    return new ProgrammeItem(
+        id, title, List.of(tag), start, 60, loc, List.of(person), "Some description", Map.of());
+  }
+
+  private static Optional<String> thread(String id) {
+    return Optional.of(id);
+  }
+
+  private static List<String> itemIds(List<SearchIndex.Result> results) {
+    return results.stream().map(SearchIndex.Result::itemId).toList();
+  }
+}
@@ -0,0 +1,172 @@
+package support;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.forums.ForumPost;
+import net.dv8tion.jda.api.entities.channel.unions.IThreadContainerUnion;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.managers.channel.concrete.ThreadChannelManager;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.api.requests.restaction.ForumPostAction;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.MessageEditAction;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+
+/**
+ * An in-memory stand in for the parts of Discord the programme module uses: forum posts, thread
+ * edits and messages to text channels. Every completed request is counted, so tests can see how
+ * much work a change caused.
+ */
+@SuppressWarnings("unchecked")
+public class FakeDiscord {
+  private final AtomicLong nextId = new AtomicLong(1_000_000_000_000_000L);
+  private final AtomicInteger apiCalls = new AtomicInteger();
+  private volatile int failFrom = Integer.MAX_VALUE;
+  private final Map<String, ThreadChannel> threads = new ConcurrentHashMap<>();
+  private final Map<String, AtomicReference<String>> threadNames = new ConcurrentHashMap<>();
+  private final JDA jda = mock(JDA.class);
+  private final Guild guild = mock(Guild.class);
+
+  public FakeDiscord(String guildId) {
+    when(jda.getGuildById(guildId)).thenReturn(guild);
+    when(jda.getThreadChannelById(anyString()))
+        .thenAnswer(i -> threads.get(i.<String>getArgument(0)));
+  }
+
+  public FakeDiscord withTextChannel(String name) {
+    var channel = mock(TextChannel.class);
+    when(channel.getName()).thenReturn(name);
+    when(channel.sendMessage(any(MessageCreateData.class)))
+        .thenAnswer(i -> counted(MessageCreateAction.class, () -> mock(Message.class)));
+    when(guild.getTextChannelsByName(eq(name), anyBoolean())).thenReturn(List.of(channel));
+    return this;
+  }
+
+  public FakeDiscord withForumChannel(String name) {
+    var channel = mock(ForumChannel.class);
+    when(channel.getName()).thenReturn(name);
+    when(channel.getType()).thenReturn(ChannelType.FORUM);
+    when(channel.createForumPost(anyString(), any(MessageCreateData.class)))
+        .thenAnswer(
+            i ->
+                counted(
+                    ForumPostAction.class, () -> createPost(channel, i.getArgument(0))));
+    when(guild.getForumChannelsByName(eq(name), anyBoolean())).thenReturn(List.of(channel));
+    return this;
+  }
+
+  /** Makes every request after the next {@code numCalls} fail, until {@link #recover} is called. */
+  public FakeDiscord failAfter(int numCalls) {
+    failFrom = apiCalls.get() + numCalls;
+    return this;
+  }
+
+  public FakeDiscord recover() {
+    failFrom = Integer.MAX_VALUE;
+    return this;
+  }
+
+  public JDA jda() {
+    return jda;
+  }
+
+  public int apiCalls() {
+    return apiCalls.get();
+  }
+
+  public int threadCount() {
+    return threads.size();
+  }
+
+  public Optional<String> threadName(String threadId) {
+    return Optional.ofNullable(threadNames.get(threadId)).map(AtomicReference::get);
+  }
+
+  private ForumPost createPost(ForumChannel forum, String title) {
+    var id = String.valueOf(nextId.incrementAndGet());
+    var name = new AtomicReference<>(title);
+
+    var parent = mock(IThreadContainerUnion.class);
+    when(parent.asForumChannel()).thenReturn(forum);
+
+    var manager = mock(ThreadChannelManager.class, RETURNS_SELF);
+    when(manager.setName(anyString()))
+        .thenAnswer(
+            i -> {
+              name.set(i.getArgument(0));
+              return manager;
+            });
+    when(manager.setAppliedTags(anyCollection())).thenReturn(manager);
+    when(manager.complete()).thenAnswer(i -> countCall(() -> null));
+
+    var thread = mock(ThreadChannel.class);
+    when(thread.getId()).thenReturn(id);
+    when(thread.getIdLong()).thenReturn(Long.parseLong(id));
+    when(thread.getName()).thenAnswer(i -> name.get());
+    when(thread.getParentChannel()).thenReturn(parent);
+    when(thread.getManager()).thenReturn(manager);
+    when(thread.editMessageById(anyString(), any(CharSequence.class)))
+        .thenAnswer(i -> counted(MessageEditAction.class, () -> mock(Message.class)));
+    when(thread.sendMessage(any(CharSequence.class)))
+        .thenAnswer(i -> counted(MessageCreateAction.class, () -> mock(Message.class)));
+    when(thread.sendMessage(any(MessageCreateData.class)))
+        .thenAnswer(i -> counted(MessageCreateAction.class, () -> mock(Message.class)));
+    when(thread.delete())
+        .thenAnswer(
+            i ->
+                counted(
+                    AuditableRestAction.class,
+                    () -> {
+                      threads.remove(id);
+                      threadNames.remove(id);
+                      return null;
+                    }));
+
+    // The starter message of a forum post has the same id as the post itself.
+    var message = mock(Message.class);
+    when(message.getId()).thenReturn(id);
+    when(message.addReaction(any(Emoji.class)))
+        .thenAnswer(i -> counted(RestAction.class, () -> null));
+
+    threads.put(id, thread);
+    threadNames.put(id, name);
+    return new ForumPost(message, thread);
+  }
+
+  private <T extends RestAction<?>> T counted(Class<T> clazz, Supplier<?> result) {
+    var action = mock(clazz, RETURNS_SELF);
+    when(action.complete()).thenAnswer(i -> countCall(result));
+    return action;
+  }
+
+  private <R> R countCall(Supplier<R> result) {
+    if (apiCalls.get() >= failFrom) {
+      throw new IllegalStateException("Discord is unavailable");
+    }
+    apiCalls.incrementAndGet();
+    return result.get();
+  }
+}
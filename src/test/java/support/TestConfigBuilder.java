@@ -5,6 +5,9 @@ import com.ajanuary.watson.api.ApiConfig;
 import com.ajanuary.watson.config.Config;
 import com.ajanuary.watson.membership.MembershipConfig;
 import com.ajanuary.watson.programme.ProgrammeConfig;
+import com.ajanuary.watson.programme.ProgrammeConfig.ConflictPolicy;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedArchiveConfig;
+import com.ajanuary.watson.programme.ProgrammeConfig.FeedSource;
 import com.ajanuary.watson.programme.ProgrammeConfig.Link;
 import com.ajanuary.watson.programme.ProgrammeConfig.Location;
 import com.ajanuary.watson.programme.ProgrammeConfig.NowOnConfig;
@@ -12,6 +15,7 @@ import com.ajanuary.watson.programme.channelnameresolvers.ChannelNameResolver;
 import com.ajanuary.watson.programme.channelnameresolvers.DayChannelNameResolver;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.temporal.TemporalAmount;
@@ -44,9 +48,12 @@ public class TestConfigBuilder {
         timezone,
         Optional.ofNullable(alarmsConfigBuilder).map(TestAlarmsConfigBuilder::build),
         Optional.ofNullable(apiConfigBuilder).map(TestApiConfigBuilder::build),
+        Optional.empty(),
+        Optional.empty(),
         Optional.ofNullable(membershipConfigBuilder).map(TestMembershipConfigBuilder::build),
         Optional.empty(),
-        Optional.ofNullable(programmeConfigBuilder).map(TestProgrammeConfigBuilder::build));
+        Optional.ofNullable(programmeConfigBuilder).map(TestProgrammeConfigBuilder::build),
+        Optional.empty());
   }
 
   public TestConfigBuilder withDiscordBotToken(String discordBotToken) {
@@ -132,10 +139,20 @@ public class TestConfigBuilder {
     private TemporalAmount timeBeforeToNotify = Duration.ofMinutes(5);
     private TemporalAmount maxTimeAfterToNotify = Duration.ofMinutes(15);
     private TemporalAmount minTimeBetweenDMs = Duration.ofSeconds(0, 500000000);
+    private TemporalAmount dmCoalesceWindow = Duration.ZERO;
+    private int maxDMBurst = 1;
+    private int maxConcurrentDMs = 1;
 
     public AlarmsConfig build() {
       return new AlarmsConfig(
-          alarmsEmoji, alarmsChannel, timeBeforeToNotify, maxTimeAfterToNotify, minTimeBetweenDMs);
+          alarmsEmoji,
+          alarmsChannel,
+          timeBeforeToNotify,
+          maxTimeAfterToNotify,
+          minTimeBetweenDMs,
+          dmCoalesceWindow,
+          maxDMBurst,
+          maxConcurrentDMs);
     }
 
     public TestAlarmsConfigBuilder withAlarmsEmoji(Emoji alarmsEmoji) {
@@ -162,6 +179,21 @@ public class TestConfigBuilder {
       this.minTimeBetweenDMs = minTimeBetweenDMs;
       return this;
     }
+
+    public TestAlarmsConfigBuilder withDmCoalesceWindow(TemporalAmount dmCoalesceWindow) {
+      this.dmCoalesceWindow = dmCoalesceWindow;
+      return this;
+    }
+
+    public TestAlarmsConfigBuilder withMaxDMBurst(int maxDMBurst) {
+      this.maxDMBurst = maxDMBurst;
+      return this;
+    }
+
+    public TestAlarmsConfigBuilder withMaxConcurrentDMs(int maxConcurrentDMs) {
+      this.maxConcurrentDMs = maxConcurrentDMs;
+      return this;
+    }
   }
 
   public static class TestApiConfigBuilder {
@@ -223,7 +255,8 @@ public class TestConfigBuilder {
 
   public static class TestProgrammeConfigBuilder {
     private URI programmeApiRoot = URI.create("https://example.com/some-api-root");
-    private URI assignDiscordPostsApiUrl = URI.create("https://example.com/some-api-root");
+    private Optional<URI> assignDiscordPostsApiUrl =
+        Optional.of(URI.create("https://example.com/some-api-root"));
     private String majorAnnouncementChannel = "some-major-announcement-channel";
     private Optional<NowOnConfig> nowOnConfig = Optional.empty();
     private ChannelNameResolver channelNameResolver = new DayChannelNameResolver(
@@ -232,17 +265,22 @@ public class TestConfigBuilder {
     private List<Link> links = new ArrayList<>();
     private List<Location> locations = new ArrayList<>();
     private boolean hasPerformedFirstLoad = true;
+    private Optional<FeedArchiveConfig> feedArchive = Optional.empty();
 
     public ProgrammeConfig build() {
       return new ProgrammeConfig(
-          programmeApiRoot,
-          Optional.of(assignDiscordPostsApiUrl),
+          List.of(
+              new FeedSource("programme", programmeApiRoot, Optional.empty(), Optional.empty())),
+          ConflictPolicy.FIRST,
+          assignDiscordPostsApiUrl,
+          false,
           majorAnnouncementChannel,
           nowOnConfig,
           channelNameResolver,
           links,
           locations,
-          hasPerformedFirstLoad);
+          hasPerformedFirstLoad,
+          feedArchive);
     }
 
     public TestProgrammeConfigBuilder withProgrammeApiRoot(URI programmeApiRoot) {
@@ -251,7 +289,12 @@ public class TestConfigBuilder {
     }
 
     public TestProgrammeConfigBuilder withAssignDiscordPostsApiUrl(URI assignDiscordPostsApiUrl) {
-      this.assignDiscordPostsApiUrl = assignDiscordPostsApiUrl;
+      this.assignDiscordPostsApiUrl = Optional.of(assignDiscordPostsApiUrl);
+      return this;
+    }
+
+    public TestProgrammeConfigBuilder withNoAssignDiscordPostsApiUrl() {
+      this.assignDiscordPostsApiUrl = Optional.empty();
       return this;
     }
 
@@ -279,6 +322,11 @@ public class TestConfigBuilder {
       return this;
     }
 
+    public TestProgrammeConfigBuilder withFeedArchive(Path path, int maxEntries) {
+      this.feedArchive = Optional.of(new FeedArchiveConfig(path, maxEntries));
+      return this;
+    }
+
     public TestProgrammeConfigBuilder withLink(String name, String url) {
       links.add(new Link(name, url));
       return this;
@@ -294,9 +342,10 @@ public class TestConfigBuilder {
     private String channel = "some-channel";
     private TemporalAmount timeBeforeToAdd = Duration.ofMinutes(5);
     private TemporalAmount timeAfterToKeep = Duration.ofMinutes(15);
+    private NowOnConfig.Mode mode = NowOnConfig.Mode.MESSAGES;
 
     public NowOnConfig build() {
-      return new NowOnConfig(channel, timeBeforeToAdd, timeAfterToKeep);
+      return new NowOnConfig(channel, timeBeforeToAdd, timeAfterToKeep, mode);
     }
 
     public TestNowOnConfigBuilder withChannel(String channel) {
@@ -313,5 +362,10 @@ public class TestConfigBuilder {
       this.timeAfterToKeep = timeAfterToKeep;
       return this;
     }
+
+    public TestNowOnConfigBuilder withMode(NowOnConfig.Mode mode) {
+      this.mode = mode;
+      return this;
+    }
   }
 }